@@ -0,0 +1,525 @@
+/**********************************************************************
+ * 	BeanRowMapper.java
+ *
+ *  ѽÿһתΪһJavaBean
+ *
+ *  ʱݽϢһȷÿԶӦкšȡֵķʽдԵķ
+ *  תʱֻкŶȡֱӵãٰңҲͨ
+ *  췽publicsetterͨLambdaMetafactoryʵSetterӿڵ࣬дһǽӿڵã
+ *  ֶκͲɵsetter˻صMethodHandle
+ *  ɵ಻ᱻжأÿֻһΣACCESSORSתãתֻкźͶ
+ *  int/long/double/booleanֱԻд룬װ
+ *
+ *  ȽʱִСд»ߣuser_nameӦuserName
+ *  ͨsetXxxд룬ûsetterʱֱдͬķfinalֶΣûжӦԵб
+ *  ͨ޲ι췽
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandleInfo;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+public final class BeanRowMapper<T> implements RowMapper<T> {
+
+	/* ȡֵķʽǰֱַʹIntSetter/LongSetter/DoubleSetter/BooleanSetterʹObjectSetter */
+	private static final byte READ_INT = 0;
+	private static final byte READ_LONG = 1;
+	private static final byte READ_DOUBLE = 2;
+	private static final byte READ_BOOLEAN = 3;
+	private static final byte READ_INT_BOXED = 4;
+	private static final byte READ_LONG_BOXED = 5;
+	private static final byte READ_DOUBLE_BOXED = 6;
+	private static final byte READ_BOOLEAN_BOXED = 7;
+	private static final byte READ_STRING = 8;
+	private static final byte READ_BIG_DECIMAL = 9;
+	private static final byte READ_TIMESTAMP = 10;
+	private static final byte READ_BYTES = 11;
+	private static final byte READ_OBJECT = 12;
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	/* ÿ͵ĹԵSetterһõʱɣ֮Ϊʹתµ */
+	private static final ClassValue<Accessors> ACCESSORS = new ClassValue<Accessors>() {
+		@Override
+		protected Accessors computeValue(Class<?> type) {
+			return new Accessors(type);
+		}
+	};
+
+	private final Class<T> type;
+	private final Factory factory;				//
+	private final String[] labels;				//ʱжܷһ
+	private final int[] columns;				//ÿӳк
+	private final byte[] reads;					//ÿӳȡֵķʽ
+	private final Object[] setters;				//ÿӳдԵķȡʽӦ
+
+
+	private BeanRowMapper(Class<T> type,Factory factory,String[] labels,int[] columns,byte[] reads,Object[] setters){
+		this.type = type;
+		this.factory = factory;
+		this.labels = labels;
+		this.columns = columns;
+		this.reads = reads;
+		this.setters = setters;
+	}
+
+
+	/* ݽϢtypeתtype޲ι췽 */
+	public static <T> BeanRowMapper<T> create(Class<T> type,ResultSetMetaData meta) throws SQLException {
+
+		Accessors accessors = ACCESSORS.get(type);
+		HashSet<String> mappedNames = new HashSet<String>();
+
+		int columnCount = meta.getColumnCount();
+		String[] labels = new String[columnCount];
+		int[] columns = new int[columnCount];
+		byte[] reads = new byte[columnCount];
+		Object[] setters = new Object[columnCount];
+		int mapped = 0;
+
+		for(int c = 1;c <= columnCount;c++){
+
+			labels[c - 1] = meta.getColumnLabel(c);
+
+			/* ͬʱֻӳһ */
+			String name = normalize(labels[c - 1]);
+			Property property = accessors.properties.get(name);
+			if(property == null || !mappedNames.add(name)){
+				continue;
+			}
+
+			columns[mapped] = c;
+			reads[mapped] = property.read;
+			setters[mapped] = property.setter;
+			mapped++;
+		}
+
+		return new BeanRowMapper<T>(type, accessors.factory, labels,
+				Arrays.copyOf(columns, mapped),
+				Arrays.copyOf(reads, mapped),
+				Arrays.copyOf(setters, mapped));
+	}
+
+
+	/* жתǷmetaĽе˳Ƿͬ */
+	public boolean matches(ResultSetMetaData meta) throws SQLException {
+
+		if(meta.getColumnCount() != labels.length){
+			return false;
+		}
+		for(int c = 1;c <= labels.length;c++){
+			if(!labels[c - 1].equals(meta.getColumnLabel(c))){
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/* תĿ */
+	public Class<T> getType() {
+		return type;
+	}
+
+
+	/* ѵǰתΪ */
+	@Override
+	@SuppressWarnings("unchecked")
+	public T mapRow(ResultSet rs) throws SQLException {
+
+		Object bean = factory.create();
+
+		for(int i = 0;i < columns.length;i++){
+
+			int c = columns[i];
+			Object setter = setters[i];
+
+			switch(reads[i]){
+				case READ_INT:
+					((IntSetter)setter).set(bean, rs.getInt(c));
+					break;
+				case READ_LONG:
+					((LongSetter)setter).set(bean, rs.getLong(c));
+					break;
+				case READ_DOUBLE:
+					((DoubleSetter)setter).set(bean, rs.getDouble(c));
+					break;
+				case READ_BOOLEAN:
+					((BooleanSetter)setter).set(bean, rs.getBoolean(c));
+					break;
+				case READ_INT_BOXED:
+					int intValue = rs.getInt(c);
+					((ObjectSetter)setter).set(bean, rs.wasNull() ? null : Integer.valueOf(intValue));
+					break;
+				case READ_LONG_BOXED:
+					long longValue = rs.getLong(c);
+					((ObjectSetter)setter).set(bean, rs.wasNull() ? null : Long.valueOf(longValue));
+					break;
+				case READ_DOUBLE_BOXED:
+					double doubleValue = rs.getDouble(c);
+					((ObjectSetter)setter).set(bean, rs.wasNull() ? null : Double.valueOf(doubleValue));
+					break;
+				case READ_BOOLEAN_BOXED:
+					boolean booleanValue = rs.getBoolean(c);
+					((ObjectSetter)setter).set(bean, rs.wasNull() ? null : Boolean.valueOf(booleanValue));
+					break;
+				case READ_STRING:
+					((ObjectSetter)setter).set(bean, rs.getString(c));
+					break;
+				case READ_BIG_DECIMAL:
+					((ObjectSetter)setter).set(bean, rs.getBigDecimal(c));
+					break;
+				case READ_TIMESTAMP:
+					((ObjectSetter)setter).set(bean, rs.getTimestamp(c));
+					break;
+				case READ_BYTES:
+					((ObjectSetter)setter).set(bean, rs.getBytes(c));
+					break;
+				default:
+					((ObjectSetter)setter).set(bean, rs.getObject(c));
+					break;
+			}
+		}
+
+		return (T)bean;
+	}
+
+
+	/* ;ȡֵķʽ */
+	private static byte readOf(Class<?> propertyType) {
+
+		if(propertyType == int.class)			return READ_INT;
+		if(propertyType == long.class)			return READ_LONG;
+		if(propertyType == double.class)		return READ_DOUBLE;
+		if(propertyType == boolean.class)		return READ_BOOLEAN;
+		if(propertyType == Integer.class)		return READ_INT_BOXED;
+		if(propertyType == Long.class)			return READ_LONG_BOXED;
+		if(propertyType == Double.class)		return READ_DOUBLE_BOXED;
+		if(propertyType == Boolean.class)		return READ_BOOLEAN_BOXED;
+		if(propertyType == String.class)		return READ_STRING;
+		if(propertyType == BigDecimal.class)	return READ_BIG_DECIMAL;
+		if(propertyType == Timestamp.class)		return READ_TIMESTAMP;
+		if(propertyType == byte[].class)		return READ_BYTES;
+
+		/* getObjectȡMethodHandleתͣͻԶ */
+		return READ_OBJECT;
+	}
+
+
+	/* ޲ι췽 */
+	private static MethodHandle findConstructor(Class<?> type) {
+
+		try {
+			Constructor<?> constructor = type.getDeclaredConstructor();
+			makeAccessible(constructor);
+			return LOOKUP.unreflectConstructor(constructor);
+		}
+		catch (NoSuchMethodException e) {
+			throw new RuntimeException("BeanRowMapper" + type.getName() + " û޲ι췽");
+		}
+		catch (IllegalAccessException e) {
+			throw new RuntimeException("BeanRowMapperܷ " + type.getName() + " Ĺ췽");
+		}
+	}
+
+
+	/* пдԣع淶дԵMethodHandleΪ(,ֵ)ӳ */
+	private static HashMap<String, MethodHandle> findProperties(Class<?> type) {
+
+		HashMap<String, MethodHandle> properties = new HashMap<String, MethodHandle>();
+
+		/* ռֶΣֶ */
+		for(Class<?> c = type;c != null && c != Object.class;c = c.getSuperclass()){
+			for(Field field : c.getDeclaredFields()){
+
+				int modifiers = field.getModifiers();
+				if(Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)){
+					continue;
+				}
+
+				String name = normalize(field.getName());
+				if(properties.containsKey(name)){
+					continue;
+				}
+
+				try {
+					makeAccessible(field);
+					properties.put(name, LOOKUP.unreflectSetter(field));
+				}
+				catch (IllegalAccessException e) {
+					//ܷʵֶβӳ
+				}
+			}
+		}
+
+		/* ռsettersetterԸֶͬ */
+		for(Method method : type.getMethods()){
+
+			String methodName = method.getName();
+			if(methodName.length() <= 3 || !methodName.startsWith("set")
+					|| method.getParameterTypes().length != 1 || Modifier.isStatic(method.getModifiers())){
+				continue;
+			}
+
+			try {
+				makeAccessible(method);
+				properties.put(normalize(methodName.substring(3)), LOOKUP.unreflect(method));
+			}
+			catch (IllegalAccessException e) {
+				//ܷʵsetterӳ
+			}
+		}
+
+		return properties;
+	}
+
+
+	/* Ĺֱӵù췽 */
+	private static Factory createFactory(Class<?> type,MethodHandle constructor) {
+
+		Object factory = generate(Factory.class, "create", MethodType.methodType(Object.class),
+				constructor, MethodType.methodType(type));
+		if(factory != null){
+			return (Factory)factory;
+		}
+		return new MethodHandleAccessor(constructor.asType(MethodType.methodType(Object.class)));
+	}
+
+
+	/* дԵķȡʽӦSetterӿڵʵֱ֣ӵsetter */
+	private static Object createSetter(Class<?> type,MethodHandle setter,byte read) {
+
+		Class<?> propertyType = setter.type().parameterType(1);
+
+		Class<?> setterInterface;
+		Class<?> argumentType;
+		switch(read){
+			case READ_INT:		setterInterface = IntSetter.class;		argumentType = int.class;		break;
+			case READ_LONG:		setterInterface = LongSetter.class;		argumentType = long.class;		break;
+			case READ_DOUBLE:	setterInterface = DoubleSetter.class;	argumentType = double.class;	break;
+			case READ_BOOLEAN:	setterInterface = BooleanSetter.class;	argumentType = boolean.class;	break;
+			default:			setterInterface = ObjectSetter.class;	argumentType = Object.class;	break;
+		}
+
+		/* ͵getObjectȡʱҪ䣬ֻMethodHandleת */
+		if(!propertyType.isPrimitive() || argumentType != Object.class){
+			Object generated = generate(setterInterface, "set", MethodType.methodType(void.class, Object.class, argumentType),
+					setter, MethodType.methodType(void.class, type, propertyType));
+			if(generated != null){
+				return generated;
+			}
+		}
+
+		return new MethodHandleAccessor(setter.asType(MethodType.methodType(void.class, Object.class, argumentType)));
+	}
+
+
+	/* ͨLambdaMetafactoryʵfunctionalInterfaceֱӵimplementationʵ
+	 * implementationǷ췽ֶΣ߲ʱnull */
+	private static Object generate(Class<?> functionalInterface,String methodName,MethodType methodType,
+			MethodHandle implementation,MethodType instantiatedType) {
+
+		try {
+			MethodHandleInfo info = LOOKUP.revealDirect(implementation);
+			int kind = info.getReferenceKind();
+			if(kind != MethodHandleInfo.REF_invokeVirtual && kind != MethodHandleInfo.REF_invokeInterface
+					&& kind != MethodHandleInfo.REF_newInvokeSpecial){
+				return null;
+			}
+
+			CallSite site = LambdaMetafactory.metafactory(LOOKUP, methodName, MethodType.methodType(functionalInterface),
+					methodType, implementation, instantiatedType);
+			return site.getTarget().invoke();
+		}
+		catch (Throwable e) {
+			return null;
+		}
+	}
+
+
+	/* publicҪȡʼȡMethodHandleȡʱķʹ */
+	private static void makeAccessible(AccessibleObject object) {
+
+		try {
+			object.setAccessible(true);
+		}
+		catch (RuntimeException e) {
+			//ͬһģûпţķʹ
+		}
+	}
+
+
+	/* 淶ԴСд» */
+	private static String normalize(String name) {
+
+		StringBuilder sb = new StringBuilder(name.length());
+		for(int i = 0;i < name.length();i++){
+			char ch = name.charAt(i);
+			if(ch != '_'){
+				sb.append(Character.toLowerCase(ch));
+			}
+		}
+		return sb.toString();
+	}
+
+
+
+	/* һ͵Ĺпдԣ淶 */
+	private static final class Accessors {
+
+		private final Factory factory;
+		private final HashMap<String, Property> properties = new HashMap<String, Property>();
+
+		Accessors(Class<?> type){
+
+			factory = createFactory(type, findConstructor(type));
+
+			for(Map.Entry<String, MethodHandle> entry : findProperties(type).entrySet()){
+				MethodHandle setter = entry.getValue();
+				byte read = readOf(setter.type().parameterType(1));
+				properties.put(entry.getKey(), new Property(read, createSetter(type, setter, read)));
+			}
+		}
+	}
+
+
+	/* һԶȡֵķʽдԵķ */
+	private static final class Property {
+
+		private final byte read;
+		private final Object setter;
+
+		Property(byte read,Object setter){
+			this.read = read;
+			this.setter = setter;
+		}
+	}
+
+
+	/* ԼдԵĽӿڣLambdaMetafactoryʵ */
+	private interface Factory {
+		Object create();
+	}
+
+	private interface IntSetter {
+		void set(Object bean,int value);
+	}
+
+	private interface LongSetter {
+		void set(Object bean,long value);
+	}
+
+	private interface DoubleSetter {
+		void set(Object bean,double value);
+	}
+
+	private interface BooleanSetter {
+		void set(Object bean,boolean value);
+	}
+
+	private interface ObjectSetter {
+		void set(Object bean,Object value);
+	}
+
+
+	/* ʱͨMethodHandleãhandleѾתΪӦӿڷ */
+	private static final class MethodHandleAccessor implements Factory,IntSetter,LongSetter,DoubleSetter,BooleanSetter,ObjectSetter {
+
+		private final MethodHandle handle;
+
+		MethodHandleAccessor(MethodHandle handle){
+			this.handle = handle;
+		}
+
+		@Override
+		public Object create() {
+			try {
+				return handle.invokeExact();
+			}
+			catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		@Override
+		public void set(Object bean,int value) {
+			try {
+				handle.invokeExact(bean, value);
+			}
+			catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		@Override
+		public void set(Object bean,long value) {
+			try {
+				handle.invokeExact(bean, value);
+			}
+			catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		@Override
+		public void set(Object bean,double value) {
+			try {
+				handle.invokeExact(bean, value);
+			}
+			catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		@Override
+		public void set(Object bean,boolean value) {
+			try {
+				handle.invokeExact(bean, value);
+			}
+			catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		@Override
+		public void set(Object bean,Object value) {
+			try {
+				handle.invokeExact(bean, value);
+			}
+			catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		private static RuntimeException rethrow(Throwable e) {
+			if(e instanceof RuntimeException){
+				return (RuntimeException)e;
+			}
+			if(e instanceof Error){
+				throw (Error)e;
+			}
+			return new RuntimeException("BeanRowMapper" + e.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,864 @@
+/**********************************************************************
+ * 	ConnectionPool.java
+ *
+ *  MySqlHelperڲʹõӳ
+ *  ÿλ״̬AtomicIntegerArrayУͨCAS ///ʹ ֮л
+ *  ȡʱȳԵǰ߳һι黹Ĳλ߳׺ͣٴ߳صλÿʼɨ
+ *  ÿһ߳ʱ̲߳ظʹãԹر߳׺ͣΪÿ̴߳ThreadLocal
+ *  黹ʱPooledConnectionԴλ±꣬O(1)
+ *  ӣTCPӡֺ֤Ԥλ֮УӰ̻߳ȡ
+ *  prefillʱö̲߳дӣһȴ
+ *  ӳʱȡӵ߳̽Ƚȳĵȴй𣬹黹ֱӽ׵߳
+ *  ȴֻʹCASLockSupportм̵߳ȴʱռס߳
+ *
+ *  ӵά
+ *  ȡгvalidationIntervalʱisValid飨MySQLpingʧЧӹرպͬһλ´
+ *  ڴʱȷʱ䣨maxLifetimeȥʮ֮һֵͬʱͬʱں黹ʱر
+ *  һδʱ̨ά̣߳ÿhousekeepingIntervalһοӣ
+ *  ڻ߿гidleTimeoutĹرգгvalidationIntervalļ飬ʧЧĹر
+ *  رյĲλָΪգ´Ҫʱ´߳ڵȴʱ´
+ *  ά̼߳ʱȰΪʹУȡӵ̻߳λ
+ *
+ *  ĵԵ
+ *  λcapacityڴʱȷӲޣminSize/maxSizeʱ޸
+ *  ֻ±СmaxSizeĲλµӣmaxSizeСڹ黹߿ʱر
+ *  minSizeûпʱȡӵ߳ȵȴgrowThreshold룬Ȼûй黹ӲŴµ
+ *  гidleTimeoutֻرյʣminSizeά߳minSizeʱ
+ *
+ *  ȡӵӳ١ʱӵĴرմ¼SqlMetrics
+ *  ȡͬʱ¼ΪJFR¼ConnectionAcquireEventӵĴ͹رֻڵ־SqlEvents
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+class ConnectionPool {
+
+	/* Ԥȴʱʹõ߳ */
+	private static final int MAX_PREFILL_THREADS = 16;
+
+	/* λ״̬ */
+	static final int SLOT_EMPTY = 0;		//λлû
+	static final int SLOT_RESERVED = 1;		//λѱĳ߳Ԥڴ
+	static final int SLOT_IDLE = 2;			//ӿ
+	static final int SLOT_IN_USE = 3;		//ʹ
+
+	/* ݿ⣬connectionPropsгû룬 */
+	private final String url;
+	private final Properties connectionProps = new Properties();
+
+	/* ÿӵԤ仺СԼл湲ͳϢ */
+	private volatile int statementCacheSize = 64;
+	private final StatementCacheStats statementCacheStats = new StatementCacheStats();
+
+	/* ȡӵӳ١ӵĴ͹رմMySqlHelper */
+	private final SqlMetrics metrics;
+
+	/* λ״̬޸ĶͨCASɣ״̬volatileд֤˹黹ǰӵĲһȡ߿ɼ */
+	private final int capacity;
+	private final AtomicIntegerArray slotStates;
+	private final AtomicReferenceArray<PooledConnection> slots;
+
+	/* ޺͵ǰgrowThresholdΪ0ʾûпʱ */
+	private volatile int minSize = 0;
+	private volatile int maxSize;
+	private volatile long growThresholdMillis = 0;
+	private final AtomicInteger connectionCount = new AtomicInteger();
+
+	/* ¼ǰ߳һι黹Ĳλȸã֮߳ */
+	private final ThreadLocal<Integer> lastSlot = new ThreadLocal<Integer>();
+	private volatile boolean threadAffinity = true;
+
+	/* ȴӵ̶߳УȽȳ */
+	private final ConcurrentLinkedQueue<Waiter> waiters = new ConcurrentLinkedQueue<Waiter>();
+
+	/* ӵάãʱΪ0ʾ߲̭maxLifetimeֻ֮½Ч */
+	private volatile long maxLifetimeMillis = 1800000;		//ʹʱ䣬ӦMySQLwait_timeout
+	private volatile long idleTimeoutMillis = 600000;		//гʱӹر
+	private volatile long validationIntervalMillis = 500;	//гʱʹǰȼ
+	private volatile int validationTimeoutSeconds = 5;		//ӵĳʱʱ䣨룩
+	private volatile long housekeepingIntervalMillis = 30000;
+
+	/* ̨ά̣߳Ϊnullʾû */
+	private ScheduledExecutorService housekeeper = null;
+
+
+	/* 췽ֻλڵһλȡʱŴcapacityΪ */
+	ConnectionPool(String url,String userName,String password,int capacity,SqlMetrics metrics){
+
+		this.url = url;
+		this.metrics = metrics;
+
+		/* DriverManager.getConnection(url, user, password)һûõû벻 */
+		if(userName != null){
+			connectionProps.setProperty("user", userName);
+		}
+		if(password != null){
+			connectionProps.setProperty("password", password);
+		}
+
+		this.capacity = capacity;
+		this.maxSize = capacity;
+		this.slotStates = new AtomicIntegerArray(capacity);
+		this.slots = new AtomicReferenceArray<PooledConnection>(capacity);
+	}
+
+
+	/* ֱȡµ,ֻԤ˲λ */
+	private Connection createConnection() {
+
+		Connection conn = null;		//nullʾɹ
+
+		try {
+			conn = DriverManager.getConnection(url, connectionProps);
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+		}
+
+		return conn;
+	}
+
+
+	/* һӳصӣʹӳͬĵַɵ߹رգӳʱҲӰ */
+	Connection openDedicated() throws SQLException {
+		return DriverManager.getConnection(url, connectionProps);
+	}
+
+
+	/* ֻ֮½Ч */
+	void setDriverProperty(String key,String value) {
+		connectionProps.setProperty(key, value);
+	}
+
+
+	/* ʹеȫڣеһλȡάʱ´ʹеڹ黹ʱر
+	 * ޸˱Ч֮ */
+	void expireAll() {
+
+		for(int i = 0;i < capacity;i++){
+			PooledConnection pooledConn = slots.get(i);
+			if(pooledConn != null){
+				pooledConn.expire();
+			}
+		}
+	}
+
+
+	/* ÿӵԤ仺Сֻ֮½Ч */
+	void setStatementCacheSize(int statementCacheSize) {
+		this.statementCacheSize = statementCacheSize;
+	}
+
+
+	/* Ƿʹõǰ߳һι黹Ĳλ */
+	void setThreadAffinity(boolean threadAffinity) {
+		this.threadAffinity = threadAffinity;
+	}
+
+
+	/* ޸ޣmaxSizeܳλĿرգ߳ڵȴʱµ */
+	void resize(int minSize,int maxSize) {
+
+		if(minSize < 0 || maxSize < 1 || minSize > maxSize || maxSize > capacity){
+			throw new RuntimeException("MySqlHelperޱ 0 <= min <= max <= " + capacity + " max >= 1");
+		}
+
+		this.minSize = minSize;
+		this.maxSize = maxSize;
+
+		for(int i = maxSize;i < capacity;i++){
+			if(slotStates.compareAndSet(i, SLOT_IDLE, SLOT_IN_USE)){
+				retire(slots.get(i), "");
+			}
+		}
+
+		while(!waiters.isEmpty()){
+			PooledConnection pooledConn = tryCreate();
+			if(pooledConn == null){
+				break;
+			}
+			offer(pooledConn);
+		}
+	}
+
+
+	/* ﵽ޺󣬻ȡӵ̵߳ȴã룩Ŵµ */
+	void setGrowThreshold(long growThresholdMillis) {
+		this.growThresholdMillis = growThresholdMillis;
+	}
+
+
+	int getMinSize() {
+		return minSize;
+	}
+
+
+	int getMaxSize() {
+		return maxSize;
+	}
+
+
+	/* ǰʹкͿе */
+	int getConnectionCount() {
+		return connectionCount.get();
+	}
+
+
+	/* ѵǰдգλͳ״ֻ̬ڻȡʱ */
+	void fill(MetricsSnapshot snapshot) {
+
+		int active = 0;
+		int idle = 0;
+		for(int i = 0;i < capacity;i++){
+			int state = slotStates.get(i);
+			if(state == SLOT_IN_USE){
+				active++;
+			}
+			else if(state == SLOT_IDLE){
+				idle++;
+			}
+		}
+
+		snapshot.connectionCount = connectionCount.get();
+		snapshot.activeConnections = active;
+		snapshot.idleConnections = idle;
+		snapshot.pendingAcquires = waiters.size();
+		snapshot.minConnections = minSize;
+		snapshot.maxConnections = maxSize;
+	}
+
+
+	/* ӵʹʱ䣨룩0ʾ */
+	void setMaxLifetime(long maxLifetimeMillis) {
+		this.maxLifetimeMillis = maxLifetimeMillis;
+	}
+
+
+	/* ÿӵʱ䣨룩0ʾرտ */
+	void setIdleTimeout(long idleTimeoutMillis) {
+		this.idleTimeoutMillis = idleTimeoutMillis;
+	}
+
+
+	/* ÿжõʹǰҪ飨룩Լĳʱʱ䣨룩 */
+	void setValidation(long validationIntervalMillis,int validationTimeoutSeconds) {
+		this.validationIntervalMillis = validationIntervalMillis;
+		this.validationTimeoutSeconds = validationTimeoutSeconds;
+	}
+
+
+	/* ų́άļ룩0ʾά̣߳Ѿʱ */
+	synchronized void setHousekeepingInterval(long housekeepingIntervalMillis) {
+
+		this.housekeepingIntervalMillis = housekeepingIntervalMillis;
+		if(housekeeper != null){
+			stopHousekeeping();
+			if(housekeepingIntervalMillis > 0){
+				startHousekeeping();
+			}
+		}
+	}
+
+
+	/* Ԥ仺ͳϢ */
+	StatementCacheStats getStatementCacheStats() {
+		return statementCacheStats;
+	}
+
+
+	/* Իȡӣȴûпӳʱnull */
+	PooledConnection tryAcquire() {
+		return tryAcquire(true);
+	}
+
+
+	/* ԻȡӣûпӲcreateΪtrueʱµ */
+	private PooledConnection tryAcquire(boolean create) {
+
+		int max = maxSize;
+
+		/* ȳԱ߳һʹõĲλ */
+		if(threadAffinity){
+			Integer last = lastSlot.get();
+			if(last != null && last.intValue() < max && slotStates.compareAndSet(last.intValue(), SLOT_IDLE, SLOT_IN_USE)){
+				PooledConnection pooledConn = checkOut(last.intValue());
+				if(pooledConn != null){
+					return pooledConn;
+				}
+			}
+		}
+
+		/* ߳صλÿʼɨ裬ɢ̵ͬ߳CAS */
+		int start = threadProbe() % max;
+
+		for(int n = 0;n < max;n++){
+			int i = (start + n) % max;
+			if(slotStates.compareAndSet(i, SLOT_IDLE, SLOT_IN_USE)){
+				PooledConnection pooledConn = checkOut(i);
+				if(pooledConn != null){
+					return pooledConn;
+				}
+			}
+		}
+
+		/* ûпӣڿղλдµ */
+		return create ? tryCreate() : null;
+	}
+
+
+	/* ±СmaxSizeĿղλдµӣѴ޻ߴʧʱnull */
+	private PooledConnection tryCreate() {
+
+		int max = maxSize;
+		int start = threadProbe() % max;
+
+		for(int n = 0;n < max;n++){
+			int i = (start + n) % max;
+			if(slotStates.compareAndSet(i, SLOT_EMPTY, SLOT_RESERVED)){
+				PooledConnection pooledConn = fillSlot(i);
+				if(pooledConn != null){
+					return pooledConn;
+				}
+			}
+		}
+		return null;
+	}
+
+
+	/* ǰ̵߳ɨ㣬̶߳identityHashCodeɢ߳Ҳܷɢ */
+	private static int threadProbe() {
+
+		int h = System.identityHashCode(Thread.currentThread());
+		h ^= h >>> 16;
+		return h & 0x7fffffff;
+	}
+
+
+	/* ûпʱǷµӣһӶûʱӱ黹ȴû */
+	private boolean growImmediately() {
+		int count = connectionCount.get();
+		return growThresholdMillis <= 0 || count == 0 || count < minSize;
+	}
+
+
+	/* ȡӣӳʱȴ黹ӣtimeoutMillis׳쳣
+	 * ѴʱȵȴgrowThreshold룬ȻûеõٳԴµ */
+	PooledConnection acquire(long timeoutMillis) {
+
+		SqlEvents.ConnectionAcquireEvent event = new SqlEvents.ConnectionAcquireEvent();
+		event.begin();
+		long start = System.nanoTime();
+		PooledConnection pooledConn = null;
+		try {
+			pooledConn = waitForConnection(timeoutMillis);
+			return pooledConn;
+		}
+		finally {
+			metrics.recordAcquire(System.nanoTime() - start);
+			event.end();
+			if(event.shouldCommit()){
+				event.connectionId = pooledConn == null ? 0 : pooledConn.getConnection().hashCode();
+				event.failed = pooledConn == null;
+				event.commit();
+			}
+		}
+	}
+
+
+	private PooledConnection waitForConnection(long timeoutMillis) {
+
+		boolean grow = growImmediately();
+		PooledConnection pooledConn = tryAcquire(grow);
+		if(pooledConn != null){
+			return pooledConn;
+		}
+
+		/* ȴкٳһΣֹ֮ǰ黹ӱ */
+		Waiter waiter = new Waiter(Thread.currentThread());
+		waiters.offer(waiter);
+
+		pooledConn = tryAcquire(grow);
+		if(pooledConn != null){
+			if(!waiter.cancel()){
+				release(waiter.handedConn);		//ͬʱѾһӣ黹
+			}
+			waiters.remove(waiter);
+			return pooledConn;
+		}
+
+		long now = System.nanoTime();
+		long deadline = now + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		long growDeadline = now + TimeUnit.MILLISECONDS.toNanos(growThresholdMillis);
+		boolean growTried = grow;		//ѾԹʱٵȴgrowThreshold
+
+		while(true){
+
+			if(waiter.isHanded()){
+				return waiter.handedConn;
+			}
+
+			now = System.nanoTime();
+
+			/* ȴgrowThresholdԴµ */
+			if(!growTried && now - growDeadline >= 0){
+				growTried = true;
+				pooledConn = tryCreate();
+				if(pooledConn != null){
+					if(waiter.cancel()){
+						waiters.remove(waiter);
+						return pooledConn;
+					}
+					offer(pooledConn);		//ͬʱѾһӣµӽ߳
+					return waiter.handedConn;
+				}
+			}
+
+			long remaining = deadline - now;
+			if(remaining <= 0){
+				if(waiter.cancel()){
+					waiters.remove(waiter);
+					metrics.recordAcquireTimeout();
+					throw new RuntimeException("MySqlHelperȡӳʱѵȴ " + timeoutMillis + " ");
+				}
+				return waiter.handedConn;
+			}
+
+			LockSupport.parkNanos(this, growTried ? remaining : Math.min(remaining, growDeadline - now));
+
+			if(Thread.interrupted()){
+				if(waiter.cancel()){
+					waiters.remove(waiter);
+					Thread.currentThread().interrupt();
+					throw new RuntimeException("MySqlHelperȴʱ̱߳ж");
+				}
+				Thread.currentThread().interrupt();
+				return waiter.handedConn;
+			}
+		}
+	}
+
+
+	/* дӣֱӳcountӣȴȫɣ½ */
+	int prefill(int count) {
+
+		/* ԤղλеӣڴģҲcount */
+		int max = maxSize;
+		int existing = 0;
+		for(int i = 0;i < max;i++){
+			if(slotStates.get(i) != SLOT_EMPTY){
+				existing++;
+			}
+		}
+
+		List<Integer> reserved = new ArrayList<Integer>();
+		for(int i = 0;i < max && existing + reserved.size() < count;i++){
+			if(slotStates.compareAndSet(i, SLOT_EMPTY, SLOT_RESERVED)){
+				reserved.add(Integer.valueOf(i));
+			}
+		}
+
+		if(reserved.isEmpty()){
+			return 0;
+		}
+
+		ExecutorService prefillThreads = Executors.newFixedThreadPool(Math.min(reserved.size(), MAX_PREFILL_THREADS), new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "ConnectionPool-prefill");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+		for(final Integer slot : reserved){
+			futures.add(prefillThreads.submit(new Callable<Boolean>() {
+				@Override
+				public Boolean call() {
+					PooledConnection pooledConn = fillSlot(slot.intValue());
+					if(pooledConn == null){
+						return Boolean.FALSE;
+					}
+					offer(pooledConn);		//½ֱΪУ߽Ѿڵȴ߳
+					return Boolean.TRUE;
+				}
+			}));
+		}
+
+		int created = 0;
+		try {
+			for(Future<Boolean> future : futures){
+				if(future.get().booleanValue()){
+					created++;
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();		//ʣµں̨
+		}
+		catch (ExecutionException e) {
+			e.printStackTrace();
+		}
+		finally {
+			prefillThreads.shutdown();
+		}
+
+		return created;
+	}
+
+
+	/* ȡѾΪʹеĿӣڻ߼ʧʱرգͬһλ´ʧܷnullλָΪ */
+	private PooledConnection checkOut(int slot) {
+
+		PooledConnection pooledConn = slots.get(slot);
+		long now = System.nanoTime();
+
+		if(pooledConn.isExpired(now)){
+			closeConnection(pooledConn, "");
+		}
+		else if(pooledConn.idleNanos(now) >= TimeUnit.MILLISECONDS.toNanos(validationIntervalMillis) && !isValid(pooledConn)){
+			closeConnection(pooledConn, "ʧЧ");
+		}
+		else{
+			return pooledConn;
+		}
+
+		slotStates.set(slot, SLOT_RESERVED);
+		return fillSlot(slot);
+	}
+
+
+	/* Ƿãʱ׳쳣ҲʧЧ */
+	private boolean isValid(PooledConnection pooledConn) {
+
+		try {
+			return pooledConn.getConnection().isValid(validationTimeoutSeconds);
+		}
+		catch (SQLException e) {
+			return false;
+		}
+	}
+
+
+	/* رӺ仺棬λ״̬ɵ */
+	private void closeConnection(PooledConnection pooledConn,String reason) {
+
+		if(slots.compareAndSet(pooledConn.getSlot(), pooledConn, null)){
+			connectionCount.decrementAndGet();
+		}
+		metrics.recordConnectionClosed();
+		pooledConn.getStatementCache().closeAll();
+
+		Connection conn = pooledConn.getConnection();
+		try {
+			conn.close();
+		} catch (SQLException e) {
+			//ѾϿ
+		}
+
+		if(SqlEvents.isDebugEnabled()){
+			SqlEvents.debug("MySqlHelperر" + reason + " " + Integer.toHexString(conn.hashCode()));
+		}
+	}
+
+
+	/* رѾΪʹеӣλָΪգ߳ڵȴʱµӲȴ߳ */
+	private void retire(PooledConnection pooledConn,String reason) {
+
+		closeConnection(pooledConn, reason);
+		slotStates.set(pooledConn.getSlot(), SLOT_EMPTY);
+
+		if(!waiters.isEmpty()){
+			PooledConnection newConn = tryCreate();
+			if(newConn != null){
+				offer(newConn);
+			}
+		}
+	}
+
+
+	/* ԤĲλдӣɹλֱӴʹ״̬ */
+	private PooledConnection fillSlot(int slot) {
+
+		Connection conn = createConnection();
+		if(conn == null){
+			metrics.recordConnectionCreateFailure();
+			slotStates.set(slot, SLOT_EMPTY);
+			return null;
+		}
+		metrics.recordConnectionCreated();
+
+		/* ʱȥʮ֮һֵͬʱӲͬʱ */
+		long lifetime = TimeUnit.MILLISECONDS.toNanos(maxLifetimeMillis);
+		if(lifetime > 0){
+			lifetime -= ThreadLocalRandom.current().nextLong(lifetime / 10 + 1);
+		}
+
+		StatementCache statementCache = new StatementCache(conn, statementCacheSize, statementCacheStats);
+		PooledConnection pooledConn = new PooledConnection(conn, slot, statementCache, lifetime);
+		slots.set(slot, pooledConn);
+		connectionCount.incrementAndGet();
+		slotStates.set(slot, SLOT_IN_USE);
+
+		if(SqlEvents.isDebugEnabled()){
+			SqlEvents.debug("MySqlHelper " + Integer.toHexString(conn.hashCode()) + " ӳ");
+		}
+
+		if(housekeepingIntervalMillis > 0){
+			ensureHousekeeping();
+		}
+		return pooledConn;
+	}
+
+
+	/* 黹ӣöӦλΪ */
+	void release(PooledConnection pooledConn) {
+
+		int slot = pooledConn.getSlot();
+		if(slots.get(slot) != pooledConn || slotStates.get(slot) != SLOT_IN_USE){
+			throw new RuntimeException("MySqlHelperconnectionڼ");
+		}
+
+		/* ڡѾϿ߳޵ӲٷŻ */
+		long now = System.nanoTime();
+		if(pooledConn.isExpired(now) || slot >= maxSize || isClosed(pooledConn)){
+			retire(pooledConn, pooledConn.isExpired(now) ? "" : (slot >= maxSize ? "" : "Ͽ"));
+			return;
+		}
+
+		pooledConn.touch(now);
+		if(threadAffinity){
+			lastSlot.set(Integer.valueOf(slot));
+		}
+		offer(pooledConn);
+	}
+
+
+	/* ǷѾرգʱ׳쳣ҲѾر */
+	private static boolean isClosed(PooledConnection pooledConn) {
+
+		try {
+			return pooledConn.getConnection().isClosed();
+		}
+		catch (SQLException e) {
+			return true;
+		}
+	}
+
+
+	/* ʹеӽȴ̣߳ûеȴ߳ʱΪ */
+	private void offer(PooledConnection pooledConn) {
+
+		int slot = pooledConn.getSlot();
+
+		while(true){
+
+			/* ߳ڵȴʱֱӽӣλʹ״̬ */
+			Waiter waiter;
+			while((waiter = waiters.poll()) != null){
+				if(waiter.handOff(pooledConn)){
+					return;
+				}
+			}
+
+			slotStates.set(slot, SLOT_IDLE);
+
+			/* ÿ֮ټһζУֹӵ̴߳Ϊջѱȡ */
+			if(waiters.isEmpty() || !slotStates.compareAndSet(slot, SLOT_IDLE, SLOT_IN_USE)){
+				return;
+			}
+		}
+	}
+
+
+	/* JDBCӲҶӦİװֻڼݾɵsetConnectionStateToIdleӿ */
+	PooledConnection find(Connection conn) {
+
+		for(int i = 0;i < capacity;i++){
+			PooledConnection pooledConn = slots.get(i);
+			if(pooledConn != null && pooledConn.getConnection() == conn){
+				return pooledConn;
+			}
+		}
+		return null;
+	}
+
+
+	/* ̨ά̣߳ѾʱʲôҲ */
+	private synchronized void ensureHousekeeping() {
+
+		if(housekeeper == null && housekeepingIntervalMillis > 0){
+			startHousekeeping();
+		}
+	}
+
+
+	private void startHousekeeping() {
+
+		housekeeper = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "ConnectionPool-housekeeper");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		housekeeper.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					housekeep();
+				}
+				catch (RuntimeException e) {
+					e.printStackTrace();		//һʧȡ֮ά
+				}
+			}
+		}, housekeepingIntervalMillis, housekeepingIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+
+	private synchronized void stopHousekeeping() {
+
+		if(housekeeper != null){
+			housekeeper.shutdownNow();
+			housekeeper = null;
+		}
+	}
+
+
+	/* пӣڡ߿̫õĹرգгļǷã㵽 */
+	void housekeep() {
+
+		long idleTimeout = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+		long validationInterval = TimeUnit.MILLISECONDS.toNanos(validationIntervalMillis);
+
+		for(int i = 0;i < capacity;i++){
+
+			if(!slotStates.compareAndSet(i, SLOT_IDLE, SLOT_IN_USE)){
+				continue;
+			}
+
+			PooledConnection pooledConn = slots.get(i);
+			long now = System.nanoTime();
+
+			if(pooledConn.isExpired(now)){
+				retire(pooledConn, "");
+			}
+			else if(i >= maxSize){
+				retire(pooledConn, "");
+			}
+			else if(idleTimeout > 0 && pooledConn.idleNanos(now) >= idleTimeout && connectionCount.get() > minSize){
+				retire(pooledConn, "");
+			}
+			else if(pooledConn.idleNanos(now) >= validationInterval && !isValid(pooledConn)){
+				retire(pooledConn, "ʧЧ");
+			}
+			else{
+				offer(pooledConn);		//޸ʹʱ
+			}
+		}
+
+		while(connectionCount.get() < minSize){
+			PooledConnection pooledConn = tryCreate();
+			if(pooledConn == null){
+				break;
+			}
+			offer(pooledConn);
+		}
+	}
+
+
+	/* رӳеӣλȫָΪգͬʱֹ̨ͣά */
+	void closeAll() {
+
+		stopHousekeeping();
+
+		for(int i = 0;i < capacity;i++){
+
+			PooledConnection pooledConn = slots.getAndSet(i, null);
+			slotStates.set(i, SLOT_EMPTY);
+
+			if(pooledConn == null){
+				continue;
+			}
+			connectionCount.decrementAndGet();
+			metrics.recordConnectionClosed();
+
+			pooledConn.getStatementCache().closeAll();
+
+			Connection conn = pooledConn.getConnection();
+			try {
+				conn.close();
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+
+			if(SqlEvents.isDebugEnabled()){
+				SqlEvents.debug("MySqlHelperر " + Integer.toHexString(conn.hashCode()));
+			}
+		}
+	}
+
+
+
+	/* ȴӵ̣߳״ֻ̬ܴӵȴΪѽӻȡ */
+	private static final class Waiter {
+
+		private static final int WAITING = 0;
+		private static final int HANDED = 1;
+		private static final int CANCELLED = 2;
+
+		private final Thread thread;
+		private final AtomicInteger state = new AtomicInteger(WAITING);
+		private PooledConnection handedConn;		//д޸״̬״̬volatileд֤ɼ
+
+		Waiter(Thread thread){
+			this.thread = thread;
+		}
+
+		/* Ӳѵȴ̣߳߳Ѿȡȴʱfalse */
+		boolean handOff(PooledConnection pooledConn) {
+			handedConn = pooledConn;
+			if(state.compareAndSet(WAITING, HANDED)){
+				LockSupport.unpark(thread);
+				return true;
+			}
+			handedConn = null;
+			return false;
+		}
+
+		/* ȡȴѾʱfalse */
+		boolean cancel() {
+			return state.compareAndSet(WAITING, CANCELLED);
+		}
+
+		boolean isHanded() {
+			return state.get() == HANDED;
+		}
+	}
+
+}
@@ -0,0 +1,655 @@
+/**********************************************************************
+ * 	DetachedResultSet.java
+ *
+ *  ӷʽִвѯ߳һζ꣬Ӽɹ黹ӳ
+ *
+ *  ÿһаͱڻУΪint[]Ϊlong[]Ϊdouble[]
+ *  ֵַ루int[] + ֵ䣩ͱΪObject[]
+ *  NULLÿһλͼ¼ֻгNULLвŷλͼ
+ *
+ *  ÷ResultSetƣnext()ƶα꣬getXXX(кŻ)ȡǰУкŴ1ʼ
+ *  ݴ޸ģreopen()Եõݡαʵ
+ *  ƬѯĽShardRouterкϲΪһµĽ
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DetachedResultSet {
+
+	/* еĴ洢 */
+	static final int KIND_INT = 0;
+	static final int KIND_LONG = 1;
+	static final int KIND_DOUBLE = 2;
+	static final int KIND_STRING = 3;
+	static final int KIND_OBJECT = 4;
+
+	/* ݣʵ޸ */
+	private final String[] labels;						//
+	private final int[] kinds;							//ÿеĴ洢
+	private final int[] sqlTypes;						//ÿеJDBCͣjava.sql.TypesȽʱʹ
+	private final Object[] values;						//ÿе
+	private final long[][] nulls;						//ÿеNULLλͼûNULLΪnull
+	private final String[][] dictionaries;				//ַеֵ䣬Ϊnull
+	private final HashMap<String, Integer> columnIndex;	//Сдкŵӳ
+	private final int rowCount;
+
+	/* α꣬ÿʵ */
+	private int row = -1;
+	private boolean wasNull = false;
+
+
+	private DetachedResultSet(String[] labels,int[] kinds,int[] sqlTypes,Object[] values,long[][] nulls,
+			String[][] dictionaries,HashMap<String, Integer> columnIndex,int rowCount){
+
+		this.labels = labels;
+		this.kinds = kinds;
+		this.sqlTypes = sqlTypes;
+		this.values = values;
+		this.nulls = nulls;
+		this.dictionaries = dictionaries;
+		this.columnIndex = columnIndex;
+		this.rowCount = rowCount;
+	}
+
+
+	/* ȡʣµУɷĽرմĽ */
+	public static DetachedResultSet read(ResultSet rs) throws SQLException {
+
+		ResultSetMetaData meta = rs.getMetaData();
+		int columnCount = meta.getColumnCount();
+
+		String[] labels = new String[columnCount];
+		int[] kinds = new int[columnCount];
+		int[] sqlTypes = new int[columnCount];
+		Object[] values = new Object[columnCount];
+		long[][] nulls = new long[columnCount][];
+		HashMap<String, Integer> columnIndex = new HashMap<String, Integer>();
+
+		List<HashMap<String, Integer>> dictionaryBuilders = new ArrayList<HashMap<String, Integer>>(columnCount);
+
+		int capacity = 16;
+		for(int c = 0;c < columnCount;c++){
+
+			labels[c] = meta.getColumnLabel(c + 1);
+			sqlTypes[c] = meta.getColumnType(c + 1);
+			kinds[c] = kindOf(sqlTypes[c]);
+			values[c] = newArray(kinds[c], capacity);
+
+			dictionaryBuilders.add(kinds[c] == KIND_STRING ? new HashMap<String, Integer>() : null);
+
+			/* ͬʱJDBCһȡһ */
+			String key = labels[c].toLowerCase();
+			if(!columnIndex.containsKey(key)){
+				columnIndex.put(key, Integer.valueOf(c + 1));
+			}
+		}
+
+		/* жȡ鲻ʱɱ */
+		int rowCount = 0;
+		while(rs.next()){
+
+			if(rowCount == capacity){
+				capacity = capacity * 2;
+				for(int c = 0;c < columnCount;c++){
+					values[c] = grow(kinds[c], values[c], capacity);
+				}
+			}
+
+			for(int c = 0;c < columnCount;c++){
+				boolean isNull = readValue(rs, c, kinds[c], values[c], rowCount, dictionaryBuilders.get(c));
+				if(isNull){
+					if(nulls[c] == null){
+						nulls[c] = new long[(capacity + 63) >>> 6];
+					}
+					else if(nulls[c].length << 6 <= rowCount){
+						nulls[c] = Arrays.copyOf(nulls[c], (capacity + 63) >>> 6);
+					}
+					nulls[c][rowCount >>> 6] |= 1L << rowCount;
+				}
+			}
+
+			rowCount++;
+		}
+
+		/* ȥݶĿռ䣬ֵתΪ */
+		String[][] dictionaries = new String[columnCount][];
+		for(int c = 0;c < columnCount;c++){
+
+			values[c] = grow(kinds[c], values[c], rowCount);
+
+			if(kinds[c] == KIND_STRING){
+				String[] dictionary = new String[dictionaryBuilders.get(c).size()];
+				for(Map.Entry<String, Integer> entry : dictionaryBuilders.get(c).entrySet()){
+					dictionary[entry.getValue().intValue()] = entry.getKey();
+				}
+				dictionaries[c] = dictionary;
+			}
+		}
+
+		return new DetachedResultSet(labels, kinds, sqlTypes, values, nulls, dictionaries, columnIndex, rowCount);
+	}
+
+
+	/* JDBC;еĴ洢 */
+	private static int kindOf(int sqlType) {
+
+		switch(sqlType){
+			case Types.TINYINT:
+			case Types.SMALLINT:
+			case Types.INTEGER:
+			case Types.BIT:
+			case Types.BOOLEAN:
+				return KIND_INT;
+			case Types.BIGINT:
+				return KIND_LONG;
+			case Types.FLOAT:
+			case Types.REAL:
+			case Types.DOUBLE:
+				return KIND_DOUBLE;
+			case Types.CHAR:
+			case Types.VARCHAR:
+			case Types.LONGVARCHAR:
+			case Types.NCHAR:
+			case Types.NVARCHAR:
+			case Types.LONGNVARCHAR:
+			case Types.DECIMAL:				//DECIMALΪַתΪdoubleʧ
+			case Types.NUMERIC:
+			case Types.DATE:
+			case Types.TIME:
+			case Types.TIMESTAMP:
+				return KIND_STRING;
+			default:
+				return KIND_OBJECT;
+		}
+	}
+
+
+	private static Object newArray(int kind,int length) {
+
+		switch(kind){
+			case KIND_INT:
+			case KIND_STRING:
+				return new int[length];
+			case KIND_LONG:
+				return new long[length];
+			case KIND_DOUBLE:
+				return new double[length];
+			default:
+				return new Object[length];
+		}
+	}
+
+
+	private static Object grow(int kind,Object array,int length) {
+
+		switch(kind){
+			case KIND_INT:
+			case KIND_STRING:
+				return Arrays.copyOf((int[])array, length);
+			case KIND_LONG:
+				return Arrays.copyOf((long[])array, length);
+			case KIND_DOUBLE:
+				return Arrays.copyOf((double[])array, length);
+			default:
+				return Arrays.copyOf((Object[])array, length);
+		}
+	}
+
+
+	/* ȡǰеcеֵ浽УǷΪNULL */
+	private static boolean readValue(ResultSet rs,int c,int kind,Object array,int row,
+			HashMap<String, Integer> dictionary) throws SQLException {
+
+		switch(kind){
+			case KIND_INT:
+				((int[])array)[row] = rs.getInt(c + 1);
+				return rs.wasNull();
+			case KIND_LONG:
+				((long[])array)[row] = rs.getLong(c + 1);
+				return rs.wasNull();
+			case KIND_DOUBLE:
+				((double[])array)[row] = rs.getDouble(c + 1);
+				return rs.wasNull();
+			case KIND_STRING:
+				String value = rs.getString(c + 1);
+				if(value == null){
+					return true;
+				}
+				Integer code = dictionary.get(value);
+				if(code == null){
+					code = Integer.valueOf(dictionary.size());
+					dictionary.put(value, code);
+				}
+				((int[])array)[row] = code.intValue();
+				return false;
+			default:
+				Object object = rs.getObject(c + 1);
+				((Object[])array)[row] = object;
+				return object == null;
+		}
+	}
+
+
+	/* ռõڴ棨ֽڣƲѯĴС */
+	long estimateBytes() {
+
+		long bytes = 64;
+		for(int c = 0;c < labels.length;c++){
+
+			bytes += 48 + labels[c].length();
+
+			switch(kinds[c]){
+				case KIND_INT:
+				case KIND_STRING:
+					bytes += 16 + 4L * rowCount;
+					break;
+				case KIND_LONG:
+				case KIND_DOUBLE:
+					bytes += 16 + 8L * rowCount;
+					break;
+				default:
+					bytes += 16 + 24L * rowCount;		//üһС
+					break;
+			}
+
+			if(nulls[c] != null){
+				bytes += 16 + 8L * nulls[c].length;
+			}
+
+			if(dictionaries[c] != null){
+				for(String value : dictionaries[c]){
+					bytes += 48 + value.length();
+				}
+			}
+		}
+		return bytes;
+	}
+
+
+	/* ˳ȡеµĽiΪparts[partOfRow[i]]ĵrowOfPart[i]У0ʼ
+	 * ͬȡһģͬһڲͬд洢ͲͬʱΪ */
+	static DetachedResultSet select(DetachedResultSet[] parts,int[] partOfRow,int[] rowOfPart) {
+
+		DetachedResultSet first = parts[0];
+		int columnCount = first.labels.length;
+		for(DetachedResultSet part : parts){
+			if(part.labels.length != columnCount){
+				throw new RuntimeException("DetachedResultSetϲĽͬ");
+			}
+		}
+
+		int rowCount = partOfRow.length;
+		int[] kinds = new int[columnCount];
+		int[] sqlTypes = new int[columnCount];
+		Object[] values = new Object[columnCount];
+		long[][] nulls = new long[columnCount][];
+		String[][] dictionaries = new String[columnCount][];
+
+		for(int c = 0;c < columnCount;c++){
+
+			kinds[c] = first.kinds[c];
+			sqlTypes[c] = first.sqlTypes[c];
+			for(DetachedResultSet part : parts){
+				if(part.kinds[c] != kinds[c]){
+					kinds[c] = KIND_OBJECT;
+				}
+				if(part.sqlTypes[c] != sqlTypes[c]){
+					sqlTypes[c] = Types.OTHER;
+				}
+			}
+
+			Object array = newArray(kinds[c], rowCount);
+			HashMap<String, Integer> dictionary = kinds[c] == KIND_STRING ? new HashMap<String, Integer>() : null;
+
+			for(int i = 0;i < rowCount;i++){
+
+				DetachedResultSet part = parts[partOfRow[i]];
+				int r = rowOfPart[i];
+
+				if(part.isNullAt(c, r)){
+					if(nulls[c] == null){
+						nulls[c] = new long[(rowCount + 63) >>> 6];
+					}
+					nulls[c][i >>> 6] |= 1L << i;
+					continue;
+				}
+
+				switch(kinds[c]){
+					case KIND_INT:
+						((int[])array)[i] = ((int[])part.values[c])[r];
+						break;
+					case KIND_LONG:
+						((long[])array)[i] = ((long[])part.values[c])[r];
+						break;
+					case KIND_DOUBLE:
+						((double[])array)[i] = ((double[])part.values[c])[r];
+						break;
+					case KIND_STRING:
+						String value = part.dictionaries[c][((int[])part.values[c])[r]];
+						Integer code = dictionary.get(value);
+						if(code == null){
+							code = Integer.valueOf(dictionary.size());
+							dictionary.put(value, code);
+						}
+						((int[])array)[i] = code.intValue();
+						break;
+					default:
+						((Object[])array)[i] = part.valueAt(c, r);
+						break;
+				}
+			}
+
+			values[c] = array;
+			if(dictionary != null){
+				String[] strings = new String[dictionary.size()];
+				for(Map.Entry<String, Integer> entry : dictionary.entrySet()){
+					strings[entry.getValue().intValue()] = entry.getKey();
+				}
+				dictionaries[c] = strings;
+			}
+		}
+
+		return new DetachedResultSet(first.labels, kinds, sqlTypes, values, nulls, dictionaries, first.columnIndex, rowCount);
+	}
+
+
+	/* ȽaĵcaеraкbĵcbеrbУ0ʼNULLСMySQLһ
+	 * ȽϷʽɶȡʱ¼;͸аֵȽϣDECIMAL/NUMERICаBigDecimalȽϣ
+	 * УַʱȣַԴСдȽϣĬϵ_ciһ£ֵݲ² */
+	static int compareAt(DetachedResultSet a,int ca,int ra,DetachedResultSet b,int cb,int rb) {
+
+		boolean nullA = a.isNullAt(ca, ra);
+		boolean nullB = b.isNullAt(cb, rb);
+		if(nullA || nullB){
+			return nullA == nullB ? 0 : (nullA ? -1 : 1);
+		}
+
+		int kindA = a.kinds[ca];
+		int kindB = b.kinds[cb];
+
+		if((kindA == KIND_INT || kindA == KIND_LONG) && (kindB == KIND_INT || kindB == KIND_LONG)){
+			return Long.compare(a.longAt(ca, ra), b.longAt(cb, rb));
+		}
+		if(kindA <= KIND_DOUBLE && kindB <= KIND_DOUBLE){
+			return Double.compare(a.doubleAt(ca, ra), b.doubleAt(cb, rb));
+		}
+		if(a.isNumericColumn(ca) && b.isNumericColumn(cb)){
+			return a.decimalAt(ca, ra).compareTo(b.decimalAt(cb, rb));
+		}
+
+		return String.CASE_INSENSITIVE_ORDER.compare(a.valueAt(ca, ra).toString(), b.valueAt(cb, rb).toString());
+	}
+
+
+	/* cǷΪֵУDECIMAL/NUMERIC */
+	private boolean isNumericColumn(int c) {
+		return kinds[c] <= KIND_DOUBLE || sqlTypes[c] == Types.DECIMAL || sqlTypes[c] == Types.NUMERIC;
+	}
+
+
+	/* ֵеrеֵתΪBigDecimalֻisNumericColumnе */
+	private BigDecimal decimalAt(int c,int r) {
+
+		switch(kinds[c]){
+			case KIND_INT:
+			case KIND_LONG:
+				return BigDecimal.valueOf(longAt(c, r));
+			case KIND_DOUBLE:
+				return BigDecimal.valueOf(doubleAt(c, r));
+			default:
+				Object value = valueAt(c, r);
+				return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString().trim());
+		}
+	}
+
+
+	/* cУ0ʼrǷΪNULL */
+	private boolean isNullAt(int c,int r) {
+
+		long[] bitmap = nulls[c];
+		return bitmap != null && (bitmap[r >>> 6] & (1L << r)) != 0;
+	}
+
+
+	private long longAt(int c,int r) {
+		return kinds[c] == KIND_INT ? ((int[])values[c])[r] : ((long[])values[c])[r];
+	}
+
+
+	private double doubleAt(int c,int r) {
+		return kinds[c] == KIND_DOUBLE ? ((double[])values[c])[r] : longAt(c, r);
+	}
+
+
+	/* cеrеֵװ䣬NULLnull */
+	private Object valueAt(int c,int r) {
+
+		if(isNullAt(c, r)){
+			return null;
+		}
+
+		switch(kinds[c]){
+			case KIND_INT:
+				return Integer.valueOf(((int[])values[c])[r]);
+			case KIND_LONG:
+				return Long.valueOf(((long[])values[c])[r]);
+			case KIND_DOUBLE:
+				return Double.valueOf(((double[])values[c])[r]);
+			case KIND_STRING:
+				return dictionaries[c][((int[])values[c])[r]];
+			default:
+				return ((Object[])values[c])[r];
+		}
+	}
+
+
+	/* õݡαʵαλڵһ֮ǰ */
+	public DetachedResultSet reopen() {
+
+		return new DetachedResultSet(labels, kinds, sqlTypes, values, nulls, dictionaries, columnIndex, rowCount);
+	}
+
+
+	/* ƶһУûһʱfalse */
+	public boolean next() {
+
+		if(row + 1 >= rowCount){
+			row = rowCount;
+			return false;
+		}
+		row++;
+		return true;
+	}
+
+
+	/* αصһ֮ǰ */
+	public void beforeFirst() {
+		row = -1;
+	}
+
+
+	/*  */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+
+	/*  */
+	public int getColumnCount() {
+		return labels.length;
+	}
+
+
+	/* кŴ1ʼ */
+	public String getColumnLabel(int column) {
+		return labels[column - 1];
+	}
+
+
+	/* ִСдкţжȡʱӦȡкţÿв */
+	public int findColumn(String label) {
+
+		Integer column = columnIndex.get(label.toLowerCase());
+		if(column == null){
+			throw new RuntimeException("DetachedResultSetûΪ " + label + " ");
+		}
+		return column.intValue();
+	}
+
+
+	/* һζȡֵǷΪNULL */
+	public boolean wasNull() {
+		return wasNull;
+	}
+
+
+	public int getInt(int column) {
+
+		int c = checkColumn(column);
+		switch(kinds[c]){
+			case KIND_INT:
+				return ((int[])values[c])[row];
+			case KIND_LONG:
+				return (int)((long[])values[c])[row];
+			case KIND_DOUBLE:
+				return (int)((double[])values[c])[row];
+			default:
+				String value = getString(column);
+				return value == null ? 0 : Integer.parseInt(value.trim());
+		}
+	}
+
+
+	public long getLong(int column) {
+
+		int c = checkColumn(column);
+		switch(kinds[c]){
+			case KIND_INT:
+				return ((int[])values[c])[row];
+			case KIND_LONG:
+				return ((long[])values[c])[row];
+			case KIND_DOUBLE:
+				return (long)((double[])values[c])[row];
+			default:
+				String value = getString(column);
+				return value == null ? 0 : Long.parseLong(value.trim());
+		}
+	}
+
+
+	public double getDouble(int column) {
+
+		int c = checkColumn(column);
+		switch(kinds[c]){
+			case KIND_INT:
+				return ((int[])values[c])[row];
+			case KIND_LONG:
+				return ((long[])values[c])[row];
+			case KIND_DOUBLE:
+				return ((double[])values[c])[row];
+			default:
+				String value = getString(column);
+				return value == null ? 0 : Double.parseDouble(value.trim());
+		}
+	}
+
+
+	public String getString(int column) {
+
+		int c = checkColumn(column);
+		if(wasNull){
+			return null;
+		}
+
+		switch(kinds[c]){
+			case KIND_INT:
+				return String.valueOf(((int[])values[c])[row]);
+			case KIND_LONG:
+				return String.valueOf(((long[])values[c])[row]);
+			case KIND_DOUBLE:
+				return String.valueOf(((double[])values[c])[row]);
+			case KIND_STRING:
+				return dictionaries[c][((int[])values[c])[row]];
+			default:
+				return String.valueOf(((Object[])values[c])[row]);
+		}
+	}
+
+
+	/* Զʽȡлװ */
+	public Object getObject(int column) {
+
+		int c = checkColumn(column);
+		if(wasNull){
+			return null;
+		}
+
+		switch(kinds[c]){
+			case KIND_INT:
+				return Integer.valueOf(((int[])values[c])[row]);
+			case KIND_LONG:
+				return Long.valueOf(((long[])values[c])[row]);
+			case KIND_DOUBLE:
+				return Double.valueOf(((double[])values[c])[row]);
+			case KIND_STRING:
+				return dictionaries[c][((int[])values[c])[row]];
+			default:
+				return ((Object[])values[c])[row];
+		}
+	}
+
+
+	public int getInt(String label) {
+		return getInt(findColumn(label));
+	}
+
+
+	public long getLong(String label) {
+		return getLong(findColumn(label));
+	}
+
+
+	public double getDouble(String label) {
+		return getDouble(findColumn(label));
+	}
+
+
+	public String getString(String label) {
+		return getString(findColumn(label));
+	}
+
+
+	public Object getObject(String label) {
+		return getObject(findColumn(label));
+	}
+
+
+	/* αкţ¼ǰֵǷΪNULLش0ʼ± */
+	private int checkColumn(int column) {
+
+		if(row < 0 || row >= rowCount){
+			throw new RuntimeException("DetachedResultSetαûָκһ");
+		}
+		if(column < 1 || column > labels.length){
+			throw new RuntimeException("DetachedResultSetк " + column + " Χ");
+		}
+
+		int c = column - 1;
+		long[] bitmap = nulls[c];
+		wasNull = bitmap != null && (bitmap[row >>> 6] & (1L << row)) != 0;
+		return c;
+	}
+
+}
@@ -0,0 +1,67 @@
+/**********************************************************************
+ * 	HashShardStrategy.java
+ *
+ *  ϣֵƬʹԾһԹϣjump consistent hash
+ *  Ƭnӵn+1ʱֻԼ1/(n+1)ļҪǨƣҲҪκӳ
+ *
+ *  ַַ64λFNV-1aϣֱʹֵʹhashCode()
+ *  ͵ķƬ޹صhashCode()
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+public class HashShardStrategy implements ShardStrategy {
+
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+
+	@Override
+	public int shardOf(Object shardKey,int shardCount) {
+
+		if(shardKey == null){
+			throw new RuntimeException("ShardRouterƬΪnull");
+		}
+		return jumpConsistentHash(hash64(shardKey), shardCount);
+	}
+
+
+	/* Ƭ64λϣֵڲͬJVM֮䱣һ */
+	static long hash64(Object shardKey) {
+
+		if(shardKey instanceof Long || shardKey instanceof Integer
+				|| shardKey instanceof Short || shardKey instanceof Byte){
+			return ((Number) shardKey).longValue();
+		}
+
+		if(shardKey instanceof CharSequence){
+			CharSequence chars = (CharSequence) shardKey;
+			long hash = FNV_OFFSET;
+			for(int i = 0;i < chars.length();i++){
+				char ch = chars.charAt(i);
+				hash = (hash ^ (ch & 0xff)) * FNV_PRIME;
+				hash = (hash ^ (ch >>> 8)) * FNV_PRIME;
+			}
+			return hash;
+		}
+
+		return shardKey.hashCode();
+	}
+
+
+	/* LampingVeachԾһԹϣ[0, buckets)еͰ */
+	static int jumpConsistentHash(long key,int buckets) {
+
+		long b = -1;
+		long j = 0;
+
+		while(j < buckets){
+			b = j;
+			key = key * 2862933555777941757L + 1;
+			j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+		}
+		return (int) b;
+	}
+
+}
@@ -0,0 +1,128 @@
+/**********************************************************************
+ * 	LatencyHistogram.java
+ *
+ *  ӳֱͼͳƻȡӺִSQLĺʱ룩
+ *
+ *  Ͱ2ݷ飬ÿƽΪ8Ͱ12.5%488ͰȫlongΧ
+ *  ¼ֻҪһμͰ±һԭӼӣ󣬲
+ *  ɢڶУ̰̺ͬ߳߳дͬͬһͰϵCAS
+ *  snapshot()ӵõգ¼ͿտͬʱУеļ֮䲻֤ϸһ
+ *  ܶࡢÿ¼ٵֱͼÿSQLָһֻһʡڴ
+ *  Ҳڿ֮ʹã縺زԼ¼ÿӳ
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class LatencyHistogram {
+
+	/* ÿͰΪ2^SUB_BITS */
+	private static final int SUB_BITS = 3;
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+	static final int BUCKET_COUNT = (63 - SUB_BITS + 1) * SUB_COUNT;
+
+	/* CPU4 */
+	private static final int STRIPES = Math.min(4, Integer.highestOneBit(Runtime.getRuntime().availableProcessors()));
+
+	/* ÿ֮ܺ8long64ֽڣα */
+	private static final int SUM_PADDING = 8;
+
+	private final int stripes;
+	private final AtomicLongArray counts;
+	private final AtomicLongArray sums;
+	private final AtomicLong max = new AtomicLong();
+
+
+	/* 췽CPUʹ */
+	public LatencyHistogram(){
+		this(STRIPES);
+	}
+
+
+	/* 췽stripesΪ2 */
+	public LatencyHistogram(int stripes){
+
+		if(stripes <= 0 || Integer.bitCount(stripes) != 1){
+			throw new RuntimeException("LatencyHistogram2");
+		}
+		this.stripes = stripes;
+		this.counts = new AtomicLongArray(stripes * BUCKET_COUNT);
+		this.sums = new AtomicLongArray(stripes * SUM_PADDING);
+	}
+
+
+	/* ¼һκʱС0ֵ0¼ */
+	public void record(long nanos) {
+
+		if(nanos < 0){
+			nanos = 0;
+		}
+
+		/* ̶߳identityHashCodeѡλλ */
+		int h = System.identityHashCode(Thread.currentThread());
+		int stripe = (h ^ (h >>> 16)) & (stripes - 1);
+		counts.incrementAndGet(stripe * BUCKET_COUNT + bucketOf(nanos));
+		sums.addAndGet(stripe * SUM_PADDING, nanos);
+
+		/* ֻгǰֵʱҪCAS󲿷ּ¼ֻһ */
+		long current;
+		while(nanos > (current = max.get())){
+			if(max.compareAndSet(current, nanos)){
+				break;
+			}
+		}
+	}
+
+
+	/* ϲõǰĿ */
+	public LatencySnapshot snapshot() {
+
+		long[] buckets = new long[BUCKET_COUNT];
+		long count = 0;
+		for(int stripe = 0;stripe < stripes;stripe++){
+			for(int i = 0;i < BUCKET_COUNT;i++){
+				long n = counts.get(stripe * BUCKET_COUNT + i);
+				buckets[i] += n;
+				count += n;
+			}
+		}
+
+		long sum = 0;
+		for(int stripe = 0;stripe < stripes;stripe++){
+			sum += sums.get(stripe * SUM_PADDING);
+		}
+
+		return new LatencySnapshot(buckets, count, sum, max.get());
+	}
+
+
+	/* ֵڵͰС8ֵÿֵһͰ֮ÿ2Ϊ8Ͱ */
+	static int bucketOf(long value) {
+
+		if(value < SUB_COUNT){
+			return (int) value;
+		}
+
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+		return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+	}
+
+
+	/* ͰĴֵȡͰΧе */
+	static long valueOf(int bucket) {
+
+		if(bucket < SUB_COUNT){
+			return bucket;
+		}
+
+		int exponent = bucket / SUB_COUNT + SUB_BITS - 1;
+		int sub = bucket % SUB_COUNT;
+		long width = 1L << (exponent - SUB_BITS);
+		return (SUB_COUNT + sub) * width + width / 2;
+	}
+
+}
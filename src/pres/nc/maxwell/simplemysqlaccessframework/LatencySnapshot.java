@@ -0,0 +1,101 @@
+/**********************************************************************
+ * 	LatencySnapshot.java
+ *
+ *  ӳֱͼĿգֵΪ룻ӴMySqlHelperThreadPoolPackʱʼۼƣ
+ *  һʱڵʱοյgetCount()
+ *  ٷλͰе㣬12.5%getMax()
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+public class LatencySnapshot {
+
+	private final long[] buckets;
+	private final long count;
+	private final long sum;
+	private final long max;
+
+
+	LatencySnapshot(long[] buckets,long count,long sum,long max){
+		this.buckets = buckets;
+		this.count = count;
+		this.sum = sum;
+		this.max = max;
+	}
+
+
+	/* ü¼Ĵ */
+	public long getCount() {
+		return count;
+	}
+
+
+	/* ƽֵ룩ûм¼ʱ0 */
+	public double getMean() {
+		return count == 0 ? 0 : (double) sum / count;
+	}
+
+
+	/* м¼ܺͣ룩 */
+	public long getSum() {
+		return sum;
+	}
+
+
+	/* ֵ룩 */
+	public long getMax() {
+		return max;
+	}
+
+
+	/* ðٷλ룩percentile0100֮䣬ûм¼ʱ0 */
+	public long getPercentile(double percentile) {
+
+		if(percentile < 0 || percentile > 100){
+			throw new RuntimeException("LatencySnapshotٷλ0100֮");
+		}
+		if(count == 0){
+			return 0;
+		}
+
+		/* rankֵ1ʼڵͰ */
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for(int i = 0;i < buckets.length;i++){
+			seen += buckets[i];
+			if(seen >= rank){
+				return Math.min(LatencyHistogram.valueOf(i), max);
+			}
+		}
+		return max;
+	}
+
+
+	public long getP50() {
+		return getPercentile(50);
+	}
+
+
+	public long getP90() {
+		return getPercentile(90);
+	}
+
+
+	public long getP99() {
+		return getPercentile(99);
+	}
+
+
+	public long getP999() {
+		return getPercentile(99.9);
+	}
+
+
+	@Override
+	public String toString() {
+		return "count=" + count + String.format(", mean=%.3fms, p50=%.3fms, p99=%.3fms, p99.9=%.3fms, max=%.3fms",
+				getMean() / 1e6, getP50() / 1e6, getP99() / 1e6, getP999() / 1e6, max / 1e6);
+	}
+
+}
@@ -0,0 +1,64 @@
+/**********************************************************************
+ * 	LookupShardStrategy.java
+ *
+ *  ұƬÿڵķƬǼǣʱ޸ģǨȵ
+ *  ûеǼǵļfallbackԣfallbackΪnullʱ׳쳣
+ *
+ *  ޸ĵǼ֮ǰӦȰǨƵµķƬ
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class LookupShardStrategy implements ShardStrategy {
+
+	private final ConcurrentHashMap<Object, Integer> shards = new ConcurrentHashMap<Object, Integer>();
+	private final ShardStrategy fallback;
+
+
+	/* 췽fallbackΪûеǼǵļʹõĲԣΪnull */
+	public LookupShardStrategy(ShardStrategy fallback){
+		this.fallback = fallback;
+	}
+
+
+	/* 췽еӳʼ */
+	public LookupShardStrategy(Map<?, Integer> shards,ShardStrategy fallback){
+		this.fallback = fallback;
+		this.shards.putAll(shards);
+	}
+
+
+	/* ǼǼڵķƬ */
+	public void put(Object shardKey,int shard) {
+		shards.put(shardKey, Integer.valueOf(shard));
+	}
+
+
+	/* ȡǼǣ֮fallbackԾ */
+	public void remove(Object shardKey) {
+		shards.remove(shardKey);
+	}
+
+
+	@Override
+	public int shardOf(Object shardKey,int shardCount) {
+
+		if(shardKey == null){
+			throw new RuntimeException("ShardRouterƬΪnull");
+		}
+
+		Integer shard = shards.get(shardKey);
+		if(shard != null){
+			return shard.intValue();
+		}
+		if(fallback == null){
+			throw new RuntimeException("ShardRouterƬ " + shardKey + " ûеǼ");
+		}
+		return fallback.shardOf(shardKey, shardCount);
+	}
+
+}
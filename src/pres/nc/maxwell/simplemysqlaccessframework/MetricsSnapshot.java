@@ -0,0 +1,214 @@
+/**********************************************************************
+ * 	MetricsSnapshot.java
+ *
+ *  ӳغ̳߳ĳһʱ̵ͳϢThreadPoolPack.getMetricsSnapshot()MySqlHelper.getMetricsSnapshot()
+ *  Ŷǻȡʱֵӳٴʱʼۼƣʱο
+ *  ӳٵĵλΪ룬LatencySnapshot˸ʱֻӳ
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+public class MetricsSnapshot {
+
+	/* յʱ䣨System.currentTimeMillis */
+	final long timestamp = System.currentTimeMillis();
+
+	/* ӳأǰԼ */
+	int connectionCount;
+	int activeConnections;
+	int idleConnections;
+	int pendingAcquires;
+	int minConnections;
+	int maxConnections;
+
+	/* ӳأۼƴͻȡӵӳ */
+	long connectionsCreated;
+	long connectionCreateFailures;
+	long connectionsClosed;
+	long acquireTimeouts;
+	LatencySnapshot acquireLatency;
+
+	/* SQLSqlMetricsе±걣 */
+	LatencySnapshot[] operationLatency;
+	long[] operationErrors;
+
+	/* ̳߳أֻMySqlHelperÿʱΪ0 */
+	int activeTasks;
+	int queueDepth;
+	long rejectedTasks;
+	long completedTasks;
+	LatencySnapshot queueWait = new LatencySnapshot(new long[LatencyHistogram.BUCKET_COUNT], 0, 0, 0);
+
+
+	MetricsSnapshot(){
+	}
+
+
+	/* ÿյʱ䣨룩 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+
+	/* õǰʹкͿе */
+	public int getConnectionCount() {
+		return connectionCount;
+	}
+
+
+	/* ʹе */
+	public int getActiveConnections() {
+		return activeConnections;
+	}
+
+
+	/* ÿе */
+	public int getIdleConnections() {
+		return idleConnections;
+	}
+
+
+	/* ڵȴӵ߳ */
+	public int getPendingAcquires() {
+		return pendingAcquires;
+	}
+
+
+	/*  */
+	public int getMinConnections() {
+		return minConnections;
+	}
+
+
+	/*  */
+	public int getMaxConnections() {
+		return maxConnections;
+	}
+
+
+	/* ۼƴ */
+	public long getConnectionsCreated() {
+		return connectionsCreated;
+	}
+
+
+	/* ۼƴʧܵĴ */
+	public long getConnectionCreateFailures() {
+		return connectionCreateFailures;
+	}
+
+
+	/* ۼƹرյ */
+	public long getConnectionsClosed() {
+		return connectionsClosed;
+	}
+
+
+	/* ûȡӳʱĴ */
+	public long getAcquireTimeouts() {
+		return acquireTimeouts;
+	}
+
+
+	/* ûȡӵӳ٣ȴ黹ʹӵʱ */
+	public LatencySnapshot getAcquireLatency() {
+		return acquireLatency;
+	}
+
+
+	/* òѯӳ٣ȡȡӵʱ */
+	public LatencySnapshot getQueryLatency() {
+		return operationLatency[SqlMetrics.QUERY];
+	}
+
+
+	/* õµӳ */
+	public LatencySnapshot getUpdateLatency() {
+		return operationLatency[SqlMetrics.UPDATE];
+	}
+
+
+	/* ӳ٣ */
+	public LatencySnapshot getBatchLatency() {
+		return operationLatency[SqlMetrics.BATCH];
+	}
+
+
+	/* ӳ٣ӿʼύ߻ع */
+	public LatencySnapshot getTransactionLatency() {
+		return operationLatency[SqlMetrics.TRANSACTION];
+	}
+
+
+	/* ʧܵĲѯ */
+	public long getQueryErrors() {
+		return operationErrors[SqlMetrics.QUERY];
+	}
+
+
+	/* ʧܵĸ */
+	public long getUpdateErrors() {
+		return operationErrors[SqlMetrics.UPDATE];
+	}
+
+
+	/* ʧܵ */
+	public long getBatchErrors() {
+		return operationErrors[SqlMetrics.BATCH];
+	}
+
+
+	/* ûع */
+	public long getTransactionErrors() {
+		return operationErrors[SqlMetrics.TRANSACTION];
+	}
+
+
+	/* ִе */
+	public int getActiveTasks() {
+		return activeTasks;
+	}
+
+
+	/* Ŷӵȴύɵ̺߳Ŷӵ첽 */
+	public int getQueueDepth() {
+		return queueDepth;
+	}
+
+
+	/* ñܾ */
+	public long getRejectedTasks() {
+		return rejectedTasks;
+	}
+
+
+	/* Ѿɵ */
+	public long getCompletedTasks() {
+		return completedTasks;
+	}
+
+
+	/* ύʼִеĵȴʱ */
+	public LatencySnapshot getQueueWait() {
+		return queueWait;
+	}
+
+
+	@Override
+	public String toString() {
+		return "connections: total=" + connectionCount + ", active=" + activeConnections + ", idle=" + idleConnections
+				+ ", pending=" + pendingAcquires + ", min=" + minConnections + ", max=" + maxConnections
+				+ ", created=" + connectionsCreated + ", createFailures=" + connectionCreateFailures
+				+ ", closed=" + connectionsClosed + ", acquireTimeouts=" + acquireTimeouts + "\n"
+				+ "acquire:     " + acquireLatency + "\n"
+				+ "query:       " + getQueryLatency() + ", errors=" + getQueryErrors() + "\n"
+				+ "update:      " + getUpdateLatency() + ", errors=" + getUpdateErrors() + "\n"
+				+ "batch:       " + getBatchLatency() + ", errors=" + getBatchErrors() + "\n"
+				+ "transaction: " + getTransactionLatency() + ", errors=" + getTransactionErrors() + "\n"
+				+ "tasks: active=" + activeTasks + ", queued=" + queueDepth + ", rejected=" + rejectedTasks
+				+ ", completed=" + completedTasks + "\n"
+				+ "queueWait:   " + queueWait + "\n";
+	}
+
+}
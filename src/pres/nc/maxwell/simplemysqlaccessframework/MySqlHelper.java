@@ -2,7 +2,10 @@
  * 	MySqlHelper.java
  * 
  *  ҪװMYSQLJDBC
- *  üʵһôСӳ
+ *  ConnectionPoolʵһôСӳ
+ *  ÿִSQLĺʱǷʧܰͼ¼SqlMetricsУͨgetMetricsSnapshotȡ
+ *  SQL־ͬʱSQLָƲͳƺʱֵͬ־SlowQueryLog
+ *  ÿÿͬʱ¼ΪJFR¼ύͻعֻڵ־SqlEvents
  * 
  *  һ˵һݿѯֻ̣ҪһMySqlHelperʵ
  *  ʵThreadPoolPack𴴽ThreadPoolPack̳߳
@@ -12,236 +15,1071 @@
 
 package pres.nc.maxwell.simplemysqlaccessframework;
 
+import java.io.PrintStream;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class MySqlHelper {
 	
-	/* ݿ */
-    private String url = "";
-    private String userName = "";
-    private String password = "";
-    
     /* ӳ */
-	private ArrayList<Connection> connectionPool = new ArrayList<Connection>();
-	private int connectionPoolSize ;				//ӳ
-	private boolean connectionPoolIdleArr[];		//ӳؿб,ΪtrueʾӦеConnection
+	private ConnectionPool connectionPool;
+	private int connectionPoolSize ;				//ӳصĲλʱ޲ܳ
+	private volatile long acquireTimeout = 30000;	//ȡӵĬϳʱʱ䣨룩
+	private volatile int streamFetchSize = Integer.MIN_VALUE;	//ʽѯfetchSizeInteger.MIN_VALUEʾжȡ
+	private volatile boolean rewriteBatchedStatements = false;	//ǷдINSERTÿеĸΪ-2
+	
+	/* SQLĿΪתкźMethodHandleֻڵһβѯʱ
+	 * ˳򣬳MAX_ROW_MAPPERSʱ̭ûʹõתдrowMappersͬ */
+	private static final int MAX_ROW_MAPPERS = 1024;
+	private final LinkedHashMap<RowMapperKey, BeanRowMapper<?>> rowMappers = new LinkedHashMap<RowMapperKey, BeanRowMapper<?>>(16, 0.75f, true){
+		
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<RowMapperKey, BeanRowMapper<?>> eldest) {
+			return size() > MAX_ROW_MAPPERS;
+		}
+	};
+	
+	/* ѯ棬Ϊnullʾûп */
+	private volatile QueryResultCache queryResultCache = null;
+	
+	/* ӳغSQLͳϢ */
+	private final SqlMetrics metrics = new SqlMetrics();
+	
+	/* SQL־SQLָͳƣΪnullʾûп */
+	private volatile SlowQueryLog slowQueryLog = null;
 	
 	/* вι캯 */
 	public MySqlHelper(String url,String userName,String password,int connectionPoolSize){
 		
-    	this.url = url;
-    	this.userName = userName;
-    	this.password = password;
-    	
     	/* ӳ */
     	this.connectionPoolSize = connectionPoolSize;
-    	connectionPoolIdleArr = new boolean[connectionPoolSize];
-    	
-    	for(int i=0;i<connectionPoolIdleArr.length;i++){
-    		connectionPoolIdleArr[i] = false;
-    	}
+    	this.connectionPool = new ConnectionPool(url, userName, password, connectionPoolSize, metrics);
     	
     }
-    
-    /* ֱȡµ,˽зֹӳֱӻȡµ */
-	private Connection getConnection() {
+	
+
+	/* ûȡӵĬϳʱʱ䣨룩 */
+	public void setAcquireTimeout(long acquireTimeout) {
 		
-        Connection conn = null;		//nullʾɹ
+		if(acquireTimeout <= 0){
+			throw new RuntimeException("MySqlHelperȡӵĳʱʱ0");
+		}
+		this.acquireTimeout = acquireTimeout;
+	}
+	
+	
+	/* ûȡʱǷʹõǰ߳һι黹ӣ̲߳ظʹʱ̣߳Ӧر */
+	public void setThreadAffinity(boolean threadAffinity) {
 		
-        try {
-            conn = DriverManager.getConnection(url, userName, password);
-        } 
-        catch (SQLException e) {
-            e.printStackTrace();
-        }
+		connectionPool.setThreadAffinity(threadAffinity);
+	}
+	
+	
+	/* ÿӻԤΪ0ʾ棬ֻ֮½Ч */
+	public void setStatementCacheSize(int statementCacheSize) {
 		
-        return conn;
-    }
+		if(statementCacheSize < 0){
+			throw new RuntimeException("MySqlHelperԤ仺СС0");
+		}
+		connectionPool.setStatementCacheSize(statementCacheSize);
+	}
+	
+	
+	/* ǷʹMySQLԤ룬仺÷˵Ԥһֱֻ֮½Ч */
+	public void setUseServerPrepStmts(boolean useServerPrepStmts) {
+		
+		connectionPool.setDriverProperty("useServerPrepStmts", String.valueOf(useServerPrepStmts));
+		
+		/* Ļ渺䣬رԴĻ棬ظ */
+		connectionPool.setDriverProperty("cachePrepStmts", "false");
+	}
+	
+	
+	/* ǷINSERTдΪһINSERTֻ֮½Ч
+	 * Ըд䷵Statement.SUCCESS_NO_INFO-2Ϊÿеĸ */
+	public void setRewriteBatchedStatements(boolean rewriteBatchedStatements) {
+		
+		this.rewriteBatchedStatements = rewriteBatchedStatements;
+		connectionPool.setDriverProperty("rewriteBatchedStatements", String.valueOf(rewriteBatchedStatements));
+	}
+	
+	
+	/* ǷINSERTдΪһINSERT */
+	boolean isRewriteBatchedStatements() {
+		
+		return rewriteBatchedStatements;
+	}
+	
+	
+	/* ʽѯʹ÷α꣬ÿδӷȡfetchSize
+	 * fetchSizeΪ0ʱָΪʽȡfetchSizeΪInteger.MIN_VALUEʹα
+	 * useCursorFetchֻڽʱЧлʱеȫڣ֮µĲ´ */
+	public void setStreamCursorFetch(int fetchSize) {
+		
+		if(fetchSize < 0){
+			throw new RuntimeException("MySqlHelperαÿζȡС0");
+		}
+		
+		boolean cursorFetch = fetchSize > 0;
+		boolean changed = cursorFetch != (streamFetchSize != Integer.MIN_VALUE);
+		
+		connectionPool.setDriverProperty("useCursorFetch", String.valueOf(cursorFetch));
+		this.streamFetchSize = cursorFetch ? fetchSize : Integer.MIN_VALUE;
+		
+		if(changed){
+			connectionPool.expireAll();
+		}
+	}
+	
+	
+	/* ӵʹʱ䣨룩ڵӹرպ´ӦMySQLwait_timeouṭ0ʾƣֻ֮½Ч */
+	public void setMaxLifetime(long maxLifetimeMillis) {
+		
+		if(maxLifetimeMillis < 0){
+			throw new RuntimeException("MySqlHelperӵʹʱ䲻С0");
+		}
+		connectionPool.setMaxLifetime(maxLifetimeMillis);
+	}
+	
+	
+	/* ÿӵʱ䣨룩ɺ̨ά̹߳رգ0ʾر */
+	public void setIdleTimeout(long idleTimeoutMillis) {
+		
+		if(idleTimeoutMillis < 0){
+			throw new RuntimeException("MySqlHelperӵıʱ䲻С0");
+		}
+		connectionPool.setIdleTimeout(idleTimeoutMillis);
+	}
+	
+	
+	/* ÿгvalidationIntervalMillisʹǰȼ飬ȴvalidationTimeoutSeconds */
+	public void setConnectionValidation(long validationIntervalMillis, int validationTimeoutSeconds) {
+		
+		if(validationIntervalMillis < 0 || validationTimeoutSeconds <= 0){
+			throw new RuntimeException("MySqlHelperС0鳬ʱʱ0");
+		}
+		connectionPool.setValidation(validationIntervalMillis, validationTimeoutSeconds);
+	}
+	
+	
+	/* ų́ά̼߳ӵļ룩0ʾά߳ */
+	public void setHousekeepingInterval(long housekeepingIntervalMillis) {
+		
+		if(housekeepingIntervalMillis < 0){
+			throw new RuntimeException("MySqlHelperάС0");
+		}
+		connectionPool.setHousekeepingInterval(housekeepingIntervalMillis);
+	}
+	
+	
+	/* ޣmaxConnectionsܳʱӳشС
+	 * ʱ㣬޵Ŀرգʹеڹ黹ʱر */
+	public void setConnectionPoolSize(int minConnections, int maxConnections) {
+		
+		connectionPool.resize(minConnections, maxConnections);
+		prefillConnections(minConnections);
+	}
+	
+	
+	/* ﵽ޺󣬻ȡʱȴã룩ûй黹ӲŴµӣ0ʾ */
+	public void setGrowThreshold(long growThresholdMillis) {
+		
+		if(growThresholdMillis < 0){
+			throw new RuntimeException("MySqlHelperǰĵȴʱ䲻С0");
+		}
+		connectionPool.setGrowThreshold(growThresholdMillis);
+	}
+	
+	
+	/*  */
+	public int getMinConnections() {
+		return connectionPool.getMinSize();
+	}
+	
+	
+	/*  */
+	public int getMaxConnections() {
+		return connectionPool.getMaxSize();
+	}
+	
+	
+	/* ǰʹкͿе */
+	public int getConnectionCount() {
+		return connectionPool.getConnectionCount();
+	}
+	
+	
+	/* дӣֱӳcountӣӳشС½ */
+	public int prefillConnections(int count) {
+		
+		if(count < 0){
+			throw new RuntimeException("MySqlHelperԤȴС0");
+		}
+		
+		long start = System.nanoTime();
+		int created = connectionPool.prefill(Math.min(count, connectionPool.getMaxSize()));
+		if(created > 0){
+			SqlEvents.info("MySqlHelperԤȴ " + created + " ӣʱ " + (System.nanoTime() - start) / 1000000 + " ");
+		}
+		return created;
+	}
+	
+	
+	/* ӳغSQLͳϢ */
+	public MetricsSnapshot getMetricsSnapshot() {
+		
+		MetricsSnapshot snapshot = new MetricsSnapshot();
+		connectionPool.fill(snapshot);
+		metrics.fill(snapshot);
+		return snapshot;
+	}
+	
+	
+	/* SQL־System.outķ */
+	public void enableSlowQueryLog(long thresholdMillis, int sampleRate, int maxFingerprints) {
+		
+		enableSlowQueryLog(thresholdMillis, sampleRate, maxFingerprints, System.out);
+	}
+	
+	
+	/* SQL־ʱﵽthresholdMillisͬout0ʾ
+	 * ÿsampleRateִвһΰSQLָͳƺʱͳmaxFingerprintsָƣԭ־ͳƱ滻 */
+	public void enableSlowQueryLog(long thresholdMillis, int sampleRate, int maxFingerprints, PrintStream out) {
+		
+		SlowQueryLog old = slowQueryLog;
+		slowQueryLog = new SlowQueryLog(thresholdMillis, sampleRate, maxFingerprints, out);
+		if(old != null){
+			old.close();
+		}
+	}
+	
+	
+	/* رSQL־ͳȫر */
+	public void disableSlowQueryLog() {
+		
+		SlowQueryLog log = slowQueryLog;
+		slowQueryLog = null;
+		if(log != null){
+			log.close();
+		}
+	}
+	
+	
+	/* ʹsourceͬSQL־ûпڸϲͳ */
+	void shareSlowQueryLog(MySqlHelper source) {
+		
+		slowQueryLog = source.slowQueryLog;
+	}
+	
+	
+	/* ÿSQLָƵĺʱͳƣܺʱӴСУûпSQL־ʱnull */
+	public List<SqlFingerprintStats> getSqlFingerprintStats() {
+		
+		SlowQueryLog log = slowQueryLog;
+		return log == null ? null : log.getStats();
+	}
+	
+	
+	/* ѾSQLûпSQL־ʱ0 */
+	public long getSlowQueryCount() {
+		
+		SlowQueryLog log = slowQueryLog;
+		return log == null ? 0 : log.getSlowCount();
+	}
+	
+	
+	/* Ԥ仺Сδк̭ */
+	public StatementCacheStats getStatementCacheStats() {
+		
+		return connectionPool.getStatementCacheStats();
+	}
+	
+	
+	/* ѯ棺ĲѯSQLͲ棬maxEntriesռmaxBytesֽڣ
+	 * ÿЧΪttlMillis룻ͨʵִеĸƳ˱޸ĵıĽ */
+	public void enableQueryResultCache(int maxEntries, long maxBytes, long ttlMillis) {
+		
+		queryResultCache = new QueryResultCache(maxEntries, maxBytes, ttlMillis);
+	}
+	
+	
+	/* رղѯ棬Ľȫ */
+	public void disableQueryResultCache() {
+		
+		QueryResultCache cache = queryResultCache;
+		queryResultCache = null;
+		if(cache != null){
+			cache.clear();
+		}
+	}
+	
+	
+	/* òѯʡռڴʧЧͳϢûпʱnull */
+	public QueryResultCacheStats getQueryResultCacheStats() {
+		
+		QueryResultCache cache = queryResultCache;
+		return cache == null ? null : cache.getStats();
+	}
+	
+	
+	/* ûĲѯҪӣûп桢䲻ܻûʱnull */
+	public DetachedResultSet getCachedQueryResult(String sql, SqlParameters parameters) {
+		
+		QueryResultCache cache = queryResultCache;
+		if(cache == null){
+			return null;
+		}
+		
+		String key = cache.keyOf(sql, parameters);
+		return key == null ? null : cache.get(key);
+	}
+	
+	
+	/* жϲѯǷ뻺棺˻沢Ի */
+	boolean isQueryResultCacheable(String sql, SqlParameters parameters) {
+		
+		QueryResultCache cache = queryResultCache;
+		return cache != null && cache.keyOf(sql, parameters) != null;
+	}
+	
+	
+	/* ӳлȡ,ӳʱȴ̹߳黹Ĭϳʱʱ׳RuntimeException */
+	public PooledConnection acquireConnection() {
+		
+		return connectionPool.acquire(acquireTimeout);
+	}
+	
+	
+	/* ӳлȡ,ӳʱȴ̹߳黹timeoutMillis׳RuntimeException */
+	public PooledConnection acquireConnection(long timeoutMillis) {
+		
+		return connectionPool.acquire(timeoutMillis);
+	}
+	
+	
+	/* һӳصӣڲѯӵĺ̨飬ɵ߹ر */
+	Connection openDedicatedConnection() throws SQLException {
+		
+		return connectionPool.openDedicated();
+	}
+	
+	
+	/* ӳлȡ,ȴпе򷵻أӳû򴴽µӣ򷵻null */
+	public PooledConnection tryAcquireConnection() {
+		
+		return connectionPool.tryAcquire();
+	}
+	
+	
+	/* 黹ӣ߳ڵȴʱֱӽȴ̣߳״̬ΪУO(1) */
+	public void releaseConnection(PooledConnection pooledConn) {
+		
+		connectionPool.release(pooledConn);
+	}
 	
 
 	/* ӳлȡ,ӳûȡµ,򷵻ؿе */
 	public Connection getConnectionFromPool() {
 
-		synchronized (connectionPool) {
-			Connection conn = null;
-			
-			
-			if(connectionPool.size()<connectionPoolSize){		//ӳػû
-			
-				/* עҪͬ */
-				synchronized (connectionPool) {
-					conn = getConnection();
-					if(conn!=null){
-						connectionPool.add(conn);
-						System.out.println("MySqlHelper " + Integer.toHexString(conn.hashCode()) + " ӳ");
-						return conn;
-					}
-				}
-			}
-			else{	//ӳ
-				
-				/* ̳߳ػ߳<=ӳһ߳̿һӣԵ߳Ҫʱضӿ */
-		    	for(int i = 0;i < connectionPoolIdleArr.length;i++){
-		    		if(connectionPoolIdleArr[i] == true){
-		    			conn = (Connection)connectionPool.get(i);
-		    			connectionPoolIdleArr[i] = false;
-		    			return conn;
-		    		}
-		    	}	
-			}
-			return conn;
-			
-		}		
-	}
-	
-	/* ״̬Ϊ */
+		PooledConnection pooledConn = connectionPool.tryAcquire();
+		return pooledConn == null ? null : pooledConn.getConnection();
+	}
+	
+	/* ״̬ΪУҪȲڵĲλ´ӦʹreleaseConnection */
 	public void setConnectionStateToIdle(Connection conn) {
 
-		synchronized (connectionPoolIdleArr) {
-			
-			int index = connectionPool.indexOf(conn);
-			if(index == -1){
-				throw new RuntimeException("MySqlHelperconnectionڼ");			
-			}
-			else{
-				connectionPoolIdleArr[index] = true;				
-			}
-		}		
+		PooledConnection pooledConn = connectionPool.find(conn);
+		if(pooledConn == null){
+			throw new RuntimeException("MySqlHelperconnectionڼ");			
+		}
+		
+		connectionPool.release(pooledConn);
 	}	
 	
-	/* رӳе */	
+	/* رӳеӣͬʱֹ̨ͣά̣߳ٴδʱ */	
 	public void closeAllConnections() {
 		
-		synchronized (connectionPool) {
-			
-			for(Connection conn:connectionPool){
-				
-				try {
-					conn.close();
-				} catch (SQLException e) {
-					e.printStackTrace();
-				}
-				
-				System.out.println("MySqlHelperر " + Integer.toHexString(conn.hashCode()));	
-			}
-			
-			connectionPool.clear();
-		}
-		
-		/* ӳؿбеӲΪ */
-		synchronized (connectionPoolIdleArr) {
-			
-	    	for(int i=0;i<connectionPoolIdleArr.length;i++){
-	    		connectionPoolIdleArr[i] = false;
-	    	}    	
-		}	
-	
+		connectionPool.closeAll();
+		
+		/* SQL־ͳȻԶȡֻر */
+		SlowQueryLog log = slowQueryLog;
+		if(log != null){
+			log.close();
+		}
 	}	
 	
 	
-	/* ִвѯSQL䣬һִSelect SQL */		
+	/* ִвѯSQL䣬һִSelect SQL
+	 * ύߣ䲻뻺棬߹رսʱ֮ر */		
     public ResultSet executeQuery(Connection conn, String sql, String... parameters) {
     	
+    	return executeQuery(conn, sql, SqlParameters.ofStrings(parameters));
+    }
+    
+    
+	/* ִвѯSQL䣬ʹô͵Ĳ */		
+    public ResultSet executeQuery(Connection conn, String sql, SqlParameters parameters) {
+    	
         ResultSet rs = null;
         PreparedStatement ps = null;
+        long start = System.nanoTime();
+        SqlEvents.StatementExecuteEvent event = SqlEvents.beginStatement();
         
         try {
         	
         	/* Ԥѯ */
             ps = conn.prepareStatement(sql);
-            if (parameters != null) {
-                for (int i = 0; i < parameters.length; i++) {
-                    ps.setString(i + 1, parameters[i]);
-                }
-            }
+            bindParameters(ps, parameters);
             
             rs = ps.executeQuery();
+            ps.closeOnCompletion();
         } catch (SQLException e) {
             //e.printStackTrace();
-            throw new RuntimeException(e.getMessage());
+            closeStatement(ps);
+            recordOperation(SqlMetrics.QUERY, start, event, true, sql, parameters);
+            throw new RuntimeException(e.getMessage(), e);
         } 
         
+        recordOperation(SqlMetrics.QUERY, start, event, false, sql, parameters);		//ɵ߶ȡִֻеʱ
         return rs;
     }
     
     
+	/* ִвѯSQL䣬ڵǰ̶߳Уӷʽ
+	 * ֮伴ɸãʹӵԤ仺
+	 * ˲ѯʱͬʱ뻺 */		
+    public DetachedResultSet executeDetachedQuery(PooledConnection pooledConn, String sql, String... parameters) {
+    	
+    	return executeDetachedQuery(pooledConn, sql, SqlParameters.ofStrings(parameters));
+    }
+    
+    
+	/* ִвѯSQL䣬ʹô͵Ĳӷʽ */		
+    public DetachedResultSet executeDetachedQuery(PooledConnection pooledConn, String sql, SqlParameters parameters) {
+    	
+    	StatementCache statementCache = pooledConn.getStatementCache();
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        
+        /* ڲѯ֮ǰ¼ʧЧţѯڼʱ뻺 */
+        QueryResultCache cache = queryResultCache;
+        String key = cache == null ? null : cache.keyOf(sql, parameters);
+        long sequence = key == null ? 0 : cache.currentSequence();
+        long start = System.nanoTime();
+        SqlEvents.StatementExecuteEvent event = SqlEvents.beginStatement();
+        boolean failed = true;
+        
+        try {
+            ps = statementCache.prepare(sql);
+            bindParameters(ps, parameters);
+            
+            rs = ps.executeQuery();
+            DetachedResultSet result = DetachedResultSet.read(rs);
+            failed = false;
+            
+            if(key != null){
+            	cache.put(key, sql, result, sequence);
+            }
+            return result;
+        } 
+        catch (SQLException e) {
+            //e.printStackTrace();
+            throw new RuntimeException(e.getMessage(), e);
+        }  
+        finally {
+        	recordOperation(SqlMetrics.QUERY, start, event, failed, sql, parameters);
+        	closeResultSet(rs);
+        	if(ps != null){
+        		if(failed){
+        			statementCache.invalidate(sql);		//䲻ٸ
+        		}
+        		statementCache.release(ps);
+        	}
+        }
+    }
+    
+    
+	/* ִвѯSQL䣬ڵǰ̰߳ÿһתΪtypeĶ
+	 * תSQLtype棬ͬһSQLٴβѯʱٽ */		
+    public <T> List<T> executeMappedQuery(PooledConnection pooledConn, String sql, Class<T> type, String... parameters) {
+    	
+    	return executeMappedQuery(pooledConn, sql, type, SqlParameters.ofStrings(parameters));
+    }
+    
+    
+	/* ִвѯSQL䣬ʹô͵ĲתĶб */		
+    public <T> List<T> executeMappedQuery(PooledConnection pooledConn, String sql, Class<T> type, SqlParameters parameters) {
+    	
+    	StatementCache statementCache = pooledConn.getStatementCache();
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        
+        long start = System.nanoTime();
+        SqlEvents.StatementExecuteEvent event = SqlEvents.beginStatement();
+        boolean failed = true;
+        
+        try {
+            ps = statementCache.prepare(sql);
+            bindParameters(ps, parameters);
+            
+            rs = ps.executeQuery();
+            BeanRowMapper<T> mapper = getRowMapper(sql, type, rs);
+            
+            List<T> list = new ArrayList<T>();
+            while (rs.next()) {
+            	list.add(mapper.mapRow(rs));
+            }
+            failed = false;
+            return list;
+        } 
+        catch (SQLException e) {
+            //e.printStackTrace();
+            throw new RuntimeException(e.getMessage(), e);
+        }  
+        finally {
+        	recordOperation(SqlMetrics.QUERY, start, event, failed, sql, parameters);
+        	closeResultSet(rs);
+        	if(ps != null){
+        		if(failed){
+        			statementCache.invalidate(sql);		//䲻ٸ
+        		}
+        		statementCache.release(ps);
+        	}
+        }
+    }
+    
+    
+    /* ûĶתûл߽Ѿı䣨ṹ޸ĺSELECT *ʱ´ */
+    @SuppressWarnings("unchecked")
+    private <T> BeanRowMapper<T> getRowMapper(String sql, Class<T> type, ResultSet rs) throws SQLException {
+    	
+    	RowMapperKey key = new RowMapperKey(sql, type);
+    	BeanRowMapper<T> mapper;
+    	synchronized (rowMappers) {
+    		mapper = (BeanRowMapper<T>) rowMappers.get(key);
+    	}
+    	
+    	if (mapper == null || !mapper.matches(rs.getMetaData())) {
+    		
+    		/* ƴ˲ֵSQLÿζֻ̭ͬûʹõתõȻ
+    		 * ÿ͵SetterֻһΣʱֻ½кţµ */
+    		mapper = BeanRowMapper.create(type, rs.getMetaData());
+    		synchronized (rowMappers) {
+    			rowMappers.put(key, mapper);
+    		}
+    	}
+    	
+    	return mapper;
+    }
+    
+    
+	/* ʽִвѯSQL䣬ÿһеһhandler
+	 * شhandlerfalse̱߳жʱȡѯ
+	 * ʽȡڼӲִ䣬䲻뻺棬ִر */		
+    public long executeStream(PooledConnection pooledConn, String sql, RowHandler handler, String... parameters) {
+    	
+    	return executeStream(pooledConn, sql, handler, SqlParameters.ofStrings(parameters));
+    }
+    
+    
+	/* ʽִвѯSQL䣬ʹô͵Ĳ */		
+    public long executeStream(PooledConnection pooledConn, String sql, RowHandler handler, SqlParameters parameters) {
+    	
+    	Connection conn = pooledConn.getConnection();
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        long rows = 0;
+        long start = System.nanoTime();
+        SqlEvents.StatementExecuteEvent event = SqlEvents.beginStatement();
+        boolean failed = true;
+        boolean finished = false;		//ǷѾе
+        
+        try {
+            ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(streamFetchSize);
+            bindParameters(ps, parameters);
+            
+            rs = ps.executeQuery();
+            
+            boolean stopped = false;
+            while (!stopped && rs.next()) {
+            	
+            	rows++;
+            	stopped = !handler.handleRow(rs) || Thread.currentThread().isInterrupted();
+            }
+            finished = !stopped;
+            failed = false;
+        } 
+        catch (SQLException e) {
+            //e.printStackTrace();
+            throw new RuntimeException(e.getMessage(), e);
+        }  
+        finally {
+        	/* ûжʱǰhandler׳쳣߶ȡȡϵĲѯ
+        	 * رսʱҪʣµУȡʧֻӡڸԭ쳣 */
+        	if (rs != null && !finished) {
+        		cancelStatement(ps);
+        	}
+        	closeResultSet(rs);
+        	closeStatement(ps);
+        	recordOperation(SqlMetrics.QUERY, start, event, failed, sql, parameters);		//дʱ
+        }
+        
+        return rows;
+    }
+    
+    
 	/* ִи²SQL䣬ִUpdate/Delete/Insert/Create SQL */		
     public Integer executeUpdate(Connection conn, String sql, String... parameters) {
     	
+    	return executeUpdate(conn, sql, SqlParameters.ofStrings(parameters));
+    }
+    
+    
+	/* ִи²SQL䣬ʹô͵Ĳ */		
+    public Integer executeUpdate(Connection conn, String sql, SqlParameters parameters) {
+    	
         PreparedStatement ps = null;
         Integer ret;
+        long start = System.nanoTime();
+        SqlEvents.StatementExecuteEvent event = SqlEvents.beginStatement();
+        boolean failed = true;
         
         try {
             ps = conn.prepareStatement(sql);
 
             /* ԤSQL */
-            if (parameters != null)
-                for (int i = 0; i < parameters.length; i++) {
-                    ps.setString(i + 1, parameters[i]);
-                }
+            bindParameters(ps, parameters);
             
             ret = ps.executeUpdate();
+            failed = false;
         } 
         catch (SQLException e) {
             //e.printStackTrace();
-            throw new RuntimeException(e.getMessage());
+            throw new RuntimeException(e.getMessage(), e);
         }  
+        finally {
+        	recordOperation(SqlMetrics.UPDATE, start, event, failed, sql, parameters);
+        	closeStatement(ps);
+        	invalidateQueryResults(sql);
+        }
+        
+        return ret;
+    }
+    
+    
+	/* ִи²SQL䣬ʹӵԤ仺 */		
+    public Integer executeUpdate(PooledConnection pooledConn, String sql, String... parameters) {
+    	
+    	return executeUpdate(pooledConn, sql, SqlParameters.ofStrings(parameters));
+    }
+    
+    
+	/* ִи²SQL䣬ʹô͵ĲӵԤ仺 */		
+    public Integer executeUpdate(PooledConnection pooledConn, String sql, SqlParameters parameters) {
+    	
+    	StatementCache statementCache = pooledConn.getStatementCache();
+        PreparedStatement ps = null;
+        Integer ret;
+        long start = System.nanoTime();
+        SqlEvents.StatementExecuteEvent event = SqlEvents.beginStatement();
+        boolean failed = true;
+        
+        try {
+            ps = statementCache.prepare(sql);
+            bindParameters(ps, parameters);
+            
+            ret = ps.executeUpdate();
+            failed = false;
+        } 
+        catch (SQLException e) {
+            //e.printStackTrace();
+            throw new RuntimeException(e.getMessage(), e);
+        }  
+        finally {
+        	recordOperation(SqlMetrics.UPDATE, start, event, failed, sql, parameters);
+        	if(ps != null){
+        		if(failed){
+        			statementCache.invalidate(sql);		//䲻ٸ
+        		}
+        		statementCache.release(ps);
+        	}
+        	invalidateQueryResults(sql);
+        }
+        
+        return ret;
+    }
+    
+    
+    /* ͬһSQLִжвÿchunkSizeзһΣһ
+     * ÿһеĸ˳rowsһ */	
+    public int[] executeBatch(PooledConnection pooledConn, String sql, List<String[]> rows, int chunkSize){
+    	
+    	return executeBatch(pooledConn, sql, SqlParameters.ofStringRows(rows), chunkSize);
+    }
+    
+    
+    /* ͬһSQLִжд͵ĲÿchunkSizeзһΣһ */	
+    public int[] executeBatch(PooledConnection pooledConn, String sql, SqlParameters[] rows, int chunkSize){
+    	
+    	if(chunkSize <= 0){
+    		throw new RuntimeException("MySqlHelperÿη͵0");
+    	}
+    	
+    	Connection conn = pooledConn.getConnection();
+    	StatementCache statementCache = pooledConn.getStatementCache();
+    	int[] ret = new int[rows.length];
+    	long start = System.nanoTime();
+    	SqlEvents.StatementExecuteEvent event = SqlEvents.beginStatement();
+    	boolean failed = true;
+    	
+        try {
+            conn.setAutoCommit(false);
+            
+            PreparedStatement ps = statementCache.prepare(sql);
+            boolean batchFailed = true;
+            try {
+            	int sent = 0;		//Ѿ͵
+            	
+            	for (int i = 0; i < rows.length; i++) {
+            		ps.clearParameters();		//ûв߲ٵвһеֵ
+            		bindParameters(ps, rows[i]);
+            		ps.addBatch();
+            		
+            		/* ﵽһѾһУһ */
+            		if (i - sent + 1 == chunkSize || i == rows.length - 1) {
+            			int[] counts = ps.executeBatch();
+            			System.arraycopy(counts, 0, ret, sent, counts.length);
+            			sent = i + 1;
+            		}
+            	}
+            	batchFailed = false;
+            }
+            finally {
+            	if(batchFailed){
+            		statementCache.invalidate(sql);		//䲻ٸ
+            	}
+            	else{
+            		ps.clearBatch();
+            	}
+            	statementCache.release(ps);
+            }
+            
+            conn.commit();
+            failed = false;
+        } 
+        catch (Exception e) {
+        	rollback(conn, e);
+        } 
+        finally {
+        	SqlEvents.commitStatement(event, SqlMetrics.BATCH, sql, failed);
+        	long nanos = recordOperation(SqlMetrics.BATCH, start, null, failed, null, null);
+        	SlowQueryLog log = slowQueryLog;
+        	if(log != null){
+        		log.recordBatch(sql, rows, nanos, failed);
+        	}
+        	restoreAutoCommit(conn);
+        	invalidateQueryResults(sql);
+        }
         
         return ret;
     }
     
     
-    /* ִж²SQL䣬ִUpdate/Delete/Insertϣһ */	
-    public void executeTransaction(Connection conn, String[] sql, String[]... parameters){
+    /* ִж²SQL䣬ִUpdate/Delete/Insertϣһ
+     * ÿĸ˳sqlһ£ͬϲΪһͣ
+     * rewriteBatchedStatementsʱϲINSERTÿ-2SUCCESS_NO_INFO */	
+    public int[] executeTransaction(Connection conn, String[] sql, String[]... parameters){
+    	
+    	return executeTransaction(conn, sql, SqlParameters.ofStringRows(parameters));
+    }
+    
+    
+    /* ִж²SQL䣬ʹô͵Ĳһ */	
+    public int[] executeTransaction(Connection conn, String[] sql, SqlParameters[] parameters){
+    	
+    	/* ʹӵĻ棺ظֻԤһΣʱȫر */
+    	return executeTransaction(conn, new StatementCache(conn, 0, new StatementCacheStats()), sql, parameters);
+    }
+    
+    
+    /* ִж²SQL䣬ʹӵԤ仺棬һ */	
+    public int[] executeTransaction(PooledConnection pooledConn, String[] sql, String[]... parameters){
     	
-    	PreparedStatement ps = null;
+    	return executeTransaction(pooledConn, sql, SqlParameters.ofStringRows(parameters));
+    }
+    
+    
+    /* ִж²SQL䣬ʹô͵ĲӵԤ仺棬һ */	
+    public int[] executeTransaction(PooledConnection pooledConn, String[] sql, SqlParameters[] parameters){
+    	
+    	return executeTransaction(pooledConn.getConnection(), pooledConn.getStatementCache(), sql, parameters);
+    }
+    
+    
+    /* ˳ִе䣬sql[i]ǰһͬʱͬһͬʱȷǰһ
+     * ӵĻ治ʱʹֻЧΪͬĻ棬ʹڵظҲֻԤһ */
+    private int[] executeTransaction(Connection conn, StatementCache statementCache, String[] sql, SqlParameters[] parameters){
+    	
+    	SqlEvents.TransactionEvent transactionEvent = new SqlEvents.TransactionEvent();
+    	transactionEvent.begin();
+    	long start = System.nanoTime();
+    	boolean failed = true;
+    	int[] ret = new int[sql.length];
+    	
+    	StatementCache transactionCache = null;
+    	if(statementCache.getCapacity() == 0){
+    		transactionCache = new StatementCache(conn, new HashSet<String>(Arrays.asList(sql)).size(), new StatementCacheStats());
+    		statementCache = transactionCache;
+    	}
     	
         try {
             //ʹӿִһ
             conn.setAutoCommit(false);
             
-            for (int i = 0; i < sql.length; i++) {
+            for (int first = 0; first < sql.length;) {
             	
-            	//ԤSQL
-                if (parameters[i] != null) {
-                    ps = conn.prepareStatement(sql[i]);
-                  
-                    for (int j = 0; j < parameters[i].length; j++)
-                        ps.setString(j + 1, parameters[i][j]);
-                }
-                
-                ps.executeUpdate();
+            	/* sql[first]ͬ */
+            	int last = first;
+            	while (last + 1 < sql.length && sql[last + 1].equals(sql[first])) {
+            		last++;
+            	}
+            	
+            	//ԤSQL䣬ʱֱӸ
+            	SqlEvents.StatementExecuteEvent event = SqlEvents.beginStatement();
+            	boolean statementFailed = true;
+            	PreparedStatement ps = statementCache.prepare(sql[first]);
+            	try {
+            		if (first == last) {
+            			bindParameters(ps, parameterAt(parameters, first));
+            			ret[first] = ps.executeUpdate();
+            		}
+            		else {
+            			for (int i = first; i <= last; i++) {
+            				ps.clearParameters();		//ûввһеֵ
+            				bindParameters(ps, parameterAt(parameters, i));
+            				ps.addBatch();
+            			}
+            			int[] counts = ps.executeBatch();
+            			System.arraycopy(counts, 0, ret, first, counts.length);
+            		}
+            		statementFailed = false;
+            	}
+            	finally {
+            		if (statementFailed) {
+            			statementCache.invalidate(sql[first]);		//䲻ٸ
+            		}
+            		else if (first != last) {
+            			ps.clearBatch();
+            		}
+            		statementCache.release(ps);
+            		SqlEvents.commitStatement(event, SqlMetrics.TRANSACTION, sql[first], statementFailed);
+            	}
+            	
+            	first = last + 1;
             }
             
             //ύӣʱſʼִ
             conn.commit();
+            failed = false;
             
         } 
         catch (Exception e) {
+        	rollback(conn, e);
+        } 
+        finally {
+        	if(transactionCache != null){
+        		transactionCache.closeAll();
+        	}
         	
-        	System.out.println("MySqlHelper쳣");
+        	long nanos = recordOperation(SqlMetrics.TRANSACTION, start, null, failed, null, null);
+        	SlowQueryLog log = slowQueryLog;
+        	if(log != null){
+        		log.recordTransaction(sql, parameters, nanos, failed);
+        	}
         	
-            try {
-            	//쳣ع
-                conn.rollback();
-            } 
-            catch (SQLException e1) {
-                //e1.printStackTrace();
-            	throw new RuntimeException("MySqlHelperعʧܣ");
-            }
-            
-            //e.printStackTrace();
-            System.out.println("MySqlHelperعɹ");
-            throw new RuntimeException(e.getMessage());
-            
+        	transactionEvent.end();
+        	if(transactionEvent.shouldCommit()){
+        		transactionEvent.statements = sql.length;
+        		transactionEvent.firstStatement = sql.length == 0 ? null : sql[0];
+        		transactionEvent.committed = !failed;
+        		transactionEvent.commit();
+        	}
+        	restoreAutoCommit(conn);
+        	
+        	/* ύ֮ƳĽ߳̿ύ֮ǰֻ˾ɵ */
+        	for (int i = 0; i < sql.length; i++) {
+        		invalidateQueryResults(sql[i]);
+        	}
+        }
+        
+        if(SqlEvents.isDebugEnabled()){
+        	SqlEvents.debug("MySqlHelperִ ");
+        }
+        return ret;
+    }
+    
+    
+    /* iĲʱûв */
+    private static SqlParameters parameterAt(SqlParameters[] parameters, int i) {
+    	
+    	return parameters == null || i >= parameters.length ? null : parameters[i];
+    }
+    
+    
+    /* ¼һSQLstartSystem.nanoTimeڵĺʱύJFR¼SQL־غʱ룩
+     * eventsqlΪnullʱύ¼SQL־ɵ߰¼ */
+    private long recordOperation(int type, long start, SqlEvents.StatementExecuteEvent event, boolean failed, String sql, SqlParameters parameters) {
+    	
+    	long nanos = System.nanoTime() - start;
+    	metrics.recordOperation(type, nanos, failed);
+    	if(event != null){
+    		SqlEvents.commitStatement(event, type, sql, failed);
+    	}
+    	
+    	SlowQueryLog log = slowQueryLog;
+    	if(log != null && sql != null){
+    		log.record(sql, parameters, nanos, failed);
+    	}
+    	return nanos;
+    }
+    
+    
+    /* ִ֮Ƴ˱޸ĵıĻ */
+    private void invalidateQueryResults(String sql) {
+    	
+    	QueryResultCache cache = queryResultCache;
+    	if (cache != null) {
+    		cache.invalidate(sql);
+    	}
+    }
+    
+    
+    /* ˳󶨲parametersΪnullʾûв */
+    private static void bindParameters(PreparedStatement ps, SqlParameters parameters) throws SQLException {
+    	
+        if (parameters != null) {
+        	parameters.bindTo(ps);
+        }
+    }
+
+    
+    
+    /* 쳣ʱع׳ԭ쳣Ϣ */
+    private static void rollback(Connection conn, Exception e) {
+    	
+    	if(SqlEvents.isDebugEnabled()){
+    		SqlEvents.debug("MySqlHelper쳣" + e.getMessage());
+    	}
+    	
+        try {
+        	//쳣ع
+            conn.rollback();
         } 
+        catch (SQLException e1) {
+            //e1.printStackTrace();
+        	throw new RuntimeException("MySqlHelperعʧܣ");
+        }
         
-        System.out.println("MySqlHelperִ ");	
+        //e.printStackTrace();
+        if(SqlEvents.isDebugEnabled()){
+        	SqlEvents.debug("MySqlHelperعɹ");
+        }
+        throw new RuntimeException(e.getMessage(), e);
+    }
+    
+    
+    /* ָԶύӹ黹񻹻ʹ */
+    private static void restoreAutoCommit(Connection conn) {
+    	
+    	try {
+			conn.setAutoCommit(true);
+		} 
+    	catch (SQLException e) {
+			e.printStackTrace();
+		}
+    }
+    
+    
+    /* ȡִе */
+    private static void cancelStatement(PreparedStatement ps) {
+    	
+    	try {
+			ps.cancel();
+		} 
+    	catch (SQLException e) {
+			e.printStackTrace();
+		}
+    }
+    
+    
+    /* رս */
+    private static void closeResultSet(ResultSet rs) {
+    	
+    	if(rs == null){
+    		return;
+    	}
+    	
+    	try {
+			rs.close();
+		} 
+    	catch (SQLException e) {
+			e.printStackTrace();
+		}
+    }
+    
+    
+    /* رղ */
+    private static void closeStatement(PreparedStatement ps) {
+    	
+    	if(ps == null){
+    		return;
+    	}
+    	
+    	try {
+			ps.close();
+		} 
+    	catch (SQLException e) {
+			e.printStackTrace();
+		}
+    }
+    
+    
+    
+    /* תļSQLĿ */
+    private static final class RowMapperKey {
+    	
+    	private final String sql;
+    	private final Class<?> type;
+    	
+    	RowMapperKey(String sql, Class<?> type){
+    		this.sql = sql;
+    		this.type = type;
+    	}
+    	
+    	@Override
+    	public boolean equals(Object obj) {
+    		if (!(obj instanceof RowMapperKey)) {
+    			return false;
+    		}
+    		RowMapperKey other = (RowMapperKey) obj;
+    		return type == other.type && sql.equals(other.sql);
+    	}
+    	
+    	@Override
+    	public int hashCode() {
+    		return sql.hashCode() * 31 + type.hashCode();
+    	}
     }
     
 }
@@ -0,0 +1,75 @@
+/**********************************************************************
+ * 	PooledConnection.java
+ *
+ *  ӳеӰװ࣬¼ڵĲλ
+ *  黹ʱֱӸݲλ±޸״̬Ҫӳв
+ *  ÿӴԼԤ仺
+ *  ¼ĵʱһι黹ʱ䣬ӳжǷҪ顢̭滻
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+import java.sql.Connection;
+
+public class PooledConnection {
+
+	private final Connection conn;		//ʵʵJDBC
+	private final int slot;				//ӳеĲλ±
+	private final StatementCache statementCache;
+	private volatile long expireNanos;			//ʱ䣨System.nanoTimeںʹ
+	private volatile long lastUsedNanos;		//һι黹ߴʱ
+
+
+	/* 췽ֻӳشlifetimeNanos <= 0ʾᵽ */
+	PooledConnection(Connection conn,int slot,StatementCache statementCache,long lifetimeNanos){
+		this.conn = conn;
+		this.slot = slot;
+		this.statementCache = statementCache;
+		this.lastUsedNanos = System.nanoTime();
+		this.expireNanos = lifetimeNanos > 0 ? lastUsedNanos + lifetimeNanos : Long.MAX_VALUE;
+	}
+
+
+	/* ʵʵJDBC */
+	public Connection getConnection() {
+		return conn;
+	}
+
+
+	/* ڵĲλ± */
+	int getSlot() {
+		return slot;
+	}
+
+
+	/* ӵԤ仺 */
+	StatementCache getStatementCache() {
+		return statementCache;
+	}
+
+
+	/* ǷѾʹʱ */
+	boolean isExpired(long now) {
+		return expireNanos != Long.MAX_VALUE && now - expireNanos >= 0;
+	}
+
+
+	/* ڣʱӳعرղ´ʹеڹ黹ʱر */
+	void expire() {
+		expireNanos = System.nanoTime();
+	}
+
+
+	/* һι黹nowĿʱ䣨룩 */
+	long idleNanos(long now) {
+		return now - lastUsedNanos;
+	}
+
+
+	/* ¼黹ʱ */
+	void touch(long now) {
+		lastUsedNanos = now;
+	}
+
+}
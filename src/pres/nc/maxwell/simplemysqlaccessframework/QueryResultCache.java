@@ -0,0 +1,462 @@
+/**********************************************************************
+ * 	QueryResultCache.java
+ *
+ *  ѯ棬SQLͲΪӷʽ
+ *  LRṶͬʱƻĽ͹ռõڴ棬ÿͬЧ
+ *
+ *  SELECTõıִиʱ޸ĵıƳЩĽ
+ *  ĸƳн
+ *  ѯʼʱ¼ʧЧţ뻺ʱõıڲѯڼʧЧѾڣ뻺
+ *
+ *  еĶдthisͬ
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+class QueryResultCache {
+
+	/* Ӧı */
+	private static final String[] NOT_CACHEABLE = new String[0];
+
+	/* ĽSQL仺棬̫ʱ */
+	private static final int MAX_PARSED_SQL = 1024;
+
+	/* ֮ЩʱбĴΪ */
+	private static final HashSet<String> KEYWORDS = new HashSet<String>(Arrays.asList(
+			"WHERE", "GROUP", "ORDER", "LIMIT", "HAVING", "JOIN", "INNER", "LEFT", "RIGHT", "OUTER",
+			"CROSS", "NATURAL", "STRAIGHT_JOIN", "ON", "USING", "UNION", "SET", "VALUES", "VALUE",
+			"SELECT", "FOR", "LOCK", "PARTITION", "USE", "FORCE", "IGNORE", "WINDOW", "INTO",
+			"PROCEDURE", "TO", "AS", "DUPLICATE", "WITH"));
+
+	/* ֮ǰֵܳδ */
+	private static final HashSet<String> MODIFIERS = new HashSet<String>(Arrays.asList(
+			"LOW_PRIORITY", "HIGH_PRIORITY", "DELAYED", "IGNORE", "QUICK", "IF", "NOT", "EXISTS",
+			"TEMPORARY", "TABLE", "ONLY"));
+
+	/* Щ֮Ǳ */
+	private static final HashSet<String> TABLE_INTRODUCERS = new HashSet<String>(Arrays.asList(
+			"FROM", "JOIN", "STRAIGHT_JOIN", "INTO", "UPDATE", "TABLE", "TRUNCATE", "TO"));
+
+	private final int maxEntries;		//໺Ľ
+	private final long maxBytes;		//ռõڴ棨ֽڣ
+	private final long ttlNanos;		//Ч
+	private final QueryResultCacheStats stats = new QueryResultCacheStats();
+
+	/* ˳Ľ */
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+	private long bytes = 0;
+
+	/* ĻڰƳ */
+	private final HashMap<String, HashSet<String>> keysByTable = new HashMap<String, HashSet<String>>();
+
+	/* ÿʧЧʱ1¼ÿһʧЧʱţallInvalidatedAtΪһȫƳʱ */
+	private long sequence = 0;
+	private long allInvalidatedAt = 0;
+	private final HashMap<String, Long> invalidatedAt = new HashMap<String, Long>();
+
+	/* SELECTõıԼ޸ĵı */
+	private final ConcurrentHashMap<String, String[]> readTables = new ConcurrentHashMap<String, String[]>();
+	private final ConcurrentHashMap<String, String[]> writeTables = new ConcurrentHashMap<String, String[]>();
+
+
+	/* 췽 */
+	QueryResultCache(int maxEntries,long maxBytes,long ttlMillis){
+
+		if(maxEntries <= 0 || maxBytes <= 0 || ttlMillis <= 0){
+			throw new RuntimeException("MySqlHelperѯڴЧڶ0");
+		}
+
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+		this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+	}
+
+
+	/* ͳϢ */
+	QueryResultCacheStats getStats() {
+		return stats;
+	}
+
+
+	/* ûļ䲻ܻʱnull
+	 * ֻ˱SELECT䣬FOR UPDATEֽĲѯ */
+	String keyOf(String sql,SqlParameters parameters) {
+
+		String[] tables = tablesOf(readTables, sql, true);
+		if(tables == NOT_CACHEABLE){
+			return null;
+		}
+
+		StringBuilder sb = new StringBuilder(sql.length() + 32);
+		sb.append(sql).append('\0');
+		if(parameters != null && !parameters.appendKey(sb)){
+			return null;
+		}
+		return sb.toString();
+	}
+
+
+	/* õǰʧЧţڲѯ֮ǰã뻺ʱ */
+	synchronized long currentSequence() {
+		return sequence;
+	}
+
+
+	/* ûĽصʵжαꣻûлѾʱnull */
+	synchronized DetachedResultSet get(String key) {
+
+		Entry entry = entries.get(key);
+		if(entry == null){
+			stats.recordMiss();
+			return null;
+		}
+
+		if(System.nanoTime() - entry.expireAt >= 0){
+			remove(entry);
+			stats.recordExpiration();
+			stats.recordMiss();
+			updateSize();
+			return null;
+		}
+
+		stats.recordHit();
+		return entry.rs.reopen();
+	}
+
+
+	/* ѯstartSequenceΪѯ֮ǰõʧЧ */
+	synchronized void put(String key,String sql,DetachedResultSet rs,long startSequence) {
+
+		String[] tables = tablesOf(readTables, sql, true);
+		if(tables == NOT_CACHEABLE){
+			return;
+		}
+
+		/* ѯڼõı¹Ǹ֮ǰ */
+		if(allInvalidatedAt > startSequence){
+			stats.recordStaleDiscard();
+			return;
+		}
+		for(String table : tables){
+			Long at = invalidatedAt.get(table);
+			if(at != null && at.longValue() > startSequence){
+				stats.recordStaleDiscard();
+				return;
+			}
+		}
+
+		long size = rs.estimateBytes() + 2L * key.length();
+		if(size > maxBytes){
+			return;
+		}
+
+		Entry old = entries.get(key);
+		if(old != null){
+			remove(old);
+		}
+
+		Entry entry = new Entry(key, tables, rs, size, System.nanoTime() + ttlNanos);
+		entries.put(key, entry);
+		bytes += size;
+		for(String table : tables){
+			HashSet<String> keys = keysByTable.get(table);
+			if(keys == null){
+				keys = new HashSet<String>();
+				keysByTable.put(table, keys);
+			}
+			keys.add(key);
+		}
+		stats.recordPut();
+
+		/* ʱ̭ûʹõĽ */
+		Iterator<Entry> eldest = entries.values().iterator();
+		while((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()){
+			Entry evicted = eldest.next();
+			eldest.remove();
+			unindex(evicted);
+			bytes -= evicted.bytes;
+			stats.recordEviction();
+		}
+
+		updateSize();
+	}
+
+
+	/* ִ֮ãƳ˱޸ĵıĽ */
+	void invalidate(String sql) {
+
+		String[] tables = tablesOf(writeTables, sql, false);
+
+		synchronized (this) {
+
+			sequence++;
+
+			if(tables.length == 0){
+				allInvalidatedAt = sequence;
+				stats.recordInvalidations(entries.size());
+				clear();
+				return;
+			}
+
+			for(String table : tables){
+
+				invalidatedAt.put(table, Long.valueOf(sequence));
+
+				HashSet<String> keys = keysByTable.remove(table);
+				if(keys == null){
+					continue;
+				}
+				for(String key : keys){
+					Entry entry = entries.get(key);
+					if(entry != null){
+						remove(entry);
+						stats.recordInvalidations(1);
+					}
+				}
+			}
+
+			updateSize();
+		}
+	}
+
+
+	/* Ƴн */
+	synchronized void clear() {
+
+		entries.clear();
+		keysByTable.clear();
+		bytes = 0;
+		updateSize();
+	}
+
+
+	private void remove(Entry entry) {
+
+		entries.remove(entry.key);
+		unindex(entry);
+		bytes -= entry.bytes;
+	}
+
+
+	private void unindex(Entry entry) {
+
+		for(String table : entry.tables){
+			HashSet<String> keys = keysByTable.get(table);
+			if(keys != null){
+				keys.remove(entry.key);
+				if(keys.isEmpty()){
+					keysByTable.remove(table);
+				}
+			}
+		}
+	}
+
+
+	private void updateSize() {
+		stats.setSize(entries.size(), bytes);
+	}
+
+
+	/* õıSQL仺
+	 * forReadΪtrueʱֻܿԻSELECT䣬ܻʱNOT_CACHEABLE */
+	private static String[] tablesOf(ConcurrentHashMap<String, String[]> parsed,String sql,boolean forRead) {
+
+		String[] tables = parsed.get(sql);
+		if(tables != null){
+			return tables;
+		}
+
+		tables = forRead ? parseReadTables(sql) : parseTables(tokenize(sql));
+
+		if(parsed.size() >= MAX_PARSED_SQL){
+			parsed.clear();
+		}
+		parsed.put(sql, tables);
+		return tables;
+	}
+
+
+	/* ԻSELECTõı */
+	private static String[] parseReadTables(String sql) {
+
+		List<String> tokens = tokenize(sql);
+		if(tokens.isEmpty() || !tokens.get(0).equalsIgnoreCase("SELECT")){
+			return NOT_CACHEABLE;
+		}
+
+		/* Լȷʹû */
+		for(int i = 0;i < tokens.size();i++){
+			String token = tokens.get(i).toUpperCase();
+			if(token.equals("SQL_NO_CACHE")
+					|| (token.equals("FOR") && i + 1 < tokens.size()
+						&& (tokens.get(i + 1).equalsIgnoreCase("UPDATE") || tokens.get(i + 1).equalsIgnoreCase("SHARE")))
+					|| (token.equals("LOCK") && i + 1 < tokens.size() && tokens.get(i + 1).equalsIgnoreCase("IN"))){
+				return NOT_CACHEABLE;
+			}
+		}
+
+		String[] tables = parseTables(tokens);
+		return tables.length == 0 ? NOT_CACHEABLE : tables;
+	}
+
+
+	/* ҳFROMJOININTOUPDATETABLEȴ֮ıתΪСдȥ */
+	private static String[] parseTables(List<String> tokens) {
+
+		ArrayList<String> tables = new ArrayList<String>();
+
+		int i = 0;
+		while(i < tokens.size()){
+
+			if(!TABLE_INTRODUCERS.contains(tokens.get(i).toUpperCase())){
+				i++;
+				continue;
+			}
+			i++;
+
+			/* δ */
+			while(i < tokens.size() && MODIFIERS.contains(tokens.get(i).toUpperCase())){
+				i++;
+			}
+
+			/* ŷָıбÿ֮б */
+			while(i < tokens.size() && isIdentifier(tokens.get(i))){
+
+				String table = normalizeTable(tokens.get(i));
+				if(!tables.contains(table)){
+					tables.add(table);
+				}
+				i++;
+
+				if(i < tokens.size() && tokens.get(i).equalsIgnoreCase("AS")){
+					i++;
+				}
+				if(i < tokens.size() && isIdentifier(tokens.get(i))){
+					i++;		//
+				}
+
+				if(i < tokens.size() && tokens.get(i).equals(",")){
+					i++;
+					continue;
+				}
+				break;
+			}
+		}
+
+		return tables.toArray(new String[tables.size()]);
+	}
+
+
+	/* ǷΪ߱ǷҲǹؼ */
+	private static boolean isIdentifier(String token) {
+
+		char first = token.charAt(0);
+		if(!Character.isLetterOrDigit(first) && first != '_' && first != '$' && first != '`'){
+			return false;
+		}
+		return !KEYWORDS.contains(token.toUpperCase());
+	}
+
+
+	/* ȥźͿתΪСд */
+	private static String normalizeTable(String token) {
+
+		String table = token.replace("`", "");
+		int dot = table.lastIndexOf('.');
+		if(dot >= 0){
+			table = table.substring(dot + 1);
+		}
+		return table.toLowerCase();
+	}
+
+
+	/* SQLΪʺͷţעַͣ滻Ϊ"?" */
+	private static List<String> tokenize(String sql) {
+
+		ArrayList<String> tokens = new ArrayList<String>();
+		int n = sql.length();
+		int i = 0;
+
+		while(i < n){
+
+			char ch = sql.charAt(i);
+
+			if(Character.isWhitespace(ch)){
+				i++;
+			}
+			else if(ch == '#' || (ch == '-' && i + 1 < n && sql.charAt(i + 1) == '-')){
+				while(i < n && sql.charAt(i) != '\n'){
+					i++;
+				}
+			}
+			else if(ch == '/' && i + 1 < n && sql.charAt(i + 1) == '*'){
+				int end = sql.indexOf("*/", i + 2);
+				i = end < 0 ? n : end + 2;
+			}
+			else if(ch == '\'' || ch == '"'){
+				i++;
+				while(i < n && sql.charAt(i) != ch){
+					if(sql.charAt(i) == '\\'){
+						i++;
+					}
+					i++;
+				}
+				i++;
+				tokens.add("?");
+			}
+			else if(Character.isLetterOrDigit(ch) || ch == '_' || ch == '$' || ch == '`'){
+				int start = i;
+				boolean quoted = false;
+				while(i < n){
+					char c = sql.charAt(i);
+					if(c == '`'){
+						quoted = !quoted;
+					}
+					else if(!quoted && !(Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '.')){
+						break;
+					}
+					i++;
+				}
+				tokens.add(sql.substring(start, i));
+			}
+			else{
+				tokens.add(String.valueOf(ch));
+				i++;
+			}
+		}
+
+		return tokens;
+	}
+
+
+
+	/* һĽ */
+	private static final class Entry {
+
+		private final String key;
+		private final String[] tables;
+		private final DetachedResultSet rs;
+		private final long bytes;
+		private final long expireAt;		//System.nanoTime()
+
+		Entry(String key,String[] tables,DetachedResultSet rs,long bytes,long expireAt){
+			this.key = key;
+			this.tables = tables;
+			this.rs = rs;
+			this.bytes = bytes;
+			this.expireAt = expireAt;
+		}
+	}
+
+}
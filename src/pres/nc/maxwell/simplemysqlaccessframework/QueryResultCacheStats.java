@@ -0,0 +1,132 @@
+/**********************************************************************
+ * 	QueryResultCacheStats.java
+ *
+ *  ѯͳϢ
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class QueryResultCacheStats {
+
+	private final AtomicLong hitCount = new AtomicLong();				//д
+	private final AtomicLong missCount = new AtomicLong();				//δдҪѯݿ⣩
+	private final AtomicLong putCount = new AtomicLong();				//뻺Ľ
+	private final AtomicLong evictionCount = new AtomicLong();			//ڴƱ̭Ľ
+	private final AtomicLong expirationCount = new AtomicLong();		//ЧڱƳĽ
+	private final AtomicLong invalidationCount = new AtomicLong();		//Ϊ¶ƳĽ
+	private final AtomicLong staleDiscardCount = new AtomicLong();		//ѯڼ£ûз뻺Ľ
+
+	/* ǰĽ͹ռõڴ棨ֽڣɻ޸ʱ */
+	private final AtomicLong entryCount = new AtomicLong();
+	private final AtomicLong byteCount = new AtomicLong();
+
+
+	void recordHit() {
+		hitCount.incrementAndGet();
+	}
+
+	void recordMiss() {
+		missCount.incrementAndGet();
+	}
+
+	void recordPut() {
+		putCount.incrementAndGet();
+	}
+
+	void recordEviction() {
+		evictionCount.incrementAndGet();
+	}
+
+	void recordExpiration() {
+		expirationCount.incrementAndGet();
+	}
+
+	void recordInvalidations(int count) {
+		invalidationCount.addAndGet(count);
+	}
+
+	void recordStaleDiscard() {
+		staleDiscardCount.incrementAndGet();
+	}
+
+	void setSize(long entries,long bytes) {
+		entryCount.set(entries);
+		byteCount.set(bytes);
+	}
+
+
+	/* д */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+
+	/* δд */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+
+	/* ÷뻺Ľ */
+	public long getPutCount() {
+		return putCount.get();
+	}
+
+
+	/* ṋ̃Ľ */
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+
+	/* óЧڱƳĽ */
+	public long getExpirationCount() {
+		return expirationCount.get();
+	}
+
+
+	/* Ϊ¶ƳĽ */
+	public long getInvalidationCount() {
+		return invalidationCount.get();
+	}
+
+
+	/* òѯڼ¶ûз뻺Ľ */
+	public long getStaleDiscardCount() {
+		return staleDiscardCount.get();
+	}
+
+
+	/* õǰĽ */
+	public long getEntryCount() {
+		return entryCount.get();
+	}
+
+
+	/* õǰռõڴ棨ֽڣ */
+	public long getByteCount() {
+		return byteCount.get();
+	}
+
+
+	/* ʣûʱ0 */
+	public double getHitRatio() {
+
+		long hit = hitCount.get();
+		long total = hit + missCount.get();
+		return total == 0 ? 0 : (double)hit / total;
+	}
+
+
+	@Override
+	public String toString() {
+		return "hit=" + getHitCount() + ", miss=" + getMissCount() + ", put=" + getPutCount()
+				+ ", eviction=" + getEvictionCount() + ", expiration=" + getExpirationCount()
+				+ ", invalidation=" + getInvalidationCount() + ", staleDiscard=" + getStaleDiscardCount()
+				+ ", entries=" + getEntryCount() + ", bytes=" + getByteCount();
+	}
+
+}
@@ -0,0 +1,60 @@
+/**********************************************************************
+ * 	RangeShardStrategy.java
+ *
+ *  ƬķΧƬƬiСupperBounds.get(i)ҲСupperBounds.get(i-1)ļ
+ *  һƬ治Сһ߽ļԷƬΪ߽1
+ *
+ *  Ƭ߽ͬһ߽ͣΪLongʱƬҲLong
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RangeShardStrategy<K extends Comparable<? super K>> implements ShardStrategy {
+
+	private final List<K> upperBounds;
+
+
+	/* 췽߽С */
+	public RangeShardStrategy(List<K> upperBounds){
+
+		for(int i = 1;i < upperBounds.size();i++){
+			if(upperBounds.get(i - 1).compareTo(upperBounds.get(i)) >= 0){
+				throw new RuntimeException("ShardRouterƬ߽С");
+			}
+		}
+		this.upperBounds = new ArrayList<K>(upperBounds);
+	}
+
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public int shardOf(Object shardKey,int shardCount) {
+
+		if(shardCount != upperBounds.size() + 1){
+			throw new RuntimeException("ShardRouterΧƬҪ " + (upperBounds.size() + 1) + " ƬʵΪ " + shardCount);
+		}
+		if(shardKey == null){
+			throw new RuntimeException("ShardRouterƬΪnull");
+		}
+
+		/* ֲҵһڷƬı߽ */
+		K key = (K) shardKey;
+		int low = 0;
+		int high = upperBounds.size();
+		while(low < high){
+			int mid = (low + high) >>> 1;
+			if(key.compareTo(upperBounds.get(mid)) < 0){
+				high = mid;
+			}
+			else{
+				low = mid + 1;
+			}
+		}
+		return low;
+	}
+
+}
@@ -0,0 +1,442 @@
+/**********************************************************************
+ * 	ReplicaRouter.java
+ *
+ *  д룺ѯڿʼִʱѡһ¡ʼִ
+ *  ÿԼMySqlHelperӳأѡԼThreadPoolPack.ReplicaBalance
+ *  ӳټʱ̶̨߳ڲѯÿĸӳ٣ӳٳ޻߸Ѿֹͣĸͣʹãָʹ
+ *  ӳټʹÿһӳصӣѯռӳʱճУ
+ *  Ӳϻ߲ѯʱӳδ֪ԭ״̬ѯ߷ʱиͣжӿ
+ *  ûпõĸʱѯִ
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ReplicaRouter {
+
+	/* ûӳĸ1 */
+	private static final long DEFAULT_LATENCY_NANOS = 1000000L;
+
+	/* queryLagķֵǸ߸ѾֹͣӲϻ߲ѯӳδ֪ */
+	private static final long NOT_REPLICATING = -1;
+	private static final long LAG_UNKNOWN = -2;
+
+	private final MySqlHelper primary;
+	private final Replica[] replicas;
+
+	private volatile ThreadPoolPack.ReplicaBalance balance = ThreadPoolPack.ReplicaBalance.ROUND_ROBIN;
+	private final AtomicInteger next = new AtomicInteger();
+
+	/* 鸴ӳٵĶʱͼΪnullʾûп */
+	private ScheduledExecutorService lagChecker = null;
+	private long lagCheckIntervalMillis = 0;
+
+
+	/* 췽urls[i]ΪreplicaHelpers[i]ӵĵַֻ */
+	ReplicaRouter(MySqlHelper primary,MySqlHelper[] replicaHelpers,String[] urls){
+
+		if(replicaHelpers.length == 0){
+			throw new RuntimeException("ThreadPoolPackҪһ");
+		}
+
+		this.primary = primary;
+		this.replicas = new Replica[replicaHelpers.length];
+		for(int i = 0;i < replicas.length;i++){
+			replicas[i] = new Replica(urls[i], replicaHelpers[i]);
+		}
+	}
+
+
+	/* øѡ */
+	void setBalance(ThreadPoolPack.ReplicaBalance balance) {
+
+		if(balance == null){
+			throw new RuntimeException("ThreadPoolPackѡԲΪnull");
+		}
+		this.balance = balance;
+	}
+
+
+	/*  */
+	int getReplicaCount() {
+		return replicas.length;
+	}
+
+
+	/* ǰãûбӳټͣĸ */
+	int getAvailableReplicaCount() {
+
+		int count = 0;
+		for(Replica replica : replicas){
+			if(replica.available){
+				count++;
+			}
+		}
+		return count;
+	}
+
+
+	/* иMySqlHelperͳһ޸ */
+	MySqlHelper[] getReplicaHelpers() {
+
+		MySqlHelper[] helpers = new MySqlHelper[replicas.length];
+		for(int i = 0;i < replicas.length;i++){
+			helpers[i] = replicas[i].helper;
+		}
+		return helpers;
+	}
+
+
+	/* ѡһûпõĸʱnullѯӦִУѡеĸfinish */
+	Replica choose() {
+
+		Replica replica;
+		switch(balance){
+		case LEAST_OUTSTANDING:
+			replica = chooseLeastOutstanding();
+			break;
+		case LATENCY_WEIGHTED:
+			replica = chooseLatencyWeighted();
+			break;
+		default:
+			replica = chooseRoundRobin();
+			break;
+		}
+
+		if(replica != null){
+			replica.outstanding.incrementAndGet();
+		}
+		return replica;
+	}
+
+
+	/* ѯ¼ӳ٣replicaΪnullʱʲôҲ */
+	void finish(Replica replica,long startNanos) {
+
+		if(replica == null){
+			return;
+		}
+
+		replica.outstanding.decrementAndGet();
+		replica.recordLatency(System.nanoTime() - startNanos);
+	}
+
+
+	/* ѡĸִжûпõĸʱִ */
+	<V> V read(ReadOperation<V> operation) throws Exception {
+
+		Replica replica = choose();
+		if(replica == null){
+			return operation.execute(primary);
+		}
+
+		long start = System.nanoTime();
+		try {
+			return operation.execute(replica.helper);
+		}
+		finally {
+			finish(replica, start);
+		}
+	}
+
+
+	/* ѯͣĸ */
+	private Replica chooseRoundRobin() {
+
+		int start = next.getAndIncrement();
+		for(int n = 0;n < replicas.length;n++){
+			Replica replica = replicas[Math.floorMod(start + n, replicas.length)];
+			if(replica.available){
+				return replica;
+			}
+		}
+		return null;
+	}
+
+
+	/* еĲѯٵĸѯλÿʼȽϣͬʱɢͬĸ */
+	private Replica chooseLeastOutstanding() {
+
+		int start = next.getAndIncrement();
+		Replica best = null;
+		int bestOutstanding = Integer.MAX_VALUE;
+
+		for(int n = 0;n < replicas.length;n++){
+			Replica replica = replicas[Math.floorMod(start + n, replicas.length)];
+			if(!replica.available){
+				continue;
+			}
+			int outstanding = replica.outstanding.get();
+			if(outstanding < bestOutstanding){
+				best = replica;
+				bestOutstanding = outstanding;
+			}
+		}
+		return best;
+	}
+
+
+	/* ӳٵĵȨѡӳΪѯʱָƶƽ */
+	private Replica chooseLatencyWeighted() {
+
+		double total = 0;
+		for(Replica replica : replicas){
+			if(replica.available){
+				total += replica.weight();
+			}
+		}
+		if(total == 0){
+			return null;
+		}
+
+		double point = ThreadLocalRandom.current().nextDouble(total);
+		Replica last = null;
+		for(Replica replica : replicas){
+			if(!replica.available){
+				continue;
+			}
+			last = replica;
+			point -= replica.weight();
+			if(point < 0){
+				return replica;
+			}
+		}
+		return last;		//߸ڼڼ䱻ͣ
+	}
+
+
+	/* ӳټ飺ÿintervalMillisѯһΣӳٳmaxLagSecondsĸͣʹ */
+	synchronized void startLagCheck(final long maxLagSeconds,final long intervalMillis) {
+
+		if(maxLagSeconds < 0 || intervalMillis <= 0){
+			throw new RuntimeException("ThreadPoolPackӳٲС00");
+		}
+
+		stopLagCheck();
+
+		lagCheckIntervalMillis = intervalMillis;
+		lagChecker = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "ReplicaRouter-lagChecker");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		lagChecker.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				for(Replica replica : replicas){
+					checkLag(replica, maxLagSeconds, intervalMillis);
+				}
+			}
+		}, 0, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+
+	/* رոӳټͼõӣиָʹ */
+	synchronized void stopLagCheck() {
+
+		if(lagChecker != null){
+			lagChecker.shutdownNow();
+
+			/* ȴڽеļ֮õӲٱʹ */
+			try {
+				lagChecker.awaitTermination(lagCheckIntervalMillis, TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			lagChecker = null;
+		}
+
+		for(Replica replica : replicas){
+			replica.closeLagConnection();
+			replica.available = true;
+		}
+	}
+
+
+	/* һӳ٣ݽͣ߻ָʹãӳδ֪ʱԭ״̬ */
+	private void checkLag(Replica replica,long maxLagSeconds,long timeoutMillis) {
+
+		long lag = queryLag(replica, timeoutMillis);
+		if(lag == LAG_UNKNOWN){
+			return;
+		}
+
+		replica.lagSeconds = lag;
+		boolean available = lag != NOT_REPLICATING && lag <= maxLagSeconds;
+
+		if(available != replica.available){
+			replica.available = available;
+			SqlEvents.info("ThreadPoolPack " + replica.url
+					+ (available ? " ָʹ" : " ͣʹ") + "ӳ " + (lag < 0 ? "δ֪" : lag + " "));
+		}
+	}
+
+
+	/* ڼõϲѯĸӳ٣룩Ǹ߸ѾֹͣʱNOT_REPLICATING
+	 * Ӳϻ߲ѯʱLAG_UNKNOWNرռõӣ´μʱ */
+	private static long queryLag(Replica replica,long timeoutMillis) {
+
+		Statement st = null;
+		ResultSet rs = null;
+
+		try {
+			if(replica.lagConn == null){
+				replica.lagConn = replica.helper.openDedicatedConnection();
+			}
+
+			st = replica.lagConn.createStatement();
+			st.setQueryTimeout((int)Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMillis)));
+
+			/* MySQL 8.0.22֮ǰֻ֧SHOW SLAVE STATUS */
+			try {
+				rs = st.executeQuery("SHOW REPLICA STATUS");
+			}
+			catch (SQLException e) {
+				rs = st.executeQuery("SHOW SLAVE STATUS");
+			}
+
+			if(!rs.next()){
+				return NOT_REPLICATING;
+			}
+
+			String lag = getColumn(rs, "Seconds_Behind_Source");
+			if(lag == null){
+				lag = getColumn(rs, "Seconds_Behind_Master");
+			}
+			return lag == null ? NOT_REPLICATING : Long.parseLong(lag.trim());
+		}
+		catch (Exception e) {
+			replica.closeLagConnection();
+			return LAG_UNKNOWN;
+		}
+		finally {
+			closeQuietly(rs, st);
+		}
+	}
+
+
+	/* رս䣬Թرʱ쳣 */
+	private static void closeQuietly(ResultSet rs,Statement st) {
+
+		try {
+			if(rs != null){
+				rs.close();
+			}
+			if(st != null){
+				st.close();
+			}
+		}
+		catch (SQLException e) {
+			//ѾϿ´μʱ
+		}
+	}
+
+
+	/* ȡûһʱnull */
+	private static String getColumn(ResultSet rs,String label) {
+
+		try {
+			return rs.getString(label);
+		}
+		catch (SQLException e) {
+			return null;
+		}
+	}
+
+
+	/* ÿĵַеĲѯƽӳٺ͸ӳ٣һһ */
+	String describe() {
+
+		StringBuilder sb = new StringBuilder();
+		for(Replica replica : replicas){
+			sb.append(replica).append('\n');
+		}
+		return sb.toString();
+	}
+
+
+	/* رӳټи */
+	void closeAll() {
+
+		stopLagCheck();
+		for(Replica replica : replicas){
+			replica.helper.closeAllConnections();
+		}
+	}
+
+
+
+	/* һԼѡʱõ״̬ */
+	static final class Replica {
+
+		private final String url;
+		final MySqlHelper helper;
+		private final AtomicInteger outstanding = new AtomicInteger();
+		private volatile long latencyNanos = 0;		//ָƶƽ0ʾû
+		private volatile boolean available = true;
+		private volatile long lagSeconds = NOT_REPLICATING;
+		private Connection lagConn = null;			//ӳټõӣֻڼ߳ʹ
+
+		Replica(String url,MySqlHelper helper){
+			this.url = url;
+			this.helper = helper;
+		}
+
+		/* رӳټõ */
+		void closeLagConnection() {
+
+			if(lagConn == null){
+				return;
+			}
+			try {
+				lagConn.close();
+			}
+			catch (SQLException e) {
+				//ѾϿ
+			}
+			lagConn = null;
+		}
+
+		/* ¼һβѯĺʱռ1/8ʱܶʧӰѡ */
+		void recordLatency(long nanos) {
+			long current = latencyNanos;
+			latencyNanos = current == 0 ? nanos : current + ((nanos - current) >> 3);
+		}
+
+		/* ȨȨ */
+		double weight() {
+			long latency = latencyNanos;
+			return 1.0 / Math.max(latency == 0 ? DEFAULT_LATENCY_NANOS : latency, 1000L);
+		}
+
+		@Override
+		public String toString() {
+			return url + " outstanding=" + outstanding.get() + " latency=" + (latencyNanos / 1000) + "us"
+					+ " lag=" + (lagSeconds < 0 ? "?" : lagSeconds + "s") + (available ? "" : " (paused)");
+		}
+	}
+
+
+	/* ѡMySqlHelperִеĶ */
+	interface ReadOperation<V> {
+
+		V execute(MySqlHelper helper) throws Exception;
+	}
+
+}
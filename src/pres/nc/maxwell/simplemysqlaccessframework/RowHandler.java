@@ -0,0 +1,19 @@
+/**********************************************************************
+ * 	RowHandler.java
+ *
+ *  ʽѯлصӿڣִвѯ̶߳ÿһеһ
+ *  صʱѾָǰУҪڻصеnext߹رս
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public interface RowHandler {
+
+	/* ǰУfalseʾҪУѯȡ */
+	boolean handleRow(ResultSet rs) throws SQLException;
+
+}
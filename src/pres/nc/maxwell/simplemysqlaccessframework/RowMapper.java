@@ -0,0 +1,19 @@
+/**********************************************************************
+ * 	RowMapper.java
+ *
+ *  ѽĵǰתΪһ
+ *  ʱѾָǰУҪеnext߹رս
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public interface RowMapper<T> {
+
+	/* ѵǰתΪ */
+	T mapRow(ResultSet rs) throws SQLException;
+
+}
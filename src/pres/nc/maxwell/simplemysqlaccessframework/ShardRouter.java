@@ -0,0 +1,389 @@
+/**********************************************************************
+ * 	ShardRouter.java
+ *
+ *  Ƭ·ɣݰƬûֲڶУÿһThreadPoolPack
+ *  ƬƬӳShardStrategyHashShardStrategyRangeShardStrategyLookupShardStrategy
+ *
+ *  ƬķֱύƬڵThreadPoolPackΪThreadPoolPackеͬͬ
+ *  submitSqlQueryAllShardsͬʱзƬִвѯƬ˳ϲΪһDetachedResultSet
+ *  orderByİ汾ÿƬ׷ORDER BYLIMITLIMITΪoffset+limitƬֻ践ؿܽУ
+ *  ٰ˳鲢offsetкȡlimitУʱSQLвѾORDER BYLIMIT
+ *
+ *  ע⣺ƬľۺϣCOUNTSUMGROUP BYȣ¼㣬ÿƬĽֻƴһ
+ *  Ƭ񲻱֤ԭԣsubmitSqlUpdateAllShardsÿƬϵִ
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+public class ShardRouter {
+
+	private final ShardStrategy strategy;
+	private final ThreadPoolPack[] shards;
+
+
+	/* 췽shards[i]ΪiƬƬ̳߳ҪѾ */
+	public ShardRouter(ShardStrategy strategy,ThreadPoolPack... shards){
+
+		if(strategy == null){
+			throw new RuntimeException("ShardRouterƬԲΪnull");
+		}
+		if(shards.length == 0){
+			throw new RuntimeException("ShardRouterҪһƬ");
+		}
+
+		this.strategy = strategy;
+		this.shards = shards.clone();
+	}
+
+
+	/* Ƭ */
+	public int getShardCount(){
+		return shards.length;
+	}
+
+
+	/* ƬڵķƬ± */
+	public int shardOf(Object shardKey){
+
+		int shard = strategy.shardOf(shardKey, shards.length);
+		if(shard < 0 || shard >= shards.length){
+			throw new RuntimeException("ShardRouterƬ " + shardKey + " ӳ䵽ڵķƬ " + shard);
+		}
+		return shard;
+	}
+
+
+	/* ƬڵThreadPoolPackڵûаװķ */
+	public ThreadPoolPack getShard(Object shardKey){
+		return shards[shardOf(shardKey)];
+	}
+
+
+	/* indexƬThreadPoolPack */
+	public ThreadPoolPack getShardAt(int index){
+		return shards[index];
+	}
+
+
+	/* ڷƬڵķƬϲѯ */
+	public Future<ResultSet> submitSqlQuery(Object shardKey,String sql,String... parameters) {
+		return getShard(shardKey).submitSqlQuery(sql, parameters);
+	}
+
+
+	/* ڷƬڵķƬϲѯʹô͵Ĳ */
+	public Future<ResultSet> submitSqlQuery(Object shardKey,String sql,SqlParameters parameters) {
+		return getShard(shardKey).submitSqlQuery(sql, parameters);
+	}
+
+
+	/* ڷƬڵķƬϲѯDetachedResultSet */
+	public Future<DetachedResultSet> submitSqlQueryDetached(Object shardKey,String sql,String... parameters) {
+		return getShard(shardKey).submitSqlQueryDetached(sql, parameters);
+	}
+
+
+	/* ڷƬڵķƬϲѯDetachedResultSetʹô͵Ĳ */
+	public Future<DetachedResultSet> submitSqlQueryDetached(Object shardKey,String sql,SqlParameters parameters) {
+		return getShard(shardKey).submitSqlQueryDetached(sql, parameters);
+	}
+
+
+	/* ڷƬڵķƬ첽ѯ */
+	public CompletableFuture<DetachedResultSet> submitSqlQueryAsync(Object shardKey,String sql,SqlParameters parameters) {
+		return getShard(shardKey).submitSqlQueryAsync(sql, parameters);
+	}
+
+
+	/* ڷƬڵķƬϸ */
+	public Future<Integer> submitSqlUpdate(Object shardKey,String sql,String... parameters) {
+		return getShard(shardKey).submitSqlUpdate(sql, parameters);
+	}
+
+
+	/* ڷƬڵķƬϸ£ʹô͵Ĳ */
+	public Future<Integer> submitSqlUpdate(Object shardKey,String sql,SqlParameters parameters) {
+		return getShard(shardKey).submitSqlUpdate(sql, parameters);
+	}
+
+
+	/* ڷƬڵķƬ첽 */
+	public CompletableFuture<Integer> submitSqlUpdateAsync(Object shardKey,String sql,SqlParameters parameters) {
+		return getShard(shardKey).submitSqlUpdateAsync(sql, parameters);
+	}
+
+
+	/* ڷƬڵķƬִеͬһƬFutureÿĸ */
+	public Future<int[]> submitSqlUpdateTransaction(Object shardKey,String[] sql,SqlParameters[] parameters) {
+		return getShard(shardKey).submitSqlUpdateTransaction(sql, parameters);
+	}
+
+
+	/* ڷƬڵķƬ첽ִ */
+	public CompletableFuture<int[]> submitSqlUpdateTransactionAsync(Object shardKey,String[] sql,SqlParameters[] parameters) {
+		return getShard(shardKey).submitSqlUpdateTransactionAsync(sql, parameters);
+	}
+
+
+	/* зƬϲѯƬ˳ƴ */
+	public CompletableFuture<DetachedResultSet> submitSqlQueryAllShards(String sql,String... parameters) {
+		return submitSqlQueryAllShards(sql, SqlParameters.ofStrings(parameters));
+	}
+
+
+	/* зƬϲѯƬ˳ƴӣʹô͵Ĳ */
+	public CompletableFuture<DetachedResultSet> submitSqlQueryAllShards(String sql,SqlParameters parameters) {
+
+		return scatter(sql, parameters).thenApply(new Function<DetachedResultSet[], DetachedResultSet>() {
+			@Override
+			public DetachedResultSet apply(DetachedResultSet[] parts) {
+
+				int rowCount = 0;
+				for(DetachedResultSet part : parts){
+					rowCount += part.getRowCount();
+				}
+
+				int[] partOfRow = new int[rowCount];
+				int[] rowOfPart = new int[rowCount];
+				int row = 0;
+				for(int p = 0;p < parts.length;p++){
+					for(int r = 0;r < parts[p].getRowCount();r++){
+						partOfRow[row] = p;
+						rowOfPart[row] = r;
+						row++;
+					}
+				}
+				return DetachedResultSet.select(parts, partOfRow, rowOfPart);
+			}
+		});
+	}
+
+
+	/* зƬϲѯorderBy"age DESC, username"鲢offsetкȡlimitУlimitС0ʾ */
+	public CompletableFuture<DetachedResultSet> submitSqlQueryAllShards(String sql,String orderBy,int offset,int limit,String... parameters) {
+		return submitSqlQueryAllShards(sql, orderBy, offset, limit, SqlParameters.ofStrings(parameters));
+	}
+
+
+	/* зƬϲѯorderBy鲢ʹô͵Ĳ */
+	public CompletableFuture<DetachedResultSet> submitSqlQueryAllShards(String sql,String orderBy,final int offset,final int limit,SqlParameters parameters) {
+
+		if(offset < 0){
+			throw new RuntimeException("ShardRouteroffsetС0");
+		}
+
+		final SortKey[] keys = SortKey.parse(orderBy);
+
+		/* ÿƬֻ践ǰoffset+limit */
+		String shardSql = sql + " ORDER BY " + orderBy;
+		if(limit >= 0){
+			shardSql += " LIMIT " + ((long) offset + limit);
+		}
+
+		return scatter(shardSql, parameters).thenApply(new Function<DetachedResultSet[], DetachedResultSet>() {
+			@Override
+			public DetachedResultSet apply(DetachedResultSet[] parts) {
+				return merge(parts, keys, offset, limit);
+			}
+		});
+	}
+
+
+	/* зƬִͬһ£ÿƬµƬύַƬʧʱƬع */
+	public CompletableFuture<int[]> submitSqlUpdateAllShards(String sql,SqlParameters parameters) {
+
+		final List<CompletableFuture<Integer>> futures = new ArrayList<CompletableFuture<Integer>>(shards.length);
+		for(int i = 0;i < shards.length;i++){
+			futures.add(shards[i].submitSqlUpdateAsync(sql, parameters));
+		}
+
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(new Function<Void, int[]>() {
+			@Override
+			public int[] apply(Void v) {
+				int[] counts = new int[futures.size()];
+				for(int i = 0;i < counts.length;i++){
+					counts[i] = futures.get(i).join().intValue();
+				}
+				return counts;
+			}
+		});
+	}
+
+
+	/* رзƬ̳߳ */
+	public void shutdownThreadPools(){
+
+		for(ThreadPoolPack shard : shards){
+			shard.shutdownThreadPool();
+		}
+	}
+
+
+	/* رзƬ */
+	public void closeAllConnections(){
+
+		for(ThreadPoolPack shard : shards){
+			shard.closeAllConnections();
+		}
+	}
+
+
+	/* ͬʱύзƬȫɺ󷵻ظƬĽκһƬʧʱѯʧ */
+	private CompletableFuture<DetachedResultSet[]> scatter(String sql,SqlParameters parameters) {
+
+		final List<CompletableFuture<DetachedResultSet>> futures = new ArrayList<CompletableFuture<DetachedResultSet>>(shards.length);
+		for(int i = 0;i < shards.length;i++){
+			futures.add(shards[i].submitSqlQueryAsync(sql, parameters));
+		}
+
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(new Function<Void, DetachedResultSet[]>() {
+			@Override
+			public DetachedResultSet[] apply(Void v) {
+				DetachedResultSet[] parts = new DetachedResultSet[futures.size()];
+				for(int i = 0;i < parts.length;i++){
+					parts[i] = futures.get(i).join();
+				}
+				return parts;
+			}
+		});
+	}
+
+
+	/* ·鲢ƬĽѾkeysźÿȡзƬСһУʱȡƬ±С */
+	private static DetachedResultSet merge(final DetachedResultSet[] parts,SortKey[] keys,int offset,int limit) {
+
+		final int[][] columns = new int[parts.length][];
+		for(int p = 0;p < parts.length;p++){
+			columns[p] = SortKey.columnsOf(keys, parts[p]);
+		}
+		final boolean[] descending = SortKey.descendingOf(keys);
+
+		/* ԪΪ{Ƭ±, к} */
+		PriorityQueue<int[]> heads = new PriorityQueue<int[]>(Math.max(parts.length, 1), new Comparator<int[]>() {
+			@Override
+			public int compare(int[] a, int[] b) {
+				for(int k = 0;k < descending.length;k++){
+					int result = DetachedResultSet.compareAt(parts[a[0]], columns[a[0]][k], a[1], parts[b[0]], columns[b[0]][k], b[1]);
+					if(result != 0){
+						return descending[k] ? -result : result;
+					}
+				}
+				return Integer.compare(a[0], b[0]);
+			}
+		});
+
+		int total = 0;
+		for(int p = 0;p < parts.length;p++){
+			total += parts[p].getRowCount();
+			if(parts[p].getRowCount() > 0){
+				heads.add(new int[]{p, 0});
+			}
+		}
+
+		int rowCount = Math.max(0, total - offset);
+		if(limit >= 0){
+			rowCount = Math.min(rowCount, limit);
+		}
+
+		int[] partOfRow = new int[rowCount];
+		int[] rowOfPart = new int[rowCount];
+		int taken = 0;
+		int skipped = 0;
+
+		while(taken < rowCount){
+			int[] head = heads.poll();
+			if(skipped < offset){
+				skipped++;
+			}
+			else{
+				partOfRow[taken] = head[0];
+				rowOfPart[taken] = head[1];
+				taken++;
+			}
+
+			head[1]++;
+			if(head[1] < parts[head[0]].getRowCount()){
+				heads.add(head);
+			}
+		}
+
+		return DetachedResultSet.select(parts, partOfRow, rowOfPart);
+	}
+
+
+
+	/* ORDER BYеһ */
+	private static final class SortKey {
+
+		private final String label;
+		private final boolean descending;
+
+		private SortKey(String label,boolean descending){
+			this.label = label;
+			this.descending = descending;
+		}
+
+		/* "t.age DESC, `username`"ǰ׺ͷŻȥеƥ */
+		static SortKey[] parse(String orderBy) {
+
+			if(orderBy == null || orderBy.trim().isEmpty()){
+				throw new RuntimeException("ShardRouterвΪ");
+			}
+
+			String[] items = orderBy.split(",");
+			SortKey[] keys = new SortKey[items.length];
+
+			for(int i = 0;i < items.length;i++){
+				String[] words = items[i].trim().split("\\s+");
+				if(words.length > 2 || words[0].isEmpty()){
+					throw new RuntimeException("ShardRouterֵ֧ " + items[i].trim());
+				}
+
+				boolean descending = false;
+				if(words.length == 2){
+					if(words[1].equalsIgnoreCase("DESC")){
+						descending = true;
+					}
+					else if(!words[1].equalsIgnoreCase("ASC")){
+						throw new RuntimeException("ShardRouterֵ֧ " + items[i].trim());
+					}
+				}
+
+				String label = words[0].replace("`", "");
+				label = label.substring(label.lastIndexOf('.') + 1);
+				keys[i] = new SortKey(label, descending);
+			}
+			return keys;
+		}
+
+		/* ÿڽекţбڲѯ */
+		static int[] columnsOf(SortKey[] keys,DetachedResultSet part) {
+
+			int[] columns = new int[keys.length];
+			for(int k = 0;k < keys.length;k++){
+				columns[k] = part.findColumn(keys[k].label) - 1;
+			}
+			return columns;
+		}
+
+		static boolean[] descendingOf(SortKey[] keys) {
+
+			boolean[] descending = new boolean[keys.length];
+			for(int k = 0;k < keys.length;k++){
+				descending[k] = keys[k].descending;
+			}
+			return descending;
+		}
+	}
+
+}
@@ -0,0 +1,21 @@
+/**********************************************************************
+ * 	ShardStrategy.java
+ *
+ *  ƬԣѷƬûӳ䵽Ƭ±꣬ShardRouter
+ *  ͬһƬǵõͬһƬݻдͬĿ
+ *
+ *  ṩʵ֣
+ *  HashShardStrategyϣֵƬ
+ *  RangeShardStrategyƬķΧƬ
+ *  LookupShardStrategyұƬûеǼǵļһ
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+public interface ShardStrategy {
+
+	/* shardKeyڵķƬ±꣬0 <= ֵ < shardCount */
+	int shardOf(Object shardKey,int shardCount);
+
+}
@@ -0,0 +1,258 @@
+/**********************************************************************
+ * 	SlowQueryLog.java
+ *
+ *  SQL־ͰSQLָƻܵĺʱͳƣMySqlHelperÿִSQL֮
+ *
+ *  ͳƣÿsampleRateִһΣָƲָƵֱͼûбִֻһ
+ *  ָƱmaxFingerprintsֵָ֮ƺϲ"(other)"ڴ
+ *  SQLʱﵽִֵвǷ񱻲һУʱָơԭͲֵΪ0ʾ
+ *
+ *  ִSQL߳нУSQL٣ӿɵṩclose()ʱر
+ *  ¼MySqlHelperfinallyеãʱѾɣѾύԼ¼ʱ쳣ֻӡ׳
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+class SlowQueryLog {
+
+	/* ָƱָ֮ƺϲ */
+	private static final String OTHER = "(other)";
+
+	/* ־ÿ󳤶ȣԼĲ */
+	private static final int MAX_SQL_LENGTH = 2048;
+	private static final int MAX_PARAMETER_LENGTH = 128;
+	private static final int MAX_PARAMETERS = 32;
+
+	private final long thresholdNanos;
+	private final int sampleRate;
+	private final int maxFingerprints;
+	private final PrintStream out;
+
+	private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+	private final LongAdder slowCount = new LongAdder();
+
+
+	/* 췽thresholdMillisΪSQLֵ룩sampleRateΪͳƵĲ */
+	SlowQueryLog(long thresholdMillis,int sampleRate,int maxFingerprints,PrintStream out){
+
+		if(thresholdMillis < 0 || sampleRate <= 0 || maxFingerprints <= 0){
+			throw new RuntimeException("MySqlHelperSQLֵС0ָ0");
+		}
+
+		this.thresholdNanos = thresholdMillis * 1000000L;
+		this.sampleRate = sampleRate;
+		this.maxFingerprints = maxFingerprints;
+		this.out = out;
+	}
+
+
+	/* ¼һִ */
+	void record(String sql,SqlParameters parameters,long nanos,boolean failed) {
+
+		try {
+			boolean slow = isSlow(nanos);
+			boolean sampled = sample();
+			if(!slow && !sampled){
+				return;
+			}
+
+			String fingerprint = SqlFingerprint.of(sql);
+			if(sampled){
+				entryOf(fingerprint).record(nanos, failed);
+			}
+			if(slow){
+				StringBuilder sb = new StringBuilder();
+				appendStatement(sb, sql, parameters);
+				log(nanos, failed, fingerprint, sb);
+			}
+		}
+		catch (RuntimeException e) {
+			e.printStackTrace();		//־ӰѾɵĲ
+		}
+	}
+
+
+	/* ¼һָ뵥ͬ־͵һв */
+	void recordBatch(String sql,SqlParameters[] rows,long nanos,boolean failed) {
+
+		try {
+			boolean slow = isSlow(nanos);
+			boolean sampled = sample();
+			if(!slow && !sampled){
+				return;
+			}
+
+			String fingerprint = "batch: " + SqlFingerprint.of(sql);
+			if(sampled){
+				entryOf(fingerprint).record(nanos, failed);
+			}
+			if(slow){
+				StringBuilder sb = new StringBuilder();
+				appendStatement(sb, sql, rows.length > 0 ? rows[0] : null);
+				sb.append(" rows=").append(rows.length);
+				log(nanos, failed, fingerprint, sb);
+			}
+		}
+		catch (RuntimeException e) {
+			e.printStackTrace();		//־ӰѾɵĲ
+		}
+	}
+
+
+	/* ¼һָΪÿָ÷ֺ */
+	void recordTransaction(String[] sql,SqlParameters[] parameters,long nanos,boolean failed) {
+
+		try {
+			boolean slow = isSlow(nanos);
+			boolean sampled = sample();
+			if(!slow && !sampled){
+				return;
+			}
+
+			StringBuilder fingerprint = new StringBuilder("transaction: ");
+			for(int i = 0;i < sql.length;i++){
+				fingerprint.append(i == 0 ? "" : "; ").append(SqlFingerprint.of(sql[i]));
+			}
+			if(sampled){
+				entryOf(fingerprint.toString()).record(nanos, failed);
+			}
+			if(slow){
+				StringBuilder sb = new StringBuilder();
+				for(int i = 0;i < sql.length;i++){
+					sb.append(i == 0 ? "" : "; ");
+					appendStatement(sb, sql[i], parameters == null || i >= parameters.length ? null : parameters[i]);
+				}
+				log(nanos, failed, fingerprint.toString(), sb);
+			}
+		}
+		catch (RuntimeException e) {
+			e.printStackTrace();		//־ӰѾɵĲ
+		}
+	}
+
+
+	/* ָƵͳƣƵܺʱӴС */
+	List<SqlFingerprintStats> getStats() {
+
+		List<SqlFingerprintStats> stats = new ArrayList<SqlFingerprintStats>(entries.size());
+		for(Map.Entry<String, Entry> entry : entries.entrySet()){
+			stats.add(new SqlFingerprintStats(entry.getKey(), sampleRate,
+					entry.getValue().latency.snapshot(), entry.getValue().errors.sum()));
+		}
+
+		Collections.sort(stats, new Comparator<SqlFingerprintStats>() {
+			@Override
+			public int compare(SqlFingerprintStats a, SqlFingerprintStats b) {
+				return Long.compare(b.getLatency().getSum(), a.getLatency().getSum());
+			}
+		});
+		return stats;
+	}
+
+
+	/* SQL */
+	long getSlowCount() {
+		return slowCount.sum();
+	}
+
+
+	/* ͳ */
+	void reset() {
+		entries.clear();
+	}
+
+
+	/* رSystem.outSystem.errر */
+	void close() {
+
+		if(out != System.out && out != System.err){
+			out.close();
+		}
+	}
+
+
+	private boolean isSlow(long nanos) {
+		return thresholdNanos > 0 && nanos >= thresholdNanos;
+	}
+
+
+	private boolean sample() {
+		return sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+	}
+
+
+	/* ָƵͳָƱʱ"(other)" */
+	private Entry entryOf(String fingerprint) {
+
+		Entry entry = entries.get(fingerprint);
+		if(entry == null){
+			String key = entries.size() < maxFingerprints ? fingerprint : OTHER;
+			entry = entries.computeIfAbsent(key, new Function<String, Entry>() {
+				@Override
+				public Entry apply(String k) {
+					return new Entry();
+				}
+			});
+		}
+		return entry;
+	}
+
+
+	/* һSQL */
+	private void log(long nanos,boolean failed,String fingerprint,StringBuilder statement) {
+
+		slowCount.increment();
+		out.println(String.format("MySqlHelperSQL %.3f %s  ָƣ%s  䣺%s",
+				nanos / 1e6, failed ? "ʧܣ" : "", fingerprint, statement));
+	}
+
+
+	/* ׷ͲĲֽض */
+	private static void appendStatement(StringBuilder sb,String sql,SqlParameters parameters) {
+
+		sb.append(sql.length() > MAX_SQL_LENGTH ? sql.substring(0, MAX_SQL_LENGTH) + "..." : sql);
+		if(parameters == null || parameters.size() == 0){
+			return;
+		}
+
+		sb.append(" [");
+		int shown = Math.min(parameters.size(), MAX_PARAMETERS);
+		for(int i = 1;i <= shown;i++){
+			String value = parameters.getString(i);
+			if(value != null && value.length() > MAX_PARAMETER_LENGTH){
+				value = value.substring(0, MAX_PARAMETER_LENGTH) + "...";
+			}
+			sb.append(i == 1 ? "" : ", ").append(value);
+		}
+		sb.append(shown < parameters.size() ? ", ...]" : "]");
+	}
+
+
+
+	/* һָƵͳֱͼֻһÿԼ4KB */
+	private static final class Entry {
+
+		final LatencyHistogram latency = new LatencyHistogram(1);
+		final LongAdder errors = new LongAdder();
+
+		void record(long nanos,boolean failed) {
+			latency.record(nanos);
+			if(failed){
+				errors.increment();
+			}
+		}
+	}
+
+}
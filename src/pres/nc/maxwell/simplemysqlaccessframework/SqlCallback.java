@@ -0,0 +1,19 @@
+/**********************************************************************
+ * 	SqlCallback.java
+ *
+ *  첽ύSQLʱĻصӿڣֻһֻһ
+ *  صִSQL߳еãʱѾ黹ӳأҪڻصȴĽ
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+public interface SqlCallback<V> {
+
+	/* ɹresultΪĽresultΪÿĸ */
+	void onSuccess(V result);
+
+	/* ʧܣeΪԭ쳣SQL쳣ͨe.getCause() */
+	void onFailure(Throwable e);
+
+}
@@ -0,0 +1,191 @@
+/**********************************************************************
+ * 	SqlEvents.java
+ *
+ *  ִ·ϵĸ٣JDK Flight Recorder¼Լѡĵ־
+ *
+ *  SqlEventsࣺ־Լ¼ĸ¼඼ľ̬ڲ
+ *  ConnectionAcquireEventӳػȡӣʱΪȴʱ
+ *  StatementExecuteEventִһSQL䣨ѯ¡еһ䣩
+ *  TransactionEventִһ񣬰ύ߻ع
+ *  QueueWaitEventύʼִThreadPoolPackŶӵʱ
+ *
+ *  ûпʼ¼ûʹ-XX:StartFlightRecordingjcmd JFR.startʱ
+ *  ¼begin/end/shouldCommitΪղJIT¼ķ䣬Ӱִ·
+ *  ¼ʱJDK Mission Controlа"SimpleMySqlAccessFramework"鿴
+ *
+ *  ־ʹjava.util.logging־Ϊpres.nc.maxwell.simplemysqlaccessframework
+ *  ֻFINE־ûпʱôȼisDebugEnabled()ƴַ
+ *  ָͣ״̬仯ͬһ־INFO
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.logging.ConsoleHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+class SqlEvents {
+
+	static final Logger LOG = Logger.getLogger("pres.nc.maxwell.simplemysqlaccessframework");
+
+	/* SQL͵֣±ΪSqlMetricsеĲ */
+	private static final String[] OPERATION_NAMES = { "query", "update", "batch", "transaction" };
+
+	/* setDebugLogʱӵΪnullʾû */
+	private static ConsoleHandler debugHandler = null;
+
+
+	private SqlEvents(){
+	}
+
+
+	/* Ƿ־ôƴ־֮ǰ */
+	static boolean isDebugEnabled() {
+		return LOG.isLoggable(Level.FINE);
+	}
+
+
+	/* һе־ */
+	static void debug(String message) {
+		LOG.fine(message);
+	}
+
+
+	/* һ״̬־INFO𣩣ڸл಻ƵĬϾӦÿ״̬仯 */
+	static void info(String message) {
+		LOG.info(message);
+	}
+
+
+	/* ߹رյ־ʱ־ΪFINESystem.errÿдʱ߳
+	 * Ѿlogging.properties־ʱҪã־ļΪFINE */
+	static synchronized void setDebugLog(boolean enabled) {
+
+		if(enabled){
+			if(debugHandler == null){
+				debugHandler = new ConsoleHandler();
+				debugHandler.setLevel(Level.FINE);
+				debugHandler.setFormatter(new Formatter() {
+					@Override
+					public String format(LogRecord record) {
+						return new SimpleDateFormat("HH:mm:ss.SSS").format(new Date(record.getMillis()))
+								+ " [" + Thread.currentThread().getName() + "] " + record.getMessage() + System.lineSeparator();
+					}
+				});
+				LOG.addHandler(debugHandler);
+				LOG.setUseParentHandlers(false);
+				LOG.setLevel(Level.FINE);
+			}
+		}
+		else if(debugHandler != null){
+			/* ֻʱ޸ģӰlogging.propertiesе */
+			LOG.removeHandler(debugHandler);
+			LOG.setUseParentHandlers(true);
+			LOG.setLevel(null);
+			debugHandler = null;
+		}
+	}
+
+
+	/* ʼһִ¼ */
+	static StatementExecuteEvent beginStatement() {
+
+		StatementExecuteEvent event = new StatementExecuteEvent();
+		event.begin();
+		return event;
+	}
+
+
+	/* ִ¼ڼ¼ʱдֶβύ */
+	static void commitStatement(StatementExecuteEvent event,int type,String sql,boolean failed) {
+
+		event.end();
+		if(event.shouldCommit()){
+			event.operation = OPERATION_NAMES[type];
+			event.sql = sql;
+			event.failed = failed;
+			event.commit();
+		}
+	}
+
+
+
+	@Name("pres.nc.maxwell.simplemysqlaccessframework.ConnectionAcquire")
+	@Label("Connection Acquire")
+	@Category({ "SimpleMySqlAccessFramework", "Connection Pool" })
+	@Description("ӳػȡӣʱΪȴʱ")
+	static final class ConnectionAcquireEvent extends Event {
+
+		@Label("Connection")
+		@Description("ӵhashCodeȡʧʱΪ0")
+		int connectionId;
+
+		@Label("Failed")
+		@Description("ʱߵȴʱж")
+		boolean failed;
+
+	}
+
+
+	@Name("pres.nc.maxwell.simplemysqlaccessframework.StatementExecute")
+	@Label("Statement Execute")
+	@Category({ "SimpleMySqlAccessFramework", "SQL" })
+	@Description("ִһSQL䣬ѯȡʱ")
+	static final class StatementExecuteEvent extends Event {
+
+		@Label("Operation")
+		String operation;
+
+		@Label("SQL")
+		String sql;
+
+		@Label("Failed")
+		boolean failed;
+
+	}
+
+
+	@Name("pres.nc.maxwell.simplemysqlaccessframework.Transaction")
+	@Label("Transaction")
+	@Category({ "SimpleMySqlAccessFramework", "SQL" })
+	@Description("ִһ񣬰ύ߻ع")
+	static final class TransactionEvent extends Event {
+
+		@Label("Statements")
+		int statements;
+
+		@Label("First Statement")
+		String firstStatement;
+
+		@Label("Committed")
+		@Description("falseʾѾع")
+		boolean committed;
+
+	}
+
+
+	@Name("pres.nc.maxwell.simplemysqlaccessframework.QueueWait")
+	@Label("Executor Queue Wait")
+	@Category({ "SimpleMySqlAccessFramework", "Executor" })
+	@Description("ʼִУ¼ύʼִThreadPoolPackŶӵʱ")
+	static final class QueueWaitEvent extends Event {
+
+		@Label("Queue Time")
+		@Timespan(Timespan.NANOSECONDS)
+		long queueTime;
+
+	}
+
+}//SqlEvents
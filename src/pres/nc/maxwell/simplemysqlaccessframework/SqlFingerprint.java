@@ -0,0 +1,186 @@
+/**********************************************************************
+ * 	SqlFingerprint.java
+ *
+ *  SQLһΪָƣֻǳͬõͬһָƣڰ״ܺʱ
+ *
+ *  ֵַ滻Ϊ?עȥĿհ׺ϲΪһո񣬷֮ĸתΪСд
+ *  IN (?, ?, ?)бϲΪ(?+)VALUES (...), (...)ϲΪһ
+ *   UPDATE user_info SET age = 18 WHERE name = 'xiaoming3'
+ *  õ update user_info set age = ? where name = ?
+ *
+ *  ֻʷ﷨ֻͳƺ־
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+class SqlFingerprint {
+
+	/* ʹòÿζͬԭ仺ָƣƴ˳ÿζ̫ͬʱ */
+	private static final int MAX_CACHED = 1024;
+	private static final ConcurrentHashMap<String, String> cache = new ConcurrentHashMap<String, String>();
+
+	/* ?ɵбԼб */
+	private static final Pattern VALUE_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+	private static final Pattern REPEATED_LISTS = Pattern.compile("\\(\\?\\+\\)(?:\\s*,\\s*\\(\\?\\+\\))+");
+
+
+	private SqlFingerprint(){
+	}
+
+
+	/* sqlָ */
+	static String of(String sql) {
+
+		String fingerprint = cache.get(sql);
+		if(fingerprint == null){
+			fingerprint = normalize(sql);
+			if(cache.size() >= MAX_CACHED){
+				cache.clear();
+			}
+			cache.put(sql, fingerprint);
+		}
+		return fingerprint;
+	}
+
+
+	/* ַɨ裬滻ȥע͡ϲհ */
+	static String normalize(String sql) {
+
+		int length = sql.length();
+		StringBuilder sb = new StringBuilder(length);
+		boolean space = false;		//ǷлûĿհ
+
+		for(int i = 0;i < length;){
+			char c = sql.charAt(i);
+
+			/* հףԼ-- # /* עͶһո */
+			if(Character.isWhitespace(c)){
+				space = true;
+				i++;
+				continue;
+			}
+			if(c == '#' || (c == '-' && i + 2 < length && sql.charAt(i + 1) == '-' && Character.isWhitespace(sql.charAt(i + 2)))){
+				int end = sql.indexOf('\n', i);
+				i = end < 0 ? length : end + 1;
+				space = true;
+				continue;
+			}
+			if(c == '/' && i + 1 < length && sql.charAt(i + 1) == '*'){
+				int end = sql.indexOf("*/", i + 2);
+				i = end < 0 ? length : end + 2;
+				space = true;
+				continue;
+			}
+
+			if(space && sb.length() > 0){
+				sb.append(' ');
+			}
+			space = false;
+
+			if(c == '\'' || c == '"'){
+				i = skipQuoted(sql, i, c);
+				sb.append('?');
+			}
+			else if(c == '`'){
+				int end = sql.indexOf('`', i + 1);
+				end = end < 0 ? length : end + 1;
+				sb.append(sql, i, end);
+				i = end;
+			}
+			else if(isNumberStart(sql, i, sb)){
+				i = skipNumber(sql, i);
+				sb.append('?');
+			}
+			else if(isWordPart(c)){
+				/* ʶ͹ؼеֲǳ */
+				int start = i;
+				while(i < length && isWordPart(sql.charAt(i))){
+					i++;
+				}
+				sb.append(sql.substring(start, i).toLowerCase());
+			}
+			else{
+				sb.append(c);
+				i++;
+			}
+		}
+
+		String fingerprint = VALUE_LIST.matcher(sb).replaceAll("(?+)");
+		return REPEATED_LISTS.matcher(fingerprint).replaceAll("(?+)");
+	}
+
+
+	/* еַַ֧бתţؽ֮λ */
+	private static int skipQuoted(String sql, int start, char quote) {
+
+		int length = sql.length();
+		int i = start + 1;
+		while(i < length){
+			char c = sql.charAt(i);
+			if(c == '\\'){
+				i += 2;
+			}
+			else if(c == quote){
+				if(i + 1 < length && sql.charAt(i + 1) == quote){
+					i += 2;
+				}
+				else{
+					return i + 1;
+				}
+			}
+			else{
+				i++;
+			}
+		}
+		return length;
+	}
+
+
+	/* ֿͷҲǱʶһ֣ǰһַĸֻ»ߣ */
+	private static boolean isNumberStart(String sql, int i, StringBuilder sb) {
+
+		char c = sql.charAt(i);
+		boolean digit = c >= '0' && c <= '9'
+				|| (c == '.' && i + 1 < sql.length() && sql.charAt(i + 1) >= '0' && sql.charAt(i + 1) <= '9');
+		return digit && (sb.length() == 0 || !isWordPart(sb.charAt(sb.length() - 1)));
+	}
+
+
+	/* ʮơСѧ0xͷʮ */
+	private static int skipNumber(String sql, int i) {
+
+		int length = sql.length();
+		if(sql.startsWith("0x", i) || sql.startsWith("0X", i)){
+			i += 2;
+			while(i < length && Character.digit(sql.charAt(i), 16) >= 0){
+				i++;
+			}
+			return i;
+		}
+
+		while(i < length){
+			char c = sql.charAt(i);
+			if((c >= '0' && c <= '9') || c == '.'){
+				i++;
+			}
+			else if((c == 'e' || c == 'E') && i + 1 < length
+					&& (Character.isDigit(sql.charAt(i + 1)) || sql.charAt(i + 1) == '-' || sql.charAt(i + 1) == '+')){
+				i += 2;
+			}
+			else{
+				break;
+			}
+		}
+		return i;
+	}
+
+
+	private static boolean isWordPart(char c) {
+		return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+	}
+
+}
@@ -0,0 +1,78 @@
+/**********************************************************************
+ * 	SqlFingerprintStats.java
+ *
+ *  һSQLָƵĺʱͳƣMySqlHelper.getSqlFingerprintStats
+ *
+ *  ʱֻбִмͳƣgetSamples()ΪgetEstimatedCount()getEstimatedTotal()
+ *  ΪȫִеĹֵƽֵٷλʹʲܲӰ
+ *  ָﵽֵ֮ϲͳָ"(other)"
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+public class SqlFingerprintStats {
+
+	private final String fingerprint;
+	private final int sampleRate;
+	private final LatencySnapshot latency;
+	private final long errors;
+
+
+	SqlFingerprintStats(String fingerprint,int sampleRate,LatencySnapshot latency,long errors){
+		this.fingerprint = fingerprint;
+		this.sampleRate = sampleRate;
+		this.latency = latency;
+		this.errors = errors;
+	}
+
+
+	/* ָ */
+	public String getFingerprint() {
+		return fingerprint;
+	}
+
+
+	/* òıÿsampleRateִͳһ */
+	public int getSampleRate() {
+		return sampleRate;
+	}
+
+
+	/* ñִд */
+	public long getSamples() {
+		return latency.getCount();
+	}
+
+
+	/* ùƵִд */
+	public long getEstimatedCount() {
+		return latency.getCount() * sampleRate;
+	}
+
+
+	/* ùƵܺʱ룩 */
+	public long getEstimatedTotal() {
+		return latency.getSum() * sampleRate;
+	}
+
+
+	/* ñִʧܵĴ */
+	public long getErrors() {
+		return errors;
+	}
+
+
+	/* úʱֲ룩ƽֵٷλֵ */
+	public LatencySnapshot getLatency() {
+		return latency;
+	}
+
+
+	@Override
+	public String toString() {
+		return String.format("count~%d, total~%.3fms, ", getEstimatedCount(), getEstimatedTotal() / 1e6)
+				+ latency + ", errors=" + errors + "  " + fingerprint;
+	}
+
+}
@@ -0,0 +1,88 @@
+/**********************************************************************
+ * 	SqlMetrics.java
+ *
+ *  һMySqlHelperͳϢӳصļͻȡӵӳ٣ԼÿSQLӳٺʧܴ
+ *  ConnectionPoolMySqlHelperִ·ϼ¼ʹLongAdderӳʹLatencyHistogram
+ *  ͨMetricsSnapshotȡ
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+import java.util.concurrent.atomic.LongAdder;
+
+class SqlMetrics {
+
+	/* SQL */
+	static final int QUERY = 0;
+	static final int UPDATE = 1;
+	static final int BATCH = 2;
+	static final int TRANSACTION = 3;
+	static final int OPERATION_TYPES = 4;
+
+	private final LatencyHistogram acquireLatency = new LatencyHistogram();
+	private final LongAdder acquireTimeouts = new LongAdder();
+
+	private final LongAdder connectionsCreated = new LongAdder();
+	private final LongAdder connectionCreateFailures = new LongAdder();
+	private final LongAdder connectionsClosed = new LongAdder();
+
+	private final LatencyHistogram[] operationLatency = new LatencyHistogram[OPERATION_TYPES];
+	private final LongAdder[] operationErrors = new LongAdder[OPERATION_TYPES];
+
+
+	SqlMetrics(){
+		for(int i = 0;i < OPERATION_TYPES;i++){
+			operationLatency[i] = new LatencyHistogram();
+			operationErrors[i] = new LongAdder();
+		}
+	}
+
+
+	void recordAcquire(long nanos) {
+		acquireLatency.record(nanos);
+	}
+
+	void recordAcquireTimeout() {
+		acquireTimeouts.increment();
+	}
+
+	void recordConnectionCreated() {
+		connectionsCreated.increment();
+	}
+
+	void recordConnectionCreateFailure() {
+		connectionCreateFailures.increment();
+	}
+
+	void recordConnectionClosed() {
+		connectionsClosed.increment();
+	}
+
+	/* ¼һSQLĺʱʧܵĲͬʱʧܴ */
+	void recordOperation(int type,long nanos,boolean failed) {
+		operationLatency[type].record(nanos);
+		if(failed){
+			operationErrors[type].increment();
+		}
+	}
+
+
+	/* Ѽӳд */
+	void fill(MetricsSnapshot snapshot) {
+
+		snapshot.acquireLatency = acquireLatency.snapshot();
+		snapshot.acquireTimeouts = acquireTimeouts.sum();
+		snapshot.connectionsCreated = connectionsCreated.sum();
+		snapshot.connectionCreateFailures = connectionCreateFailures.sum();
+		snapshot.connectionsClosed = connectionsClosed.sum();
+
+		snapshot.operationLatency = new LatencySnapshot[OPERATION_TYPES];
+		snapshot.operationErrors = new long[OPERATION_TYPES];
+		for(int i = 0;i < OPERATION_TYPES;i++){
+			snapshot.operationLatency[i] = operationLatency[i].snapshot();
+			snapshot.operationErrors[i] = operationErrors[i].sum();
+		}
+	}
+
+}
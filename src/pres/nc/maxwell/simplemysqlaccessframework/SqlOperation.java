@@ -0,0 +1,15 @@
+/**********************************************************************
+ * 	SqlOperation.java
+ *
+ *  ̳߳ص첽ִеSQLAsyncSqlTaskȡӺãִɺ黹
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+interface SqlOperation<V> {
+	
+	/* ѾhelperȡִSQL쳣ֱ׳ */
+	V execute(MySqlHelper helper,PooledConnection pooledConn) throws Exception;
+	
+}//SqlOperation
@@ -0,0 +1,324 @@
+/**********************************************************************
+ * 	SqlParameters.java
+ *
+ *  ͵SQLȫַ󶨵String...
+ *  ֵlong[]УdoubleλģʽҪװ䣬ҲҪȸʽΪַ
+ *  clear()֮ظʹãÿεöµĲ
+ *
+ *  ע⣺ύ̳֮߳Future֮ǰҪ޸ͬһʵִ߳вŻ
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
+
+public class SqlParameters {
+
+	/*  */
+	private static final byte TYPE_UNSET = 0;
+	private static final byte TYPE_NULL = 1;
+	private static final byte TYPE_STRING = 2;
+	private static final byte TYPE_INT = 3;
+	private static final byte TYPE_LONG = 4;
+	private static final byte TYPE_DOUBLE = 5;
+	private static final byte TYPE_BYTES = 6;
+	private static final byte TYPE_TIMESTAMP = 7;
+
+	private byte[] types;		//ÿ
+	private long[] numbers;		//ֵNULLSQL
+	private Object[] objects;	//ַֽʱ
+	private int count = 0;		//Ѿõ
+
+	/* ֱַӰװʱƣʱsetStringκsetʱתΪ͵ʽ */
+	private String[] strings;
+
+
+	/* 췽ĬϿ8ʱԶ */
+	public SqlParameters(){
+		this(8);
+	}
+
+
+	/* 췽capacityΪԤƵĲ */
+	public SqlParameters(int capacity){
+		types = new byte[capacity];
+		numbers = new long[capacity];
+		objects = new Object[capacity];
+	}
+
+
+	private SqlParameters(String[] strings){
+		this.strings = strings;
+		this.count = strings.length;
+	}
+
+
+	/* װַ飬ڼString...ĽӿڣparametersΪnullʱnull */
+	public static SqlParameters ofStrings(String... parameters) {
+
+		return parameters == null ? null : new SqlParameters(parameters);
+	}
+
+
+	/* װַеÿ */
+	static SqlParameters[] ofStringRows(String[][] rows) {
+
+		SqlParameters[] typedRows = new SqlParameters[rows.length];
+		for(int i = 0;i < rows.length;i++){
+			typedRows[i] = ofStrings(rows[i]);
+		}
+		return typedRows;
+	}
+
+
+	/* װַÿһ */
+	static SqlParameters[] ofStringRows(List<String[]> rows) {
+
+		SqlParameters[] typedRows = new SqlParameters[rows.size()];
+		for(int i = 0;i < typedRows.length;i++){
+			typedRows[i] = ofStrings(rows.get(i));
+		}
+		return typedRows;
+	}
+
+
+	public SqlParameters setInt(int index,int value) {
+		int i = slot(index, TYPE_INT);
+		numbers[i] = value;
+		objects[i] = null;
+		return this;
+	}
+
+
+	public SqlParameters setLong(int index,long value) {
+		int i = slot(index, TYPE_LONG);
+		numbers[i] = value;
+		objects[i] = null;
+		return this;
+	}
+
+
+	public SqlParameters setDouble(int index,double value) {
+		int i = slot(index, TYPE_DOUBLE);
+		numbers[i] = Double.doubleToRawLongBits(value);
+		objects[i] = null;
+		return this;
+	}
+
+
+	/* ַvalueΪnullʱͬsetNull(index, Types.VARCHAR) */
+	public SqlParameters setString(int index,String value) {
+		if(value == null){
+			return setNull(index, Types.VARCHAR);
+		}
+		int i = slot(index, TYPE_STRING);
+		objects[i] = value;
+		return this;
+	}
+
+
+	/* ֽvalueΪnullʱͬsetNull(index, Types.VARBINARY) */
+	public SqlParameters setBytes(int index,byte[] value) {
+		if(value == null){
+			return setNull(index, Types.VARBINARY);
+		}
+		int i = slot(index, TYPE_BYTES);
+		objects[i] = value;
+		return this;
+	}
+
+
+	/* ʱvalueΪnullʱͬsetNull(index, Types.TIMESTAMP) */
+	public SqlParameters setTimestamp(int index,Timestamp value) {
+		if(value == null){
+			return setNull(index, Types.TIMESTAMP);
+		}
+		int i = slot(index, TYPE_TIMESTAMP);
+		objects[i] = value;
+		return this;
+	}
+
+
+	/* NULLsqlTypeΪjava.sql.Typesе */
+	public SqlParameters setNull(int index,int sqlType) {
+		int i = slot(index, TYPE_NULL);
+		numbers[i] = sqlType;
+		objects[i] = null;
+		return this;
+	}
+
+
+	/* вԱظʹãͷѾ */
+	public SqlParameters clear() {
+
+		if(strings != null){
+			strings = null;
+			types = new byte[Math.max(count, 8)];
+			numbers = new long[types.length];
+			objects = new Object[types.length];
+		}
+		else{
+			Arrays.fill(types, 0, count, TYPE_UNSET);
+			Arrays.fill(objects, 0, count, null);
+		}
+
+		count = 0;
+		return this;
+	}
+
+
+	/* ò */
+	public int size() {
+		return count;
+	}
+
+
+	/* òַʽ־ȣNULLnull */
+	public String getString(int index) {
+
+		int i = index - 1;
+		if(strings != null){
+			return strings[i];
+		}
+
+		switch(types[i]){
+			case TYPE_INT:
+			case TYPE_LONG:
+				return String.valueOf(numbers[i]);
+			case TYPE_DOUBLE:
+				return String.valueOf(Double.longBitsToDouble(numbers[i]));
+			case TYPE_STRING:
+			case TYPE_TIMESTAMP:
+				return objects[i].toString();
+			case TYPE_BYTES:
+				return "byte[" + ((byte[])objects[i]).length + "]";
+			default:
+				return null;
+		}
+	}
+
+
+	/* Ѳͺֵ׷ӵsbѯļֽʱfalseʾ */
+	boolean appendKey(StringBuilder sb) {
+
+		for(int i = 0;i < count;i++){
+
+			if(strings != null){
+				sb.append(strings[i] == null ? 'n' : 's');
+				if(strings[i] != null){
+					sb.append(strings[i]);
+				}
+			}
+			else if(types[i] == TYPE_BYTES){
+				return false;
+			}
+			else{
+				sb.append((char)('0' + types[i]));
+				if(types[i] != TYPE_NULL){
+					sb.append(getString(i + 1));
+				}
+			}
+
+			sb.append('\0');
+		}
+		return true;
+	}
+
+
+	/* Ű󶨵Ԥ */
+	void bindTo(PreparedStatement ps) throws SQLException {
+
+		if(strings != null){
+			for(int i = 0;i < strings.length;i++){
+				ps.setString(i + 1, strings[i]);
+			}
+			return;
+		}
+
+		for(int i = 0;i < count;i++){
+			switch(types[i]){
+				case TYPE_NULL:
+					ps.setNull(i + 1, (int)numbers[i]);
+					break;
+				case TYPE_STRING:
+					ps.setString(i + 1, (String)objects[i]);
+					break;
+				case TYPE_INT:
+					ps.setInt(i + 1, (int)numbers[i]);
+					break;
+				case TYPE_LONG:
+					ps.setLong(i + 1, numbers[i]);
+					break;
+				case TYPE_DOUBLE:
+					ps.setDouble(i + 1, Double.longBitsToDouble(numbers[i]));
+					break;
+				case TYPE_BYTES:
+					ps.setBytes(i + 1, (byte[])objects[i]);
+					break;
+				case TYPE_TIMESTAMP:
+					ps.setTimestamp(i + 1, (Timestamp)objects[i]);
+					break;
+				default:
+					throw new SQLException("SqlParameters " + (i + 1) + " û");
+			}
+		}
+	}
+
+
+	/* ŲҪʱݣ¼ͣش0ʼ± */
+	private int slot(int index,byte type) {
+
+		if(index < 1){
+			throw new RuntimeException("SqlParametersŴ1ʼ");
+		}
+
+		if(strings != null){
+			materialize();
+		}
+
+		int i = index - 1;
+		if(i >= types.length){
+			int capacity = Math.max(types.length * 2, index);
+			types = Arrays.copyOf(types, capacity);
+			numbers = Arrays.copyOf(numbers, capacity);
+			objects = Arrays.copyOf(objects, capacity);
+		}
+
+		types[i] = type;
+		if(index > count){
+			count = index;
+		}
+		return i;
+	}
+
+
+	/* ѰװַתΪ͵ʽ */
+	private void materialize() {
+
+		String[] wrapped = strings;
+		strings = null;
+
+		int capacity = Math.max(wrapped.length, 8);
+		types = new byte[capacity];
+		numbers = new long[capacity];
+		objects = new Object[capacity];
+
+		for(int i = 0;i < wrapped.length;i++){
+			if(wrapped[i] == null){
+				types[i] = TYPE_NULL;
+				numbers[i] = Types.VARCHAR;
+			}
+			else{
+				types[i] = TYPE_STRING;
+				objects[i] = wrapped[i];
+			}
+		}
+	}
+
+}
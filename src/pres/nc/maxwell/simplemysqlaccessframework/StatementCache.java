@@ -0,0 +1,127 @@
+/**********************************************************************
+ * 	StatementCache.java
+ *
+ *  ӵԤ仺棬SQLΪLRṶ
+ *  ͬһʱֻᱻһ̳߳УԻ汾Ҫͬ
+ *  ̭Լӹرʱе䶼ᱻر
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class StatementCache {
+
+	private final Connection conn;
+	private final int capacity;					//໺Ϊ0ʾ
+	private final StatementCacheStats stats;
+	private final LinkedHashMap<String, PreparedStatement> statements;
+
+
+	/* 췽capacityΪ0ʱÿζԤµ䣬꼴ر */
+	StatementCache(Connection conn,int capacity,StatementCacheStats stats){
+
+		this.conn = conn;
+		this.capacity = capacity;
+		this.stats = stats;
+
+		/* ˳򣬳ʱ̭ûʹõ */
+		this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true){
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+
+				if(size() <= StatementCache.this.capacity){
+					return false;
+				}
+
+				closeStatement(eldest.getValue());
+				StatementCache.this.stats.recordEviction();
+				return true;
+			}
+		};
+	}
+
+
+	/* ໺Ϊ0ʾ */
+	int getCapacity() {
+		return capacity;
+	}
+
+
+	/* SQLӦԤ䣬ûʱԤ벢뻺 */
+	PreparedStatement prepare(String sql) throws SQLException {
+
+		if(capacity == 0){
+			stats.recordMiss();
+			return conn.prepareStatement(sql);
+		}
+
+		PreparedStatement ps = statements.get(sql);
+		if(ps != null){
+			stats.recordHit();
+			return ps;
+		}
+
+		stats.recordMiss();
+		ps = conn.prepareStatement(sql);
+		statements.put(sql, ps);
+		return ps;
+	}
+
+
+	/* ʹϣеղԱ㸴ãֱӹر */
+	void release(PreparedStatement ps) {
+
+		try {
+			if(capacity == 0){
+				ps.close();
+			}
+			else if(!ps.isClosed()){
+				ps.clearParameters();
+			}
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+
+
+	/* ӻƳر䣬ٸ */
+	void invalidate(String sql) {
+
+		PreparedStatement ps = statements.remove(sql);
+		if(ps != null){
+			closeStatement(ps);
+		}
+	}
+
+
+	/* رջе䣬ӹر֮ǰ */
+	void closeAll() {
+
+		for(PreparedStatement ps : statements.values()){
+			closeStatement(ps);
+		}
+		statements.clear();
+	}
+
+
+	private static void closeStatement(PreparedStatement ps) {
+
+		try {
+			ps.close();
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+
+}
@@ -0,0 +1,64 @@
+/**********************************************************************
+ * 	StatementCacheStats.java
+ *
+ *  Ԥ仺ͳϢͬһӳӵĻ湲
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class StatementCacheStats {
+
+	private final AtomicLong hitCount = new AtomicLong();			//д
+	private final AtomicLong missCount = new AtomicLong();			//δдҪԤµ䣩
+	private final AtomicLong evictionCount = new AtomicLong();		//̭رյ
+
+
+	void recordHit() {
+		hitCount.incrementAndGet();
+	}
+
+	void recordMiss() {
+		missCount.incrementAndGet();
+	}
+
+	void recordEviction() {
+		evictionCount.incrementAndGet();
+	}
+
+
+	/* д */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+
+	/* δд */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+
+	/* ṋ̃ */
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+
+	/* ʣûʱ0 */
+	public double getHitRatio() {
+
+		long hit = hitCount.get();
+		long total = hit + missCount.get();
+		return total == 0 ? 0 : (double)hit / total;
+	}
+
+
+	@Override
+	public String toString() {
+		return "hit=" + getHitCount() + ", miss=" + getMissCount() + ", eviction=" + getEvictionCount();
+	}
+
+}
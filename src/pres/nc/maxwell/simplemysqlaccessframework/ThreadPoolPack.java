@@ -5,34 +5,104 @@
  *  default ExecuteQueryThreadࣺװѯSQL
  *  default ExecuteUpdateThreadࣺװ²SQL
  *  default CommitTransactionThreadࣺװ²SQL
+ *  default ExecuteBatchThreadࣺװͬһSQL
+ *  default ExecuteStreamThreadࣺװʽѯSQL
+ *  default ExecuteDetachedQueryThreadࣺװѯSQLʽ
+ *  default ExecuteMappedQueryThreadࣺװѯSQLÿһתΪָ͵Ķ
+ *  default AdmittedTaskࣺռύɵִ߳˳ʱ黹
+ *  default AsyncSqlTaskࣺ첽ӿڵ񣬽쳣ͨCompletableFuture
+ *  default ReadThreadࣺװ˸ʱڿʼִʱѡ񸱱
+ *  default ThreadPoolPackMetricsࣺThreadPoolPackMXBeanʵ֣ͨJMXͳϢ
  *  
  **********************************************************************/
 
 package pres.nc.maxwell.simplemysqlaccessframework;
 
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 public class ThreadPoolPack {
 	
-	/* 룺JavaŻôһʽԶΪfalse䣬ǵĴֽ롣 
-	 * REFUSE_WHEN_FULLƵ߳ʱ̳߳ضʱǷܾtrueΪܾfalseΪȴ̳߳ؿ  */
-	private final boolean REFUSE_WHEN_FULL = false;  
+	/* ύʱ̳߳Ĵ */
+	public enum SubmitPolicy {
+		BLOCK,			//ȴ̳߳ؿУõȴĳʱʱ
+		CALLER_RUNS,	//ύֱִ߳
+		REJECT			//ܾύnull
+	}
+	
+	/* ˸ʱѯѡ񸱱Ĳ */
+	public enum ReplicaBalance {
+		ROUND_ROBIN,		//ѯ
+		LEAST_OUTSTANDING,	//еĲѯٵĸ
+		LATENCY_WEIGHTED	//ѯӳٵĵȨ
+	}
+	
+	/* ǰύԣʱ޸ģsubmitTimeoutΪBLOCKԵĵȴʱ䣨룩<=0ʾһֱȴ */
+	private volatile SubmitPolicy submitPolicy = SubmitPolicy.BLOCK;
+	private volatile long submitTimeout = 0;
+	
+	/* ύɣͬʱύޣύʱȡʱ黹֤̳߳زܾѻɵ */
+	private Semaphore submitPermits;
+	
+	/* òύʱŶӵ첽񣬲ύ̣߳黹ʱ˳ʼִ */
+	private final ConcurrentLinkedQueue<AsyncSqlTask<?>> pendingAsyncTasks = new ConcurrentLinkedQueue<AsyncSqlTask<?>>();
+	
+	/* ʼر̳֮߳Ϊtrue֮ύ첽ֱ쳣ɣŶ */
+	private volatile boolean shuttingDown = false;
 	
-	private ThreadPoolExecutor executor;
+	private ExecutorService executor;
 	private int threadPoolCoreSize;
 	
+	/* ǷΪÿһ̵ִ߳ģʽִThreadPoolExecutorʱͳɵ */
+	private volatile boolean virtualThreads = false;
+	private final LongAdder completedTaskCount = new LongAdder();
+	
+	/* ύܾԼύʼִеĵȴʱ */
+	private int submitPermitCount;
+	private final LongAdder rejectedTaskCount = new LongAdder();
+	private final LatencyHistogram queueWait = new LatencyHistogram();
+	
+	/* עᵽJMX֣Ϊnullʾûע */
+	private ObjectName mbeanName = null;
+	
+	/* ºϲΪnullʾûп */
+	private volatile UpdateCoalescer updateCoalescer = null;
+	
+	/* ˸ѯʱûл沢ҽԻĲѯǷִУĬڸִ */
+	private volatile boolean cacheMissesFromPrimary = false;
+	
 	/* һ˵һֻ̳߳ҪһMySqlHelperʵһӳأԴ */
 	private MySqlHelper mysqlHelperObj = null;
+	
+	/* д룬˸ʱѯڸִУºmysqlHelperObj⣩ִУΪnullʾûи */
+	private ReplicaRouter replicaRouter = null;
 
 	
 	/* 췽MySqlHelperʵ */
@@ -47,10 +117,10 @@ public class ThreadPoolPack {
 		String password = "";
 		
 		FileInputStream fis = null;
+		Properties pp = new Properties();
 		
         try {
             /* ļжȡϢ */
-        	Properties pp = new Properties();
         	fis = new FileInputStream(filePath);
             pp.load(fis);
             url = pp.getProperty("url");
@@ -73,24 +143,285 @@ public class ThreadPoolPack {
         }
         
         this.threadPoolCoreSize = threadPoolCoreSize;
-		this.mysqlHelperObj = new MySqlHelper(url, userName, password, threadPoolCoreSize);	
+        
+        /* ѡãǷ־ThreadPoolPackЧǰʹӵ־Ҳ */
+        String debugLog = pp.getProperty("debugLog");
+        if(debugLog != null){
+        	setDebugLog(Boolean.parseBoolean(debugLog.trim()));
+        }
+        
+        /* ѡãޣԴڻ߳Ĭ߳ͬ */
+        int connectionPoolSize = Math.max(threadPoolCoreSize, Integer.parseInt(pp.getProperty("maxConnections", "0").trim()));
+		this.mysqlHelperObj = new MySqlHelper(url, userName, password, connectionPoolSize);	
+		configureHelper(mysqlHelperObj, pp);
+		
+		/* ѡãַŷָúѯڸִУûĬͬ */
+		String replicaUrls = pp.getProperty("replicaUrls");
+		if(replicaUrls != null && replicaUrls.trim().length() > 0){
+			
+			String[] urls = replicaUrls.split(",");
+			MySqlHelper[] replicaHelpers = new MySqlHelper[urls.length];
+			for(int i = 0;i < urls.length;i++){
+				urls[i] = urls[i].trim();
+				replicaHelpers[i] = new MySqlHelper(urls[i], 
+						pp.getProperty("replicaUserName", userName), 
+						pp.getProperty("replicaPassword", password), 
+						connectionPoolSize);
+				configureHelper(replicaHelpers[i], pp);
+			}
+			replicaRouter = new ReplicaRouter(mysqlHelperObj, replicaHelpers, urls);
+			
+			/* ѡãѡ */
+			String replicaBalance = pp.getProperty("replicaBalance");
+			if(replicaBalance != null){
+				replicaRouter.setBalance(ReplicaBalance.valueOf(replicaBalance.trim().toUpperCase()));
+			}
+			
+			/* ѡãӳ٣룬ú飩ͼ룩 */
+			String replicaMaxLag = pp.getProperty("replicaMaxLag");
+			if(replicaMaxLag != null && Long.parseLong(replicaMaxLag.trim()) >= 0){
+				replicaRouter.startLagCheck(
+						Long.parseLong(replicaMaxLag.trim()), 
+						Long.parseLong(pp.getProperty("replicaLagCheckInterval", "1000").trim()));
+			}
+		}
+		
+		/* ѡãѯ0ʱռõڴ棨ֽڣЧڣ룩 */
+		String queryResultCacheSize = pp.getProperty("queryResultCacheSize");
+		if(queryResultCacheSize != null && Integer.parseInt(queryResultCacheSize.trim()) > 0){
+			enableQueryResultCache(
+					Integer.parseInt(queryResultCacheSize.trim()),
+					Long.parseLong(pp.getProperty("queryResultCacheBytes", "67108864").trim()),
+					Long.parseLong(pp.getProperty("queryResultCacheTtl", "60000").trim()));
+		}
+		
+		/* ѡãûлĲѯǷִ */
+		String queryResultCacheMissesFromPrimary = pp.getProperty("queryResultCacheMissesFromPrimary");
+		if(queryResultCacheMissesFromPrimary != null){
+			setQueryResultCacheMissesFromPrimary(Boolean.parseBoolean(queryResultCacheMissesFromPrimary.trim()));
+		}
+		
+		/* ѡãSQLֵ룬úSQL־SQLָͳƣͳƵָ־ļ */
+		String slowQueryThreshold = pp.getProperty("slowQueryThreshold");
+		if(slowQueryThreshold != null){
+			enableSlowQueryLog(
+					Long.parseLong(slowQueryThreshold.trim()),
+					Integer.parseInt(pp.getProperty("slowQuerySampleRate", "1").trim()),
+					Integer.parseInt(pp.getProperty("slowQueryMaxFingerprints", "512").trim()),
+					pp.getProperty("slowQueryLogFile"));
+		}
 	}
 
 	
-	/* ̳߳أmaxPoolSize̳߳߳̣߳keepAliveTime߳̿ʱʱ䣨룩 */
+	/* ļеӳغӦõhelperÿʹͬ */
+	private static void configureHelper(MySqlHelper helper,Properties pp){
+		
+		/* ѡãȡӵĳʱʱ䣨룩 */
+		String connectionTimeout = pp.getProperty("connectionTimeout");
+		if(connectionTimeout != null){
+			helper.setAcquireTimeout(Long.parseLong(connectionTimeout.trim()));
+		}
+		
+		/* ѡãӵʹʱ䡢ӵıʱ䣨룩 */
+		String maxLifetime = pp.getProperty("maxLifetime");
+		if(maxLifetime != null){
+			helper.setMaxLifetime(Long.parseLong(maxLifetime.trim()));
+		}
+		
+		String idleTimeout = pp.getProperty("idleTimeout");
+		if(idleTimeout != null){
+			helper.setIdleTimeout(Long.parseLong(idleTimeout.trim()));
+		}
+		
+		/* ѡãжõʹǰҪ飨룩ͼĳʱʱ䣨룩Լ̨άļ룩 */
+		String validationInterval = pp.getProperty("validationInterval");
+		String validationTimeout = pp.getProperty("validationTimeout");
+		if(validationInterval != null || validationTimeout != null){
+			helper.setConnectionValidation(
+					Long.parseLong(pp.getProperty("validationInterval", "500").trim()), 
+					Integer.parseInt(pp.getProperty("validationTimeout", "5").trim()));
+		}
+		
+		String housekeepingInterval = pp.getProperty("housekeepingInterval");
+		if(housekeepingInterval != null){
+			helper.setHousekeepingInterval(Long.parseLong(housekeepingInterval.trim()));
+		}
+		
+		/* ѡãÿӻԤԼǷʹ÷Ԥ */
+		String statementCacheSize = pp.getProperty("statementCacheSize");
+		if(statementCacheSize != null){
+			helper.setStatementCacheSize(Integer.parseInt(statementCacheSize.trim()));
+		}
+		
+		String useServerPrepStmts = pp.getProperty("useServerPrepStmts");
+		if(useServerPrepStmts != null){
+			helper.setUseServerPrepStmts(Boolean.parseBoolean(useServerPrepStmts.trim()));
+		}
+		
+		/* ѡãʽѯʹ÷αʱÿζȡ0ʾʽȡ */
+		String streamFetchSize = pp.getProperty("streamFetchSize");
+		if(streamFetchSize != null){
+			helper.setStreamCursorFetch(Integer.parseInt(streamFetchSize.trim()));
+		}
+		
+		/* ѡãʱǷдΪINSERT */
+		String rewriteBatchedStatements = pp.getProperty("rewriteBatchedStatements");
+		if(rewriteBatchedStatements != null){
+			helper.setRewriteBatchedStatements(Boolean.parseBoolean(rewriteBatchedStatements.trim()));
+		}
+		
+		/* ѡãޣά̲߳㣩ûпʱȴã룩Ŵµ */
+		String minConnections = pp.getProperty("minConnections");
+		if(minConnections != null){
+			helper.setConnectionPoolSize(Integer.parseInt(minConnections.trim()), helper.getMaxConnections());
+		}
+		
+		String growThreshold = pp.getProperty("growThreshold");
+		if(growThreshold != null){
+			helper.setGrowThreshold(Long.parseLong(growThreshold.trim()));
+		}
+		
+		/* ѡãʱдʹöЩЧ */
+		String prefillConnections = pp.getProperty("prefillConnections");
+		if(prefillConnections != null){
+			helper.prefillConnections(Integer.parseInt(prefillConnections.trim()));
+		}
+	}
+	
+	
+	/* ʱиޣmaxConnectionsܳʱ */
+	public void setConnectionPoolSize(int minConnections,int maxConnections){
+		
+		mysqlHelperObj.setConnectionPoolSize(minConnections, maxConnections);
+		if(replicaRouter != null){
+			for(MySqlHelper helper : replicaRouter.getReplicaHelpers()){
+				helper.setConnectionPoolSize(minConnections, maxConnections);
+			}
+		}
+	}
+	
+	
+	/* ⵱ǰ */
+	public int getConnectionCount(){
+		return mysqlHelperObj.getConnectionCount();
+	}
+	
+	
+	/* иӳǷʹ߳׺ */
+	private void setThreadAffinity(boolean threadAffinity){
+		
+		mysqlHelperObj.setThreadAffinity(threadAffinity);
+		if(replicaRouter != null){
+			for(MySqlHelper helper : replicaRouter.getReplicaHelpers()){
+				helper.setThreadAffinity(threadAffinity);
+			}
+		}
+	}
+	
+	
+	/* ̳߳أ̶߳ΪӳԾֻ߳ȴ
+	 * maxPoolSizeͬʱύޣִкŶӵ񣩣ʱύԴҲǻеĳ
+	 *   ע⣺maxPoolSizeǰ̳߳ص߳ڲӰ߳߳ǵthreadPoolCoreSize
+	 *   ǰΪ˵õ̶߳ϴmaxPoolSizeĵֻõŶӣҪ߳ʱӦthreadPoolCoreSize
+	 * keepAliveTime߳̿ʱʱ䣨룩0ʱе̳߳ʱ˳Ϊ0ʱ߳һֱ */
 	public void createThreadPool(int maxPoolSize,long keepAliveTime) {
 		
 		if(maxPoolSize <= this.threadPoolCoreSize){
-			throw new RuntimeException("ThreadPoolPack̳߳߳ӳԾ");
+			throw new RuntimeException("ThreadPoolPack̳߳ύޱӳԾ");
 		}
 		else{	
-			executor = new ThreadPoolExecutor(
+			/* ʱ黹ʱִܻ߳̿ûпУύֻܽ뻺
+			 * ŶӵᳬԻгȱѻɵŲᱻܾ
+			 * вᱻ߳ᳬ߳Ժ߳߳ */
+			int permits = maxPoolSize;
+			
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(
+					this.threadPoolCoreSize,
 					this.threadPoolCoreSize,
-					maxPoolSize,
 					keepAliveTime,
 					TimeUnit.MILLISECONDS,
-					new ArrayBlockingQueue<Runnable>(maxPoolSize - this.threadPoolCoreSize));//̳߳ػ = ߳ - ߳
+					new ArrayBlockingQueue<Runnable>(permits));//̳߳ػ = ύ
+			pool.allowCoreThreadTimeOut(keepAliveTime > 0);
+			executor = pool;
+			
+			submitPermits = new Semaphore(permits, true);
+			submitPermitCount = permits;
+			virtualThreads = false;
+			shuttingDown = false;
+			setThreadAffinity(true);
+		}
+	}
+	
+	
+	/* ִ߳ģʽÿһ̣߳ͬʱݿֻӳƣ
+	 * ȴӵֻ̣߳ռƽ̨߳
+	 * maxPendingTasksͬʱύޣȴӵ񣩣ʱύԴ
+	 * л֧̣߳JDK 21֮ǰʱ˻Ϊÿһƽ̨̣߳ʱmaxPendingTasks˹
+	 * ע⣺JDBCڲsynchronizedִI/Oʱɰ汾Connector/J߳Իռס߳ */
+	public void createVirtualThreadPool(int maxPendingTasks) {
+		
+		if(maxPendingTasks < this.threadPoolCoreSize){
+			throw new RuntimeException("ThreadPoolPackͬʱύܱӳԾС");
+		}
+		
+		executor = newVirtualThreadExecutor();
+		virtualThreads = executor != null;
+		if(!virtualThreads){
+			SqlEvents.info("ThreadPoolPack棺ǰJDK֧̣߳Ϊÿһƽ̨߳");
+			executor = Executors.newCachedThreadPool();
+		}
+		
+		/* ÿµ̣߳߳׺û */
+		setThreadAffinity(false);
+		submitPermits = new Semaphore(maxPendingTasks, true);
+		submitPermitCount = maxPendingTasks;
+		shuttingDown = false;
+	}
+	
+	
+	/* ͨ䴴ÿһ̵ִ߳ʱJDK 21API֧ʱnull */
+	private static ExecutorService newVirtualThreadExecutor() {
+		
+		try {
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) method.invoke(null);
+		} 
+		catch (Exception e) {
+			return null;		//JDK 21֮ǰûJDK 19/20ûпԤʱ׳UnsupportedOperationException
+		}
+	}
+	
+	
+	/* жϵǰǷΪִ߳ģʽ */
+	public boolean isVirtualThreadPool(){
+		
+		return virtualThreads;
+	}
+	
+	
+	/* ̳߳ʱύ */
+	public void setSubmitPolicy(SubmitPolicy submitPolicy){
+		
+		setSubmitPolicy(submitPolicy, 0);
+	}
+	
+	
+	/* ̳߳ʱύԣsubmitTimeoutΪBLOCKԵĵȴʱ䣨룩<=0ʾһֱȴ */
+	public void setSubmitPolicy(SubmitPolicy submitPolicy,long submitTimeout){
+		
+		if(submitPolicy == null){
+			throw new RuntimeException("ThreadPoolPackύԲΪnull");
 		}
+		
+		this.submitPolicy = submitPolicy;
+		this.submitTimeout = submitTimeout;
+	}
+	
+	
+	/* õǰύ */
+	public SubmitPolicy getSubmitPolicy(){
+		
+		return submitPolicy;
 	}
 
 	
@@ -102,11 +433,77 @@ public class ThreadPoolPack {
 			return;		
 		}
 		
-		while(executor.getPoolSize()!=0){
-			//ȴз߳˳
+		try {
+			while(!executor.awaitTermination(1, TimeUnit.SECONDS)){
+				//ȴ߳˳
+			}
+		} 
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
 		}
 		
 		mysqlHelperObj.closeAllConnections();	
+		if(replicaRouter != null){
+			replicaRouter.closeAll();
+		}
+		unregisterMBean();
+	}
+	
+	
+	/* ӳأ⣩̳߳صͳϢ */
+	public MetricsSnapshot getMetricsSnapshot(){
+		
+		MetricsSnapshot snapshot = mysqlHelperObj.getMetricsSnapshot();
+		
+		/* Ŷӵȴύɵ̡߳Ŷӵ첽ѻɵûִ߳е */
+		int queueDepth = pendingAsyncTasks.size();
+		if(submitPermits != null){
+			queueDepth += submitPermits.getQueueLength();
+			snapshot.activeTasks = submitPermitCount - submitPermits.availablePermits();
+		}
+		if(executor instanceof ThreadPoolExecutor){
+			ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+			queueDepth += pool.getQueue().size();
+			snapshot.activeTasks = pool.getActiveCount();
+		}
+		
+		snapshot.queueDepth = queueDepth;
+		snapshot.rejectedTasks = rejectedTaskCount.sum();
+		snapshot.completedTasks = executor == null ? 0 : getCompletedTaskCount();
+		snapshot.queueWait = queueWait.snapshot();
+		return snapshot;
+	}
+	
+	
+	/* ͳϢעᵽƽ̨MBeanServernameͬһеĶThreadPoolPack */
+	public synchronized void registerMBean(String name){
+		
+		unregisterMBean();
+		try {
+			ObjectName objectName = new ObjectName("pres.nc.maxwell.simplemysqlaccessframework:type=ThreadPoolPack,name=" + name);
+			ManagementFactory.getPlatformMBeanServer().registerMBean(new ThreadPoolPackMetrics(this), objectName);
+			mbeanName = objectName;
+		} 
+		catch (JMException e) {
+			throw new RuntimeException("ThreadPoolPackעMBeanʧܣ" + e.getMessage(), e);
+		}
+	}
+	
+	
+	/* ȡעᣬûעʱʲôҲرӳʱԶ */
+	public synchronized void unregisterMBean(){
+		
+		if(mbeanName == null){
+			return;
+		}
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(mbeanName);
+		} 
+		catch (JMException e) {
+			e.printStackTrace();
+		}
+		mbeanName = null;
 	}
 	
 	
@@ -115,7 +512,9 @@ public class ThreadPoolPack {
 		
 		try {
 			rs.close();
-			System.out.println("ThreadPoolPackرս "+ Integer.toHexString(rs.hashCode()) );
+			if(SqlEvents.isDebugEnabled()){
+				SqlEvents.debug("ThreadPoolPackرս "+ Integer.toHexString(rs.hashCode()));
+			}
 		} 
 		catch (SQLException e) {
 			e.printStackTrace();
@@ -123,160 +522,961 @@ public class ThreadPoolPack {
 	}
 	
 	
-	/* ж̳߳Ƿﵽ߳ */
+	/* ж̳߳ǷﵽύޣύǷѾ */
 	public boolean isThreadPoolFull(){
 		
-		int currentPoolSize = executor.getPoolSize()+ executor.getQueue().size();
-		if(currentPoolSize < executor.getMaximumPoolSize() ){
-			return false;
-		}
-		else{
-			return true;
-		}
+		return submitPermits.availablePermits() == 0;
 	}
 	
 	
-	/* ر̳߳أڽµ߳ύ󣬲ֹڶл߻е߳ */
+	/* ر̳߳أڽµ߳ύ󣬲ֹڶл߻е߳
+	 * ѾŶӵ첽ڹر֮ǰȫʼִУʼر֮ύ첽RejectedExecutionException */
 	public void shutdownThreadPool(){
 		
+		shuttingDown = true;
+		disableUpdateCoalescing();		//ִлڵȴϲĸ
+		drainPendingAsyncTasks();		//Ŷӵ첽ͺϲĸ£ر̳֮߳ǰʼִ
 		executor.shutdown();
+		
+		/* ֻʣرͬʱύ */
+		failPendingAsyncTasks(new RejectedExecutionException("ThreadPoolPack̳߳Ѿر"));
 	}
 
 	
 	/* ̳߳Ѿɵ */
 	public long getCompletedTaskCount(){
 	
-		return executor.getCompletedTaskCount();
+		if(executor instanceof ThreadPoolExecutor){
+			return ((ThreadPoolExecutor) executor).getCompletedTaskCount();
+		}
+		return completedTaskCount.sum();
 	}	
 	
 	
-	/* ̳߳Ƿ߳ */
+	/* ̳߳Ƿܽµ񣬲ȴ */
 	public boolean checkThreadPool(){
 		
-		if(REFUSE_WHEN_FULL){
-			if(isThreadPoolFull()==true){		
-				System.out.println("ThreadPoolPack󱻾ܾ");
-				return false;
-			}
+		return !isThreadPoolFull();
+	}
+	
+	
+	/* ǰԻȡύɣȡʧܷfalse */
+	private boolean acquireSubmitPermit(){
+		
+		if(submitPolicy != SubmitPolicy.BLOCK){
+			return submitPermits.tryAcquire();
 		}
 		
-		if(!REFUSE_WHEN_FULL){
-			
-			while(isThreadPoolFull()==true){
-				//ȴĶп
+		try {
+			if(submitTimeout <= 0){
+				submitPermits.acquire();
+				return true;
 			}
+			return submitPermits.tryAcquire(submitTimeout, TimeUnit.MILLISECONDS);
+		} 
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
 		}
-		return true;
 	}
 	
 	
-	/* ύѯSQḶ߳صǷװ */
-	public Future<ResultSet> submitSqlQuery(String sql,String... parameters) {
+	/* ύ̳߳أtryOnlyΪtrueʱ۵ǰԶȴòֱӷnull */
+	<V> Future<V> submitTask(Callable<V> task,boolean tryOnly){
+		
+		boolean admitted = tryOnly ? submitPermits.tryAcquire() : acquireSubmitPermit();
+		
+		if(admitted){
+			AdmittedTask<V> future = new AdmittedTask<V>(task, this, System.nanoTime());
+			try {
+				executor.execute(future);
+			} 
+			catch (RejectedExecutionException e) {
+				submitPermits.release();		//̳߳Ѿر
+				rejectedTaskCount.increment();
+				throw e;
+			}
+			return future;
+		}
 		
-		if(!checkThreadPool()){
-			return null;
+		/* òʱCALLER_RUNSڵǰִ߳ */
+		if(!tryOnly && submitPolicy == SubmitPolicy.CALLER_RUNS){
+			FutureTask<V> future = new FutureTask<V>(task);
+			future.run();
+			return future;
 		}
-
-		/* ߳ಢύ̳߳ */
-		ExecuteQueryThread queryThread = new ExecuteQueryThread(mysqlHelperObj,sql,parameters);	
-		Future<ResultSet> future = executor.submit(queryThread);
 		
-		return future;
+		rejectedTaskCount.increment();
+		SqlEvents.debug("ThreadPoolPack󱻾ܾ");
+		return null;
 	}
 	
 	
-	/* ý */
-	public <V> Object getResult(Future<V> future) {
+	/* ¼ύʼִеĵȴʱ */
+	void recordQueueWait(long nanos){
 		
-		Object rs = null;
+		queueWait.record(nanos);
+	}
+	
+	
+	/* 黹ύɣʼִŶӵ첽 */
+	void releaseSubmitPermit(){
+		
+		completedTaskCount.increment();
+		submitPermits.release();
+		startPendingAsyncTasks();
+	}
+	
+	
+	/* ʱʼִŶӵ첽֮͹黹֮󶼻ãһܿԷ */
+	private void startPendingAsyncTasks(){
+		
+		while(!pendingAsyncTasks.isEmpty() && submitPermits.tryAcquire()){
+			
+			AsyncSqlTask<?> task = pendingAsyncTasks.poll();
+			if(task == null){
+				submitPermits.release();		//Ѿ߳ȡ
+				continue;
+			}
+			startAsyncTask(task);
+		}
+	}
+	
+	
+	/* Ѿɵ첽񽻸ִ̳߳ */
+	private void startAsyncTask(AsyncSqlTask<?> task){
 		
 		try {
-			/* get̷ֱ߳ؽ */
-			rs = future.get();
+			executor.execute(new AdmittedTask<Object>(Executors.callable(task), this, task.getSubmitNanos()));
 		} 
-		catch (Exception e) {
-			e.printStackTrace();
+		catch (RejectedExecutionException e) {
+			submitPermits.release();		//̳߳ѾرգŶӵҲִ
+			rejectedTaskCount.increment();
+			task.fail(e);
+			failPendingAsyncTasks(e);
 		}
-	
-		return rs;	
 	}
-
 	
-	/* ӡ */
-	public void printResultSet(ResultSet rs,String... args){
+	
+	/* ڵǰ̵߳ȴύɣŶӵ첽ȫִ̳߳УֱΪգر̳֮߳ǰ */
+	private void drainPendingAsyncTasks(){
 		
-		try {	
-			while (rs.next()) {
-				for(int i=0;i<args.length;i++){	
-					System.out.println(args[i]+":" + rs.getString(args[i]));
-				}	
-				
-				System.out.println();
+		while(!pendingAsyncTasks.isEmpty()){
+			
+			submitPermits.acquireUninterruptibly();
+			AsyncSqlTask<?> task = pendingAsyncTasks.poll();
+			if(task == null){
+				submitPermits.release();		//Ѿ黹ɵ߳ȡ
+				continue;
 			}
-		} 
-		catch (SQLException e) {
-			e.printStackTrace();
-		}	
+			startAsyncTask(task);
+		}
 	}
-		 
 	
-	/* ύ²SQL߳ */
-	public Future<Integer> submitSqlUpdate(String sql,String... parameters) {
+	
+	/* 쳣Ŷӵ첽 */
+	private void failPendingAsyncTasks(Throwable e){
 		
-		if(!checkThreadPool()){
-			return null;
+		AsyncSqlTask<?> task;
+		while((task = pendingAsyncTasks.poll()) != null){
+			rejectedTaskCount.increment();
+			task.fail(e);
 		}
-
-		/* ߳ಢύ̳߳ */
-		ExecuteUpdateThread updateThread = new ExecuteUpdateThread(mysqlHelperObj,sql,parameters);	
-		Future<Integer> future = executor.submit(updateThread);
+	}
+	
+	
+	/* ύ첽̳߳ʱBLOCKŶӵǰ̣߳CALLER_RUNSڵǰִ߳УREJECT쳣 */
+	<V> CompletableFuture<V> submitAsync(SqlOperation<V> operation,boolean read){
 		
-		return future;
+		AsyncSqlTask<V> task = new AsyncSqlTask<V>(mysqlHelperObj, read ? replicaRouter : null, operation);
+		
+		/* ѾʼرʱգŶ֮űܾ */
+		if(shuttingDown){
+			rejectedTaskCount.increment();
+			task.fail(new RejectedExecutionException("ThreadPoolPack̳߳Ѿر"));
+			return task.getFuture();
+		}
+		
+		/* ѾŶʱ */
+		if(pendingAsyncTasks.isEmpty() && submitPermits.tryAcquire()){
+			startAsyncTask(task);
+		}
+		else if(submitPolicy == SubmitPolicy.CALLER_RUNS){
+			task.run();
+		}
+		else if(submitPolicy == SubmitPolicy.REJECT){
+			rejectedTaskCount.increment();
+			task.fail(new RejectedExecutionException("ThreadPoolPack󱻾ܾ"));
+		}
+		else{
+			pendingAsyncTasks.offer(task);
+			startPendingAsyncTasks();
+		}
+		
+		return task.getFuture();
 	}
 	
 	
-	/* ӡ²Ľ */
-	public void printUpdateResult(Future<Integer> future){
+	/* ִе첽ŶӶУύζҲڵǰִ߳УϲµĶʱ߳ʹ
+	 * ύԣŶӵƣϲڷͰʱѾߣﲻپܾ */
+	<V> CompletableFuture<V> enqueueAsync(SqlOperation<V> operation){
 		
-		Integer rs = (Integer) getResult(future);
-		System.out.println("ThreadPoolPackɹӰݿΪ " + rs.intValue() + " ");	
-	}	
+		AsyncSqlTask<V> task = new AsyncSqlTask<V>(mysqlHelperObj, null, operation);
+		pendingAsyncTasks.offer(task);
+		startPendingAsyncTasks();
+		
+		return task.getFuture();
+	}
 	
 	
-	/* ύ²SQL߳ */
-	public void submitSqlUpdateTransaction(String[] sql,String[]... parameters) {
+	/* װ˸fromPrimaryΪfalseʱڿʼִʱѡ񸱱ִ */
+	private <V> Callable<V> readTask(ReplicaRouter.ReadOperation<V> operation,boolean fromPrimary){
 		
-		if(!checkThreadPool()){
-			return;
-		}
-
-		/* ߳ಢύ̳߳ */
-		CommitTransactionThread transactionThread = new CommitTransactionThread(mysqlHelperObj,sql,parameters);	
-		executor.submit(transactionThread);
-
-	}	
+		return new ReadThread<V>(mysqlHelperObj, fromPrimary ? null : replicaRouter, operation);
+	}
+	
 	
+	/* 첽ʱûصCompletionException⿪Ϊԭ쳣 */
+	private static <V> void notifyCallback(CompletableFuture<V> future,final SqlCallback<V> callback){
+		
+		future.whenComplete(new BiConsumer<V, Throwable>() {
+			@Override
+			public void accept(V result,Throwable e) {
+				if(e == null){
+					callback.onSuccess(result);
+					return;
+				}
+				if(e instanceof CompletionException && e.getCause() != null){
+					e = e.getCause();
+				}
+				callback.onFailure(e);
+			}
+		});
+	}
 	
 	
+	/* ύѯSQḶ߳صǷװ */
+	public Future<ResultSet> submitSqlQuery(String sql,String... parameters) {
+		
+		return submitSqlQuery(sql, SqlParameters.ofStrings(parameters));
+	}
 	
 	
-}//TreadPoolPack
-
-
+	/* ύѯSQḶ߳ʹô͵Ĳ */
+	public Future<ResultSet> submitSqlQuery(final String sql,final SqlParameters parameters) {
 
-
-class ExecuteQueryThread implements Callable<ResultSet> {
+		/* ߳ಢύ̳߳أ˸ʱڸִ */
+		return submitTask(readTask(new ReplicaRouter.ReadOperation<ResultSet>() {
+			@Override
+			public ResultSet execute(MySqlHelper helper) throws Exception {
+				return new ExecuteQueryThread(helper,sql,parameters).call();
+			}
+		}, false), false);
+	}
 	
+	
+	/* ύѯSQḶ̳߳߳ʱȴֱӷnull */
+	public Future<ResultSet> trySubmitSqlQuery(String sql,String... parameters) {
+		
+		return trySubmitSqlQuery(sql, SqlParameters.ofStrings(parameters));
+	}
+	
+	
+	/* ύѯSQḶ߳ʹô͵Ĳ */
+	public Future<ResultSet> trySubmitSqlQuery(final String sql,final SqlParameters parameters) {
+
+		return submitTask(readTask(new ReplicaRouter.ReadOperation<ResultSet>() {
+			@Override
+			public ResultSet execute(MySqlHelper helper) throws Exception {
+				return new ExecuteQueryThread(helper,sql,parameters).call();
+			}
+		}, false), true);
+	}
+	
+	
+	/* ύѯSQḶ߳˸ʱҲִУڶȡոύĸ£ܻûͬ */
+	public Future<ResultSet> submitSqlQueryFromPrimary(String sql,String... parameters) {
+		
+		return submitSqlQueryFromPrimary(sql, SqlParameters.ofStrings(parameters));
+	}
+	
+	
+	/* ύѯSQḶִ߳Уʹô͵Ĳ */
+	public Future<ResultSet> submitSqlQueryFromPrimary(String sql,SqlParameters parameters) {
+
+		ExecuteQueryThread queryThread = new ExecuteQueryThread(mysqlHelperObj,sql,parameters);	
+		return submitTask(queryThread, false);
+	}
+	
+	
+	/* ύѯSQḶִ߳߳жʽ漴黹ӳ
+	 * صĽռӺ䣬Ҫر */
+	public Future<DetachedResultSet> submitSqlQueryDetached(String sql,String... parameters) {
+		
+		return submitSqlQueryDetached(sql, SqlParameters.ofStrings(parameters));
+	}
+	
+	
+	/* ύѯSQḶ߳ʹô͵Ĳطʽ
+	 * ˲ѯ沢ʱֱӷѾɵFutureռ̺߳ */
+	public Future<DetachedResultSet> submitSqlQueryDetached(final String sql,final SqlParameters parameters) {
+		
+		DetachedResultSet cached = mysqlHelperObj.getCachedQueryResult(sql, parameters);
+		if(cached != null){
+			return CompletableFuture.completedFuture(cached);
+		}
+
+		/* ߳ಢύ̳߳أ˸ʱڸִУcacheMissesFromPrimaryʱ뻺ִ */
+		return submitTask(readTask(new ReplicaRouter.ReadOperation<DetachedResultSet>() {
+			@Override
+			public DetachedResultSet execute(MySqlHelper helper) throws Exception {
+				return new ExecuteDetachedQueryThread(helper,sql,parameters).call();
+			}
+		}, isCacheMissFromPrimary(sql, parameters)), false);
+	}
+	
+	
+	/* ύѯSQḶִ߳вҲʹûĽطʽ */
+	public Future<DetachedResultSet> submitSqlQueryDetachedFromPrimary(String sql,String... parameters) {
+		
+		return submitSqlQueryDetachedFromPrimary(sql, SqlParameters.ofStrings(parameters));
+	}
+	
+	
+	/* ύѯSQḶִ߳Уʹô͵Ĳطʽ */
+	public Future<DetachedResultSet> submitSqlQueryDetachedFromPrimary(String sql,SqlParameters parameters) {
+
+		ExecuteDetachedQueryThread queryThread = new ExecuteDetachedQueryThread(mysqlHelperObj,sql,parameters);	
+		return submitTask(queryThread, false);
+	}
+	
+	
+	/* ύѯSQḶִ̰߳߳ÿһתΪtypeĶ漴黹ӳ
+	 * typeҪ޲ι췽Ӧͨsetterֶд룻תSQLtype */
+	public <T> Future<List<T>> submitSqlQuery(String sql,Class<T> type,String... parameters) {
+		
+		return submitSqlQuery(sql, type, SqlParameters.ofStrings(parameters));
+	}
+	
+	
+	/* ύѯSQḶ߳ʹô͵ĲÿһתΪtypeĶ */
+	public <T> Future<List<T>> submitSqlQuery(final String sql,final Class<T> type,final SqlParameters parameters) {
+
+		/* ߳ಢύ̳߳أ˸ʱڸִ */
+		return submitTask(readTask(new ReplicaRouter.ReadOperation<List<T>>() {
+			@Override
+			public List<T> execute(MySqlHelper helper) throws Exception {
+				return new ExecuteMappedQueryThread<T>(helper,sql,type,parameters).call();
+			}
+		}, false), false);
+	}
+	
+	
+	/* ύʽѯSQḶ̶ִ߳߳ÿһеhandlerȡ֮ǰһֱռ
+	 * Futureشhandlerfalseߵfuture.cancel(true)ǰ */
+	public Future<Long> submitSqlStream(String sql,RowHandler handler,String... parameters) {
+		
+		return submitSqlStream(sql, handler, SqlParameters.ofStrings(parameters));
+	}
+	
+	
+	/* ύʽѯSQḶ߳ʹô͵Ĳ */
+	public Future<Long> submitSqlStream(final String sql,final RowHandler handler,final SqlParameters parameters) {
+
+		/* ߳ಢύ̳߳أ˸ʱڸִ */
+		return submitTask(readTask(new ReplicaRouter.ReadOperation<Long>() {
+			@Override
+			public Long execute(MySqlHelper helper) throws Exception {
+				return new ExecuteStreamThread(helper,sql,handler,parameters).call();
+			}
+		}, false), false);
+	}
+	
+	
+	/* ý */
+	public <V> Object getResult(Future<V> future) {
+		
+		Object rs = null;
+		
+		try {
+			/* get̷ֱ߳ؽ */
+			rs = future.get();
+		} 
+		catch (Exception e) {
+			e.printStackTrace();
+		}
+	
+		return rs;	
+	}
+
+	
+	/* ӡ */
+	public void printResultSet(ResultSet rs,String... args){
+		
+		try {	
+			while (rs.next()) {
+				for(int i=0;i<args.length;i++){	
+					System.out.println(args[i]+":" + rs.getString(args[i]));
+				}	
+				
+				System.out.println();
+			}
+		} 
+		catch (SQLException e) {
+			e.printStackTrace();
+		}	
+	}
+		 
+	
+	/* ύ²SQL߳ */
+	public Future<Integer> submitSqlUpdate(String sql,String... parameters) {
+		
+		return submitSqlUpdate(sql, SqlParameters.ofStrings(parameters));
+	}
+	
+	
+	/* ύ²SQḶ߳ʹô͵Ĳ */
+	public Future<Integer> submitSqlUpdate(String sql,SqlParameters parameters) {
+		
+		/* ˸ºϲʱINSERT/UPDATE/DELETEϲrewriteBatchedStatementsʱINSERTϲ */
+		UpdateCoalescer coalescer = updateCoalescer;
+		if(coalescer != null && UpdateCoalescer.isCoalescable(sql, parameters, mysqlHelperObj.isRewriteBatchedStatements())){
+			return coalescer.submit(sql, parameters, false);
+		}
+
+		/* ߳ಢύ̳߳ */
+		ExecuteUpdateThread updateThread = new ExecuteUpdateThread(mysqlHelperObj,sql,parameters);	
+		return submitTask(updateThread, false);
+	}
+	
+	
+	/* ύ²SQḶ̳߳߳ʱȴֱӷnull */
+	public Future<Integer> trySubmitSqlUpdate(String sql,String... parameters) {
+		
+		return trySubmitSqlUpdate(sql, SqlParameters.ofStrings(parameters));
+	}
+	
+	
+	/* ύ²SQḶ߳ʹô͵Ĳ */
+	public Future<Integer> trySubmitSqlUpdate(String sql,SqlParameters parameters) {
+
+		ExecuteUpdateThread updateThread = new ExecuteUpdateThread(mysqlHelperObj,sql,parameters);	
+		return submitTask(updateThread, true);
+	}
+	
+	
+	/* ºϲͬSQLsubmitSqlUpdatewindowMillisڻ߻۵maxRowsʱϲΪһִ
+	 * ÿߵFutureȻõԼһеĸô벻Ҫ޸
+	 * rewriteBatchedStatementsʱԸдINSERT/REPLACEÿֻ-2ʱINSERT/REPLACEϲȻִ
+	 * ע⣺ϲĸ²ύԣǱգϲ̳֮߳ŶӣŶӵmaxPoolSize */
+	public synchronized void enableUpdateCoalescing(long windowMillis,int maxRows){
+		
+		disableUpdateCoalescing();
+		updateCoalescer = new UpdateCoalescer(this, windowMillis, maxRows);
+	}
+	
+	
+	/* رոºϲڵȴĸִ */
+	public synchronized void disableUpdateCoalescing(){
+		
+		UpdateCoalescer coalescer = updateCoalescer;
+		if(coalescer != null){
+			updateCoalescer = null;
+			coalescer.shutdown();
+		}
+	}
+	
+	
+	/* ѯ棺submitSqlQueryDetachedĽSQLͲ棬maxEntriesռmaxBytesֽڣ
+	 * ÿЧΪttlMillis룻submitSqlUpdateִ֮Ƴ˱޸ĵıĽ
+	 * ˸ʱвѯͬȲ黺棬ûʱڸִУֻϵĲѯ뻺棺
+	 * ӳڼ丱֮ܶǰݣ뻺ɵʧЧѾݻһֱص
+	 * ֻ*FromPrimaryĲѯ䣬ҪͨѯʱsetQueryResultCacheMissesFromPrimary
+	 * ע⣺ֱ޸ݿʱ治ֻ֪ܵȴ */
+	public void enableQueryResultCache(int maxEntries,long maxBytes,long ttlMillis){
+		
+		mysqlHelperObj.enableQueryResultCache(maxEntries, maxBytes, ttlMillis);
+	}
+	
+	
+	/* رղѯ */
+	public void disableQueryResultCache(){
+		
+		mysqlHelperObj.disableQueryResultCache();
+	}
+	
+	
+	/* ˸ʱûл沢ҽԻĲѯǷִУĬΪfalseڸִУ뻺棩
+	 * ΪtrueʱЩѯĽ뻺棬֮Ĳѯл棬ûеĲѯе
+	 * ʵʱ󲿷ֶص⣬ֻһʸʱ */
+	public void setQueryResultCacheMissesFromPrimary(boolean fromPrimary){
+		
+		cacheMissesFromPrimary = fromPrimary;
+	}
+	
+	
+	/* ûлĲѯǷִУcacheMissesFromPrimaryҽ뻺 */
+	private boolean isCacheMissFromPrimary(String sql,SqlParameters parameters){
+		
+		return cacheMissesFromPrimary && mysqlHelperObj.isQueryResultCacheable(sql, parameters);
+	}
+	
+	
+	/* òѯѡ񸱱Ĳԣûøʱ׳쳣 */
+	public void setReplicaBalance(ReplicaBalance replicaBalance){
+		
+		checkReplicas().setBalance(replicaBalance);
+	}
+	
+	
+	/* ӳټ飺ÿintervalMillisһΣӳٳmaxLagSeconds߸Ѿֹͣĸͣʹ
+	 * ʹÿһӳصӣӲϻ߲ѯʱԭ״̬ */
+	public void enableReplicaLagCheck(long maxLagSeconds,long intervalMillis){
+		
+		checkReplicas().startLagCheck(maxLagSeconds, intervalMillis);
+	}
+	
+	
+	/* رոӳټ飬иָʹ */
+	public void disableReplicaLagCheck(){
+		
+		checkReplicas().stopLagCheck();
+	}
+	
+	
+	/* øûøʱ0 */
+	public int getReplicaCount(){
+		
+		return replicaRouter == null ? 0 : replicaRouter.getReplicaCount();
+	}
+	
+	
+	/* õǰõĸͣʹõĸ */
+	public int getAvailableReplicaCount(){
+		
+		return replicaRouter == null ? 0 : replicaRouter.getAvailableReplicaCount();
+	}
+	
+	
+	/* ÿĽвѯƽӳٺ͸ӳ٣ */
+	public String getReplicaStatus(){
+		
+		return replicaRouter == null ? "" : replicaRouter.describe();
+	}
+	
+	
+	/* Ƿ˸ */
+	private ReplicaRouter checkReplicas(){
+		
+		if(replicaRouter == null){
+			throw new RuntimeException("ThreadPoolPackûøreplicaUrls");
+		}
+		return replicaRouter;
+	}
+	
+	
+	/* ߹رյ־ӡύͻعӵĴ͹رյÿβĸϢSystem.err
+	 * ThreadPoolPackЧƽʱʹJFR¼٣SqlEventsҪ */
+	public static void setDebugLog(boolean enabled){
+		
+		SqlEvents.setDebugLog(enabled);
+	}
+	
+	
+	/* òѯͳϢûпʱnull */
+	public QueryResultCacheStats getQueryResultCacheStats(){
+		
+		return mysqlHelperObj.getQueryResultCacheStats();
+	}
+	
+	
+	/* SQL־ʱﵽthresholdMillisͬlogFile׷д룬ΪnullʱSystem.out
+	 * 0ʾֻͳƲÿsampleRateִвһΣSQLָͳƺʱͳmaxFingerprintsָ
+	 * ͸ִеϲͳ */
+	public void enableSlowQueryLog(long thresholdMillis,int sampleRate,int maxFingerprints,String logFile){
+		
+		PrintStream out = System.out;
+		if(logFile != null){
+			try {
+				out = new PrintStream(new FileOutputStream(logFile.trim(), true), true, "UTF-8");
+			} 
+			catch (IOException e) {
+				throw new RuntimeException("ThreadPoolPack޷SQL־ļ " + logFile + "" + e.getMessage(), e);
+			}
+		}
+		
+		mysqlHelperObj.enableSlowQueryLog(thresholdMillis, sampleRate, maxFingerprints, out);
+		shareSlowQueryLog();
+	}
+	
+	
+	/* رSQL־ͳȫ */
+	public void disableSlowQueryLog(){
+		
+		mysqlHelperObj.disableSlowQueryLog();
+		shareSlowQueryLog();
+	}
+	
+	
+	/* ʹͬһSQL־ */
+	private void shareSlowQueryLog(){
+		
+		if(replicaRouter != null){
+			for(MySqlHelper helper : replicaRouter.getReplicaHelpers()){
+				helper.shareSlowQueryLog(mysqlHelperObj);
+			}
+		}
+	}
+	
+	
+	/* ÿSQLָƵĺʱͳƣܺʱӴСУûпSQL־ʱnull */
+	public List<SqlFingerprintStats> getSqlFingerprintStats(){
+		
+		return mysqlHelperObj.getSqlFingerprintStats();
+	}
+	
+	
+	/* ѾSQL */
+	public long getSlowQueryCount(){
+		
+		return mysqlHelperObj.getSlowQueryCount();
+	}
+	
+	
+	/* ӡ²Ľ */
+	public void printUpdateResult(Future<Integer> future){
+		
+		Integer rs = (Integer) getResult(future);
+		System.out.println("ThreadPoolPackɹӰݿΪ " + rs.intValue() + " ");	
+	}	
+	
+	
+	/* ύ̣߳ͬһSQLִжвÿchunkSizeзһΣһ
+	 * Futureÿһеĸʧʱnull */
+	public Future<int[]> submitSqlBatch(String sql,List<String[]> rows,int chunkSize) {
+		
+		return submitSqlBatch(sql, SqlParameters.ofStringRows(rows), chunkSize);
+	}
+	
+	
+	/* ύ̣߳ÿһʹô͵Ĳ */
+	public Future<int[]> submitSqlBatch(String sql,SqlParameters[] rows,int chunkSize) {
+
+		/* ߳ಢύ̳߳ */
+		ExecuteBatchThread batchThread = new ExecuteBatchThread(mysqlHelperObj,sql,rows,chunkSize);	
+		return submitTask(batchThread, false);
+	}
+	
+	
+	/* ύ²SQL߳
+	 * FutureÿĸͬкϲΪһعʱnull */
+	public Future<int[]> submitSqlUpdateTransaction(String[] sql,String[]... parameters) {
+		
+		return submitSqlUpdateTransaction(sql, SqlParameters.ofStringRows(parameters));
+	}
+	
+	
+	/* ύ²SQḶ߳ÿʹô͵Ĳ */
+	public Future<int[]> submitSqlUpdateTransaction(String[] sql,SqlParameters[] parameters) {
+
+		/* ߳ಢύ̳߳ */
+		CommitTransactionThread transactionThread = new CommitTransactionThread(mysqlHelperObj,sql,parameters);	
+		return submitTask(transactionThread, false);
+	}
+	
+	
+	/* ύ²SQḶ̳߳߳ʱȴֱӷnull */
+	public Future<int[]> trySubmitSqlUpdateTransaction(String[] sql,String[]... parameters) {
+		
+		return trySubmitSqlUpdateTransaction(sql, SqlParameters.ofStringRows(parameters));
+	}
+	
+	
+	/* ύ²SQḶ߳ÿʹô͵Ĳ */
+	public Future<int[]> trySubmitSqlUpdateTransaction(String[] sql,SqlParameters[] parameters) {
+
+		CommitTransactionThread transactionThread = new CommitTransactionThread(mysqlHelperObj,sql,parameters);	
+		return submitTask(transactionThread, true);
+	}	
+	
+	
+	/* 첽ύѯSQL䣬ʽsubmitSqlQueryDetachedͬʧʱصFutureԭ쳣
+	 * ҪִSQL߳ȴ첽ҪʱʹthenComposethenCombineallOfȷ */
+	public CompletableFuture<DetachedResultSet> submitSqlQueryAsync(String sql,String... parameters) {
+		
+		return submitSqlQueryAsync(sql, SqlParameters.ofStrings(parameters));
+	}
+	
+	
+	/* 첽ύѯSQL䣬ʹô͵ĲѯʱֱӷѾɵFuture */
+	public CompletableFuture<DetachedResultSet> submitSqlQueryAsync(final String sql,final SqlParameters parameters) {
+		
+		DetachedResultSet cached = mysqlHelperObj.getCachedQueryResult(sql, parameters);
+		if(cached != null){
+			return CompletableFuture.completedFuture(cached);
+		}
+		
+		/* ˸ʱڸִУcacheMissesFromPrimaryʱ뻺ִ */
+		return submitAsync(new SqlOperation<DetachedResultSet>() {
+			@Override
+			public DetachedResultSet execute(MySqlHelper helper,PooledConnection pooledConn) throws Exception {
+				return helper.executeDetachedQuery(pooledConn, sql, parameters);
+			}
+		}, !isCacheMissFromPrimary(sql, parameters));
+	}
+	
+	
+	/* 첽ύѯSQL䣬ִвҲʹûĽ */
+	public CompletableFuture<DetachedResultSet> submitSqlQueryAsyncFromPrimary(String sql,String... parameters) {
+		
+		return submitSqlQueryAsyncFromPrimary(sql, SqlParameters.ofStrings(parameters));
+	}
+	
+	
+	/* 첽ύѯSQL䣬ִУʹô͵Ĳ */
+	public CompletableFuture<DetachedResultSet> submitSqlQueryAsyncFromPrimary(final String sql,final SqlParameters parameters) {
+		
+		return submitAsync(new SqlOperation<DetachedResultSet>() {
+			@Override
+			public DetachedResultSet execute(MySqlHelper helper,PooledConnection pooledConn) throws Exception {
+				return helper.executeDetachedQuery(pooledConn, sql, parameters);
+			}
+		}, false);
+	}
+	
+	
+	/* 첽ύѯSQL䣬ʱcallback */
+	public void submitSqlQueryAsync(String sql,SqlParameters parameters,SqlCallback<DetachedResultSet> callback) {
+		
+		notifyCallback(submitSqlQueryAsync(sql, parameters), callback);
+	}
+	
+	
+	/* 첽ύѯSQL䣬ÿһתΪtypeĶ */
+	public <T> CompletableFuture<List<T>> submitSqlQueryAsync(String sql,Class<T> type,String... parameters) {
+		
+		return submitSqlQueryAsync(sql, type, SqlParameters.ofStrings(parameters));
+	}
+	
+	
+	/* 첽ύѯSQL䣬ʹô͵ĲÿһתΪtypeĶ */
+	public <T> CompletableFuture<List<T>> submitSqlQueryAsync(final String sql,final Class<T> type,final SqlParameters parameters) {
+		
+		return submitAsync(new SqlOperation<List<T>>() {
+			@Override
+			public List<T> execute(MySqlHelper helper,PooledConnection pooledConn) throws Exception {
+				return helper.executeMappedQuery(pooledConn, sql, type, parameters);
+			}
+		}, true);
+	}
+	
+	
+	/* 첽ύ²SQL䣻˸ºϲʱͬϲ */
+	public CompletableFuture<Integer> submitSqlUpdateAsync(String sql,String... parameters) {
+		
+		return submitSqlUpdateAsync(sql, SqlParameters.ofStrings(parameters));
+	}
+	
+	
+	/* 첽ύ²SQL䣬ʹô͵Ĳ */
+	public CompletableFuture<Integer> submitSqlUpdateAsync(final String sql,final SqlParameters parameters) {
+		
+		UpdateCoalescer coalescer = updateCoalescer;
+		if(coalescer != null && UpdateCoalescer.isCoalescable(sql, parameters, mysqlHelperObj.isRewriteBatchedStatements())){
+			return coalescer.submit(sql, parameters, true);
+		}
+		
+		return submitAsync(new SqlOperation<Integer>() {
+			@Override
+			public Integer execute(MySqlHelper helper,PooledConnection pooledConn) throws Exception {
+				return helper.executeUpdate(pooledConn, sql, parameters);
+			}
+		}, false);
+	}
+	
+	
+	/* 첽ύ²SQL䣬ʱcallback */
+	public void submitSqlUpdateAsync(String sql,SqlParameters parameters,SqlCallback<Integer> callback) {
+		
+		notifyCallback(submitSqlUpdateAsync(sql, parameters), callback);
+	}
+	
+	
+	/* 첽ύFutureÿһеĸ */
+	public CompletableFuture<int[]> submitSqlBatchAsync(String sql,List<String[]> rows,int chunkSize) {
+		
+		return submitSqlBatchAsync(sql, SqlParameters.ofStringRows(rows), chunkSize);
+	}
+	
+	
+	/* 첽ύÿһʹô͵Ĳ */
+	public CompletableFuture<int[]> submitSqlBatchAsync(final String sql,final SqlParameters[] rows,final int chunkSize) {
+		
+		return submitAsync(new SqlOperation<int[]>() {
+			@Override
+			public int[] execute(MySqlHelper helper,PooledConnection pooledConn) throws Exception {
+				return helper.executeBatch(pooledConn, sql, rows, chunkSize);
+			}
+		}, false);
+	}
+	
+	
+	/* 첽ύʱcallback */
+	public void submitSqlBatchAsync(String sql,SqlParameters[] rows,int chunkSize,SqlCallback<int[]> callback) {
+		
+		notifyCallback(submitSqlBatchAsync(sql, rows, chunkSize), callback);
+	}
+	
+	
+	/* 첽ύ²SQLύFutureÿĸɣعʱԭ쳣 */
+	public CompletableFuture<int[]> submitSqlUpdateTransactionAsync(String[] sql,String[]... parameters) {
+		
+		return submitSqlUpdateTransactionAsync(sql, SqlParameters.ofStringRows(parameters));
+	}
+	
+	
+	/* 첽ύ²SQLÿʹô͵Ĳ */
+	public CompletableFuture<int[]> submitSqlUpdateTransactionAsync(final String[] sql,final SqlParameters[] parameters) {
+		
+		return submitAsync(new SqlOperation<int[]>() {
+			@Override
+			public int[] execute(MySqlHelper helper,PooledConnection pooledConn) throws Exception {
+				return helper.executeTransaction(pooledConn, sql, parameters);
+			}
+		}, false);
+	}
+	
+	
+	/* 첽ύ²SQLʱcallback */
+	public void submitSqlUpdateTransactionAsync(String[] sql,SqlParameters[] parameters,SqlCallback<int[]> callback) {
+		
+		notifyCallback(submitSqlUpdateTransactionAsync(sql, parameters), callback);
+	}
+	
+	
+	
+	
+	
+}//TreadPoolPack
+
+
+
+
+class ExecuteQueryThread implements Callable<ResultSet> {
+	
+	private PooledConnection pooledConn;
 	private Connection conn;
 	private String sql = "";
-	private String[] parameters;
+	private SqlParameters parameters;
 	private ResultSet rs;
 	
 	private MySqlHelper mysqlHelperObj;
 	
 	
 	/* 췽ҪִеSQLͲMySqlHelper */
-	public ExecuteQueryThread(MySqlHelper mysqlHelperObj,String sql,String... parameters){
+	public ExecuteQueryThread(MySqlHelper mysqlHelperObj,String sql,SqlParameters parameters){
+		this.sql = sql;
+		this.parameters = parameters;
+		this.mysqlHelperObj = mysqlHelperObj;
+	}	
+
+	/* ̳߳лȡ */
+	private void getConnection(){
+		/* ӳʱȴʱ׳쳣ʹʧ */
+		pooledConn = mysqlHelperObj.acquireConnection();
+		
+		conn = pooledConn.getConnection();
+		if(SqlEvents.isDebugEnabled()){
+			SqlEvents.debug("ThreadPoolPack"+ Integer.toHexString(conn.hashCode()));
+		}
+	}
+	
+	@Override
+	public ResultSet call() {	
+
+		getConnection();
+		
+		try {
+			rs = mysqlHelperObj.executeQuery(conn,sql,parameters);		
+		} 
+		catch (Exception e) {
+			e.printStackTrace();
+		} 
+		finally {
+			/* Ϊ״̬ */
+			mysqlHelperObj.releaseConnection(pooledConn);
+		}
+
+		return rs;
+	}
+
+}//ExecuteQueryThread
+
+
+
+class ExecuteUpdateThread implements Callable<Integer>{
+	
+	private PooledConnection pooledConn;
+	private Connection conn;
+	private String sql = "";
+	private SqlParameters parameters;
+	private MySqlHelper mysqlHelperObj;
+	
+	
+	/* 췽ҪִеSQLͲMySqlHelper */
+	public ExecuteUpdateThread(MySqlHelper mysqlHelperObj,String sql,SqlParameters parameters){
+		this.sql = sql;
+		this.parameters = parameters;
+		this.mysqlHelperObj = mysqlHelperObj;
+	}	
+
+	/* ̳߳лȡ */
+	private void getConnection(){
+		/* ӳʱȴʱ׳쳣ʹʧ */
+		pooledConn = mysqlHelperObj.acquireConnection();
+		
+		conn = pooledConn.getConnection();
+		if(SqlEvents.isDebugEnabled()){
+			SqlEvents.debug("ThreadPoolPack"+ Integer.toHexString(conn.hashCode()));
+		}
+	}
+	
+	@Override
+	public Integer call() {	
+
+		getConnection();
+		
+		Integer ret = null;
+		try {	
+			ret = mysqlHelperObj.executeUpdate(pooledConn,sql, parameters);
+		} 
+		catch (Exception e) {
+			e.printStackTrace();
+		} 
+		finally {
+			/* Ϊ״̬ */
+			mysqlHelperObj.releaseConnection(pooledConn);
+		}
+		
+		return ret;
+	}
+	
+	
+}//ExecuteUpdateThread
+
+
+
+class CommitTransactionThread implements Callable<int[]>{
+	
+	private PooledConnection pooledConn;
+	private Connection conn;
+	private String[] sql;
+	private SqlParameters[] parameters;
+	private MySqlHelper mysqlHelperObj;
+	
+	
+	/* 췽ҪִеSQLͲMySqlHelper */
+	public CommitTransactionThread(MySqlHelper mysqlHelperObj,String[] sql,SqlParameters[] parameters){
 		this.sql = sql;
 		this.parameters = parameters;
 		this.mysqlHelperObj = mysqlHelperObj;
@@ -284,101 +1484,196 @@ class ExecuteQueryThread implements Callable<ResultSet> {
 
 	/* ̳߳лȡ */
 	private void getConnection(){
-		conn = mysqlHelperObj.getConnectionFromPool();
+		/* ӳʱȴʱ׳쳣ʹʧ */
+		pooledConn = mysqlHelperObj.acquireConnection();
 		
-		/* ȡʧܣ»ȡ */
-		while(conn == null){
-			conn = mysqlHelperObj.getConnectionFromPool();
+		conn = pooledConn.getConnection();
+		if(SqlEvents.isDebugEnabled()){
+			SqlEvents.debug("ThreadPoolPack"+ Integer.toHexString(conn.hashCode()));
 		}
-		
-		System.out.println("ThreadPoolPack"+ Integer.toHexString(conn.hashCode()));
 	}
 	
 	@Override
-	public ResultSet call() {	
+	public int[] call() {	
 
 		getConnection();
 		
-		try {
-			rs = mysqlHelperObj.executeQuery(conn,sql,parameters);		
+		int[] ret = null;
+		try {	
+			ret = mysqlHelperObj.executeTransaction(pooledConn,sql, parameters);
 		} 
 		catch (Exception e) {
 			e.printStackTrace();
 		} 
 		finally {
 			/* Ϊ״̬ */
-			mysqlHelperObj.setConnectionStateToIdle(conn);
+			mysqlHelperObj.releaseConnection(pooledConn);
 		}
+		
+		return ret;
+	}
+	
+	
+}//CommitTransactionThread
 
-		return rs;
+
+
+class AdmittedTask<V> extends FutureTask<V> {
+	
+	private ThreadPoolPack threadPoolPack;
+	private long submitNanos;
+	
+	
+	/* 췽ѾΪһύɵThreadPoolPackԼύʱ䣨System.nanoTime */
+	public AdmittedTask(Callable<V> callable,ThreadPoolPack threadPoolPack,long submitNanos){
+		super(callable);
+		this.threadPoolPack = threadPoolPack;
+		this.submitNanos = submitNanos;
+	}
+	
+	/* ʼִʱ¼Ŷӵʱ䣬ڼ¼JFRʱͬʱύŶ¼
+	 * ִ߳˳runʱŹ黹ȡʱFutureɣִܻ߳̿ */
+	@Override
+	public void run() {
+		try {
+			long queueTime = System.nanoTime() - submitNanos;
+			threadPoolPack.recordQueueWait(queueTime);
+			
+			SqlEvents.QueueWaitEvent event = new SqlEvents.QueueWaitEvent();
+			if(event.shouldCommit()){
+				event.queueTime = queueTime;
+				event.commit();
+			}
+			super.run();
+		}
+		finally {
+			threadPoolPack.releaseSubmitPermit();
+		}
+	}
+	
+}//AdmittedTask
+
+
+
+class ExecuteBatchThread implements Callable<int[]>{
+	
+	private PooledConnection pooledConn;
+	private Connection conn;
+	private String sql = "";
+	private SqlParameters[] rows;
+	private int chunkSize;
+	private MySqlHelper mysqlHelperObj;
+	
+	
+	/* 췽ҪִеSQL䡢ÿһеĲͲMySqlHelper */
+	public ExecuteBatchThread(MySqlHelper mysqlHelperObj,String sql,SqlParameters[] rows,int chunkSize){
+		this.sql = sql;
+		this.rows = rows;
+		this.chunkSize = chunkSize;
+		this.mysqlHelperObj = mysqlHelperObj;
+	}	
+
+	/* ̳߳лȡ */
+	private void getConnection(){
+		/* ӳʱȴʱ׳쳣ʹʧ */
+		pooledConn = mysqlHelperObj.acquireConnection();
+		
+		conn = pooledConn.getConnection();
+		if(SqlEvents.isDebugEnabled()){
+			SqlEvents.debug("ThreadPoolPack"+ Integer.toHexString(conn.hashCode()));
+		}
 	}
+	
+	@Override
+	public int[] call() {	
 
-}//ExecuteQueryThread
+		getConnection();
+		
+		int[] ret = null;
+		try {	
+			ret = mysqlHelperObj.executeBatch(pooledConn,sql,rows,chunkSize);
+		} 
+		catch (Exception e) {
+			e.printStackTrace();
+		} 
+		finally {
+			/* Ϊ״̬ */
+			mysqlHelperObj.releaseConnection(pooledConn);
+		}
+		
+		return ret;
+	}
+	
+	
+}//ExecuteBatchThread
 
 
 
-class ExecuteUpdateThread implements Callable<Integer>{
+class ExecuteStreamThread implements Callable<Long>{
 	
+	private PooledConnection pooledConn;
 	private Connection conn;
 	private String sql = "";
-	private String[] parameters;
+	private RowHandler handler;
+	private SqlParameters parameters;
 	private MySqlHelper mysqlHelperObj;
 	
 	
-	/* 췽ҪִеSQLͲMySqlHelper */
-	public ExecuteUpdateThread(MySqlHelper mysqlHelperObj,String sql,String... parameters){
+	/* 췽ҪִеSQL䡢лصͲMySqlHelper */
+	public ExecuteStreamThread(MySqlHelper mysqlHelperObj,String sql,RowHandler handler,SqlParameters parameters){
 		this.sql = sql;
+		this.handler = handler;
 		this.parameters = parameters;
 		this.mysqlHelperObj = mysqlHelperObj;
 	}	
 
 	/* ̳߳лȡ */
 	private void getConnection(){
-		conn = mysqlHelperObj.getConnectionFromPool();
+		/* ӳʱȴʱ׳쳣ʹʧ */
+		pooledConn = mysqlHelperObj.acquireConnection();
 		
-		/* ȡʧܣ»ȡ */
-		while(conn == null){
-			conn = mysqlHelperObj.getConnectionFromPool();
+		conn = pooledConn.getConnection();
+		if(SqlEvents.isDebugEnabled()){
+			SqlEvents.debug("ThreadPoolPack"+ Integer.toHexString(conn.hashCode()));
 		}
-		
-		System.out.println("ThreadPoolPack"+ Integer.toHexString(conn.hashCode()));
 	}
 	
 	@Override
-	public Integer call() {	
+	public Long call() {	
 
 		getConnection();
 		
-		Integer ret = null;
+		Long ret = null;
 		try {	
-			ret = mysqlHelperObj.executeUpdate(conn,sql, parameters);
+			ret = mysqlHelperObj.executeStream(pooledConn,sql,handler,parameters);
 		} 
 		catch (Exception e) {
 			e.printStackTrace();
 		} 
 		finally {
-			/* Ϊ״̬ */
-			mysqlHelperObj.setConnectionStateToIdle(conn);
+			/* Ѿ߲ѯѾȡΪ״̬ */
+			mysqlHelperObj.releaseConnection(pooledConn);
 		}
 		
 		return ret;
 	}
 	
 	
-}//ExecuteUpdateThread
+}//ExecuteStreamThread
 
 
 
-class CommitTransactionThread implements Runnable{
+class ExecuteDetachedQueryThread implements Callable<DetachedResultSet> {
 	
+	private PooledConnection pooledConn;
 	private Connection conn;
-	private String[] sql;
-	private String[][] parameters;
+	private String sql = "";
+	private SqlParameters parameters;
 	private MySqlHelper mysqlHelperObj;
 	
 	
 	/* 췽ҪִеSQLͲMySqlHelper */
-	public CommitTransactionThread(MySqlHelper mysqlHelperObj,String[] sql,String[]... parameters){
+	public ExecuteDetachedQueryThread(MySqlHelper mysqlHelperObj,String sql,SqlParameters parameters){
 		this.sql = sql;
 		this.parameters = parameters;
 		this.mysqlHelperObj = mysqlHelperObj;
@@ -386,36 +1681,313 @@ class CommitTransactionThread implements Runnable{
 
 	/* ̳߳лȡ */
 	private void getConnection(){
-		conn = mysqlHelperObj.getConnectionFromPool();
+		/* ӳʱȴʱ׳쳣ʹʧ */
+		pooledConn = mysqlHelperObj.acquireConnection();
+		
+		conn = pooledConn.getConnection();
+		if(SqlEvents.isDebugEnabled()){
+			SqlEvents.debug("ThreadPoolPack"+ Integer.toHexString(conn.hashCode()));
+		}
+	}
+	
+	@Override
+	public DetachedResultSet call() {	
+
+		getConnection();
 		
-		/* ȡʧܣ»ȡ */
-		while(conn == null){
-			conn = mysqlHelperObj.getConnectionFromPool();
+		DetachedResultSet rs = null;
+		try {
+			rs = mysqlHelperObj.executeDetachedQuery(pooledConn,sql,parameters);		
+		} 
+		catch (Exception e) {
+			e.printStackTrace();
+		} 
+		finally {
+			/* ѾȫΪ״̬ */
+			mysqlHelperObj.releaseConnection(pooledConn);
 		}
+
+		return rs;
+	}
+
+}//ExecuteDetachedQueryThread
+
+
+
+class ExecuteMappedQueryThread<T> implements Callable<List<T>> {
+	
+	private PooledConnection pooledConn;
+	private Connection conn;
+	private String sql = "";
+	private Class<T> type;
+	private SqlParameters parameters;
+	private MySqlHelper mysqlHelperObj;
+	
+	
+	/* 췽ҪִеSQL䡢תĿͺͲMySqlHelper */
+	public ExecuteMappedQueryThread(MySqlHelper mysqlHelperObj,String sql,Class<T> type,SqlParameters parameters){
+		this.sql = sql;
+		this.type = type;
+		this.parameters = parameters;
+		this.mysqlHelperObj = mysqlHelperObj;
+	}	
+
+	/* ̳߳лȡ */
+	private void getConnection(){
+		/* ӳʱȴʱ׳쳣ʹʧ */
+		pooledConn = mysqlHelperObj.acquireConnection();
 		
-		System.out.println("ThreadPoolPack"+ Integer.toHexString(conn.hashCode()));
+		conn = pooledConn.getConnection();
+		if(SqlEvents.isDebugEnabled()){
+			SqlEvents.debug("ThreadPoolPack"+ Integer.toHexString(conn.hashCode()));
+		}
 	}
 	
 	@Override
-	public void run() {	
+	public List<T> call() {	
 
 		getConnection();
 		
-		try {	
-			mysqlHelperObj.executeTransaction(conn,sql, parameters);
+		List<T> list = null;
+		try {
+			list = mysqlHelperObj.executeMappedQuery(pooledConn,sql,type,parameters);		
 		} 
 		catch (Exception e) {
 			e.printStackTrace();
 		} 
 		finally {
-			/* Ϊ״̬ */
-			mysqlHelperObj.setConnectionStateToIdle(conn);
+			/* ѾתϣΪ״̬ */
+			mysqlHelperObj.releaseConnection(pooledConn);
+		}
+
+		return list;
+	}
+
+}//ExecuteMappedQueryThread
+
+
+
+class AsyncSqlTask<V> implements Runnable {
+	
+	private MySqlHelper mysqlHelperObj;
+	private ReplicaRouter replicaRouter;
+	private SqlOperation<V> operation;
+	private final CompletableFuture<V> future = new CompletableFuture<V>();
+	private final long submitNanos = System.nanoTime();
+	
+	
+	/* 췽ҪִеĲͲMySqlHelperreplicaRouterΪnullʱѡĸִ */
+	public AsyncSqlTask(MySqlHelper mysqlHelperObj,ReplicaRouter replicaRouter,SqlOperation<V> operation){
+		this.operation = operation;
+		this.replicaRouter = replicaRouter;
+		this.mysqlHelperObj = mysqlHelperObj;
+	}
+	
+	/* ظߵFuture */
+	CompletableFuture<V> getFuture() {
+		return future;
+	}
+	
+	/* ύʱ䣨System.nanoTimeThreadPoolPackŶӵʱ */
+	long getSubmitNanos() {
+		return submitNanos;
+	}
+	
+	/* 񲻻ᱻִУ쳣 */
+	void fail(Throwable e) {
+		future.completeExceptionally(e);
+	}
+	
+	@Override
+	public void run() {
+		
+		/* ڿʼִ֮ǰѾȡ */
+		if(future.isDone()){
+			return;
+		}
+		
+		/* ʼִʱѡ񸱱ûпõĸʱִ */
+		ReplicaRouter.Replica replica = replicaRouter == null ? null : replicaRouter.choose();
+		MySqlHelper helper = replica == null ? mysqlHelperObj : replica.helper;
+		long start = System.nanoTime();
+		
+		PooledConnection pooledConn;
+		try {
+			/* ӳʱȴʱ쳣 */
+			pooledConn = helper.acquireConnection();
+		} 
+		catch (RuntimeException e) {
+			finishReplica(replica, start);
+			future.completeExceptionally(e);
+			return;
+		}
+		if(SqlEvents.isDebugEnabled()){
+			SqlEvents.debug("ThreadPoolPack"+ Integer.toHexString(pooledConn.getConnection().hashCode()));
 		}
 		
+		V result = null;
+		Throwable failure = null;
+		try {
+			result = operation.execute(helper, pooledConn);
+		} 
+		catch (Throwable e) {
+			failure = e;
+		} 
+		finally {
+			/* Ϊ״̬ */
+			helper.releaseConnection(pooledConn);
+			finishReplica(replica, start);
+		}
 		
+		/* ӹ黹֮Futureռ */
+		if(failure != null){
+			future.completeExceptionally(failure);
+		}
+		else{
+			future.complete(result);
+		}
 	}
 	
+	/* ¼ӳ */
+	private void finishReplica(ReplicaRouter.Replica replica,long start) {
+		if(replicaRouter != null){
+			replicaRouter.finish(replica, start);
+		}
+	}
 	
-}//CommitTransactionThread
+}//AsyncSqlTask
+
+
+
+class ReadThread<V> implements Callable<V> {
+	
+	private MySqlHelper mysqlHelperObj;
+	private ReplicaRouter replicaRouter;
+	private ReplicaRouter.ReadOperation<V> operation;
+	
+	
+	/* 췽replicaRouterΪnullʱmysqlHelperObj⣩ִ */
+	public ReadThread(MySqlHelper mysqlHelperObj,ReplicaRouter replicaRouter,ReplicaRouter.ReadOperation<V> operation){
+		this.operation = operation;
+		this.replicaRouter = replicaRouter;
+		this.mysqlHelperObj = mysqlHelperObj;
+	}
+	
+	@Override
+	public V call() throws Exception {
+		
+		if(replicaRouter == null){
+			return operation.execute(mysqlHelperObj);
+		}
+		return replicaRouter.read(operation);
+	}
+	
+}//ReadThread
 
 
+
+class ThreadPoolPackMetrics implements ThreadPoolPackMXBean {
+	
+	/* յЧʱ䣬ͬһJMXȡĶʹͬһ */
+	private static final long SNAPSHOT_TTL_MILLIS = 1000;
+	
+	private ThreadPoolPack threadPoolPack;
+	private volatile MetricsSnapshot snapshot = null;
+	
+	
+	/* 췽ҪͳϢThreadPoolPack */
+	public ThreadPoolPackMetrics(ThreadPoolPack threadPoolPack){
+		this.threadPoolPack = threadPoolPack;
+	}
+	
+	/* ÿգЧʱʱ»ȡ */
+	private MetricsSnapshot snapshot() {
+		MetricsSnapshot current = snapshot;
+		if(current == null || System.currentTimeMillis() - current.getTimestamp() >= SNAPSHOT_TTL_MILLIS){
+			current = threadPoolPack.getMetricsSnapshot();
+			snapshot = current;
+		}
+		return current;
+	}
+	
+	private static long micros(long nanos) {
+		return nanos / 1000;
+	}
+	
+	@Override
+	public int getConnectionCount() { return snapshot().getConnectionCount(); }
+	@Override
+	public int getActiveConnections() { return snapshot().getActiveConnections(); }
+	@Override
+	public int getIdleConnections() { return snapshot().getIdleConnections(); }
+	@Override
+	public int getPendingAcquires() { return snapshot().getPendingAcquires(); }
+	@Override
+	public int getMinConnections() { return snapshot().getMinConnections(); }
+	@Override
+	public int getMaxConnections() { return snapshot().getMaxConnections(); }
+	@Override
+	public long getConnectionsCreated() { return snapshot().getConnectionsCreated(); }
+	@Override
+	public long getConnectionCreateFailures() { return snapshot().getConnectionCreateFailures(); }
+	@Override
+	public long getConnectionsClosed() { return snapshot().getConnectionsClosed(); }
+	@Override
+	public long getAcquireTimeouts() { return snapshot().getAcquireTimeouts(); }
+	@Override
+	public long getAcquireP50Micros() { return micros(snapshot().getAcquireLatency().getP50()); }
+	@Override
+	public long getAcquireP99Micros() { return micros(snapshot().getAcquireLatency().getP99()); }
+	@Override
+	public long getAcquireMaxMicros() { return micros(snapshot().getAcquireLatency().getMax()); }
+	
+	@Override
+	public long getQueryCount() { return snapshot().getQueryLatency().getCount(); }
+	@Override
+	public long getQueryErrors() { return snapshot().getQueryErrors(); }
+	@Override
+	public long getQueryP50Micros() { return micros(snapshot().getQueryLatency().getP50()); }
+	@Override
+	public long getQueryP99Micros() { return micros(snapshot().getQueryLatency().getP99()); }
+	@Override
+	public long getQueryP999Micros() { return micros(snapshot().getQueryLatency().getP999()); }
+	@Override
+	public long getUpdateCount() { return snapshot().getUpdateLatency().getCount(); }
+	@Override
+	public long getUpdateErrors() { return snapshot().getUpdateErrors(); }
+	@Override
+	public long getUpdateP50Micros() { return micros(snapshot().getUpdateLatency().getP50()); }
+	@Override
+	public long getUpdateP99Micros() { return micros(snapshot().getUpdateLatency().getP99()); }
+	@Override
+	public long getUpdateP999Micros() { return micros(snapshot().getUpdateLatency().getP999()); }
+	@Override
+	public long getBatchCount() { return snapshot().getBatchLatency().getCount(); }
+	@Override
+	public long getBatchErrors() { return snapshot().getBatchErrors(); }
+	@Override
+	public long getBatchP99Micros() { return micros(snapshot().getBatchLatency().getP99()); }
+	@Override
+	public long getTransactionCount() { return snapshot().getTransactionLatency().getCount(); }
+	@Override
+	public long getTransactionErrors() { return snapshot().getTransactionErrors(); }
+	@Override
+	public long getTransactionP50Micros() { return micros(snapshot().getTransactionLatency().getP50()); }
+	@Override
+	public long getTransactionP99Micros() { return micros(snapshot().getTransactionLatency().getP99()); }
+	
+	@Override
+	public int getActiveTasks() { return snapshot().getActiveTasks(); }
+	@Override
+	public int getQueueDepth() { return snapshot().getQueueDepth(); }
+	@Override
+	public long getRejectedTasks() { return snapshot().getRejectedTasks(); }
+	@Override
+	public long getCompletedTasks() { return snapshot().getCompletedTasks(); }
+	@Override
+	public long getQueueWaitP99Micros() { return micros(snapshot().getQueueWait().getP99()); }
+	
+	@Override
+	public String getSummary() { return snapshot().toString(); }
+	
+}//ThreadPoolPackMetrics
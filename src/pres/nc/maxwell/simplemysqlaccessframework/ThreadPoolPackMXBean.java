@@ -0,0 +1,60 @@
+/**********************************************************************
+ * 	ThreadPoolPackMXBean.java
+ *
+ *  ThreadPoolPackͨJMXͳϢThreadPoolPack.registerMBeanע
+ *  ObjectNameΪ pres.nc.maxwell.simplemysqlaccessframework:type=ThreadPoolPack,name=<name>
+ *
+ *  ֵMetricsSnapshotͬһڶȡʹͬһ
+ *  ӳٵĵλΪ΢룬ʱʼۼ
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+public interface ThreadPoolPackMXBean {
+
+	/* ӳ */
+	int getConnectionCount();
+	int getActiveConnections();
+	int getIdleConnections();
+	int getPendingAcquires();
+	int getMinConnections();
+	int getMaxConnections();
+	long getConnectionsCreated();
+	long getConnectionCreateFailures();
+	long getConnectionsClosed();
+	long getAcquireTimeouts();
+	long getAcquireP50Micros();
+	long getAcquireP99Micros();
+	long getAcquireMaxMicros();
+
+	/* SQL */
+	long getQueryCount();
+	long getQueryErrors();
+	long getQueryP50Micros();
+	long getQueryP99Micros();
+	long getQueryP999Micros();
+	long getUpdateCount();
+	long getUpdateErrors();
+	long getUpdateP50Micros();
+	long getUpdateP99Micros();
+	long getUpdateP999Micros();
+	long getBatchCount();
+	long getBatchErrors();
+	long getBatchP99Micros();
+	long getTransactionCount();
+	long getTransactionErrors();
+	long getTransactionP50Micros();
+	long getTransactionP99Micros();
+
+	/* ̳߳ */
+	int getActiveTasks();
+	int getQueueDepth();
+	long getRejectedTasks();
+	long getCompletedTasks();
+	long getQueueWaitP99Micros();
+
+	/* ͳϢıʽ */
+	String getSummary();
+
+}
@@ -0,0 +1,320 @@
+/**********************************************************************
+ * 	UpdateCoalescer.java
+ *
+ *  ϲύͬ
+ *  ͬSQLĸȷͬһͰУȴһʱ䴰ڻ߻۵һ
+ *  ΪһJDBCһִУٰÿһеĸֱ𽻸ӦFuture
+ *
+ *  ʧʱعΪͬһִУÿߵõԼһеĽ
+ *  ִʧܵУͬӿڵõnull첽ӿڵõ쳣
+ *  rewriteBatchedStatementsʱINSERT/REPLACEдΪһ䣬ÿֻ-2SUCCESS_NO_INFO
+ *  ߵòԼһеĸʱINSERT/REPLACEϲȻִУUPDATE/DELETEճϲ
+ *
+ *  shutdown֮ŷУرͬʱύĸ£ٵȴϲΪһִ
+ *  Ͱ̳ͨ߳ص첽ŶӶִУʱ̲߳ᱻύҲԼִ
+ *  ϲĸ²ύԣߵǱգŶӵÿͰһ
+ *  ȴִеύƣҪдٶʱҪϲ
+ *
+ **********************************************************************/
+
+package pres.nc.maxwell.simplemysqlaccessframework;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+class UpdateCoalescer {
+
+	private final ThreadPoolPack threadPoolPack;
+	private final long windowMillis;		//һͰȴʱ䣨룩
+	private final int maxRows;				//һͰ۵ôʱִ
+
+	/* SQLΪĵȴִеͰ */
+	private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<String, Bucket>();
+
+	/* ʱ䴰ڵʱִͰĶʱ */
+	private final ScheduledExecutorService timer;
+
+	/* shutdown֮ΪtrueͰڼ飬֮вٷͰ */
+	private volatile boolean stopped = false;
+
+
+	/* 췽ͨthreadPoolPackŶӶύִ̳߳ */
+	UpdateCoalescer(ThreadPoolPack threadPoolPack,long windowMillis,int maxRows){
+
+		if(windowMillis <= 0 || maxRows <= 1){
+			throw new RuntimeException("ThreadPoolPackϲµʱ䴰ڱ01");
+		}
+
+		this.threadPoolPack = threadPoolPack;
+		this.windowMillis = windowMillis;
+		this.maxRows = maxRows;
+
+		this.timer = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "UpdateCoalescer-timer");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+
+	/* жϸǷԺϲֻϲINSERT/UPDATE/DELETE/REPLACE
+	 * rewriteBatchedStatementsΪtrueʱϲINSERT/REPLACEÿеĸ-2 */
+	static boolean isCoalescable(String sql,SqlParameters parameters,boolean rewriteBatchedStatements) {
+
+		if(parameters == null || parameters.size() == 0){
+			return false;
+		}
+
+		String head = sql.trim();
+		head = head.substring(0, Math.min(head.length(), 7)).toUpperCase();
+		if(head.startsWith("UPDATE") || head.startsWith("DELETE")){
+			return true;
+		}
+		return !rewriteBatchedStatements && (head.startsWith("INSERT") || head.startsWith("REPLACE"));
+	}
+
+
+	/* һи·ӦͰһеĸpropagateExceptionsΪtrueʱʧܵ쳣ɣӡ쳣õnull */
+	CompletableFuture<Integer> submit(String sql,SqlParameters parameters,boolean propagateExceptions) {
+
+		PendingUpdate pending = new PendingUpdate(parameters, propagateExceptions);
+
+		while(true){
+
+			Bucket bucket = buckets.get(sql);
+			if(bucket == null){
+				Bucket created = new Bucket(sql);
+				bucket = buckets.putIfAbsent(sql, created);
+				if(bucket == null){
+					bucket = created;
+					try {
+						timer.schedule(new WindowExpired(bucket), windowMillis, TimeUnit.MILLISECONDS);
+					}
+					catch (RejectedExecutionException e) {
+						/* ʱѾֹͣͰᵽִУ߳Ѿ֮һֱִ */
+						if(close(bucket)){
+							dispatch(bucket);
+						}
+						return dispatchLate(sql, pending);
+					}
+				}
+			}
+
+			boolean full;
+			boolean late;
+			synchronized (bucket) {
+
+				/* ͰѾʼִУ»ȡһµͰ */
+				if(bucket.closed){
+					continue;
+				}
+
+				late = stopped;
+				full = false;
+				if(!late){
+					bucket.pending.add(pending);
+					full = bucket.pending.size() >= maxRows;
+					if(full){
+						bucket.closed = true;
+					}
+				}
+			}
+
+			if(late){
+				return dispatchLate(sql, pending);
+			}
+
+			if(full){
+				buckets.remove(sql, bucket);
+				dispatch(bucket);
+			}
+
+			return pending.future;
+		}
+	}
+
+
+	/* ִлڵȴͰֹͣʱڹر̳֮߳ǰãʱеͰѾ̳߳صŶӶ */
+	void shutdown() {
+
+		stopped = true;
+		timer.shutdownNow();
+
+		/* ȴִеĵͰŶӶ */
+		try {
+			timer.awaitTermination(windowMillis, TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		/* ʱֹ֮ͣ´Ͱٰŵڣɴֱִ߳УֻҪִʱѾڵͰ */
+		for(Bucket bucket : buckets.values()){
+			if(close(bucket)){
+				dispatch(bucket);
+			}
+		}
+	}
+
+
+	/* shutdown֮вٺϲΪһͰִ */
+	private CompletableFuture<Integer> dispatchLate(String sql,PendingUpdate pending) {
+
+		Bucket bucket = new Bucket(sql);
+		bucket.pending.add(pending);
+		bucket.closed = true;
+		dispatch(bucket);
+		return pending.future;
+	}
+
+
+	/* رͰʹ֮ĸ·µͰͰѾرʱfalse */
+	private boolean close(Bucket bucket) {
+
+		synchronized (bucket) {
+			if(bucket.closed){
+				return false;
+			}
+			bucket.closed = true;
+		}
+
+		buckets.remove(bucket.sql, bucket);
+		return true;
+	}
+
+
+	/* ͰΪһ첽̳߳صŶӶУʱ̣߳ʧʱûɵ쳣 */
+	private void dispatch(final Bucket bucket) {
+
+		threadPoolPack.enqueueAsync(new FlushTask(bucket)).whenComplete(new BiConsumer<Object, Throwable>() {
+			@Override
+			public void accept(Object result,Throwable e) {
+				if(e != null){
+					fail(bucket, e);
+				}
+			}
+		});
+	}
+
+
+	/* Ͱлûɵ쳣 */
+	private static void fail(Bucket bucket,Throwable e) {
+
+		for(PendingUpdate update : bucket.pending){
+			update.future.completeExceptionally(e);
+		}
+	}
+
+
+
+	/* ȴִеһи */
+	private static final class PendingUpdate {
+
+		private final SqlParameters parameters;
+		private final boolean propagateExceptions;
+		private final CompletableFuture<Integer> future = new CompletableFuture<Integer>();
+
+		PendingUpdate(SqlParameters parameters,boolean propagateExceptions){
+			this.parameters = parameters;
+			this.propagateExceptions = propagateExceptions;
+		}
+	}
+
+
+	/* ͬSQLһ£closed֮ٽµ */
+	private static final class Bucket {
+
+		private final String sql;
+		private final List<PendingUpdate> pending = new ArrayList<PendingUpdate>();
+		private boolean closed = false;
+
+		Bucket(String sql){
+			this.sql = sql;
+		}
+	}
+
+
+	/* ʱ䴰ڵڣִлûбִеͰ */
+	private final class WindowExpired implements Runnable {
+
+		private final Bucket bucket;
+
+		WindowExpired(Bucket bucket){
+			this.bucket = bucket;
+		}
+
+		@Override
+		public void run() {
+			if(close(bucket)){
+				dispatch(bucket);
+			}
+		}
+	}
+
+
+	/* һִһͰÿһеFuture */
+	private static final class FlushTask implements SqlOperation<Object> {
+
+		private final Bucket bucket;
+
+		FlushTask(Bucket bucket){
+			this.bucket = bucket;
+		}
+
+		@Override
+		public Object execute(MySqlHelper helper,PooledConnection pooledConn) {
+
+			List<PendingUpdate> pending = bucket.pending;
+
+			SqlParameters[] rows = new SqlParameters[pending.size()];
+			for(int i = 0;i < rows.length;i++){
+				rows[i] = pending.get(i).parameters;
+			}
+
+			int[] counts = null;
+			try {
+				counts = helper.executeBatch(pooledConn, bucket.sql, rows, rows.length);
+			}
+			catch (RuntimeException e) {
+				//Ѿعִ
+			}
+
+			if(counts != null){
+				for(int i = 0;i < counts.length;i++){
+					pending.get(i).future.complete(Integer.valueOf(counts[i]));
+				}
+				return null;
+			}
+
+			/* ִУ뵥ύĸһʧܵеõnull쳣 */
+			for(PendingUpdate update : pending){
+				Integer ret = null;
+				try {
+					ret = helper.executeUpdate(pooledConn, bucket.sql, update.parameters);
+				}
+				catch (Exception e) {
+					if(update.propagateExceptions){
+						update.future.completeExceptionally(e);
+						continue;
+					}
+					e.printStackTrace();
+				}
+				update.future.complete(ret);
+			}
+
+			return null;
+		}
+	}
+
+}
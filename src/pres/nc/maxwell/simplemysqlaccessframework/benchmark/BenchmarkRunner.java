@@ -0,0 +1,66 @@
+package pres.nc.maxwell.simplemysqlaccessframework.benchmark;
+/**********************************************************************
+ * 	BenchmarkRunner.java
+ * 
+ *  еJMH׼ԣҪݿ⣬ֱmain
+ *  Ҫjmh-corejmh-generator-annprocessʱΪע⴦classpath
+ *  [Ŀ¼]ĬΪǰĿ¼
+ *  
+ *  PoolBenchmarkEndToEndBenchmark1248163264̸߳һΣ۲쾺µı仯
+ *  StatementBenchmarkResultBenchmarkMappingBenchmark߳
+ *  ExecutorBenchmark߳Уĵɻ׼Լ
+ *  ÿеĽJSONʽдĿ¼ļΪ jmh-׼-t߳.json
+ *  
+ *  ҲJMHԼе׼ԣ -t 16 PoolBenchmark
+ *  
+ **********************************************************************/
+
+
+import java.io.File;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+public class BenchmarkRunner {
+
+	private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+	
+	
+	public static void main(String[] args) throws RunnerException {
+		
+		File resultDir = new File(args.length > 0 ? args[0] : ".");
+		resultDir.mkdirs();
+		
+		for(int threads : THREADS){
+			run(PoolBenchmark.class, threads, resultDir);
+		}
+		
+		run(StatementBenchmark.class, 1, resultDir);
+		run(ResultBenchmark.class, 1, resultDir);
+		run(MappingBenchmark.class, 1, resultDir);
+		
+		for(int threads : THREADS){
+			run(EndToEndBenchmark.class, threads, resultDir);
+		}
+		
+		run(ExecutorBenchmark.class, 1, resultDir);
+	}
+	
+	
+	/* threads߳һ׼࣬дresultDir */
+	private static void run(Class<?> benchmark, int threads, File resultDir) throws RunnerException {
+		
+		String name = benchmark.getSimpleName();
+		File result = new File(resultDir, "jmh-" + name + "-t" + threads + ".json");
+		
+		new Runner(new OptionsBuilder()
+				.include(benchmark.getName())
+				.threads(threads)
+				.result(result.getPath())
+				.resultFormat(ResultFormatType.JSON)
+				.build()).run();
+	}
+}
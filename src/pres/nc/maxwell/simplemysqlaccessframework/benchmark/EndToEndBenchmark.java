@@ -0,0 +1,123 @@
+package pres.nc.maxwell.simplemysqlaccessframework.benchmark;
+/**********************************************************************
+ * 	EndToEndBenchmark.java
+ * 
+ *  ThreadPoolPackύѯӳٷֲSampleTimeģʽٷλʹStandInDriverҪݿ
+ *  ļʱĿ¼ɣֻurlʹĬֵ߳BenchmarkRunner
+ *  
+ *  submitSqlQueryύȴFutureȡcloseResultSetر
+ *  submitSqlQueryDetachedύȴFutureȡʽ
+ *  submitSqlQueryAsyncCompletableFuture߳joinȴ
+ *  
+ **********************************************************************/
+
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import pres.nc.maxwell.simplemysqlaccessframework.DetachedResultSet;
+import pres.nc.maxwell.simplemysqlaccessframework.ThreadPoolPack;
+import pres.nc.maxwell.simplemysqlaccessframework.test.StandInDriver;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EndToEndBenchmark {
+
+	private static final String QUERY_SQL = "SELECT * FROM userinfo WHERE username = ?";
+	
+	@Param({"8"})
+	public int threadPoolCoreSize;
+	
+	private ThreadPoolPack tp;
+	private File settingFile;
+	
+	
+	@Setup
+	public void setup() throws IOException {
+		
+		StandInDriver.register();
+		
+		Properties pp = new Properties();
+		pp.setProperty("url", StandInDriver.URL_PREFIX + "endtoend");
+		pp.setProperty("userName", "");
+		pp.setProperty("password", "");
+		
+		settingFile = File.createTempFile("standin", ".properties");
+		FileOutputStream fos = new FileOutputStream(settingFile);
+		try {
+			pp.store(fos, "EndToEndBenchmark");
+		}
+		finally {
+			fos.close();
+		}
+		
+		tp = new ThreadPoolPack(settingFile.getPath(), threadPoolCoreSize);
+		tp.createThreadPool(threadPoolCoreSize * 2, 0L);
+	}
+	
+	
+	@TearDown
+	public void tearDown() {
+		
+		tp.shutdownThreadPool();
+		tp.closeAllConnections();
+		settingFile.delete();
+		StandInDriver.dropDatabase("endtoend");
+	}
+	
+	
+	@Benchmark
+	public void submitSqlQuery(Blackhole bh) throws Exception {
+		
+		ResultSet rs = tp.submitSqlQuery(QUERY_SQL, "maxwell").get();
+		try {
+			while(rs.next()){
+				bh.consume(rs.getString(2));
+			}
+		}
+		finally {
+			tp.closeResultSet(rs);
+		}
+	}
+	
+	
+	@Benchmark
+	public void submitSqlQueryDetached(Blackhole bh) throws InterruptedException, ExecutionException {
+		
+		DetachedResultSet rs = tp.submitSqlQueryDetached(QUERY_SQL, "maxwell").get();
+		while(rs.next()){
+			bh.consume(rs.getString(2));
+		}
+	}
+	
+	
+	@Benchmark
+	public DetachedResultSet submitSqlQueryAsync() {
+		return tp.submitSqlQueryAsync(QUERY_SQL, "maxwell").join();
+	}
+	
+}
@@ -0,0 +1,117 @@
+package pres.nc.maxwell.simplemysqlaccessframework.benchmark;
+/**********************************************************************
+ * 	ExecutorBenchmark.java
+ * 
+ *  Աȹ̶̳߳غִ߳ģʽڴµʹStandInDriverҪݿ⣬߳
+ *  ÿβѯע1ӳ٣queryLatency=1MySQLִSELECT SLEEP(0.001)
+ * 
+ *  fixedThreadPoolcreateThreadPool߳connectionsύΪ
+ *                   òύɵThreadPoolPackŶ
+ *  virtualThreadscreateVirtualThreadPoolÿһ̣߳ӳйȴ
+ *  ģʽͬʱݿconnectionsеconnectionsfixedThreadPool߳
+ * 
+ *  ÿεеͬʱύһβѯȴȫɣΪһֵʱ
+ *  JDK 21֮ǰ߳ģʽ˻Ϊƽֻ̨̣ܷ߳ӳÿһƽ̵̨߳Ŀ
+ * 
+ **********************************************************************/
+
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pres.nc.maxwell.simplemysqlaccessframework.ThreadPoolPack;
+import pres.nc.maxwell.simplemysqlaccessframework.test.StandInDriver;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutorBenchmark {
+	
+	private static final String QUERY_SQL = "SELECT * FROM userinfo WHERE username = ?";
+	
+	@Param({"fixedThreadPool", "virtualThreads"})
+	public String executor;
+	
+	@Param({"10"})
+	public int connections;
+	
+	@Param({"1000", "10000"})
+	public int callers;
+	
+	private ThreadPoolPack tp;
+	private File settingFile;
+	
+	
+	@Setup
+	public void setup() throws IOException {
+		
+		StandInDriver.register();
+		
+		Properties pp = new Properties();
+		pp.setProperty("url", StandInDriver.URL_PREFIX + "executor?queryLatency=1");
+		pp.setProperty("userName", "");
+		pp.setProperty("password", "");
+		
+		settingFile = File.createTempFile("standin", ".properties");
+		FileOutputStream fos = new FileOutputStream(settingFile);
+		try {
+			pp.store(fos, "ExecutorBenchmark");
+		}
+		finally {
+			fos.close();
+		}
+		
+		tp = new ThreadPoolPack(settingFile.getPath(), connections);
+		if("virtualThreads".equals(executor)){
+			tp.createVirtualThreadPool(callers);
+		}
+		else{
+			tp.createThreadPool(connections * 2, 0L);		//߳ΪconnectionsύΪconnections * 2
+		}
+	}
+	
+	
+	@TearDown
+	public void tearDown() {
+		
+		tp.shutdownThreadPool();
+		tp.closeAllConnections();
+		settingFile.delete();
+		StandInDriver.dropDatabase("executor");
+	}
+	
+	
+	/* еͬʱύһβѯȴȫ */
+	@Benchmark
+	public void concurrentCallers() {
+		
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[callers];
+		for(int i = 0;i < callers;i++){
+			futures[i] = tp.submitSqlQueryAsync(QUERY_SQL, "maxwell");
+		}
+		
+		CompletableFuture.allOf(futures).join();
+	}
+	
+}
@@ -0,0 +1,117 @@
+package pres.nc.maxwell.simplemysqlaccessframework.benchmark;
+/**********************************************************************
+ * 	MappingBenchmark.java
+ * 
+ *  ԱȲѯתΪĿʹڴеĽҪݿ⣬߳
+ * 
+ *  handWrittenByIndexдתкŶȡޣ
+ *  handWrittenByLabelдתÿһаȡprintResultSetдд
+ *  beanRowMapperBeanRowMapperкźMethodHandleڴʱ
+ * 
+ *  executeMappedQueryһѶбأдתĶᱻJITݷԱȾͲƽ
+ * 
+ **********************************************************************/
+
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pres.nc.maxwell.simplemysqlaccessframework.BeanRowMapper;
+import pres.nc.maxwell.simplemysqlaccessframework.test.InMemoryResultSet;
+import pres.nc.maxwell.simplemysqlaccessframework.test.UserInfo;
+
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+	
+	@Param({"10000"})
+	public int rows;
+	
+	private InMemoryResultSet data;
+	private BeanRowMapper<UserInfo> mapper;
+	
+	
+	/* userinfoͬ */
+	@Setup
+	public void setup() throws SQLException {
+		
+		String[] labels = {"username", "password", "gender", "salary"};
+		int[] types = {Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.DOUBLE};
+		
+		Object[][] values = new Object[rows][];
+		for(int i = 0;i < rows;i++){
+			values[i] = new Object[]{"xiaoming" + i, "password" + (i % 100), i % 2 == 0 ? "male" : "female", Double.valueOf(5000 + i % 1000)};
+		}
+		
+		data = new InMemoryResultSet(labels, types, values);
+		mapper = BeanRowMapper.create(UserInfo.class, data.getMetaData());
+	}
+	
+	
+	@Benchmark
+	public List<UserInfo> handWrittenByIndex() throws SQLException {
+		
+		ResultSet rs = data.reopen();
+		List<UserInfo> list = new ArrayList<UserInfo>();
+		while(rs.next()){
+			UserInfo user = new UserInfo();
+			user.setUserName(rs.getString(1));
+			user.setPassword(rs.getString(2));
+			user.setGender(rs.getString(3));
+			user.setSalary(rs.getDouble(4));
+			list.add(user);
+		}
+		return list;
+	}
+	
+	
+	@Benchmark
+	public List<UserInfo> handWrittenByLabel() throws SQLException {
+		
+		ResultSet rs = data.reopen();
+		List<UserInfo> list = new ArrayList<UserInfo>();
+		while(rs.next()){
+			UserInfo user = new UserInfo();
+			user.setUserName(rs.getString("username"));
+			user.setPassword(rs.getString("password"));
+			user.setGender(rs.getString("gender"));
+			user.setSalary(rs.getDouble("salary"));
+			list.add(user);
+		}
+		return list;
+	}
+	
+	
+	@Benchmark
+	public List<UserInfo> beanRowMapper() throws SQLException {
+		
+		ResultSet rs = data.reopen();
+		List<UserInfo> list = new ArrayList<UserInfo>();
+		while(rs.next()){
+			list.add(mapper.mapRow(rs));
+		}
+		return list;
+	}
+	
+}
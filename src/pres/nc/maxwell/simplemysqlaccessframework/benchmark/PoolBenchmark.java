@@ -0,0 +1,86 @@
+package pres.nc.maxwell.simplemysqlaccessframework.benchmark;
+/**********************************************************************
+ * 	PoolBenchmark.java
+ * 
+ *  ӳػȡ͹黹ӵĿʹStandInDriverҪݿ
+ *  ߳BenchmarkRunnerΪ164̶ΪconnectionPoolSize̶߳ʱǾµĿ
+ *  
+ *  legacyGetAndSetIdlegetConnectionFromPool/setConnectionStateToIdleȴӳʱnullʧܴ
+ *  acquireAndReleaseacquireConnection/releaseConnectionӳʱȴ̹߳黹
+ *  
+ **********************************************************************/
+
+
+import java.sql.Connection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pres.nc.maxwell.simplemysqlaccessframework.MySqlHelper;
+import pres.nc.maxwell.simplemysqlaccessframework.PooledConnection;
+import pres.nc.maxwell.simplemysqlaccessframework.test.StandInDriver;
+
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PoolBenchmark {
+
+	@Param({"8"})
+	public int connectionPoolSize;
+	
+	private MySqlHelper helper;
+	
+	
+	@Setup
+	public void setup() {
+		
+		StandInDriver.register();
+		helper = new MySqlHelper(StandInDriver.URL_PREFIX + "pool", "", "", connectionPoolSize);
+		helper.prefillConnections(connectionPoolSize);
+	}
+	
+	
+	@TearDown
+	public void tearDown() {
+		
+		helper.closeAllConnections();
+		StandInDriver.dropDatabase("pool");
+	}
+	
+	
+	@Benchmark
+	public boolean legacyGetAndSetIdle() {
+		
+		Connection conn = helper.getConnectionFromPool();
+		if(conn == null){
+			return false;
+		}
+		helper.setConnectionStateToIdle(conn);
+		return true;
+	}
+	
+	
+	@Benchmark
+	public PooledConnection acquireAndRelease() {
+		
+		PooledConnection pooledConn = helper.acquireConnection();
+		helper.releaseConnection(pooledConn);
+		return pooledConn;
+	}
+	
+}
@@ -0,0 +1,132 @@
+package pres.nc.maxwell.simplemysqlaccessframework.benchmark;
+/**********************************************************************
+ * 	ResultBenchmark.java
+ * 
+ *  ȡĿʹStandInDriverҪݿ⣬̣߳ÿβѯuserinforowsУ
+ *  
+ *  rawResultSetexecuteQueryĽакŶȡرգThreadPoolPack.submitSqlQuery÷ͬ
+ *  detachedexecuteDetachedQueryʽжȡ
+ *  mappedexecuteMappedQueryתΪUserInfoб
+ *  streamexecuteStreamлص
+ *  
+ **********************************************************************/
+
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import pres.nc.maxwell.simplemysqlaccessframework.DetachedResultSet;
+import pres.nc.maxwell.simplemysqlaccessframework.MySqlHelper;
+import pres.nc.maxwell.simplemysqlaccessframework.PooledConnection;
+import pres.nc.maxwell.simplemysqlaccessframework.RowHandler;
+import pres.nc.maxwell.simplemysqlaccessframework.test.StandInDriver;
+import pres.nc.maxwell.simplemysqlaccessframework.test.UserInfo;
+
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultBenchmark {
+
+	private static final String QUERY_SQL = "SELECT * FROM userinfo";
+	
+	@Param({"10", "1000"})
+	public int rows;
+	
+	private MySqlHelper helper;
+	private PooledConnection pooledConn;
+	
+	
+	@Setup
+	public void setup() {
+		
+		StandInDriver.register();
+		helper = new MySqlHelper(StandInDriver.URL_PREFIX + "result" + rows + "?rows=" + rows, "", "", 1);
+		pooledConn = helper.acquireConnection();
+	}
+	
+	
+	@TearDown
+	public void tearDown() {
+		
+		helper.releaseConnection(pooledConn);
+		helper.closeAllConnections();
+		StandInDriver.dropDatabase("result" + rows);
+	}
+	
+	
+	@Benchmark
+	public void rawResultSet(Blackhole bh) throws SQLException {
+		
+		ResultSet rs = helper.executeQuery(pooledConn.getConnection(), QUERY_SQL);
+		try {
+			while(rs.next()){
+				bh.consume(rs.getInt(1));
+				bh.consume(rs.getString(2));
+				bh.consume(rs.getString(3));
+				bh.consume(rs.getString(4));
+				bh.consume(rs.getDouble(5));
+			}
+		}
+		finally {
+			rs.close();
+		}
+	}
+	
+	
+	@Benchmark
+	public void detached(Blackhole bh) throws SQLException {
+		
+		DetachedResultSet rs = helper.executeDetachedQuery(pooledConn, QUERY_SQL);
+		while(rs.next()){
+			bh.consume(rs.getInt(1));
+			bh.consume(rs.getString(2));
+			bh.consume(rs.getString(3));
+			bh.consume(rs.getString(4));
+			bh.consume(rs.getDouble(5));
+		}
+	}
+	
+	
+	@Benchmark
+	public List<UserInfo> mapped() {
+		return helper.executeMappedQuery(pooledConn, QUERY_SQL, UserInfo.class);
+	}
+	
+	
+	@Benchmark
+	public long stream(final Blackhole bh) {
+		
+		return helper.executeStream(pooledConn, QUERY_SQL, new RowHandler() {
+			@Override
+			public boolean handleRow(ResultSet rs) throws SQLException {
+				bh.consume(rs.getInt(1));
+				bh.consume(rs.getString(2));
+				bh.consume(rs.getString(3));
+				bh.consume(rs.getString(4));
+				bh.consume(rs.getDouble(5));
+				return true;
+			}
+		});
+	}
+	
+}
@@ -0,0 +1,105 @@
+package pres.nc.maxwell.simplemysqlaccessframework.benchmark;
+/**********************************************************************
+ * 	StatementBenchmark.java
+ * 
+ *  ԤͲ󶨵ĿʹStandInDriverҪݿ⣬߳
+ *  StandInDriverִ伸ûпԲҪMySqlHelperԼĿ
+ *  
+ *  prepareEachTimeexecuteUpdate(Connection...)ÿԤ벢ر
+ *  statementCacheexecuteUpdate(PooledConnection...)statementCacheSizeΪ0ʱͬΪ64ʱû
+ *  bindStringsַÿεSqlParameters.ofStringsת
+ *  bindTypedһSqlParametersÿô͵Ĳ
+ *  
+ *  ʵݿԤ뻹SQLʱ䣨useServerPrepStmtsֻӳͻ˵Ĳ
+ *  
+ **********************************************************************/
+
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pres.nc.maxwell.simplemysqlaccessframework.MySqlHelper;
+import pres.nc.maxwell.simplemysqlaccessframework.PooledConnection;
+import pres.nc.maxwell.simplemysqlaccessframework.SqlParameters;
+import pres.nc.maxwell.simplemysqlaccessframework.test.StandInDriver;
+
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatementBenchmark {
+
+	private static final String UPDATE_SQL = "UPDATE userinfo SET password = ?, gender = ?, salary = ? WHERE id = ?";
+	
+	@Param({"0", "64"})
+	public int statementCacheSize;
+	
+	private MySqlHelper helper;
+	private PooledConnection pooledConn;
+	private SqlParameters parameters = new SqlParameters(4);
+	private int id = 0;
+	
+	
+	@Setup
+	public void setup() {
+		
+		StandInDriver.register();
+		helper = new MySqlHelper(StandInDriver.URL_PREFIX + "statement", "", "", 1);
+		helper.setStatementCacheSize(statementCacheSize);
+		pooledConn = helper.acquireConnection();
+	}
+	
+	
+	@TearDown
+	public void tearDown() {
+		
+		helper.releaseConnection(pooledConn);
+		helper.closeAllConnections();
+		StandInDriver.dropDatabase("statement");
+	}
+	
+	
+	@Benchmark
+	public Integer prepareEachTime() {
+		return helper.executeUpdate(pooledConn.getConnection(), UPDATE_SQL, "123123", "male", "6500.00", "1");
+	}
+	
+	
+	@Benchmark
+	public Integer statementCache() {
+		return helper.executeUpdate(pooledConn, UPDATE_SQL, "123123", "male", "6500.00", "1");
+	}
+	
+	
+	@Benchmark
+	public Integer bindStrings() {
+		
+		id = (id + 1) & 1023;
+		return helper.executeUpdate(pooledConn, UPDATE_SQL, "123123", "male", "6500.00", String.valueOf(id));
+	}
+	
+	
+	@Benchmark
+	public Integer bindTyped() {
+		
+		id = (id + 1) & 1023;
+		parameters.setString(1, "123123").setString(2, "male").setDouble(3, 6500.00).setInt(4, id);
+		return helper.executeUpdate(pooledConn, UPDATE_SQL, parameters);
+	}
+	
+}
@@ -0,0 +1,708 @@
+package pres.nc.maxwell.simplemysqlaccessframework.test;
+/**********************************************************************
+ * 	InMemoryResultSet.java
+ * 
+ *  ڴеֻҪݿ⼴ɲԽĴ룬תĻ׼
+ *  ÿһеֵԶʽ棨intΪIntegerdoubleΪDoubleԴƣȡʱҪת
+ *  
+ *  ֻʵ˶ȡҪķ׳SQLFeatureNotSupportedException
+ *  
+ **********************************************************************/
+
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+
+
+public class InMemoryResultSet implements ResultSet {
+
+	private final String[] labels;		//
+	private final int[] types;			//ÿеjava.sql.Types
+	private final Object[][] rows;		//ÿһеֵNULLΪnull
+	private final HashMap<String, Integer> columnIndex = new HashMap<String, Integer>();
+	
+	private int row = -1;
+	private boolean wasNull = false;
+	private boolean closed = false;
+	
+	
+	/* 췽rowsÿһеĳlabelsͬ */
+	public InMemoryResultSet(String[] labels,int[] types,Object[][] rows){
+		this.labels = labels;
+		this.types = types;
+		this.rows = rows;
+		
+		for(int i = labels.length - 1;i >= 0;i--){
+			columnIndex.put(labels[i].toLowerCase(), Integer.valueOf(i + 1));
+		}
+	}
+	
+	
+	/* õݡα½ */
+	public InMemoryResultSet reopen() {
+		return new InMemoryResultSet(labels, types, rows);
+	}
+	
+	
+	@Override
+	public boolean next() throws SQLException {
+		checkOpen();
+		if(row + 1 >= rows.length){
+			row = rows.length;
+			return false;
+		}
+		row++;
+		return true;
+	}
+	
+	
+	@Override
+	public void beforeFirst() throws SQLException {
+		checkOpen();
+		row = -1;
+	}
+	
+	
+	@Override
+	public boolean isBeforeFirst() throws SQLException {
+		return row < 0 && rows.length > 0;
+	}
+	
+	
+	@Override
+	public boolean isAfterLast() throws SQLException {
+		return row >= rows.length && rows.length > 0;
+	}
+	
+	
+	@Override
+	public int getRow() throws SQLException {
+		return row >= 0 && row < rows.length ? row + 1 : 0;
+	}
+	
+	
+	@Override
+	public void close() throws SQLException {
+		closed = true;
+	}
+	
+	
+	@Override
+	public boolean isClosed() throws SQLException {
+		return closed;
+	}
+	
+	
+	@Override
+	public boolean wasNull() throws SQLException {
+		return wasNull;
+	}
+	
+	
+	@Override
+	public ResultSetMetaData getMetaData() throws SQLException {
+		return new MetaData();
+	}
+	
+	
+	@Override
+	public int findColumn(String label) throws SQLException {
+		Integer column = columnIndex.get(label.toLowerCase());
+		if(column == null){
+			throw new SQLException("InMemoryResultSetûΪ " + label + " ");
+		}
+		return column.intValue();
+	}
+	
+	
+	/* ȡǰеֵ¼ǷΪNULL */
+	private Object value(int column) throws SQLException {
+		checkOpen();
+		if(row < 0 || row >= rows.length){
+			throw new SQLException("InMemoryResultSetαûָκһ");
+		}
+		if(column < 1 || column > labels.length){
+			throw new SQLException("InMemoryResultSetк " + column + " Χ");
+		}
+		Object value = rows[row][column - 1];
+		wasNull = value == null;
+		return value;
+	}
+	
+	
+	private Number number(int column) throws SQLException {
+		Object value = value(column);
+		if(value == null){
+			return Integer.valueOf(0);
+		}
+		if(value instanceof Number){
+			return (Number)value;
+		}
+		if(value instanceof Boolean){
+			return Integer.valueOf(((Boolean)value).booleanValue() ? 1 : 0);
+		}
+		return new BigDecimal(value.toString().trim());
+	}
+	
+	
+	private void checkOpen() throws SQLException {
+		if(closed){
+			throw new SQLException("InMemoryResultSetѾر");
+		}
+	}
+	
+	
+	private static SQLException unsupported() {
+		return new SQLFeatureNotSupportedException("InMemoryResultSetֵ֧Ĳ");
+	}
+	
+	
+	@Override
+	public String getString(int column) throws SQLException {
+		Object value = value(column);
+		return value == null ? null : value.toString();
+	}
+	
+	
+	@Override
+	public boolean getBoolean(int column) throws SQLException {
+		Object value = value(column);
+		if(value instanceof Boolean){
+			return ((Boolean)value).booleanValue();
+		}
+		return value != null && number(column).intValue() != 0;
+	}
+	
+	
+	@Override
+	public byte getByte(int column) throws SQLException {
+		return number(column).byteValue();
+	}
+	
+	
+	@Override
+	public short getShort(int column) throws SQLException {
+		return number(column).shortValue();
+	}
+	
+	
+	@Override
+	public int getInt(int column) throws SQLException {
+		return number(column).intValue();
+	}
+	
+	
+	@Override
+	public long getLong(int column) throws SQLException {
+		return number(column).longValue();
+	}
+	
+	
+	@Override
+	public float getFloat(int column) throws SQLException {
+		return number(column).floatValue();
+	}
+	
+	
+	@Override
+	public double getDouble(int column) throws SQLException {
+		return number(column).doubleValue();
+	}
+	
+	
+	@Override
+	public BigDecimal getBigDecimal(int column) throws SQLException {
+		Object value = value(column);
+		if(value == null || value instanceof BigDecimal){
+			return (BigDecimal)value;
+		}
+		return new BigDecimal(value.toString().trim());
+	}
+	
+	
+	@Override
+	public byte[] getBytes(int column) throws SQLException {
+		Object value = value(column);
+		if(value == null || value instanceof byte[]){
+			return (byte[])value;
+		}
+		return value.toString().getBytes();
+	}
+	
+	
+	@Override
+	public Timestamp getTimestamp(int column) throws SQLException {
+		Object value = value(column);
+		if(value == null || value instanceof Timestamp){
+			return (Timestamp)value;
+		}
+		return Timestamp.valueOf(value.toString().trim());
+	}
+	
+	
+	@Override
+	public Object getObject(int column) throws SQLException {
+		return value(column);
+	}
+	
+	
+	@Override
+	public String getString(String label) throws SQLException {
+		return getString(findColumn(label));
+	}
+	
+	
+	@Override
+	public boolean getBoolean(String label) throws SQLException {
+		return getBoolean(findColumn(label));
+	}
+	
+	
+	@Override
+	public byte getByte(String label) throws SQLException {
+		return getByte(findColumn(label));
+	}
+	
+	
+	@Override
+	public short getShort(String label) throws SQLException {
+		return getShort(findColumn(label));
+	}
+	
+	
+	@Override
+	public int getInt(String label) throws SQLException {
+		return getInt(findColumn(label));
+	}
+	
+	
+	@Override
+	public long getLong(String label) throws SQLException {
+		return getLong(findColumn(label));
+	}
+	
+	
+	@Override
+	public float getFloat(String label) throws SQLException {
+		return getFloat(findColumn(label));
+	}
+	
+	
+	@Override
+	public double getDouble(String label) throws SQLException {
+		return getDouble(findColumn(label));
+	}
+	
+	
+	@Override
+	public BigDecimal getBigDecimal(String label) throws SQLException {
+		return getBigDecimal(findColumn(label));
+	}
+	
+	
+	@Override
+	public byte[] getBytes(String label) throws SQLException {
+		return getBytes(findColumn(label));
+	}
+	
+	
+	@Override
+	public Timestamp getTimestamp(String label) throws SQLException {
+		return getTimestamp(findColumn(label));
+	}
+	
+	
+	@Override
+	public Object getObject(String label) throws SQLException {
+		return getObject(findColumn(label));
+	}
+	
+	
+	@Override
+	public int getType() throws SQLException {
+		return TYPE_SCROLL_INSENSITIVE;
+	}
+	
+	
+	@Override
+	public int getConcurrency() throws SQLException {
+		return CONCUR_READ_ONLY;
+	}
+	
+	
+	@Override
+	public int getHoldability() throws SQLException {
+		return HOLD_CURSORS_OVER_COMMIT;
+	}
+	
+	
+	@Override
+	public int getFetchDirection() throws SQLException {
+		return FETCH_FORWARD;
+	}
+	
+	
+	@Override
+	public void setFetchDirection(int direction) throws SQLException {
+		//ֻ֧ǰȡ
+	}
+	
+	
+	@Override
+	public int getFetchSize() throws SQLException {
+		return 0;
+	}
+	
+	
+	@Override
+	public void setFetchSize(int rows) throws SQLException {
+		//ݶڴУ
+	}
+	
+	
+	@Override
+	public SQLWarning getWarnings() throws SQLException {
+		return null;
+	}
+	
+	
+	@Override
+	public void clearWarnings() throws SQLException {
+	}
+	
+	
+	@Override
+	public Statement getStatement() throws SQLException {
+		return null;
+	}
+	
+	
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return iface.isInstance(this);
+	}
+	
+	
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		if(iface.isInstance(this)){
+			return iface.cast(this);
+		}
+		throw unsupported();
+	}
+	
+	
+	
+	/* ·֧ */
+	public boolean absolute(int p1) throws SQLException { throw unsupported(); }
+	public void afterLast() throws SQLException { throw unsupported(); }
+	public void cancelRowUpdates() throws SQLException { throw unsupported(); }
+	public void deleteRow() throws SQLException { throw unsupported(); }
+	public boolean first() throws SQLException { throw unsupported(); }
+	public Array getArray(String p1) throws SQLException { throw unsupported(); }
+	public Array getArray(int p1) throws SQLException { throw unsupported(); }
+	public InputStream getAsciiStream(String p1) throws SQLException { throw unsupported(); }
+	public InputStream getAsciiStream(int p1) throws SQLException { throw unsupported(); }
+	@SuppressWarnings("deprecation")
+	public BigDecimal getBigDecimal(String p1,int p2) throws SQLException { throw unsupported(); }
+	@SuppressWarnings("deprecation")
+	public BigDecimal getBigDecimal(int p1,int p2) throws SQLException { throw unsupported(); }
+	public InputStream getBinaryStream(String p1) throws SQLException { throw unsupported(); }
+	public InputStream getBinaryStream(int p1) throws SQLException { throw unsupported(); }
+	public Blob getBlob(String p1) throws SQLException { throw unsupported(); }
+	public Blob getBlob(int p1) throws SQLException { throw unsupported(); }
+	public Reader getCharacterStream(String p1) throws SQLException { throw unsupported(); }
+	public Reader getCharacterStream(int p1) throws SQLException { throw unsupported(); }
+	public Clob getClob(String p1) throws SQLException { throw unsupported(); }
+	public Clob getClob(int p1) throws SQLException { throw unsupported(); }
+	public String getCursorName() throws SQLException { throw unsupported(); }
+	public Date getDate(String p1,Calendar p2) throws SQLException { throw unsupported(); }
+	public Date getDate(String p1) throws SQLException { throw unsupported(); }
+	public Date getDate(int p1,Calendar p2) throws SQLException { throw unsupported(); }
+	public Date getDate(int p1) throws SQLException { throw unsupported(); }
+	public Reader getNCharacterStream(String p1) throws SQLException { throw unsupported(); }
+	public Reader getNCharacterStream(int p1) throws SQLException { throw unsupported(); }
+	public NClob getNClob(String p1) throws SQLException { throw unsupported(); }
+	public NClob getNClob(int p1) throws SQLException { throw unsupported(); }
+	public String getNString(String p1) throws SQLException { throw unsupported(); }
+	public String getNString(int p1) throws SQLException { throw unsupported(); }
+	public <T> T getObject(String p1,Class<T> p2) throws SQLException { throw unsupported(); }
+	public Object getObject(String p1,Map<String, Class<?>> p2) throws SQLException { throw unsupported(); }
+	public <T> T getObject(int p1,Class<T> p2) throws SQLException { throw unsupported(); }
+	public Object getObject(int p1,Map<String, Class<?>> p2) throws SQLException { throw unsupported(); }
+	public Ref getRef(String p1) throws SQLException { throw unsupported(); }
+	public Ref getRef(int p1) throws SQLException { throw unsupported(); }
+	public RowId getRowId(String p1) throws SQLException { throw unsupported(); }
+	public RowId getRowId(int p1) throws SQLException { throw unsupported(); }
+	public SQLXML getSQLXML(String p1) throws SQLException { throw unsupported(); }
+	public SQLXML getSQLXML(int p1) throws SQLException { throw unsupported(); }
+	public Time getTime(String p1,Calendar p2) throws SQLException { throw unsupported(); }
+	public Time getTime(String p1) throws SQLException { throw unsupported(); }
+	public Time getTime(int p1,Calendar p2) throws SQLException { throw unsupported(); }
+	public Time getTime(int p1) throws SQLException { throw unsupported(); }
+	public Timestamp getTimestamp(String p1,Calendar p2) throws SQLException { throw unsupported(); }
+	public Timestamp getTimestamp(int p1,Calendar p2) throws SQLException { throw unsupported(); }
+	public URL getURL(String p1) throws SQLException { throw unsupported(); }
+	public URL getURL(int p1) throws SQLException { throw unsupported(); }
+	@SuppressWarnings("deprecation")
+	public InputStream getUnicodeStream(String p1) throws SQLException { throw unsupported(); }
+	@SuppressWarnings("deprecation")
+	public InputStream getUnicodeStream(int p1) throws SQLException { throw unsupported(); }
+	public void insertRow() throws SQLException { throw unsupported(); }
+	public boolean isFirst() throws SQLException { throw unsupported(); }
+	public boolean isLast() throws SQLException { throw unsupported(); }
+	public boolean last() throws SQLException { throw unsupported(); }
+	public void moveToCurrentRow() throws SQLException { throw unsupported(); }
+	public void moveToInsertRow() throws SQLException { throw unsupported(); }
+	public boolean previous() throws SQLException { throw unsupported(); }
+	public void refreshRow() throws SQLException { throw unsupported(); }
+	public boolean relative(int p1) throws SQLException { throw unsupported(); }
+	public boolean rowDeleted() throws SQLException { throw unsupported(); }
+	public boolean rowInserted() throws SQLException { throw unsupported(); }
+	public boolean rowUpdated() throws SQLException { throw unsupported(); }
+	public void updateArray(String p1,Array p2) throws SQLException { throw unsupported(); }
+	public void updateArray(int p1,Array p2) throws SQLException { throw unsupported(); }
+	public void updateAsciiStream(String p1,InputStream p2,int p3) throws SQLException { throw unsupported(); }
+	public void updateAsciiStream(String p1,InputStream p2,long p3) throws SQLException { throw unsupported(); }
+	public void updateAsciiStream(String p1,InputStream p2) throws SQLException { throw unsupported(); }
+	public void updateAsciiStream(int p1,InputStream p2,int p3) throws SQLException { throw unsupported(); }
+	public void updateAsciiStream(int p1,InputStream p2,long p3) throws SQLException { throw unsupported(); }
+	public void updateAsciiStream(int p1,InputStream p2) throws SQLException { throw unsupported(); }
+	public void updateBigDecimal(String p1,BigDecimal p2) throws SQLException { throw unsupported(); }
+	public void updateBigDecimal(int p1,BigDecimal p2) throws SQLException { throw unsupported(); }
+	public void updateBinaryStream(String p1,InputStream p2,int p3) throws SQLException { throw unsupported(); }
+	public void updateBinaryStream(String p1,InputStream p2,long p3) throws SQLException { throw unsupported(); }
+	public void updateBinaryStream(String p1,InputStream p2) throws SQLException { throw unsupported(); }
+	public void updateBinaryStream(int p1,InputStream p2,int p3) throws SQLException { throw unsupported(); }
+	public void updateBinaryStream(int p1,InputStream p2,long p3) throws SQLException { throw unsupported(); }
+	public void updateBinaryStream(int p1,InputStream p2) throws SQLException { throw unsupported(); }
+	public void updateBlob(String p1,InputStream p2,long p3) throws SQLException { throw unsupported(); }
+	public void updateBlob(String p1,InputStream p2) throws SQLException { throw unsupported(); }
+	public void updateBlob(String p1,Blob p2) throws SQLException { throw unsupported(); }
+	public void updateBlob(int p1,InputStream p2,long p3) throws SQLException { throw unsupported(); }
+	public void updateBlob(int p1,InputStream p2) throws SQLException { throw unsupported(); }
+	public void updateBlob(int p1,Blob p2) throws SQLException { throw unsupported(); }
+	public void updateBoolean(String p1,boolean p2) throws SQLException { throw unsupported(); }
+	public void updateBoolean(int p1,boolean p2) throws SQLException { throw unsupported(); }
+	public void updateByte(String p1,byte p2) throws SQLException { throw unsupported(); }
+	public void updateByte(int p1,byte p2) throws SQLException { throw unsupported(); }
+	public void updateBytes(String p1,byte[] p2) throws SQLException { throw unsupported(); }
+	public void updateBytes(int p1,byte[] p2) throws SQLException { throw unsupported(); }
+	public void updateCharacterStream(String p1,Reader p2,int p3) throws SQLException { throw unsupported(); }
+	public void updateCharacterStream(String p1,Reader p2,long p3) throws SQLException { throw unsupported(); }
+	public void updateCharacterStream(String p1,Reader p2) throws SQLException { throw unsupported(); }
+	public void updateCharacterStream(int p1,Reader p2,int p3) throws SQLException { throw unsupported(); }
+	public void updateCharacterStream(int p1,Reader p2,long p3) throws SQLException { throw unsupported(); }
+	public void updateCharacterStream(int p1,Reader p2) throws SQLException { throw unsupported(); }
+	public void updateClob(String p1,Reader p2,long p3) throws SQLException { throw unsupported(); }
+	public void updateClob(String p1,Reader p2) throws SQLException { throw unsupported(); }
+	public void updateClob(String p1,Clob p2) throws SQLException { throw unsupported(); }
+	public void updateClob(int p1,Reader p2,long p3) throws SQLException { throw unsupported(); }
+	public void updateClob(int p1,Reader p2) throws SQLException { throw unsupported(); }
+	public void updateClob(int p1,Clob p2) throws SQLException { throw unsupported(); }
+	public void updateDate(String p1,Date p2) throws SQLException { throw unsupported(); }
+	public void updateDate(int p1,Date p2) throws SQLException { throw unsupported(); }
+	public void updateDouble(String p1,double p2) throws SQLException { throw unsupported(); }
+	public void updateDouble(int p1,double p2) throws SQLException { throw unsupported(); }
+	public void updateFloat(String p1,float p2) throws SQLException { throw unsupported(); }
+	public void updateFloat(int p1,float p2) throws SQLException { throw unsupported(); }
+	public void updateInt(String p1,int p2) throws SQLException { throw unsupported(); }
+	public void updateInt(int p1,int p2) throws SQLException { throw unsupported(); }
+	public void updateLong(String p1,long p2) throws SQLException { throw unsupported(); }
+	public void updateLong(int p1,long p2) throws SQLException { throw unsupported(); }
+	public void updateNCharacterStream(String p1,Reader p2,long p3) throws SQLException { throw unsupported(); }
+	public void updateNCharacterStream(String p1,Reader p2) throws SQLException { throw unsupported(); }
+	public void updateNCharacterStream(int p1,Reader p2,long p3) throws SQLException { throw unsupported(); }
+	public void updateNCharacterStream(int p1,Reader p2) throws SQLException { throw unsupported(); }
+	public void updateNClob(String p1,Reader p2,long p3) throws SQLException { throw unsupported(); }
+	public void updateNClob(String p1,Reader p2) throws SQLException { throw unsupported(); }
+	public void updateNClob(String p1,NClob p2) throws SQLException { throw unsupported(); }
+	public void updateNClob(int p1,Reader p2,long p3) throws SQLException { throw unsupported(); }
+	public void updateNClob(int p1,Reader p2) throws SQLException { throw unsupported(); }
+	public void updateNClob(int p1,NClob p2) throws SQLException { throw unsupported(); }
+	public void updateNString(String p1,String p2) throws SQLException { throw unsupported(); }
+	public void updateNString(int p1,String p2) throws SQLException { throw unsupported(); }
+	public void updateNull(String p1) throws SQLException { throw unsupported(); }
+	public void updateNull(int p1) throws SQLException { throw unsupported(); }
+	public void updateObject(String p1,Object p2,int p3) throws SQLException { throw unsupported(); }
+	public void updateObject(String p1,Object p2) throws SQLException { throw unsupported(); }
+	public void updateObject(int p1,Object p2,int p3) throws SQLException { throw unsupported(); }
+	public void updateObject(int p1,Object p2) throws SQLException { throw unsupported(); }
+	public void updateRef(String p1,Ref p2) throws SQLException { throw unsupported(); }
+	public void updateRef(int p1,Ref p2) throws SQLException { throw unsupported(); }
+	public void updateRow() throws SQLException { throw unsupported(); }
+	public void updateRowId(String p1,RowId p2) throws SQLException { throw unsupported(); }
+	public void updateRowId(int p1,RowId p2) throws SQLException { throw unsupported(); }
+	public void updateSQLXML(String p1,SQLXML p2) throws SQLException { throw unsupported(); }
+	public void updateSQLXML(int p1,SQLXML p2) throws SQLException { throw unsupported(); }
+	public void updateShort(String p1,short p2) throws SQLException { throw unsupported(); }
+	public void updateShort(int p1,short p2) throws SQLException { throw unsupported(); }
+	public void updateString(String p1,String p2) throws SQLException { throw unsupported(); }
+	public void updateString(int p1,String p2) throws SQLException { throw unsupported(); }
+	public void updateTime(String p1,Time p2) throws SQLException { throw unsupported(); }
+	public void updateTime(int p1,Time p2) throws SQLException { throw unsupported(); }
+	public void updateTimestamp(String p1,Timestamp p2) throws SQLException { throw unsupported(); }
+	public void updateTimestamp(int p1,Timestamp p2) throws SQLException { throw unsupported(); }
+
+
+	/* Ϣ */
+	private final class MetaData implements ResultSetMetaData {
+
+		@Override
+		public int getColumnCount() throws SQLException {
+			return labels.length;
+		}
+
+		@Override
+		public String getColumnLabel(int column) throws SQLException {
+			return labels[column - 1];
+		}
+
+		@Override
+		public String getColumnName(int column) throws SQLException {
+			return labels[column - 1];
+		}
+
+		@Override
+		public int getColumnType(int column) throws SQLException {
+			return types[column - 1];
+		}
+
+		@Override
+		public String getColumnTypeName(int column) throws SQLException {
+			switch(types[column - 1]){
+				case Types.INTEGER:		return "INT";
+				case Types.BIGINT:		return "BIGINT";
+				case Types.DOUBLE:		return "DOUBLE";
+				case Types.DECIMAL:		return "DECIMAL";
+				case Types.TIMESTAMP:	return "DATETIME";
+				case Types.VARBINARY:	return "VARBINARY";
+				default:				return "VARCHAR";
+			}
+		}
+
+		@Override
+		public String getColumnClassName(int column) throws SQLException {
+			switch(types[column - 1]){
+				case Types.INTEGER:		return Integer.class.getName();
+				case Types.BIGINT:		return Long.class.getName();
+				case Types.DOUBLE:		return Double.class.getName();
+				case Types.DECIMAL:		return BigDecimal.class.getName();
+				case Types.TIMESTAMP:	return Timestamp.class.getName();
+				case Types.VARBINARY:	return byte[].class.getName();
+				default:				return String.class.getName();
+			}
+		}
+
+		@Override
+		public int getColumnDisplaySize(int column) throws SQLException {
+			return 0;
+		}
+
+		@Override
+		public int getPrecision(int column) throws SQLException {
+			return 0;
+		}
+
+		@Override
+		public int getScale(int column) throws SQLException {
+			return 0;
+		}
+
+		@Override
+		public String getCatalogName(int column) throws SQLException {
+			return "";
+		}
+
+		@Override
+		public String getSchemaName(int column) throws SQLException {
+			return "";
+		}
+
+		@Override
+		public String getTableName(int column) throws SQLException {
+			return "";
+		}
+
+		@Override
+		public boolean isAutoIncrement(int column) throws SQLException {
+			return false;
+		}
+
+		@Override
+		public boolean isCaseSensitive(int column) throws SQLException {
+			return false;
+		}
+
+		@Override
+		public boolean isCurrency(int column) throws SQLException {
+			return false;
+		}
+
+		@Override
+		public int isNullable(int column) throws SQLException {
+			return columnNullableUnknown;
+		}
+
+		@Override
+		public boolean isSigned(int column) throws SQLException {
+			return true;
+		}
+
+		@Override
+		public boolean isSearchable(int column) throws SQLException {
+			return false;
+		}
+
+		@Override
+		public boolean isReadOnly(int column) throws SQLException {
+			return true;
+		}
+
+		@Override
+		public boolean isWritable(int column) throws SQLException {
+			return false;
+		}
+
+		@Override
+		public boolean isDefinitelyWritable(int column) throws SQLException {
+			return false;
+		}
+
+		@Override
+		public boolean isWrapperFor(Class<?> iface) throws SQLException {
+			return iface.isInstance(this);
+		}
+
+		@Override
+		public <T> T unwrap(Class<T> iface) throws SQLException {
+			if(iface.isInstance(this)){
+				return iface.cast(this);
+			}
+			throw unsupported();
+		}
+	}
+
+}
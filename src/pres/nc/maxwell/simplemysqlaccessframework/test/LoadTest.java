@@ -0,0 +1,391 @@
+package pres.nc.maxwell.simplemysqlaccessframework.test;
+/**********************************************************************
+ * 	LoadTest.java
+ *
+ *  زԣõĶдThreadPoolPackύѯ͸£ͳӳٵİٷλÿڱȽӳغ̳߳ص
+ *  ֱmainҲڴдrunTestClient.testLoadInMultiTask
+ *
+ *  ģʽ
+ *  OPEN̶ĵrate/룩ύ󣬲֮ǰǷɣģû
+ *  CLOSEDջconcurrency߸ύһ󡢵ȴύһrate0ʱ߰rateź÷ʱ䣬Ϊ0ʱ
+ *
+ *  ӳcoordinated omissionÿмƻķʱ䣬ӳٴӼƻʱ
+ *  ϵͳʱڼƻͣεȴҲӳ٣ٷλΪʱ򷢳ٶƫ
+ *  ٵıջûмƻʱ䣬ӳͬ
+ *  ͬʱӳ٣correctedʹʵύӳ٣service
+ *
+ *  mainĲΪļ =ֵĸǰģ
+ *  mode=open rate=2000 duration=30 readRatio=0.8 settingFile=databaseSetting.properties report=loadtest-report.json
+ *
+ *  settingFile             ThreadPoolPackļurlʹStandInDriverjdbc:standin:ĬΪdatabaseSetting.properties
+ *  connections             Ĭ10fixedģʽ߳ǵȽϲͬ߳ʱ޸
+ *  executor                fixedvirtualĬfixed
+ *  maxPendingTasks         ͬʱύޣִкŶӵ񣩣ʱύԴ
+ *                          fixedģʽΪcreateThreadPoolύͻгȣĬΪvirtualģʽĬ10000
+ *  mode                    openclosedĬclosed
+ *  rate                    ʣ/룩openģʽ0Ĭ0
+ *  concurrency             closedģʽĵĬ16
+ *  durationwarmup        Ԥȵʱ䣨룩Ĭ305Ԥڼƻ͵󲻼ͳ
+ *  interval                ͳƵʱ룩Ĭ1000
+ *  readRatio               ѯռıĬ0.9
+ *  readSqlwriteSql       ѯ͸䣬һΪһΪѡû
+ *  usernames               ûŷָĬΪinit.sqlе4û
+ *  seed                    ѡдûӣĬ1
+ *  report                  JSONļĬΪloadtest-report.json
+ *
+ **********************************************************************/
+
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+
+import pres.nc.maxwell.simplemysqlaccessframework.ThreadPoolPack;
+
+
+public class LoadTest {
+
+	public enum Mode {
+		OPEN,
+		CLOSED
+	}
+
+	/* ȴδɵôã룩ʱڱмΪδ */
+	private static final long DRAIN_TIMEOUT = 60000;
+
+	private final ThreadPoolPack tp;
+
+	private Mode mode = Mode.CLOSED;
+	private double rate = 0;
+	private int concurrency = 16;
+	private long durationMillis = 30000;
+	private long warmupMillis = 5000;
+	private long intervalMillis = 1000;
+	private double readRatio = 0.9;
+	private String readSql = "SELECT * FROM userinfo WHERE username = ?";
+	private String writeSql = "UPDATE userinfo SET salary = ? WHERE username = ?";
+	private String[] usernames = {"xiaomi", "test", "dashi", "maxwell"};
+	private long seed = 1;
+
+	/* Ѿύûɵ */
+	private final AtomicLong outstanding = new AtomicLong();
+
+
+	/* 췽tpѾ̳߳ */
+	public LoadTest(ThreadPoolPack tp){
+		this.tp = tp;
+	}
+
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+
+		Properties pp = new Properties();
+		for(String arg : args){
+			int eq = arg.indexOf('=');
+			if(eq > 0){
+				pp.setProperty(arg.substring(0, eq).trim(), arg.substring(eq + 1).trim());
+			}
+			else{
+				FileInputStream fis = new FileInputStream(arg);
+				try {
+					pp.load(fis);
+				}
+				finally {
+					fis.close();
+				}
+			}
+		}
+
+		StandInDriver.register();		//ļurlʹjdbc:standin:Ҫݿ
+
+		String settingFile = pp.getProperty("settingFile", "databaseSetting.properties");
+		int connections = Integer.parseInt(pp.getProperty("connections", "10"));
+		String executor = pp.getProperty("executor", "fixed");
+		int maxPendingTasks = Integer.parseInt(pp.getProperty("maxPendingTasks",
+				executor.equals("virtual") ? "10000" : String.valueOf(connections * 2)));
+
+		ThreadPoolPack tp = new ThreadPoolPack(settingFile, connections);
+		if(executor.equals("virtual")){
+			tp.createVirtualThreadPool(maxPendingTasks);
+		}
+		else{
+			tp.createThreadPool(maxPendingTasks, 0L);
+		}
+
+		LoadTest test = new LoadTest(tp);
+		test.configure(pp);
+		LoadTestReport report = test.run();
+
+		report.setConfig("settingFile", settingFile);
+		report.setConfig("connections", connections);
+		report.setConfig("maxPendingTasks", maxPendingTasks);
+		report.setConfig("executor", executor + (executor.equals("virtual") && !tp.isVirtualThreadPool() ? "(platform)" : ""));
+
+		tp.shutdownThreadPool();
+		tp.closeAllConnections();
+
+		System.out.println(report);
+		File file = new File(pp.getProperty("report", "loadtest-report.json"));
+		report.writeJson(file);
+		System.out.println("LoadTestд " + file.getAbsolutePath());
+	}
+
+
+	/* mainĲãûеĲԭֵ */
+	public void configure(Properties pp) {
+
+		if(pp.getProperty("mode") != null){
+			setMode(Mode.valueOf(pp.getProperty("mode").trim().toUpperCase()));
+		}
+		setRate(Double.parseDouble(pp.getProperty("rate", String.valueOf(rate))));
+		setConcurrency(Integer.parseInt(pp.getProperty("concurrency", String.valueOf(concurrency))));
+		setDuration(Long.parseLong(pp.getProperty("duration", String.valueOf(durationMillis / 1000))), TimeUnit.SECONDS);
+		setWarmup(Long.parseLong(pp.getProperty("warmup", String.valueOf(warmupMillis / 1000))), TimeUnit.SECONDS);
+		setInterval(Long.parseLong(pp.getProperty("interval", String.valueOf(intervalMillis))), TimeUnit.MILLISECONDS);
+		setReadRatio(Double.parseDouble(pp.getProperty("readRatio", String.valueOf(readRatio))));
+		setReadSql(pp.getProperty("readSql", readSql));
+		setWriteSql(pp.getProperty("writeSql", writeSql));
+		if(pp.getProperty("usernames") != null){
+			setUsernames(pp.getProperty("usernames").split("\\s*,\\s*"));
+		}
+		setSeed(Long.parseLong(pp.getProperty("seed", String.valueOf(seed))));
+	}
+
+
+	public void setMode(Mode mode) {
+		this.mode = mode;
+	}
+
+
+	/* ʣ/룩ջģʽΪеߵʣ0ʾ */
+	public void setRate(double rate) {
+
+		if(rate < 0){
+			throw new RuntimeException("LoadTestʲС0");
+		}
+		this.rate = rate;
+	}
+
+
+	public void setConcurrency(int concurrency) {
+
+		if(concurrency <= 0){
+			throw new RuntimeException("LoadTest0");
+		}
+		this.concurrency = concurrency;
+	}
+
+
+	public void setDuration(long duration,TimeUnit unit) {
+
+		if(duration <= 0){
+			throw new RuntimeException("LoadTestʱ0");
+		}
+		this.durationMillis = unit.toMillis(duration);
+	}
+
+
+	public void setWarmup(long warmup,TimeUnit unit) {
+
+		if(warmup < 0){
+			throw new RuntimeException("LoadTestԤʱ䲻С0");
+		}
+		this.warmupMillis = unit.toMillis(warmup);
+	}
+
+
+	public void setInterval(long interval,TimeUnit unit) {
+
+		if(unit.toMillis(interval) <= 0){
+			throw new RuntimeException("LoadTestͳƼ1");
+		}
+		this.intervalMillis = unit.toMillis(interval);
+	}
+
+
+	public void setReadRatio(double readRatio) {
+
+		if(readRatio < 0 || readRatio > 1){
+			throw new RuntimeException("LoadTestѯ01֮");
+		}
+		this.readRatio = readRatio;
+	}
+
+
+	public void setReadSql(String readSql) {
+		this.readSql = readSql;
+	}
+
+
+	public void setWriteSql(String writeSql) {
+		this.writeSql = writeSql;
+	}
+
+
+	public void setUsernames(String... usernames) {
+
+		if(usernames.length == 0){
+			throw new RuntimeException("LoadTestҪһû");
+		}
+		this.usernames = usernames;
+	}
+
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+
+	/* ԤȺͲȴɺ󷵻ر */
+	public LoadTestReport run() throws InterruptedException {
+
+		if(mode == Mode.OPEN && rate <= 0){
+			throw new RuntimeException("LoadTestģʽ");
+		}
+
+		long start = System.nanoTime();
+		long measureStart = start + TimeUnit.MILLISECONDS.toNanos(warmupMillis);
+		long end = measureStart + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+
+		LoadTestReport report = new LoadTestReport(measureStart, durationMillis, intervalMillis);
+		report.setConfig("mode", mode.name().toLowerCase());
+		report.setConfig("rate", rate);
+		report.setConfig("concurrency", mode == Mode.CLOSED ? concurrency : 0);
+		report.setConfig("durationSeconds", durationMillis / 1000.0);
+		report.setConfig("warmupSeconds", warmupMillis / 1000.0);
+		report.setConfig("readRatio", readRatio);
+		report.setConfig("readSql", readSql);
+		report.setConfig("writeSql", writeSql);
+		report.setConfig("coordinatedOmissionCorrected", rate > 0);
+
+		if(mode == Mode.OPEN){
+			runOpen(start, end, report);
+		}
+		else{
+			runClosed(start, end, report);
+		}
+
+		/* ȴûɵ */
+		long drainDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DRAIN_TIMEOUT);
+		while(outstanding.get() > 0 && System.nanoTime() < drainDeadline){
+			Thread.sleep(10);
+		}
+		report.setIncomplete(outstanding.get());
+
+		return report;
+	}
+
+
+	/* һ̰߳ƻʱύύʱ󲹷ӳԴӼƻʱ */
+	private void runOpen(long start,long end,LoadTestReport report) {
+
+		Random random = new Random(seed);
+		double interval = 1e9 / rate;
+
+		for(long n = 0;;n++){
+
+			long intended = start + (long) (n * interval);
+			if(intended >= end){
+				break;
+			}
+
+			waitUntil(intended);
+			submit(random, intended, report);
+		}
+	}
+
+
+	/* ջÿߵһύһʱƻʱύʱύ */
+	private void runClosed(final long start,final long end,final LoadTestReport report) throws InterruptedException {
+
+		final double interval = rate > 0 ? 1e9 * concurrency / rate : 0;		//ÿߵ
+
+		Thread[] callers = new Thread[concurrency];
+		for(int i = 0;i < concurrency;i++){
+
+			final int caller = i;
+			callers[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+
+					Random random = new Random(seed + caller);
+
+					/* ʱߵļƻʱͬʱ */
+					for(long n = 0;;n++){
+
+						long intended = interval > 0 ? start + (long) ((n + (double) caller / concurrency) * interval) : System.nanoTime();
+						if(intended >= end){
+							break;
+						}
+
+						waitUntil(intended);
+						CompletableFuture<?> future = submit(random, intended, report);
+						if(future != null){
+							try {
+								future.join();
+							}
+							catch (RuntimeException e) {
+								//ʧѾsubmitĻصм¼
+							}
+						}
+					}
+				}
+			}, "LoadTest-caller-" + i);
+			callers[i].start();
+		}
+
+		for(Thread caller : callers){
+			caller.join();
+		}
+	}
+
+
+	/* ύһѯ߸£ʱ¼ύʧʱֱӼ¼null */
+	private CompletableFuture<?> submit(Random random,final long intended,final LoadTestReport report) {
+
+		final boolean read = random.nextDouble() < readRatio;
+		String username = usernames[random.nextInt(usernames.length)];
+		final long submitted = System.nanoTime();
+
+		outstanding.incrementAndGet();
+		CompletableFuture<?> future;
+		try {
+			if(read){
+				future = tp.submitSqlQueryAsync(readSql, username);
+			}
+			else{
+				future = tp.submitSqlUpdateAsync(writeSql, String.valueOf(5000 + random.nextInt(5000)), username);
+			}
+		}
+		catch (RuntimeException e) {
+			report.record(read, intended, submitted, System.nanoTime(), e);
+			outstanding.decrementAndGet();
+			return null;
+		}
+
+		return future.whenComplete(new BiConsumer<Object, Throwable>() {
+			@Override
+			public void accept(Object result,Throwable e) {
+				report.record(read, intended, submitted, System.nanoTime(), e);
+				outstanding.decrementAndGet();
+			}
+		});
+	}
+
+
+	/* ȴdeadlineSystem.nanoTime()Ѿ */
+	private static void waitUntil(long deadline) {
+
+		for(long left = deadline - System.nanoTime();left > 0;left = deadline - System.nanoTime()){
+			LockSupport.parkNanos(left);
+		}
+	}
+
+}
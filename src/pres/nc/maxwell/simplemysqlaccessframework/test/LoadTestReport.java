@@ -0,0 +1,282 @@
+package pres.nc.maxwell.simplemysqlaccessframework.test;
+/**********************************************************************
+ * 	LoadTestReport.java
+ *
+ *  LoadTestĽѯºȫӳ٣correctedʹʵύӳ٣service
+ *  ÿͳƼɵʧp99ԼSQLState쳣ͣʧܴ
+ *
+ *  ֻͳƼƻڲʼ֮͵ʧֻܵӳ
+ *  toStringժҪwriteJsonJSONӳٵλΪ΢룬ڱȽϲͬõĽ
+ *
+ **********************************************************************/
+
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import pres.nc.maxwell.simplemysqlaccessframework.LatencyHistogram;
+import pres.nc.maxwell.simplemysqlaccessframework.LatencySnapshot;
+
+
+public class LoadTestReport {
+
+	private final long measureStart;
+	private final long durationMillis;
+	private final long intervalNanos;
+
+	private final Map<String, Object> config = new LinkedHashMap<String, Object>();
+
+	private final Stats reads = new Stats();
+	private final Stats writes = new Stats();
+	private final Stats all = new Stats();
+
+	/* ʱֵͳƼɵһ */
+	private final Interval[] intervals;
+
+	private final ConcurrentHashMap<String, LongAdder> errors = new ConcurrentHashMap<String, LongAdder>();
+	private volatile long incomplete = 0;
+
+
+	/* 췽measureStartΪʼSystem.nanoTime() */
+	LoadTestReport(long measureStart,long durationMillis,long intervalMillis){
+
+		this.measureStart = measureStart;
+		this.durationMillis = durationMillis;
+		this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+
+		intervals = new Interval[(int) ((durationMillis + intervalMillis - 1) / intervalMillis)];
+		for(int i = 0;i < intervals.length;i++){
+			intervals[i] = new Interval();
+		}
+	}
+
+
+	void setConfig(String name,Object value) {
+		config.put(name, value);
+	}
+
+
+	void setIncomplete(long incomplete) {
+		this.incomplete = incomplete;
+	}
+
+
+	/* ¼һʱ䶼System.nanoTime()errorΪnullʾɹ */
+	void record(boolean read,long intended,long submitted,long done,Throwable error) {
+
+		if(intended < measureStart){
+			return;		//Ԥ
+		}
+
+		Stats stats = read ? reads : writes;
+		Interval interval = intervals[(int) Math.max(0, Math.min(intervals.length - 1, (done - measureStart) / intervalNanos))];
+
+		if(error != null){
+			stats.failed.increment();
+			all.failed.increment();
+			interval.failed.increment();
+
+			String type = errorType(error);
+			LongAdder count = errors.get(type);
+			if(count == null){
+				errors.putIfAbsent(type, new LongAdder());
+				count = errors.get(type);
+			}
+			count.increment();
+			return;
+		}
+
+		stats.record(done - intended, done - submitted);
+		all.record(done - intended, done - submitted);
+		interval.completed.increment();
+		interval.corrected.record(done - intended);
+	}
+
+
+	/* SQL쳣SQLState࣬쳣 */
+	private static String errorType(Throwable error) {
+
+		while((error instanceof CompletionException || error.getClass() == RuntimeException.class) && error.getCause() != null){
+			error = error.getCause();
+		}
+
+		if(error instanceof SQLException && ((SQLException) error).getSQLState() != null){
+			return "SQLState " + ((SQLException) error).getSQLState();
+		}
+		return error.getClass().getSimpleName();
+	}
+
+
+	/* óɹ */
+	public long getCompleted() {
+		return all.corrected.snapshot().getCount();
+	}
+
+
+	/* ʧܵ */
+	public long getFailed() {
+		return all.failed.sum();
+	}
+
+
+	/* ÿɵʧܵģ */
+	public double getThroughput() {
+		return (getCompleted() + getFailed()) * 1000.0 / durationMillis;
+	}
+
+
+	/* ȫӳ */
+	public LatencySnapshot getCorrectedLatency() {
+		return all.corrected.snapshot();
+	}
+
+
+	/* ȫʵύӳ */
+	public LatencySnapshot getServiceLatency() {
+		return all.service.snapshot();
+	}
+
+
+	@Override
+	public String toString() {
+
+		StringBuilder sb = new StringBuilder();
+		sb.append("LoadTest").append(config).append('\n');
+		sb.append(String.format("throughput %.1f req/s, failed %d, incomplete %d%n", getThroughput(), getFailed(), incomplete));
+		sb.append("read  corrected ").append(reads.corrected.snapshot()).append('\n');
+		sb.append("read  service   ").append(reads.service.snapshot()).append('\n');
+		sb.append("write corrected ").append(writes.corrected.snapshot()).append('\n');
+		sb.append("write service   ").append(writes.service.snapshot()).append('\n');
+		if(!errors.isEmpty()){
+			sb.append("errors ").append(new TreeMap<String, LongAdder>(errors)).append('\n');
+		}
+		return sb.toString();
+	}
+
+
+	/* JSONʽı */
+	public String toJson() {
+
+		StringBuilder sb = new StringBuilder();
+		sb.append("{\n  \"config\": {");
+		String separator = "";
+		for(Map.Entry<String, Object> entry : config.entrySet()){
+			sb.append(separator).append("\n    ").append(quote(entry.getKey())).append(": ");
+			Object value = entry.getValue();
+			sb.append(value instanceof Number || value instanceof Boolean ? String.valueOf(value) : quote(String.valueOf(value)));
+			separator = ",";
+		}
+		sb.append("\n  },\n");
+
+		sb.append("  \"completed\": ").append(getCompleted()).append(",\n");
+		sb.append("  \"failed\": ").append(getFailed()).append(",\n");
+		sb.append("  \"incomplete\": ").append(incomplete).append(",\n");
+		sb.append(String.format(Locale.ROOT, "  \"throughput\": %.1f,%n", getThroughput()));
+
+		sb.append("  \"latencyMicros\": {\n");
+		sb.append("    \"all\": ").append(all.toJson()).append(",\n");
+		sb.append("    \"read\": ").append(reads.toJson()).append(",\n");
+		sb.append("    \"write\": ").append(writes.toJson()).append("\n");
+		sb.append("  },\n");
+
+		sb.append("  \"errors\": {");
+		separator = "";
+		for(Map.Entry<String, LongAdder> entry : new TreeMap<String, LongAdder>(errors).entrySet()){
+			sb.append(separator).append(quote(entry.getKey())).append(": ").append(entry.getValue().sum());
+			separator = ", ";
+		}
+		sb.append("},\n");
+
+		sb.append("  \"timeline\": [");
+		separator = "";
+		for(int i = 0;i < intervals.length;i++){
+			LatencySnapshot corrected = intervals[i].corrected.snapshot();
+			sb.append(separator).append(String.format(Locale.ROOT, "%n    {\"startMillis\": %d, \"completed\": %d, \"failed\": %d, \"p99Micros\": %d}",
+					i * TimeUnit.NANOSECONDS.toMillis(intervalNanos), intervals[i].completed.sum(), intervals[i].failed.sum(),
+					corrected.getP99() / 1000));
+			separator = ",";
+		}
+		sb.append("\n  ]\n}\n");
+
+		return sb.toString();
+	}
+
+
+	/* JSONʽıдļ */
+	public void writeJson(File file) throws IOException {
+
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			writer.write(toJson());
+		}
+		finally {
+			writer.close();
+		}
+	}
+
+
+	private static String quote(String s) {
+
+		StringBuilder sb = new StringBuilder("\"");
+		for(int i = 0;i < s.length();i++){
+			char c = s.charAt(i);
+			if(c == '"' || c == '\\'){
+				sb.append('\\').append(c);
+			}
+			else if(c < 0x20){
+				sb.append(String.format("\\u%04x", (int) c));
+			}
+			else{
+				sb.append(c);
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+
+
+	/* һӳٺʧܴ */
+	private static final class Stats {
+
+		final LatencyHistogram corrected = new LatencyHistogram();
+		final LatencyHistogram service = new LatencyHistogram();
+		final LongAdder failed = new LongAdder();
+
+		void record(long correctedNanos,long serviceNanos) {
+			corrected.record(correctedNanos);
+			service.record(serviceNanos);
+		}
+
+		String toJson() {
+			return "{\"corrected\": " + toJson(corrected.snapshot()) + ", \"service\": " + toJson(service.snapshot())
+					+ ", \"failed\": " + failed.sum() + "}";
+		}
+
+		private static String toJson(LatencySnapshot s) {
+			return String.format(Locale.ROOT, "{\"count\": %d, \"mean\": %.1f, \"p50\": %d, \"p90\": %d, \"p99\": %d, \"p999\": %d, \"max\": %d}",
+					s.getCount(), s.getMean() / 1000, s.getP50() / 1000, s.getP90() / 1000, s.getP99() / 1000, s.getP999() / 1000, s.getMax() / 1000);
+		}
+	}
+
+
+	/* һͳƼӳֻһ */
+	private static final class Interval {
+
+		final LongAdder completed = new LongAdder();
+		final LongAdder failed = new LongAdder();
+		final LatencyHistogram corrected = new LatencyHistogram(1);
+	}
+
+}
@@ -0,0 +1,288 @@
+package pres.nc.maxwell.simplemysqlaccessframework.test;
+/**********************************************************************
+ * 	StandInConnection.java
+ * 
+ *  StandInDriverӣ佻StandInDatabaseִ
+ *  ¼Զύֻ뼶״̬commitrollbackκ
+ *  עϿӺرյͬ
+ *  
+ *  ֻʵӳغMySqlHelperõķ׳SQLFeatureNotSupportedException
+ *  
+ **********************************************************************/
+
+
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.ClientInfoStatus;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Struct;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+
+public class StandInConnection implements Connection {
+
+	private final StandInDatabase database;
+	
+	private volatile boolean closed = false;
+	private boolean autoCommit = true;
+	private boolean readOnly = false;
+	private int transactionIsolation = TRANSACTION_REPEATABLE_READ;
+	private String catalog;
+	private String schema;
+	private int networkTimeout = 0;
+	
+	
+	public StandInConnection(StandInDatabase database){
+		this.database = database;
+		this.catalog = database.getName();
+	}
+	
+	
+	StandInDatabase getDatabase() {
+		return database;
+	}
+	
+	
+	/* עĶϿӣ֮Ĳ׳쳣isValidfalseӳع黹ʱرղ´ */
+	void drop() {
+		closed = true;
+	}
+	
+	
+	void checkOpen() throws SQLException {
+		if(closed){
+			throw new SQLException("StandInConnectionѾر", "08003");
+		}
+	}
+	
+	
+	private static SQLException unsupported() {
+		return new SQLFeatureNotSupportedException("StandInConnectionֵ֧Ĳ");
+	}
+	
+	
+	@Override
+	public PreparedStatement prepareStatement(String sql) throws SQLException {
+		checkOpen();
+		return new StandInStatement(this, sql);
+	}
+	
+	
+	@Override
+	public PreparedStatement prepareStatement(String sql,int resultSetType,int resultSetConcurrency) throws SQLException {
+		return prepareStatement(sql);
+	}
+	
+	
+	@Override
+	public Statement createStatement() throws SQLException {
+		checkOpen();
+		return new StandInStatement(this, null);
+	}
+	
+	
+	@Override
+	public void setAutoCommit(boolean autoCommit) throws SQLException {
+		checkOpen();
+		this.autoCommit = autoCommit;
+	}
+	
+	
+	@Override
+	public boolean getAutoCommit() throws SQLException {
+		checkOpen();
+		return autoCommit;
+	}
+	
+	
+	@Override
+	public void commit() throws SQLException {
+		checkOpen();
+		if(autoCommit){
+			throw new SQLException("StandInConnectionԶύģʽ²ύ");
+		}
+	}
+	
+	
+	@Override
+	public void rollback() throws SQLException {
+		checkOpen();
+		if(autoCommit){
+			throw new SQLException("StandInConnectionԶύģʽ²ܻع");
+		}
+	}
+	
+	
+	@Override
+	public void close() throws SQLException {
+		closed = true;
+	}
+	
+	
+	@Override
+	public boolean isClosed() throws SQLException {
+		return closed;
+	}
+	
+	
+	@Override
+	public boolean isValid(int timeout) throws SQLException {
+		return !closed;
+	}
+	
+	
+	@Override
+	public void abort(Executor executor) throws SQLException {
+		closed = true;
+	}
+	
+	
+	@Override
+	public void setNetworkTimeout(Executor executor,int milliseconds) throws SQLException {
+		networkTimeout = milliseconds;
+	}
+	
+	
+	@Override
+	public int getNetworkTimeout() throws SQLException {
+		return networkTimeout;
+	}
+	
+	
+	@Override
+	public void setReadOnly(boolean readOnly) throws SQLException {
+		this.readOnly = readOnly;
+	}
+	
+	
+	@Override
+	public boolean isReadOnly() throws SQLException {
+		return readOnly;
+	}
+	
+	
+	@Override
+	public void setTransactionIsolation(int level) throws SQLException {
+		transactionIsolation = level;
+	}
+	
+	
+	@Override
+	public int getTransactionIsolation() throws SQLException {
+		return transactionIsolation;
+	}
+	
+	
+	@Override
+	public void setCatalog(String catalog) throws SQLException {
+		this.catalog = catalog;
+	}
+	
+	
+	@Override
+	public String getCatalog() throws SQLException {
+		return catalog;
+	}
+	
+	
+	@Override
+	public void setSchema(String schema) throws SQLException {
+		this.schema = schema;
+	}
+	
+	
+	@Override
+	public String getSchema() throws SQLException {
+		return schema;
+	}
+	
+	
+	@Override
+	public String nativeSQL(String sql) throws SQLException {
+		return sql;
+	}
+	
+	
+	@Override
+	public SQLWarning getWarnings() throws SQLException {
+		return null;
+	}
+	
+	
+	@Override
+	public void clearWarnings() throws SQLException {
+	}
+	
+	
+	@Override
+	public void setClientInfo(String name,String value) throws SQLClientInfoException {
+		throw new SQLClientInfoException(Collections.<String, ClientInfoStatus>emptyMap());
+	}
+	
+	
+	@Override
+	public void setClientInfo(Properties properties) throws SQLClientInfoException {
+		throw new SQLClientInfoException(Collections.<String, ClientInfoStatus>emptyMap());
+	}
+	
+	
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return iface.isInstance(this);
+	}
+	
+	
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		if(iface.isInstance(this)){
+			return iface.cast(this);
+		}
+		throw unsupported();
+	}
+	
+	
+	
+	/* ·֧ */
+	public Array createArrayOf(String p1,Object[] p2) throws SQLException { throw unsupported(); }
+	public Blob createBlob() throws SQLException { throw unsupported(); }
+	public Clob createClob() throws SQLException { throw unsupported(); }
+	public NClob createNClob() throws SQLException { throw unsupported(); }
+	public SQLXML createSQLXML() throws SQLException { throw unsupported(); }
+	public Statement createStatement(int p1,int p2) throws SQLException { throw unsupported(); }
+	public Statement createStatement(int p1,int p2,int p3) throws SQLException { throw unsupported(); }
+	public Struct createStruct(String p1,Object[] p2) throws SQLException { throw unsupported(); }
+	public Properties getClientInfo() throws SQLException { throw unsupported(); }
+	public String getClientInfo(String p1) throws SQLException { throw unsupported(); }
+	public int getHoldability() throws SQLException { throw unsupported(); }
+	public DatabaseMetaData getMetaData() throws SQLException { throw unsupported(); }
+	public Map<String, Class<?>> getTypeMap() throws SQLException { throw unsupported(); }
+	public CallableStatement prepareCall(String p1) throws SQLException { throw unsupported(); }
+	public CallableStatement prepareCall(String p1,int p2,int p3) throws SQLException { throw unsupported(); }
+	public CallableStatement prepareCall(String p1,int p2,int p3,int p4) throws SQLException { throw unsupported(); }
+	public PreparedStatement prepareStatement(String p1,int p2) throws SQLException { throw unsupported(); }
+	public PreparedStatement prepareStatement(String p1,int p2,int p3,int p4) throws SQLException { throw unsupported(); }
+	public PreparedStatement prepareStatement(String p1,int[] p2) throws SQLException { throw unsupported(); }
+	public PreparedStatement prepareStatement(String p1,String[] p2) throws SQLException { throw unsupported(); }
+	public void releaseSavepoint(Savepoint p1) throws SQLException { throw unsupported(); }
+	public void rollback(Savepoint p1) throws SQLException { throw unsupported(); }
+	public void setHoldability(int p1) throws SQLException { throw unsupported(); }
+	public Savepoint setSavepoint() throws SQLException { throw unsupported(); }
+	public Savepoint setSavepoint(String p1) throws SQLException { throw unsupported(); }
+	public void setTypeMap(Map<String, Class<?>> p1) throws SQLException { throw unsupported(); }
+
+}
@@ -0,0 +1,237 @@
+package pres.nc.maxwell.simplemysqlaccessframework.test;
+/**********************************************************************
+ * 	StandInDatabase.java
+ * 
+ *  StandInDriverһݿ⣬ֻinit.sqlеuserinfoڴɣֻ
+ *  ǰ4init.sql֮ͬΪxiaoming0xiaoming1ڴʱָ
+ *  
+ *  Ĵֻؼ֣SQL
+ *  userinfoSELECTűҳusernameʱֻusernameڵһ
+ *  SELECTSELECT 1һһе1
+ *  INSERT/UPDATE/DELETEȸ䲻޸ݣظ1
+ *  
+ *  ͬһݿӹһʵִеȼڲеļ
+ *  
+ *  ÿνӺִǰStandInFaultsעӳ١ϿӺϺͼ
+ *  ϢSQLStateʹMySQLͬѯʱʹñ׼HYT00߿ͬķжǷҪ
+ *  
+ **********************************************************************/
+
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransactionRollbackException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+
+public class StandInDatabase {
+
+	private static final String[] LABELS = {"id", "username", "password", "gender", "salary"};
+	private static final int[] TYPES = {Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.DOUBLE};
+	
+	/* init.sqlе */
+	private static final Object[][] INIT_ROWS = {
+		{"xiaomi", "360", "male", Double.valueOf(6500.00)},
+		{"test", "test123", "female", Double.valueOf(6000.00)},
+		{"dashi", "123123", "male", Double.valueOf(0.00)},
+		{"maxwell", "nc", "male", Double.valueOf(99999.00)},
+	};
+	
+	private static final InMemoryResultSet ONE = new InMemoryResultSet(
+			new String[]{"1"}, new int[]{Types.INTEGER}, new Object[][]{{Integer.valueOf(1)}});
+	
+	private final String name;
+	private final InMemoryResultSet userinfo;
+	private final HashMap<String, InMemoryResultSet> byUsername = new HashMap<String, InMemoryResultSet>();
+	
+	private final StandInFaults faults = new StandInFaults();
+	
+	/* Ӻţעӳٺ͹ */
+	private final AtomicLong connectSequence = new AtomicLong();
+	private final AtomicLong statementSequence = new AtomicLong();
+	
+	private final LongAdder connections = new LongAdder();
+	private final LongAdder queries = new LongAdder();
+	private final LongAdder updates = new LongAdder();
+	private final LongAdder drops = new LongAdder();
+	private final LongAdder deadlocks = new LongAdder();
+	private final LongAdder timeouts = new LongAdder();
+	
+	
+	/* 췽rowsΪuserinfo */
+	public StandInDatabase(String name,int rows){
+		
+		this.name = name;
+		
+		Object[][] data = new Object[rows][];
+		for(int i = 0;i < rows;i++){
+			Object[] row = i < INIT_ROWS.length ? INIT_ROWS[i]
+					: new Object[]{"xiaoming" + (i - INIT_ROWS.length), "123123", i % 2 == 0 ? "male" : "female", Double.valueOf(5000 + i % 1000)};
+			
+			data[i] = new Object[LABELS.length];
+			data[i][0] = Integer.valueOf(i + 1);
+			System.arraycopy(row, 0, data[i], 1, row.length);
+			
+			byUsername.put((String) row[0], new InMemoryResultSet(LABELS, TYPES, new Object[][]{data[i]}));
+		}
+		
+		userinfo = new InMemoryResultSet(LABELS, TYPES, data);
+	}
+	
+	
+	public String getName() {
+		return name;
+	}
+	
+	
+	/* ô򿪹 */
+	public long getConnectionCount() {
+		return connections.sum();
+	}
+	
+	
+	/* ִйĲѯ */
+	public long getQueryCount() {
+		return queries.sum();
+	}
+	
+	
+	/* ִйĸÿһһ */
+	public long getUpdateCount() {
+		return updates.sum();
+	}
+	
+	
+	/* עӳٺ͹ã޸ĺЧ */
+	public StandInFaults getFaults() {
+		return faults;
+	}
+	
+	
+	/* עĶϿӴ */
+	public long getDropCount() {
+		return drops.sum();
+	}
+	
+	
+	/* ע */
+	public long getDeadlockCount() {
+		return deadlocks.sum();
+	}
+	
+	
+	/* ӳٳĲѯʱsetQueryTimeoutȡĴ */
+	public long getTimeoutCount() {
+		return timeouts.sum();
+	}
+	
+	
+	/* ӣconnectLatencyȴ */
+	void connect() throws SQLException {
+		
+		long sequence = connectSequence.getAndIncrement();
+		pause(faults.getConnectLatency().sampleNanos(faults.random(sequence, StandInFaults.LATENCY)), 0);
+		connections.increment();
+	}
+	
+	
+	/* ִһ䣨һ֮ǰãžǷϿӣȴעӳ٣پǷ
+	 * timeoutSecondsΪĲѯʱ0ʾ */
+	void roundTrip(StandInConnection conn,boolean update,int timeoutSeconds) throws SQLException {
+		
+		long sequence = statementSequence.getAndIncrement();
+		StandInFaults faults = this.faults;
+		
+		if(faults.random(sequence, StandInFaults.DROP) < faults.getDropRate()){
+			drops.increment();
+			conn.drop();
+			throw new SQLNonTransientConnectionException("Communications link failure", "08S01");
+		}
+		
+		StandInLatency latency = update ? faults.getUpdateLatency() : faults.getQueryLatency();
+		if(!pause(latency.sampleNanos(faults.random(sequence, StandInFaults.LATENCY)), timeoutSeconds)){
+			timeouts.increment();
+			throw new SQLTimeoutException("Statement cancelled due to timeout or client request", "HYT00");
+		}
+		
+		if(update && faults.random(sequence, StandInFaults.DEADLOCK) < faults.getDeadlockRate()){
+			deadlocks.increment();
+			throw new SQLTransactionRollbackException("Deadlock found when trying to get lock; try restarting transaction", "40001", 1213);
+		}
+	}
+	
+	
+	/* ȴnanos룬timeoutSecondsʱֻȴtimeoutSeconds벢false̱߳жʱ׳쳣ж״̬ */
+	private static boolean pause(long nanos,int timeoutSeconds) throws SQLException {
+		
+		if(nanos <= 0){
+			return true;
+		}
+		
+		boolean timeout = timeoutSeconds > 0 && nanos > TimeUnit.SECONDS.toNanos(timeoutSeconds);
+		long deadline = System.nanoTime() + (timeout ? TimeUnit.SECONDS.toNanos(timeoutSeconds) : nanos);
+		
+		for(long left = deadline - System.nanoTime();left > 0;left = deadline - System.nanoTime()){
+			LockSupport.parkNanos(left);
+			if(Thread.currentThread().isInterrupted()){
+				throw new SQLException("Query execution was interrupted", "70100", 1317);
+			}
+		}
+		return !timeout;
+	}
+	
+	
+	/* ִвѯparameters[0]Ϊһ */
+	ResultSet query(String sql,Object[] parameters,int parameterCount) {
+		
+		queries.increment();
+		
+		if(!containsIgnoreCase(sql, "userinfo")){
+			return ONE.reopen();
+		}
+		
+		if(parameterCount > 0 && containsIgnoreCase(sql, "username")){
+			InMemoryResultSet rs = byUsername.get(String.valueOf(parameters[0]));
+			return rs == null ? new InMemoryResultSet(LABELS, TYPES, new Object[0][]) : rs.reopen();
+		}
+		
+		return userinfo.reopen();
+	}
+	
+	
+	/* ִи䣬ظ */
+	int update(String sql,Object[] parameters,int parameterCount) {
+		
+		updates.increment();
+		return 1;
+	}
+	
+	
+	/* ִСдңSQLеĹؼֺͱСдܳ */
+	static boolean containsIgnoreCase(String sql,String word) {
+		
+		int length = word.length();
+		for(int i = 0;i + length <= sql.length();i++){
+			if(sql.regionMatches(true, i, word, 0, length)){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	
+	/* еûɲѯ */
+	public List<String> getUsernames() {
+		return new ArrayList<String>(byUsername.keySet());
+	}
+	
+}
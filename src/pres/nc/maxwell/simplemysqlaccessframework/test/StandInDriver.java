@@ -0,0 +1,160 @@
+package pres.nc.maxwell.simplemysqlaccessframework.test;
+/**********************************************************************
+ * 	StandInDriver.java
+ * 
+ *  ڵJDBCMySQLڻ׼ԺͲҪݿĲԣκλظ
+ *  
+ *  URLʽΪ jdbc:standin:ݿ[?rows=&=ֵ...] jdbc:standin:test?rows=1000
+ *  ͬһݿӹһStandInDatabaserowsֻڵһʱЧĬΪinit.sqlе4
+ *  עӳٺ͹ϣStandInFaultsֻͬڵһʱЧ֮ͨgetFaults޸
+ *  û벻
+ *  
+ *  ʱעᵽDriverManagerļurlΪĸʽɣregister()ȷѾ
+ *  
+ **********************************************************************/
+
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+
+public class StandInDriver implements Driver {
+
+	public static final String URL_PREFIX = "jdbc:standin:";
+	
+	private static final ConcurrentHashMap<String, StandInDatabase> databases = new ConcurrentHashMap<String, StandInDatabase>();
+	
+	static {
+		try {
+			DriverManager.registerDriver(new StandInDriver());
+		} 
+		catch (SQLException e) {
+			throw new RuntimeException("StandInDriverעʧ", e);
+		}
+	}
+	
+	
+	/* ȷѾע */
+	public static void register() {
+		//עھ̬ʼ
+	}
+	
+	
+	/* ݿ⣬ûӹʱrowsд */
+	public static StandInDatabase getDatabase(String name,int rows) {
+		
+		StandInDatabase database = databases.get(name);
+		if(database == null){
+			database = new StandInDatabase(name, rows);
+			StandInDatabase old = databases.putIfAbsent(name, database);
+			if(old != null){
+				database = old;
+			}
+		}
+		return database;
+	}
+	
+	
+	/* ݿ⣬֮ͬʹµʵ */
+	public static void dropDatabase(String name) {
+		databases.remove(name);
+	}
+	
+	
+	@Override
+	public Connection connect(String url,Properties info) throws SQLException {
+		
+		if(!acceptsURL(url)){
+			return null;		//URLDriverManager
+		}
+		
+		String name = url.substring(URL_PREFIX.length());
+		String[] pairs = new String[0];
+		int rows = 4;
+		
+		int query = name.indexOf('?');
+		if(query >= 0){
+			pairs = name.substring(query + 1).split("&");
+			for(String pair : pairs){
+				int eq = pair.indexOf('=');
+				if(eq > 0 && pair.substring(0, eq).trim().equals("rows")){
+					rows = Integer.parseInt(pair.substring(eq + 1).trim());
+				}
+			}
+			name = name.substring(0, query);
+		}
+		
+		/* һʱݿ⣬עӳٺ͹ */
+		StandInDatabase database = databases.get(name);
+		if(database == null){
+			database = new StandInDatabase(name, rows);
+			for(String pair : pairs){
+				int eq = pair.indexOf('=');
+				String key = eq > 0 ? pair.substring(0, eq).trim() : pair.trim();
+				if(key.length() > 0 && !key.equals("rows")){
+					if(eq < 0){
+						throw new SQLException("StandInDriver " + key + " ûֵ");
+					}
+					try {
+						database.getFaults().configure(key, pair.substring(eq + 1));
+					}
+					catch (RuntimeException e) {
+						throw new SQLException(e.getMessage(), e);		//󣬰ָʽ
+					}
+				}
+			}
+			
+			StandInDatabase old = databases.putIfAbsent(name, database);
+			if(old != null){
+				database = old;
+			}
+		}
+		
+		database.connect();
+		return new StandInConnection(database);
+	}
+	
+	
+	@Override
+	public boolean acceptsURL(String url) throws SQLException {
+		return url != null && url.startsWith(URL_PREFIX);
+	}
+	
+	
+	@Override
+	public DriverPropertyInfo[] getPropertyInfo(String url,Properties info) throws SQLException {
+		return new DriverPropertyInfo[0];
+	}
+	
+	
+	@Override
+	public int getMajorVersion() {
+		return 1;
+	}
+	
+	
+	@Override
+	public int getMinorVersion() {
+		return 0;
+	}
+	
+	
+	@Override
+	public boolean jdbcCompliant() {
+		return false;
+	}
+	
+	
+	@Override
+	public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+		throw new SQLFeatureNotSupportedException("StandInDriverֵ֧Ĳ");
+	}
+	
+}
@@ -0,0 +1,152 @@
+package pres.nc.maxwell.simplemysqlaccessframework.test;
+/**********************************************************************
+ * 	StandInFaults.java
+ * 
+ *  StandInDatabaseעӳٺ͹ϣURLãֻڵһʱЧҲʱͨsetter޸
+ *  
+ *  URL
+ *  connectLatency          ӵӳٷֲʽStandInLatency
+ *  queryLatency            ÿβѯӳٷֲ
+ *  updateLatency           ÿθ¡ÿӳٷֲ
+ *  dropRate                ÿϿӵĸʣ׳SQLStateΪ08S01쳣֮ر
+ *  deadlockRate            ÿ䣨ÿĸʣ׳SQLStateΪ400011213쳣
+ *  seed                    
+ *  
+ *   jdbc:standin:test?queryLatency=exponential:2&dropRate=0.001&deadlockRate=0.01&seed=42
+ *  
+ *  ظn䣨nӣǷӳٶֻӺnʹùRandom
+ *  ߳ʱȫͬ߳ʱĸִ߳еn䲻ȷźܴͬ
+ *  
+ **********************************************************************/
+
+
+public class StandInFaults {
+
+	/* ͬһӳ١ϿӺʹòͬ */
+	static final int LATENCY = 1;
+	static final int DROP = 2;
+	static final int DEADLOCK = 3;
+	
+	private volatile StandInLatency connectLatency = StandInLatency.NONE;
+	private volatile StandInLatency queryLatency = StandInLatency.NONE;
+	private volatile StandInLatency updateLatency = StandInLatency.NONE;
+	private volatile double dropRate = 0;
+	private volatile double deadlockRate = 0;
+	private volatile long seed = 0;
+	
+	
+	/* URLãnameĲʱ׳RuntimeException */
+	public void configure(String name,String value) {
+		
+		value = value.trim();
+		if(name.equals("connectLatency")){
+			setConnectLatency(StandInLatency.parse(value));
+		}
+		else if(name.equals("queryLatency")){
+			setQueryLatency(StandInLatency.parse(value));
+		}
+		else if(name.equals("updateLatency")){
+			setUpdateLatency(StandInLatency.parse(value));
+		}
+		else if(name.equals("dropRate")){
+			setDropRate(Double.parseDouble(value));
+		}
+		else if(name.equals("deadlockRate")){
+			setDeadlockRate(Double.parseDouble(value));
+		}
+		else if(name.equals("seed")){
+			setSeed(Long.parseLong(value));
+		}
+		else{
+			throw new RuntimeException("StandInFaultsδ֪Ĳ " + name);
+		}
+	}
+	
+	
+	public StandInLatency getConnectLatency() {
+		return connectLatency;
+	}
+	
+	
+	public void setConnectLatency(StandInLatency connectLatency) {
+		this.connectLatency = connectLatency;
+	}
+	
+	
+	public StandInLatency getQueryLatency() {
+		return queryLatency;
+	}
+	
+	
+	public void setQueryLatency(StandInLatency queryLatency) {
+		this.queryLatency = queryLatency;
+	}
+	
+	
+	public StandInLatency getUpdateLatency() {
+		return updateLatency;
+	}
+	
+	
+	public void setUpdateLatency(StandInLatency updateLatency) {
+		this.updateLatency = updateLatency;
+	}
+	
+	
+	public double getDropRate() {
+		return dropRate;
+	}
+	
+	
+	public void setDropRate(double dropRate) {
+		this.dropRate = checkRate(dropRate);
+	}
+	
+	
+	public double getDeadlockRate() {
+		return deadlockRate;
+	}
+	
+	
+	public void setDeadlockRate(double deadlockRate) {
+		this.deadlockRate = checkRate(deadlockRate);
+	}
+	
+	
+	public long getSeed() {
+		return seed;
+	}
+	
+	
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+	
+	
+	private static double checkRate(double rate) {
+		
+		if(rate < 0 || rate > 1){
+			throw new RuntimeException("StandInFaultsʱ01֮");
+		}
+		return rate;
+	}
+	
+	
+	/* sequence¼ĵstream[0,1)ֻӡsequencestreamSplitMix64ĻϺ */
+	double random(long sequence,int stream) {
+		
+		long z = seed + sequence * 0x9E3779B97F4A7C15L + stream * 0xC2B2AE3D27D4EB4FL;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		z = z ^ (z >>> 31);
+		return (z >>> 11) * 0x1.0p-53;
+	}
+	
+	
+	@Override
+	public String toString() {
+		return "connectLatency=" + connectLatency + " queryLatency=" + queryLatency + " updateLatency=" + updateLatency
+				+ " dropRate=" + dropRate + " deadlockRate=" + deadlockRate + " seed=" + seed;
+	}
+	
+}
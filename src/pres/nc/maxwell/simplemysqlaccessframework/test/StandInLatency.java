@@ -0,0 +1,134 @@
+package pres.nc.maxwell.simplemysqlaccessframework.test;
+/**********************************************************************
+ * 	StandInLatency.java
+ * 
+ *  StandInDriverעӳٷֲλΪ루Сɱ
+ *  
+ *  ַʽURLparse
+ *  2                       ̶2룬fixed:2ͬ
+ *  uniform:1:5             15ȷֲ
+ *  exponential:2           ƽ2ֲָнϳβ
+ *  bimodal:1:50:0.01       99%Ϊ1룬1%Ϊ50룬ģżѯ
+ *  
+ *  ʱ[0,1)ͬһǵõͬһӳ٣ɵ֤߱ظ
+ *  
+ **********************************************************************/
+
+
+public final class StandInLatency {
+
+	public static final StandInLatency NONE = new StandInLatency("fixed", 0, 0, 0);
+	
+	private final String kind;
+	private final double a;
+	private final double b;
+	private final double p;
+	
+	
+	private StandInLatency(String kind,double a,double b,double p){
+		
+		if(a < 0 || b < 0 || p < 0 || p > 1){
+			throw new RuntimeException("StandInLatencyӳٲС001֮");
+		}
+		this.kind = kind;
+		this.a = a;
+		this.b = b;
+		this.p = p;
+	}
+	
+	
+	/* ̶ӳ */
+	public static StandInLatency fixed(double millis) {
+		return new StandInLatency("fixed", millis, 0, 0);
+	}
+	
+	
+	/* minMillismaxMillis֮ȷֲ */
+	public static StandInLatency uniform(double minMillis,double maxMillis) {
+		
+		if(maxMillis < minMillis){
+			throw new RuntimeException("StandInLatencyӳٲССӳ");
+		}
+		return new StandInLatency("uniform", minMillis, maxMillis, 0);
+	}
+	
+	
+	/* ƽmeanMillisֲָ */
+	public static StandInLatency exponential(double meanMillis) {
+		return new StandInLatency("exponential", meanMillis, 0, 0);
+	}
+	
+	
+	/* ΪslowFractionӳslowMillisӳfastMillis */
+	public static StandInLatency bimodal(double fastMillis,double slowMillis,double slowFraction) {
+		return new StandInLatency("bimodal", fastMillis, slowMillis, slowFraction);
+	}
+	
+	
+	/* ַʽʽļͷ */
+	public static StandInLatency parse(String text) {
+		
+		String[] parts = text.trim().split(":");
+		try {
+			if(parts.length == 1){
+				return fixed(Double.parseDouble(parts[0]));
+			}
+			
+			String kind = parts[0].toLowerCase();
+			if(kind.equals("fixed") && parts.length == 2){
+				return fixed(Double.parseDouble(parts[1]));
+			}
+			if(kind.equals("uniform") && parts.length == 3){
+				return uniform(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+			}
+			if(kind.equals("exponential") && parts.length == 2){
+				return exponential(Double.parseDouble(parts[1]));
+			}
+			if(kind.equals("bimodal") && parts.length == 4){
+				return bimodal(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]), Double.parseDouble(parts[3]));
+			}
+		}
+		catch (NumberFormatException e) {
+			//ʽ
+		}
+		
+		throw new RuntimeException("StandInLatency޷ӳٷֲ " + text);
+	}
+	
+	
+	/* [0,1)u */
+	public long sampleNanos(double u) {
+		
+		double millis;
+		if(kind.equals("uniform")){
+			millis = a + (b - a) * u;
+		}
+		else if(kind.equals("exponential")){
+			millis = -a * Math.log(1 - u);
+		}
+		else if(kind.equals("bimodal")){
+			millis = u < p ? b : a;
+		}
+		else{
+			millis = a;
+		}
+		return (long) (millis * 1000000);
+	}
+	
+	
+	@Override
+	public String toString() {
+		
+		if(kind.equals("uniform")){
+			return "uniform:" + a + ":" + b;
+		}
+		if(kind.equals("exponential")){
+			return "exponential:" + a;
+		}
+		if(kind.equals("bimodal")){
+			return "bimodal:" + a + ":" + b + ":" + p;
+		}
+		return String.valueOf(a);
+	}
+	
+}
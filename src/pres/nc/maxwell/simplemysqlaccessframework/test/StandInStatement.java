@@ -0,0 +1,524 @@
+package pres.nc.maxwell.simplemysqlaccessframework.test;
+/**********************************************************************
+ * 	StandInStatement.java
+ * 
+ *  StandInConnection䣬ͬʱԤ䣨prepareStatementͨ䣨createStatementsqlΪnull
+ *  űΪִʱSQLһ𽻸StandInDatabase
+ *  ÿһвĸexecuteBatchִ
+ *  ÿִУһһΣStandInDatabase.roundTripעӳٺ͹ϣqueryTimeoutעӳЧ
+ *  
+ *  ֻʵMySqlHelperͳĲõķ׳SQLFeatureNotSupportedException
+ *  
+ **********************************************************************/
+
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+
+
+public class StandInStatement implements PreparedStatement {
+
+	private final StandInConnection connection;
+	private final String sql;		//Ԥ䣬ͨΪnull
+	
+	private Object[] parameters = new Object[8];
+	private int parameterCount = 0;		//Ѿõ
+	
+	private final List<Object[]> batchRows = new ArrayList<Object[]>();
+	private final List<String> batchSql = new ArrayList<String>();
+	
+	private ResultSet resultSet = null;
+	private int updateCount = -1;
+	private boolean closed = false;
+	private boolean closeOnCompletion = false;
+	private boolean poolable = true;
+	private int fetchSize = 0;
+	private int fetchDirection = ResultSet.FETCH_FORWARD;
+	private int maxRows = 0;
+	private int queryTimeout = 0;
+	
+	
+	StandInStatement(StandInConnection connection,String sql){
+		this.connection = connection;
+		this.sql = sql;
+	}
+	
+	
+	private void checkOpen() throws SQLException {
+		if(closed){
+			throw new SQLException("StandInStatementѾر");
+		}
+		connection.checkOpen();
+	}
+	
+	
+	private static SQLException unsupported() {
+		return new SQLFeatureNotSupportedException("StandInStatementֵ֧Ĳ");
+	}
+	
+	
+	/* Ԥ䲻ٴSQLͨ봫SQL */
+	private String statementSql(String sql) throws SQLException {
+		if((this.sql == null) == (sql == null)){
+			throw new SQLException("StandInStatement" + (sql == null ? "ûҪִеSQL" : "Ԥ䲻ִSQL"));
+		}
+		return sql == null ? this.sql : sql;
+	}
+	
+	
+	private ResultSet query(String sql) throws SQLException {
+		checkOpen();
+		sql = statementSql(sql);
+		connection.getDatabase().roundTrip(connection, false, queryTimeout);
+		resultSet = connection.getDatabase().query(sql, parameters, parameterCount);
+		updateCount = -1;
+		return resultSet;
+	}
+	
+	
+	private int update(String sql) throws SQLException {
+		checkOpen();
+		sql = statementSql(sql);
+		resultSet = null;
+		connection.getDatabase().roundTrip(connection, true, queryTimeout);
+		updateCount = connection.getDatabase().update(sql, parameters, parameterCount);
+		return updateCount;
+	}
+	
+	
+	private boolean execute(String sql,boolean unused) throws SQLException {
+		String statement = statementSql(sql).trim();
+		if(statement.regionMatches(true, 0, "SELECT", 0, 6)){
+			query(sql);
+			return true;
+		}
+		update(sql);
+		return false;
+	}
+	
+	
+	/* index1ʼ */
+	private void set(int index,Object value) throws SQLException {
+		checkOpen();
+		if(index < 1){
+			throw new SQLException("StandInStatement " + index + " Χ");
+		}
+		if(index > parameters.length){
+			parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+		}
+		parameters[index - 1] = value;
+		parameterCount = Math.max(parameterCount, index);
+	}
+	
+	
+	@Override
+	public ResultSet executeQuery() throws SQLException {
+		return query(null);
+	}
+	
+	
+	@Override
+	public ResultSet executeQuery(String sql) throws SQLException {
+		return query(sql);
+	}
+	
+	
+	@Override
+	public int executeUpdate() throws SQLException {
+		return update(null);
+	}
+	
+	
+	@Override
+	public int executeUpdate(String sql) throws SQLException {
+		return update(sql);
+	}
+	
+	
+	@Override
+	public boolean execute() throws SQLException {
+		return execute(null, false);
+	}
+	
+	
+	@Override
+	public boolean execute(String sql) throws SQLException {
+		return execute(sql, false);
+	}
+	
+	
+	@Override
+	public void addBatch() throws SQLException {
+		checkOpen();
+		batchRows.add(Arrays.copyOf(parameters, parameterCount));
+	}
+	
+	
+	@Override
+	public void addBatch(String sql) throws SQLException {
+		checkOpen();
+		batchSql.add(statementSql(sql));
+	}
+	
+	
+	@Override
+	public void clearBatch() throws SQLException {
+		batchRows.clear();
+		batchSql.clear();
+	}
+	
+	
+	@Override
+	public int[] executeBatch() throws SQLException {
+		checkOpen();
+		
+		try {
+			connection.getDatabase().roundTrip(connection, true, queryTimeout);
+		}
+		catch (SQLException e) {
+			clearBatch();
+			throw e;
+		}
+		
+		int[] counts;
+		if(sql == null){
+			counts = new int[batchSql.size()];
+			for(int i = 0;i < counts.length;i++){
+				counts[i] = connection.getDatabase().update(batchSql.get(i), parameters, 0);
+			}
+		}
+		else{
+			counts = new int[batchRows.size()];
+			for(int i = 0;i < counts.length;i++){
+				Object[] row = batchRows.get(i);
+				counts[i] = connection.getDatabase().update(sql, row, row.length);
+			}
+		}
+		
+		clearBatch();
+		return counts;
+	}
+	
+	
+	@Override
+	public void clearParameters() throws SQLException {
+		Arrays.fill(parameters, 0, parameterCount, null);
+		parameterCount = 0;
+	}
+	
+	
+	@Override
+	public void close() throws SQLException {
+		closed = true;
+	}
+	
+	
+	@Override
+	public boolean isClosed() throws SQLException {
+		return closed;
+	}
+	
+	
+	@Override
+	public void closeOnCompletion() throws SQLException {
+		closeOnCompletion = true;
+	}
+	
+	
+	@Override
+	public boolean isCloseOnCompletion() throws SQLException {
+		return closeOnCompletion;
+	}
+	
+	
+	@Override
+	public void cancel() throws SQLException {
+		//ѾȫڴУûҪȡĲ
+	}
+	
+	
+	@Override
+	public Connection getConnection() throws SQLException {
+		return connection;
+	}
+	
+	
+	@Override
+	public ResultSet getResultSet() throws SQLException {
+		return resultSet;
+	}
+	
+	
+	@Override
+	public int getUpdateCount() throws SQLException {
+		return updateCount;
+	}
+	
+	
+	@Override
+	public boolean getMoreResults() throws SQLException {
+		resultSet = null;
+		updateCount = -1;
+		return false;
+	}
+	
+	
+	@Override
+	public void setString(int index,String value) throws SQLException {
+		set(index, value);
+	}
+	
+	
+	@Override
+	public void setInt(int index,int value) throws SQLException {
+		set(index, Integer.valueOf(value));
+	}
+	
+	
+	@Override
+	public void setLong(int index,long value) throws SQLException {
+		set(index, Long.valueOf(value));
+	}
+	
+	
+	@Override
+	public void setDouble(int index,double value) throws SQLException {
+		set(index, Double.valueOf(value));
+	}
+	
+	
+	@Override
+	public void setFloat(int index,float value) throws SQLException {
+		set(index, Float.valueOf(value));
+	}
+	
+	
+	@Override
+	public void setShort(int index,short value) throws SQLException {
+		set(index, Short.valueOf(value));
+	}
+	
+	
+	@Override
+	public void setByte(int index,byte value) throws SQLException {
+		set(index, Byte.valueOf(value));
+	}
+	
+	
+	@Override
+	public void setBoolean(int index,boolean value) throws SQLException {
+		set(index, Boolean.valueOf(value));
+	}
+	
+	
+	@Override
+	public void setBigDecimal(int index,BigDecimal value) throws SQLException {
+		set(index, value);
+	}
+	
+	
+	@Override
+	public void setBytes(int index,byte[] value) throws SQLException {
+		set(index, value);
+	}
+	
+	
+	@Override
+	public void setTimestamp(int index,Timestamp value) throws SQLException {
+		set(index, value);
+	}
+	
+	
+	@Override
+	public void setNull(int index,int sqlType) throws SQLException {
+		set(index, null);
+	}
+	
+	
+	@Override
+	public void setObject(int index,Object value) throws SQLException {
+		set(index, value);
+	}
+	
+	
+	@Override
+	public void setFetchSize(int rows) throws SQLException {
+		fetchSize = rows;		//MySQLInteger.MIN_VALUEʾʽȡﲻ
+	}
+	
+	
+	@Override
+	public int getFetchSize() throws SQLException {
+		return fetchSize;
+	}
+	
+	
+	@Override
+	public void setFetchDirection(int direction) throws SQLException {
+		fetchDirection = direction;
+	}
+	
+	
+	@Override
+	public int getFetchDirection() throws SQLException {
+		return fetchDirection;
+	}
+	
+	
+	@Override
+	public void setMaxRows(int max) throws SQLException {
+		maxRows = max;
+	}
+	
+	
+	@Override
+	public int getMaxRows() throws SQLException {
+		return maxRows;
+	}
+	
+	
+	@Override
+	public void setQueryTimeout(int seconds) throws SQLException {
+		queryTimeout = seconds;
+	}
+	
+	
+	@Override
+	public int getQueryTimeout() throws SQLException {
+		return queryTimeout;
+	}
+	
+	
+	@Override
+	public void setPoolable(boolean poolable) throws SQLException {
+		this.poolable = poolable;
+	}
+	
+	
+	@Override
+	public boolean isPoolable() throws SQLException {
+		return poolable;
+	}
+	
+	
+	@Override
+	public void setEscapeProcessing(boolean enable) throws SQLException {
+	}
+	
+	
+	@Override
+	public int getResultSetType() throws SQLException {
+		return ResultSet.TYPE_FORWARD_ONLY;
+	}
+	
+	
+	@Override
+	public int getResultSetConcurrency() throws SQLException {
+		return ResultSet.CONCUR_READ_ONLY;
+	}
+	
+	
+	@Override
+	public SQLWarning getWarnings() throws SQLException {
+		return null;
+	}
+	
+	
+	@Override
+	public void clearWarnings() throws SQLException {
+	}
+	
+	
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return iface.isInstance(this);
+	}
+	
+	
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		if(iface.isInstance(this)){
+			return iface.cast(this);
+		}
+		throw unsupported();
+	}
+	
+	
+	
+	/* ·֧ */
+	public boolean execute(String p1,int p2) throws SQLException { throw unsupported(); }
+	public boolean execute(String p1,int[] p2) throws SQLException { throw unsupported(); }
+	public boolean execute(String p1,String[] p2) throws SQLException { throw unsupported(); }
+	public int executeUpdate(String p1,int p2) throws SQLException { throw unsupported(); }
+	public int executeUpdate(String p1,int[] p2) throws SQLException { throw unsupported(); }
+	public int executeUpdate(String p1,String[] p2) throws SQLException { throw unsupported(); }
+	public ResultSet getGeneratedKeys() throws SQLException { throw unsupported(); }
+	public int getMaxFieldSize() throws SQLException { throw unsupported(); }
+	public ResultSetMetaData getMetaData() throws SQLException { throw unsupported(); }
+	public boolean getMoreResults(int p1) throws SQLException { throw unsupported(); }
+	public ParameterMetaData getParameterMetaData() throws SQLException { throw unsupported(); }
+	public int getResultSetHoldability() throws SQLException { throw unsupported(); }
+	public void setArray(int p1,Array p2) throws SQLException { throw unsupported(); }
+	public void setAsciiStream(int p1,InputStream p2) throws SQLException { throw unsupported(); }
+	public void setAsciiStream(int p1,InputStream p2,int p3) throws SQLException { throw unsupported(); }
+	public void setAsciiStream(int p1,InputStream p2,long p3) throws SQLException { throw unsupported(); }
+	public void setBinaryStream(int p1,InputStream p2) throws SQLException { throw unsupported(); }
+	public void setBinaryStream(int p1,InputStream p2,int p3) throws SQLException { throw unsupported(); }
+	public void setBinaryStream(int p1,InputStream p2,long p3) throws SQLException { throw unsupported(); }
+	public void setBlob(int p1,InputStream p2) throws SQLException { throw unsupported(); }
+	public void setBlob(int p1,InputStream p2,long p3) throws SQLException { throw unsupported(); }
+	public void setBlob(int p1,Blob p2) throws SQLException { throw unsupported(); }
+	public void setCharacterStream(int p1,Reader p2) throws SQLException { throw unsupported(); }
+	public void setCharacterStream(int p1,Reader p2,int p3) throws SQLException { throw unsupported(); }
+	public void setCharacterStream(int p1,Reader p2,long p3) throws SQLException { throw unsupported(); }
+	public void setClob(int p1,Reader p2) throws SQLException { throw unsupported(); }
+	public void setClob(int p1,Reader p2,long p3) throws SQLException { throw unsupported(); }
+	public void setClob(int p1,Clob p2) throws SQLException { throw unsupported(); }
+	public void setCursorName(String p1) throws SQLException { throw unsupported(); }
+	public void setDate(int p1,Date p2) throws SQLException { throw unsupported(); }
+	public void setDate(int p1,Date p2,Calendar p3) throws SQLException { throw unsupported(); }
+	public void setMaxFieldSize(int p1) throws SQLException { throw unsupported(); }
+	public void setNCharacterStream(int p1,Reader p2) throws SQLException { throw unsupported(); }
+	public void setNCharacterStream(int p1,Reader p2,long p3) throws SQLException { throw unsupported(); }
+	public void setNClob(int p1,Reader p2) throws SQLException { throw unsupported(); }
+	public void setNClob(int p1,Reader p2,long p3) throws SQLException { throw unsupported(); }
+	public void setNClob(int p1,NClob p2) throws SQLException { throw unsupported(); }
+	public void setNString(int p1,String p2) throws SQLException { throw unsupported(); }
+	public void setNull(int p1,int p2,String p3) throws SQLException { throw unsupported(); }
+	public void setObject(int p1,Object p2,int p3) throws SQLException { throw unsupported(); }
+	public void setObject(int p1,Object p2,int p3,int p4) throws SQLException { throw unsupported(); }
+	public void setRef(int p1,Ref p2) throws SQLException { throw unsupported(); }
+	public void setRowId(int p1,RowId p2) throws SQLException { throw unsupported(); }
+	public void setSQLXML(int p1,SQLXML p2) throws SQLException { throw unsupported(); }
+	public void setTime(int p1,Time p2) throws SQLException { throw unsupported(); }
+	public void setTime(int p1,Time p2,Calendar p3) throws SQLException { throw unsupported(); }
+	public void setTimestamp(int p1,Timestamp p2,Calendar p3) throws SQLException { throw unsupported(); }
+	public void setURL(int p1,URL p2) throws SQLException { throw unsupported(); }
+	@SuppressWarnings("deprecation")
+	public void setUnicodeStream(int p1,InputStream p2,int p3) throws SQLException { throw unsupported(); }
+
+}
@@ -8,9 +8,24 @@ package pres.nc.maxwell.simplemysqlaccessframework.test;
  *  
  *  testSelectInSingleTaskSQLѯ
  *  testSelectInMultiTaskSQLѯÿһ̣߳
+ *  testStreamInSingleTaskSQLʽѯлص
+ *  testDetachedSelectInSingleTaskSQLѯ񣨷ʽ
+ *  testMappedSelectInSingleTaskSQLѯÿһתΪUserInfo
+ *  testCachedSelectInSingleTaskԿѯSQLѯԼº󻺴ʧЧ
+ *  testReplicaSelectInMultiTaskԶд룬ѯڸִУºȡҪreplicaUrls
+ *  testShardedSelectInMultiTaskԷƬ·ɣûѯƬԼзƬѯ
+ *  testConnectionLifetimeInSingleTaskӵںͷϿӺӳԶ滻
+ *  testPrefillInMultiTaskʱдӣ֮ĲѯҪȴ
+ *  testElasticPoolInMultiTaskʱޣ渺ӣкٵ
+ *  testMetricsInMultiTaskӳغ̳߳صͳϢԼͨJMXȡ
+ *  testSlowQueryLogInMultiTaskSQL־ƴ˲ͬ䰴ͬһSQLָͳ
+ *  testFlightRecorderInMultiTaskԻȡӡִŶӵJFR¼Լ־
+ *  testFaultInjectionInMultiTaskStandInDriverעӳ١ϿӺҪݿ⣩
+ *  testLoadInMultiTaskԸزԣͱջм룬ӳٵİٷλÿҪݿ⣩
  *  
  *  testUpdateInSingleTaskSQL²Update
  *  testInsertInSingleTaskSQL²Insert 
+ *  testTypedUpdateInSingleTaskSQL²Update񣨴͵Ĳ
  *  testDeleteInSingleTaskSQL²Delete
  *  
  *  testInsertInMultiTaskSQL²Insertÿһ̣߳
@@ -19,17 +34,55 @@ package pres.nc.maxwell.simplemysqlaccessframework.test;
  *  
  *  testMixUpdateInMultiTaskSQL²Insert/Update/Deleteϣÿһ̣߳
  *  
- *  testTransactionInSingleTaskSQL
+ *  testTransactionInSingleTaskSQL񣨷ÿĸͬϲΪ
  *  
  *  testCreateInSingleTaskSQL²Create
  *  
+ *  testBatchInSingleTaskSQLInsert񣨷ͣ
+ *  testCoalescedInsertInMultiTaskԿºϲSQL²Insert
+ *  testAsyncInMultiTask첽ӿڣ϶ѯ͸£ʧܵĲõԭ쳣
+ *  testVirtualThreadSelectInMultiTaskִ߳ģʽµSQLѯԶ
+ *  
  **********************************************************************/
 
 
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.lang.management.ManagementFactory;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
 import org.junit.Test;
 
+import pres.nc.maxwell.simplemysqlaccessframework.DetachedResultSet;
+import pres.nc.maxwell.simplemysqlaccessframework.HashShardStrategy;
+import pres.nc.maxwell.simplemysqlaccessframework.MetricsSnapshot;
+import pres.nc.maxwell.simplemysqlaccessframework.MySqlHelper;
+import pres.nc.maxwell.simplemysqlaccessframework.PooledConnection;
+import pres.nc.maxwell.simplemysqlaccessframework.RowHandler;
+import pres.nc.maxwell.simplemysqlaccessframework.ShardRouter;
+import pres.nc.maxwell.simplemysqlaccessframework.SqlFingerprintStats;
+import pres.nc.maxwell.simplemysqlaccessframework.SqlCallback;
+import pres.nc.maxwell.simplemysqlaccessframework.SqlParameters;
 import pres.nc.maxwell.simplemysqlaccessframework.ThreadPoolPack;
 
 
@@ -44,7 +97,7 @@ public class TestClient {
 		/* ļ̳߳ػ̳߳߳߳ == ӳ */
 		ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,5);
 		
-		/*̳߳أ߳Ϊ1̻߳ʱ䣨long0*/
+		/*̳߳أ߳Ϊ5Ծͬͬʱύ20񣬱̻߳ʱ䣨long0*/
 		tp.createThreadPool(20, 0L);
 		
 		/* ύ̳߳ */
@@ -68,7 +121,7 @@ public class TestClient {
 		/* ļ̳߳ػ̳߳߳߳ == ӳ */
 		ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,5);
 		
-		/*̳߳أ߳Ϊ1̻߳ʱ䣨long0*/
+		/*̳߳أ߳Ϊ5Ծͬͬʱύ20񣬱̻߳ʱ䣨long0*/
 		tp.createThreadPool(20, 0L);
 		
 		/* ظύ */
@@ -83,9 +136,9 @@ public class TestClient {
 			future[i] = tp.submitSqlQuery(sql);
 		}
 		
-		/* ӡ
-		 * עʹõжgetCompletedTaskCount(),߳̿ڱ̳߳ؾܾ޷ִ */
-		for(int i=0;i<tp.getCompletedTaskCount();i++){			
+		/* ӡgetResultȴÿɣĬϵύBLOCKܾ
+		 * ֻӳٺtestLoadInMultiTaskLoadTest */
+		for(int i=0;i<future.length;i++){			
 			ResultSet rs = (ResultSet) tp.getResult(future[i]);
 			tp.printResultSet(rs,"userName","password","gender","salary");
 			tp.closeResultSet(rs);
@@ -96,6 +149,493 @@ public class TestClient {
 	}
 	
 	
+	/* SQLʽѯлص */
+	@Test
+	public void testStreamInSingleTask(){
+
+		/* ļ̳߳ػ̳߳߳߳ == ӳ */
+		ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,5);
+		
+		/*̳߳أ߳Ϊ5Ծͬͬʱύ20񣬱̻߳ʱ䣨long0*/
+		tp.createThreadPool(20, 0L);
+		
+		/* ύ̳߳أÿһִ߳дӡ */
+		String sql = "SELECT * FROM userinfo";
+		Future<Long> future = tp.submitSqlStream(sql, new RowHandler() {
+			
+			@Override
+			public boolean handleRow(ResultSet rs) throws SQLException {
+				System.out.println("userName:" + rs.getString("userName") + " salary:" + rs.getString("salary"));
+				return true;
+			}
+		});
+		
+		Long rows = (Long) tp.getResult(future);
+		System.out.println("ThreadPoolPackʽѯִϣ " + rows + " ");
+
+		tp.shutdownThreadPool();
+		tp.closeAllConnections();
+	}
+	
+	
+	/* SQLѯ񣨷ʽ */
+	@Test
+	public void testDetachedSelectInSingleTask(){
+
+		/* ļ̳߳ػ̳߳߳߳ == ӳ */
+		ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,5);
+		
+		/*̳߳أ߳Ϊ5Ծͬͬʱύ20񣬱̻߳ʱ䣨long0*/
+		tp.createThreadPool(20, 0L);
+		
+		/* ύ̳߳ */
+		String sql = "SELECT * FROM userinfo";
+		Future<DetachedResultSet> future = tp.submitSqlQueryDetached(sql);
+		
+		/* ýӡռӣҪر */
+		DetachedResultSet rs = (DetachedResultSet) tp.getResult(future);
+		int userName = rs.findColumn("userName");
+		int salary = rs.findColumn("salary");
+		while(rs.next()){
+			System.out.println("userName:" + rs.getString(userName));
+			System.out.println("salary:" + rs.getDouble(salary));
+			System.out.println();
+		}
+
+		tp.shutdownThreadPool();
+		tp.closeAllConnections();
+	}
+	
+	
+	/* SQLѯÿһתΪUserInfo */
+	@Test
+	public void testMappedSelectInSingleTask(){
+
+		/* ļ̳߳ػ̳߳߳߳ == ӳ */
+		ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,5);
+		
+		/*̳߳أ߳Ϊ5Ծͬͬʱύ20񣬱̻߳ʱ䣨long0*/
+		tp.createThreadPool(20, 0L);
+		
+		/* ύ̳߳أͬһSQLڶβѯʱֱʹûת */
+		String sql = "SELECT * FROM userinfo WHERE salary > ?";
+		for(int i = 0;i < 2;i++){
+			Future<List<UserInfo>> future = tp.submitSqlQuery(sql, UserInfo.class, "1000");
+			
+			@SuppressWarnings("unchecked")
+			List<UserInfo> users = (List<UserInfo>) tp.getResult(future);
+			for(UserInfo user : users){
+				System.out.println(user);
+			}
+			System.out.println();
+		}
+
+		tp.shutdownThreadPool();
+		tp.closeAllConnections();
+	}
+	
+	
+	/* ԿѯSQLѯԼº󻺴ʧЧ */
+	@Test
+	public void testCachedSelectInSingleTask(){
+
+		/* ļ̳߳ػ̳߳߳߳ == ӳ */
+		ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,5);
+		
+		/*̳߳أ߳Ϊ5Ծͬͬʱύ20񣬱̻߳ʱ䣨long0*/
+		tp.createThreadPool(20, 0L);
+		
+		/* ໺100ռ1MBڴ棬Ч10 */
+		tp.enableQueryResultCache(100, 1024 * 1024, 10000);
+		
+		/* һβѯݿ⣬ڶл */
+		String sql = "SELECT * FROM userinfo WHERE username = ?";
+		for(int i = 0;i < 2;i++){
+			DetachedResultSet rs = (DetachedResultSet) tp.getResult(tp.submitSqlQueryDetached(sql, "maxwell"));
+			while(rs.next()){
+				System.out.println("salary:" + rs.getDouble("salary"));
+			}
+		}
+		System.out.println("ThreadPoolPack" + tp.getQueryResultCacheStats());
+		
+		/* userinfo֮󣬻ĽʧЧٴβѯݿ */
+		tp.printUpdateResult(tp.submitSqlUpdate("UPDATE userinfo SET salary=salary+1 WHERE username = ?", "maxwell"));
+		DetachedResultSet rs = (DetachedResultSet) tp.getResult(tp.submitSqlQueryDetached(sql, "maxwell"));
+		while(rs.next()){
+			System.out.println("salary:" + rs.getDouble("salary"));
+		}
+		System.out.println("ThreadPoolPack" + tp.getQueryResultCacheStats());
+
+		tp.shutdownThreadPool();
+		tp.closeAllConnections();
+	}
+	
+	
+	/* Զд룺ѯԷ䵽ִУȡºĽ */
+	@Test
+	public void testReplicaSelectInMultiTask(){
+
+		/* ļ̳߳ػ̳߳߳߳ == ӳ */
+		ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,5);
+		
+		/*̳߳أ߳Ϊ5Ծͬͬʱύ20񣬱̻߳ʱ䣨long0*/
+		tp.createThreadPool(20, 0L);
+		
+		/* ûøʱвѯִ */
+		System.out.println("ThreadPoolPack " + tp.getReplicaCount());
+		if(tp.getReplicaCount() > 0){
+			tp.setReplicaBalance(ThreadPoolPack.ReplicaBalance.LEAST_OUTSTANDING);
+		}
+		
+		/* ظύѯ */
+		int repeatTimes = 50;
+		
+		List<Future<DetachedResultSet>> futures = new ArrayList<Future<DetachedResultSet>>();
+		for(int i = 0;i < repeatTimes;i++){
+			futures.add(tp.submitSqlQueryDetached("SELECT * FROM userinfo WHERE username = ?", "maxwell"));
+		}
+		for(Future<DetachedResultSet> future : futures){
+			tp.getResult(future);
+		}
+		System.out.print(tp.getReplicaStatus());
+		
+		/* ֮ȡܸӳٵӰ */
+		tp.printUpdateResult(tp.submitSqlUpdate("UPDATE userinfo SET salary=salary+1 WHERE username = ?", "maxwell"));
+		DetachedResultSet rs = (DetachedResultSet) tp.getResult(tp.submitSqlQueryDetachedFromPrimary("SELECT * FROM userinfo WHERE username = ?", "maxwell"));
+		while(rs.next()){
+			System.out.println("salary:" + rs.getDouble("salary"));
+		}
+
+		tp.shutdownThreadPool();
+		tp.closeAllConnections();
+	}
+	
+	
+	/* ԷƬ·ɣûѯƬԼзƬѯ */
+	@Test
+	public void testShardedSelectInMultiTask(){
+
+		/* ƬʹͬһļʵʹʱÿƬӲͬĿ */
+		ThreadPoolPack shard0 = new ThreadPoolPack(SETTING_FILE,5);
+		ThreadPoolPack shard1 = new ThreadPoolPack(SETTING_FILE,5);
+		shard0.createThreadPool(10, 0L);
+		shard1.createThreadPool(10, 0L);
+		
+		ShardRouter router = new ShardRouter(new HashShardStrategy(), shard0, shard1);
+		
+		/* ƬѯƬڵĿ */
+		System.out.println("ShardRoutermaxwell ڷƬ " + router.shardOf("maxwell"));
+		DetachedResultSet rs = (DetachedResultSet) shard0.getResult(router.submitSqlQueryDetached("maxwell", "SELECT * FROM userinfo WHERE username = ?", "maxwell"));
+		while(rs.next()){
+			System.out.println("username:" + rs.getString("username") + " salary:" + rs.getDouble("salary"));
+		}
+		
+		/* зƬʴӸߵ͹鲢ȡǰ3 */
+		rs = router.submitSqlQueryAllShards("SELECT username,salary FROM userinfo", "salary DESC", 0, 3).join();
+		while(rs.next()){
+			System.out.println("username:" + rs.getString("username") + " salary:" + rs.getDouble("salary"));
+		}
+
+		router.shutdownThreadPools();
+		router.closeAllConnections();
+	}
+	
+	
+	/* ӵںͷϿӺӳԶ滻 */
+	@Test
+	public void testConnectionLifetimeInSingleTask() throws IOException, InterruptedException{
+
+		/* ֱʹMySqlHelperʹ1룬г100ʹǰ */
+		Properties pp = new Properties();
+		FileInputStream fis = new FileInputStream(SETTING_FILE);
+		pp.load(fis);
+		fis.close();
+		
+		MySqlHelper helper = new MySqlHelper(pp.getProperty("url"), pp.getProperty("userName"), pp.getProperty("password"), 1);
+		helper.setMaxLifetime(1000);
+		helper.setConnectionValidation(100, 5);
+		
+		PooledConnection pooledConn = helper.acquireConnection();
+		System.out.println("connection:" + Integer.toHexString(pooledConn.getConnection().hashCode()));
+		helper.releaseConnection(pooledConn);
+		
+		/* ںȡµ */
+		Thread.sleep(1500);
+		pooledConn = helper.acquireConnection();
+		System.out.println("connection:" + Integer.toHexString(pooledConn.getConnection().hashCode()));
+		
+		/* ú̵ܶwait_timeoutгʱӱϿȡʱʧܲ´ */
+		helper.executeUpdate(pooledConn, "SET SESSION wait_timeout = 1");
+		helper.releaseConnection(pooledConn);
+		Thread.sleep(2000);
+		
+		pooledConn = helper.acquireConnection();
+		DetachedResultSet rs = helper.executeDetachedQuery(pooledConn, "SELECT * FROM userinfo");
+		System.out.println("connection:" + Integer.toHexString(pooledConn.getConnection().hashCode()) + " rows:" + rs.getRowCount());
+		helper.releaseConnection(pooledConn);
+		
+		helper.closeAllConnections();
+	}
+	
+	
+	/* ʱдӣ֮ĲѯҪȴ */
+	@Test
+	public void testPrefillInMultiTask() throws IOException{
+
+		Properties pp = new Properties();
+		FileInputStream fis = new FileInputStream(SETTING_FILE);
+		pp.load(fis);
+		fis.close();
+		
+		/* д5 */
+		MySqlHelper helper = new MySqlHelper(pp.getProperty("url"), pp.getProperty("userName"), pp.getProperty("password"), 5);
+		System.out.println("created:" + helper.prefillConnections(5));
+		
+		/* 5ͬʱʹãٴµ */
+		List<PooledConnection> pooledConns = new ArrayList<PooledConnection>();
+		long start = System.nanoTime();
+		for(int i = 0;i < 5;i++){
+			pooledConns.add(helper.acquireConnection());
+		}
+		System.out.println("acquire 5 connections:" + (System.nanoTime() - start) / 1000 + "us");
+		
+		for(PooledConnection pooledConn : pooledConns){
+			helper.releaseConnection(pooledConn);
+		}
+		helper.closeAllConnections();
+	}
+	
+	
+	/* ʱޣ渺ӣкٵ */
+	@Test
+	public void testElasticPoolInMultiTask() throws InterruptedException{
+
+		/* ļ̳߳ػ̳߳߳߳ == ӳ */
+		ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,10);
+		
+		/*̳߳أ߳Ϊ10Ծͬͬʱύ20񣬱̻߳ʱ䣨long0*/
+		tp.createThreadPool(20, 0L);
+		
+		/* 2ӣ5 */
+		tp.setConnectionPoolSize(2, 5);
+		System.out.println("connections:" + tp.getConnectionCount());
+		
+		/* ͬʱύĲѯʱӵ */
+		List<Future<DetachedResultSet>> futures = new ArrayList<Future<DetachedResultSet>>();
+		for(int i = 0;i < 50;i++){
+			futures.add(tp.submitSqlQueryDetached("SELECT SLEEP(0.01)"));
+		}
+		for(Future<DetachedResultSet> future : futures){
+			tp.getResult(future);
+		}
+		System.out.println("connections:" + tp.getConnectionCount());
+		
+		/* С޺Ŀر */
+		tp.setConnectionPoolSize(2, 2);
+		System.out.println("connections:" + tp.getConnectionCount());
+
+		tp.shutdownThreadPool();
+		tp.closeAllConnections();
+	}
+	
+	
+	/* ӳغ̳߳صͳϢԼͨJMXȡ */
+	@Test
+	public void testMetricsInMultiTask() throws JMException{
+		
+		/* ļ̳߳ػ̳߳߳߳ == ӳ */
+		ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,10);
+		
+		/*̳߳أ߳Ϊ10Ծͬͬʱύ20񣬱̻߳ʱ䣨long0*/
+		tp.createThreadPool(20, 0L);
+		tp.registerMBean("testMetrics");
+		
+		List<Future<DetachedResultSet>> futures = new ArrayList<Future<DetachedResultSet>>();
+		for(int i = 0;i < 100;i++){
+			futures.add(tp.submitSqlQueryDetached("SELECT * FROM userinfo"));
+		}
+		for(Future<DetachedResultSet> future : futures){
+			tp.getResult(future);
+		}
+		
+		/* ѯĴʱֲȡӵĵȴʱŶʱ */
+		MetricsSnapshot snapshot = tp.getMetricsSnapshot();
+		System.out.println(snapshot);
+		
+		/* ͨJMXȡԣӳٵĵλΪ΢ */
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName("pres.nc.maxwell.simplemysqlaccessframework:type=ThreadPoolPack,name=testMetrics");
+		System.out.println("QueryCount:" + server.getAttribute(name, "QueryCount"));
+		System.out.println("QueryP99Micros:" + server.getAttribute(name, "QueryP99Micros"));
+		
+		tp.shutdownThreadPool();
+		tp.closeAllConnections();		//ͬʱȡע
+	}
+	
+	
+	/* SQL־ƴ˲ͬ䰴ͬһSQLָͳ */
+	@Test
+	public void testSlowQueryLogInMultiTask(){
+		
+		/* ļ̳߳ػ̳߳߳߳ == ӳ */
+		ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,10);
+		
+		/*̳߳أ߳Ϊ10Ծͬͬʱύ20񣬱̻߳ʱ䣨long0*/
+		tp.createThreadPool(20, 0L);
+		
+		/* 50׼ÿִжͳƣͳ100ָ */
+		tp.enableSlowQueryLog(50, 1, 100, null);
+		
+		List<Future<DetachedResultSet>> futures = new ArrayList<Future<DetachedResultSet>>();
+		for(int i = 0;i < 20;i++){
+			futures.add(tp.submitSqlQueryDetached("SELECT * FROM userinfo WHERE username = 'xiaoming" + i + "'"));
+		}
+		futures.add(tp.submitSqlQueryDetached("SELECT SLEEP(0.1)"));
+		for(Future<DetachedResultSet> future : futures){
+			tp.getResult(future);
+		}
+		
+		/* 20ѯֻһָƣselect * from userinfo where username = ? */
+		for(SqlFingerprintStats stats : tp.getSqlFingerprintStats()){
+			System.out.println(stats);
+		}
+		System.out.println("slow queries:" + tp.getSlowQueryCount());
+		
+		tp.shutdownThreadPool();
+		tp.closeAllConnections();
+	}
+	
+	
+	/* ԻȡӡִŶӵJFR¼Լ־ */
+	@Test
+	public void testFlightRecorderInMultiTask() throws IOException{
+		
+		/* ļ̳߳ػ̳߳߳߳ == ӳ */
+		ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,10);
+		
+		/*̳߳أ߳Ϊ10Ծͬͬʱύ20񣬱̻߳ʱ䣨long0*/
+		tp.createThreadPool(20, 0L);
+		
+		/* ʼ¼ܵ¼Ҳ-XX:StartFlightRecordingjcmd JFR.start */
+		Recording recording = new Recording();
+		for(String name : new String[]{ "ConnectionAcquire", "StatementExecute", "Transaction", "QueueWait" }){
+			recording.enable("pres.nc.maxwell.simplemysqlaccessframework." + name).withoutThreshold();
+		}
+		recording.start();
+		
+		List<Future<DetachedResultSet>> futures = new ArrayList<Future<DetachedResultSet>>();
+		for(int i = 0;i < 20;i++){
+			futures.add(tp.submitSqlQueryDetached("SELECT * FROM userinfo"));
+		}
+		for(Future<DetachedResultSet> future : futures){
+			tp.getResult(future);
+		}
+		
+		recording.stop();
+		Path file = Files.createTempFile("testFlightRecorder", ".jfr");
+		recording.dump(file);
+		recording.close();
+		
+		/* ÿβѯһȡӡһִһŶ¼ */
+		for(RecordedEvent event : RecordingFile.readAllEvents(file)){
+			System.out.println(event.getEventType().getLabel() + " " + event.getDuration().toNanos() / 1000 + "us");
+		}
+		Files.delete(file);
+		
+		/* ־ÿλõ */
+		ThreadPoolPack.setDebugLog(true);
+		tp.getResult(tp.submitSqlQueryDetached("SELECT * FROM userinfo"));
+		ThreadPoolPack.setDebugLog(false);
+		
+		tp.shutdownThreadPool();
+		tp.closeAllConnections();
+	}
+	
+	
+	/* StandInDriverעӳ١ϿӺҪݿ⣻ͬÿгĴͬ */
+	@Test
+	public void testFaultInjectionInMultiTask(){
+		
+		StandInDriver.register();
+		StandInDriver.dropDatabase("faults");
+		
+		/* ѯƽӳ2룬13룻2%Ͽӣ5%ĸ */
+		MySqlHelper helper = new MySqlHelper(StandInDriver.URL_PREFIX + "faults?queryLatency=exponential:2&updateLatency=uniform:1:3"
+				+ "&dropRate=0.02&deadlockRate=0.05&seed=42", "", "", 4);
+		
+		int failures = 0;
+		for(int i = 0;i < 200;i++){
+			
+			PooledConnection pooledConn = helper.acquireConnection();
+			try {
+				if(i % 2 == 0){
+					helper.executeDetachedQuery(pooledConn, "SELECT * FROM userinfo WHERE username = ?", "maxwell");
+				}
+				else{
+					helper.executeUpdate(pooledConn, "UPDATE userinfo SET salary = ? WHERE username = ?", "7000", "maxwell");
+				}
+			} 
+			catch (RuntimeException e) {
+				failures++;
+				SQLException cause = (SQLException) e.getCause();
+				System.out.println(" " + i + " ʧܣ" + cause.getSQLState() + " " + cause.getMessage());
+			}
+			finally {
+				helper.releaseConnection(pooledConn);		//Ͽڹ黹ʱرգ´λȡʱ´
+			}
+		}
+		
+		StandInDatabase database = StandInDriver.getDatabase("faults", 4);
+		System.out.println("ʧ " + failures + " ΣϿ " + database.getDropCount() + " Σ " + database.getDeadlockCount()
+				+ " Σ " + database.getConnectionCount() + " ");
+		
+		helper.closeAllConnections();
+		StandInDriver.dropDatabase("faults");
+	}
+	
+	
+	/* ԸزԣStandInDriverģƽ1Ĳѯ2ĸ£ͱջ3룬дʱļ */
+	@Test
+	public void testLoadInMultiTask() throws IOException, InterruptedException{
+		
+		StandInDriver.register();
+		
+		/* ļֻҪַû룬ʹĬֵ */
+		Path settingFile = Files.createTempFile("testLoad", ".properties");
+		Files.write(settingFile, ("url = jdbc:standin:load?queryLatency=exponential:1&updateLatency=exponential:2\n"
+				+ "userName = root\npassword = root\n").getBytes("ISO-8859-1"));
+		
+		ThreadPoolPack tp = new ThreadPoolPack(settingFile.toString(),10);
+		tp.createThreadPool(20, 0L);
+		
+		/* ÿ200020%Ϊ£֮ǰǷ */
+		LoadTest test = new LoadTest(tp);
+		test.setMode(LoadTest.Mode.OPEN);
+		test.setRate(2000);
+		test.setReadRatio(0.8);
+		test.setWarmup(1, TimeUnit.SECONDS);
+		test.setDuration(3, TimeUnit.SECONDS);
+		System.out.println(test.run());
+		
+		/* ջ32ߣ٣дJSONļ */
+		test.setMode(LoadTest.Mode.CLOSED);
+		test.setRate(0);
+		test.setConcurrency(32);
+		LoadTestReport report = test.run();
+		System.out.println(report);
+		
+		Path reportFile = Files.createTempFile("testLoad", ".json");
+		report.writeJson(reportFile.toFile());
+		System.out.println(new String(Files.readAllBytes(reportFile), "UTF-8"));
+		
+		Files.delete(reportFile);
+		Files.delete(settingFile);
+		tp.shutdownThreadPool();
+		tp.closeAllConnections();
+		StandInDriver.dropDatabase("load");
+	}
+	
+	
 	/* SQL²Update */
 	@Test
 	public void testUpdateInSingleTask(){
@@ -103,7 +643,7 @@ public class TestClient {
 		/* ļ̳߳ػ̳߳߳߳ == ӳ */
 		ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,5);
 		
-		/*̳߳أ߳Ϊ1̻߳ʱ䣨long0*/
+		/*̳߳أ߳Ϊ5Ծͬͬʱύ20񣬱̻߳ʱ䣨long0*/
 		tp.createThreadPool(20, 0L);
 		
 		/* ύ̳߳ */
@@ -118,6 +658,31 @@ public class TestClient {
 	}
 	
 	
+	/* SQL²Update񣨴͵Ĳ */
+	@Test
+	public void testTypedUpdateInSingleTask(){
+
+		/* ļ̳߳ػ̳߳߳߳ == ӳ */
+		ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,5);
+		
+		/*̳߳أ߳Ϊ5Ծͬͬʱύ20񣬱̻߳ʱ䣨long0*/
+		tp.createThreadPool(20, 0L);
+		
+		/* ύ̳߳أsalarydouble󶨣ҪȸʽΪַ */
+		String sql = "UPDATE userinfo SET password=?,salary=? WHERE username = ?";
+		SqlParameters parameters = new SqlParameters()
+				.setString(1, "nc")
+				.setDouble(2, 888888.00)
+				.setString(3, "maxwell");
+        Future<Integer> future = tp.submitSqlUpdate(sql,parameters);		
+        
+        tp.printUpdateResult(future);
+		
+		tp.shutdownThreadPool();
+		tp.closeAllConnections();
+	}
+	
+	
 	/* SQL²Insert */
 	@Test
 	public void testInsertInSingleTask(){
@@ -125,7 +690,7 @@ public class TestClient {
 		/* ļ̳߳ػ̳߳߳߳ == ӳ */
 		ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,5);
 		
-		/*̳߳أ߳Ϊ1̻߳ʱ䣨long0*/
+		/*̳߳أ߳Ϊ5Ծͬͬʱύ20񣬱̻߳ʱ䣨long0*/
 		tp.createThreadPool(20, 0L);
 		
 		/* ύ̳߳ */
@@ -147,7 +712,7 @@ public class TestClient {
 		/* ļ̳߳ػ̳߳߳߳ == ӳ */
 		ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,5);
 		
-		/*̳߳أ߳Ϊ1̻߳ʱ䣨long0*/
+		/*̳߳أ߳Ϊ5Ծͬͬʱύ20񣬱̻߳ʱ䣨long0*/
 		tp.createThreadPool(20, 0L);
 		
 		/* ύ̳߳ */
@@ -169,7 +734,7 @@ public class TestClient {
 		/* ļ̳߳ػ̳߳߳߳ == ӳ */
 		ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,5);
 		
-		/*̳߳أ߳Ϊ1̻߳ʱ䣨long0*/
+		/*̳߳أ߳Ϊ5Ծͬͬʱύ20񣬱̻߳ʱ䣨long0*/
 		tp.createThreadPool(20, 0L);
 		
 		/* ظύ */
@@ -185,9 +750,9 @@ public class TestClient {
 			future[i] = tp.submitSqlUpdate(sql,parameters);	
 		}
 		
-		/* ӡ
-		 * עʹõжgetCompletedTaskCount(),߳̿ڱ̳߳ؾܾ޷ִ */
-		for(int i=0;i<tp.getCompletedTaskCount();i++){			
+		/* ӡgetResultȴÿɣĬϵύBLOCKܾ
+		 * ֻӳٺtestLoadInMultiTaskLoadTest */
+		for(int i=0;i<future.length;i++){			
 			tp.printUpdateResult(future[i]);
 		}
 
@@ -203,7 +768,7 @@ public class TestClient {
 		/* ļ̳߳ػ̳߳߳߳ == ӳ */
 		ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,5);
 		
-		/*̳߳أ߳Ϊ1̻߳ʱ䣨long0*/
+		/*̳߳أ߳Ϊ5Ծͬͬʱύ20񣬱̻߳ʱ䣨long0*/
 		tp.createThreadPool(20, 0L);
 		
 		/* ظύ */
@@ -219,9 +784,9 @@ public class TestClient {
 			future[i] = tp.submitSqlUpdate(sql,parameters);	
 		}
 		
-		/* ӡ
-		 * עʹõжgetCompletedTaskCount(),߳̿ڱ̳߳ؾܾ޷ִ */
-		for(int i=0;i<tp.getCompletedTaskCount();i++){			
+		/* ӡgetResultȴÿɣĬϵύBLOCKܾ
+		 * ֻӳٺtestLoadInMultiTaskLoadTest */
+		for(int i=0;i<future.length;i++){			
 			tp.printUpdateResult(future[i]);
 		}
 
@@ -237,7 +802,7 @@ public class TestClient {
 		/* ļ̳߳ػ̳߳߳߳ == ӳ */
 		ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,5);
 		
-		/*̳߳أ߳Ϊ1̻߳ʱ䣨long0*/
+		/*̳߳أ߳Ϊ5Ծͬͬʱύ20񣬱̻߳ʱ䣨long0*/
 		tp.createThreadPool(20, 0L);
 		
 		/* ظύ */
@@ -253,9 +818,9 @@ public class TestClient {
 			future[i] = tp.submitSqlUpdate(sql,parameters);	
 		}
 		
-		/* ӡ
-		 * עʹõжgetCompletedTaskCount(),߳̿ڱ̳߳ؾܾ޷ִ */
-		for(int i=0;i<tp.getCompletedTaskCount();i++){			
+		/* ӡgetResultȴÿɣĬϵύBLOCKܾ
+		 * ֻӳٺtestLoadInMultiTaskLoadTest */
+		for(int i=0;i<future.length;i++){			
 			tp.printUpdateResult(future[i]);
 		}
 
@@ -277,7 +842,7 @@ public class TestClient {
 		/* ļ̳߳ػ̳߳߳߳ == ӳ */
 		ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,5);
 		
-		/*̳߳أ߳Ϊ1̻߳ʱ䣨long0*/
+		/*̳߳أ߳Ϊ5Ծͬͬʱύ20񣬱̻߳ʱ䣨long0*/
 		tp.createThreadPool(20, 0L);
 		
 		/* ظύ */
@@ -304,9 +869,9 @@ public class TestClient {
 			future[i] = tp.submitSqlUpdate(sql,parameters);	
 		}
 	
-		/* ӡ
-		 * עʹõжgetCompletedTaskCount(),߳̿ڱ̳߳ؾܾ޷ִ */
-		for(int i=0;i<tp.getCompletedTaskCount();i++){			
+		/* ӡgetResultȴÿɣĬϵύBLOCKܾ
+		 * ֻӳٺtestLoadInMultiTaskLoadTest */
+		for(int i=0;i<future.length;i++){			
 			tp.printUpdateResult(future[i]);
 		}
 
@@ -322,7 +887,7 @@ public class TestClient {
 		/* ļ̳߳ػ̳߳߳߳ == ӳ */
 		ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,5);
 		
-		/*̳߳أ߳Ϊ1̻߳ʱ䣨long0*/
+		/*̳߳أ߳Ϊ5Ծͬͬʱύ20񣬱̻߳ʱ䣨long0*/
 		tp.createThreadPool(20, 0L);
 		
 		/* ύ̳߳ */
@@ -334,7 +899,15 @@ public class TestClient {
         String[] sql2_params = { "fgn" };
         String[][] parameters = { sql1_params, sql2_params };
         
-		tp.submitSqlUpdateTransaction(sql,parameters);		
+		/* ӡÿĸعʱΪnull */
+		int[] counts = (int[]) tp.getResult(tp.submitSqlUpdateTransaction(sql,parameters));
+		System.out.println("ThreadPoolPackÿĸ " + Arrays.toString(counts));
+		
+		/* ͬϲΪһڵظ临ͬһԤ */
+		String[] repeatedSql = { sql1, sql1, sql1, sql2, sql1 };
+		String[][] repeatedParams = { { "xiaomi" }, { "test" }, { "dashi" }, { "maxwell" }, { "xiaomi" } };
+		counts = (int[]) tp.getResult(tp.submitSqlUpdateTransaction(repeatedSql,repeatedParams));
+		System.out.println("ThreadPoolPackÿĸ " + Arrays.toString(counts));
 
 		tp.shutdownThreadPool();
 		tp.closeAllConnections();
@@ -348,7 +921,7 @@ public class TestClient {
 		/* ļ̳߳ػ̳߳߳߳ == ӳ */
 		ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,5);
 		
-		/*̳߳أ߳Ϊ1̻߳ʱ䣨long0*/
+		/*̳߳أ߳Ϊ5Ծͬͬʱύ20񣬱̻߳ʱ䣨long0*/
 		tp.createThreadPool(20, 0L);
 		
 		/* ύ̳߳ */
@@ -368,4 +941,179 @@ public class TestClient {
 		tp.shutdownThreadPool();
 		tp.closeAllConnections();
 	}
+	
+	
+	/* SQLInsert񣨷ͣ */
+	@Test
+	public void testBatchInSingleTask(){
+
+		/* ļ̳߳ػ̳߳߳߳ == ӳ */
+		ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,5);
+		
+		/*̳߳أ߳Ϊ5Ծͬͬʱύ20񣬱̻߳ʱ䣨long0*/
+		tp.createThreadPool(20, 0L);
+		
+		/* ׼ÿһеĲ */
+		List<String[]> rows = new ArrayList<String[]>();
+		for(int i = 0;i < 200;i++){
+			String[] parameters = { "batch" + i, "123123", "male", "5000.00" };
+			rows.add(parameters);
+		}
+		
+		/* ύ̳߳أÿ50зһ */
+		String sql = "INSERT INTO userinfo (username,password,gender,salary) VALUES (?,?,?,?)";
+		Future<int[]> future = tp.submitSqlBatch(sql, rows, 50);
+		
+		int[] counts = (int[]) tp.getResult(future);
+		System.out.println("ThreadPoolPackִϣ " + counts.length + " ");
+		
+		/* ɾ */
+		tp.printUpdateResult(tp.submitSqlUpdate("DELETE FROM userinfo WHERE username LIKE 'batch%'"));
+		
+		tp.shutdownThreadPool();
+		tp.closeAllConnections();
+	}
+	
+	
+	/* ԿºϲSQL²InsertͬINSERT䱻ϲΪִ */
+	@Test
+	public void testCoalescedInsertInMultiTask(){
+		
+		/* ļ̳߳ػ̳߳߳߳ == ӳ */
+		ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,5);
+		
+		/*̳߳أ߳Ϊ5Ծͬͬʱύ20񣬱̻߳ʱ䣨long0*/
+		tp.createThreadPool(20, 0L);
+		
+		/* 10ڻ߻۵50ʱϲִ */
+		tp.enableUpdateCoalescing(10, 50);
+		
+		/* ظύ */
+		int repeatTimes = 200;
+		
+		/* ڱ治̵ͬ߳õĽ */
+		@SuppressWarnings("unchecked")
+		Future<Integer>[] future = new Future[repeatTimes];
+		
+		for(int i = 0;i < repeatTimes;i++){
+			String sql = "INSERT INTO userinfo (username,password,gender,salary) VALUES (?,?,?,?)";
+	        String[] parameters = { "coalesce" + i, "123123", "male", "5000.00" };
+			future[i] = tp.submitSqlUpdate(sql,parameters);	
+		}
+		
+		/* ӡÿFutureõԼһеĸ */
+		for(int i = 0;i < repeatTimes;i++){			
+			tp.printUpdateResult(future[i]);
+		}
+		
+		tp.disableUpdateCoalescing();
+		tp.printUpdateResult(tp.submitSqlUpdate("DELETE FROM userinfo WHERE username LIKE 'coalesce%'"));
+
+		tp.shutdownThreadPool();
+		tp.closeAllConnections();
+	}
+	
+	
+	/* 첽ӿڣͬʱύѯٺϲɺѯºĽʧܵĸµõԭ쳣 */
+	@Test
+	public void testAsyncInMultiTask(){
+		
+		/* ļ̳߳ػ̳߳߳߳ == ӳ */
+		final ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,5);
+		
+		/*̳߳أ߳Ϊ5Ծͬͬʱύ20񣬱̻߳ʱ䣨long0*/
+		tp.createThreadPool(20, 0L);
+		
+		/* ͬʱѯûȫɺͳƹܺͣύʱ */
+		final String sql = "SELECT * FROM userinfo WHERE username = ?";
+		String[] users = { "xiaomi", "test", "maxwell" };
+		final List<CompletableFuture<Double>> salaries = new ArrayList<CompletableFuture<Double>>();
+		for(String user : users){
+			salaries.add(tp.submitSqlQueryAsync(sql, user).thenApply(new Function<DetachedResultSet, Double>() {
+				@Override
+				public Double apply(DetachedResultSet rs) {
+					double salary = 0;
+					while(rs.next()){
+						salary += rs.getDouble("salary");
+					}
+					return Double.valueOf(salary);
+				}
+			}));
+		}
+		
+		CompletableFuture<Double> total = CompletableFuture.allOf(salaries.toArray(new CompletableFuture<?>[0]))
+				.thenApply(new Function<Void, Double>() {
+					@Override
+					public Double apply(Void v) {
+						double sum = 0;
+						for(CompletableFuture<Double> salary : salaries){
+							sum += salary.join().doubleValue();
+						}
+						return Double.valueOf(sum);
+					}
+				});
+		System.out.println("total salary:" + total.join());
+		
+		/* ɺٲѯºĽ */
+		DetachedResultSet rs = tp.submitSqlUpdateAsync("UPDATE userinfo SET salary=salary+1 WHERE username = ?", "maxwell")
+				.thenCompose(new Function<Integer, CompletionStage<DetachedResultSet>>() {
+					@Override
+					public CompletionStage<DetachedResultSet> apply(Integer count) {
+						return tp.submitSqlQueryAsync(sql, "maxwell");
+					}
+				})
+				.join();
+		while(rs.next()){
+			System.out.println("salary:" + rs.getDouble("salary"));
+		}
+		
+		/* صʽڣonFailureõԭ쳣 */
+		CompletableFuture<Throwable> failure = new CompletableFuture<Throwable>();
+		tp.submitSqlUpdateAsync("UPDATE not_exist_table SET salary=0", new SqlParameters(), new SqlCallback<Integer>() {
+			
+			@Override
+			public void onSuccess(Integer result) {
+				failure.complete(null);
+			}
+			
+			@Override
+			public void onFailure(Throwable e) {
+				failure.complete(e);
+			}
+		});
+		System.out.println("ThreadPoolPackʧ " + failure.join());
+		
+		tp.shutdownThreadPool();
+		tp.closeAllConnections();
+	}
+	
+	
+	/* ִ߳ģʽͬʱύĲѯԶӳеȴ */
+	@Test
+	public void testVirtualThreadSelectInMultiTask(){
+		
+		/* ļӳ */
+		ThreadPoolPack tp = new ThreadPoolPack(SETTING_FILE,5);
+		
+		/* ÿһ̣߳ͬʱύ1000 */
+		tp.createVirtualThreadPool(1000);
+		System.out.println("ThreadPoolPack߳ģʽ " + tp.isVirtualThreadPool());
+		
+		/* ظύ */
+		int repeatTimes = 500;
+		
+		List<Future<DetachedResultSet>> futures = new ArrayList<Future<DetachedResultSet>>();
+		for(int i = 0;i < repeatTimes;i++){
+			futures.add(tp.submitSqlQueryDetached("SELECT * FROM userinfo WHERE username = ?", "maxwell"));
+		}
+		
+		int rows = 0;
+		for(Future<DetachedResultSet> future : futures){
+			rows += ((DetachedResultSet) tp.getResult(future)).getRowCount();
+		}
+		System.out.println("ThreadPoolPackѯ " + rows + " У " + tp.getCompletedTaskCount());
+		
+		tp.shutdownThreadPool();
+		tp.closeAllConnections();
+	}
 }
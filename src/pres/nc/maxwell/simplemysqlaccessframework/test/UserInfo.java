@@ -0,0 +1,56 @@
+package pres.nc.maxwell.simplemysqlaccessframework.test;
+/**********************************************************************
+ * 	UserInfo.java
+ * 
+ *  userinfoһУڲԲѯתΪ
+ *  
+ **********************************************************************/
+
+
+public class UserInfo {
+
+	private String userName;
+	private String password;
+	private String gender;
+	private double salary;
+	
+	
+	public String getUserName() {
+		return userName;
+	}
+	
+	public void setUserName(String userName) {
+		this.userName = userName;
+	}
+	
+	public String getPassword() {
+		return password;
+	}
+	
+	public void setPassword(String password) {
+		this.password = password;
+	}
+	
+	public String getGender() {
+		return gender;
+	}
+	
+	public void setGender(String gender) {
+		this.gender = gender;
+	}
+	
+	public double getSalary() {
+		return salary;
+	}
+	
+	public void setSalary(double salary) {
+		this.salary = salary;
+	}
+	
+	
+	@Override
+	public String toString() {
+		return "userName:" + userName + " password:" + password + " gender:" + gender + " salary:" + salary;
+	}
+	
+}